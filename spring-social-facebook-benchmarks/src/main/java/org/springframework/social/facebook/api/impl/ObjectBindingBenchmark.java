@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.social.facebook.api.Event;
+import org.springframework.social.facebook.api.FacebookProfile;
+import org.springframework.social.facebook.api.Page;
+import org.springframework.social.facebook.api.Photo;
+import org.springframework.social.facebook.api.Post;
+import org.springframework.social.facebook.api.impl.json.FacebookModule;
+import org.springframework.util.FileCopyUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Measures binding single Graph API objects from the test fixtures through {@link FacebookModule} and its mixins, 
+ * as {@link FacebookTemplate#fetchObject(String, Class, String...)} does.
+ * @author Craig Walls
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ObjectBindingBenchmark {
+
+	private ObjectReader profileReader;
+
+	private ObjectReader pageReader;
+
+	private ObjectReader photoReader;
+
+	private ObjectReader eventReader;
+
+	private ObjectReader postReader;
+
+	private byte[] profileJson;
+
+	private byte[] pageJson;
+
+	private byte[] photoJson;
+
+	private byte[] eventJson;
+
+	private byte[] postJson;
+
+	@Setup
+	public void setup() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new FacebookModule());
+		profileReader = objectMapper.reader(FacebookProfile.class);
+		pageReader = objectMapper.reader(Page.class);
+		photoReader = objectMapper.reader(Photo.class);
+		eventReader = objectMapper.reader(Event.class);
+		postReader = objectMapper.reader(Post.class);
+		profileJson = fixture("full-profile");
+		pageJson = fixture("organization-page");
+		photoJson = fixture("photo");
+		eventJson = fixture("full-event");
+		postJson = fixture("post");
+	}
+
+	@Benchmark
+	public FacebookProfile profile() throws IOException {
+		return profileReader.readValue(profileJson);
+	}
+
+	@Benchmark
+	public Page page() throws IOException {
+		return pageReader.readValue(pageJson);
+	}
+
+	@Benchmark
+	public Photo photo() throws IOException {
+		return photoReader.readValue(photoJson);
+	}
+
+	@Benchmark
+	public Event event() throws IOException {
+		return eventReader.readValue(eventJson);
+	}
+
+	@Benchmark
+	public Post post() throws IOException {
+		return postReader.readValue(postJson);
+	}
+
+	static byte[] fixture(String name) throws IOException {
+		return FileCopyUtils.copyToByteArray(new ClassPathResource("org/springframework/social/facebook/api/" + name + ".json").getInputStream());
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import static org.springframework.social.facebook.api.impl.ObjectBindingBenchmark.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.social.facebook.api.Invitation;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.Photo;
+import org.springframework.social.facebook.api.Post;
+import org.springframework.social.facebook.api.Reference;
+import org.springframework.social.facebook.api.impl.json.FacebookModule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures reading pages of connections from the test fixtures, as {@link FacebookTemplate#fetchConnections(String, String, Class, String...)} 
+ * does with {@link PagedListExtractor}, and as {@link FeedTemplate} does with its post list extractor (including the path that 
+ * rewrites each post's type for connections such as "statuses").
+ * @author Craig Walls
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PagedListBindingBenchmark {
+
+	private PagedListExtractor<Post> postsExtractor;
+
+	private FeedTemplate.PostListExtractor feedExtractor;
+
+	private FeedTemplate.PostListExtractor typedFeedExtractor;
+
+	private PagedListExtractor<Reference> friendsExtractor;
+
+	private PagedListExtractor<Photo> photosExtractor;
+
+	private PagedListExtractor<Invitation> eventsExtractor;
+
+	private byte[] feedJson;
+
+	private byte[] friendsJson;
+
+	private byte[] photosJson;
+
+	private byte[] eventsJson;
+
+	@Setup
+	public void setup() throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new FacebookModule());
+		postsExtractor = new PagedListExtractor<Post>(objectMapper, Post.class);
+		feedExtractor = new FeedTemplate.PostListExtractor(objectMapper, null);
+		typedFeedExtractor = new FeedTemplate.PostListExtractor(objectMapper, "status");
+		friendsExtractor = new PagedListExtractor<Reference>(objectMapper, Reference.class);
+		photosExtractor = new PagedListExtractor<Photo>(objectMapper, Photo.class);
+		eventsExtractor = new PagedListExtractor<Invitation>(objectMapper, Invitation.class);
+		feedJson = fixture("feed");
+		friendsJson = fixture("friends");
+		photosJson = fixture("photos");
+		eventsJson = fixture("user-events");
+	}
+
+	@Benchmark
+	public PagedList<Post> connections_feed() throws IOException {
+		return postsExtractor.extractData(response(feedJson));
+	}
+
+	@Benchmark
+	public PagedList<Post> feedTemplate_feed() throws IOException {
+		return feedExtractor.extractData(response(feedJson));
+	}
+
+	@Benchmark
+	public PagedList<Post> feedTemplate_feedWithType() throws IOException {
+		return typedFeedExtractor.extractData(response(feedJson));
+	}
+
+	@Benchmark
+	public PagedList<Reference> connections_friends() throws IOException {
+		return friendsExtractor.extractData(response(friendsJson));
+	}
+
+	@Benchmark
+	public PagedList<Photo> connections_photos() throws IOException {
+		return photosExtractor.extractData(response(photosJson));
+	}
+
+	@Benchmark
+	public PagedList<Invitation> connections_events() throws IOException {
+		return eventsExtractor.extractData(response(eventsJson));
+	}
+
+	private MockClientHttpResponse response(byte[] body) {
+		return new MockClientHttpResponse(body, HttpStatus.OK);
+	}
+
+}
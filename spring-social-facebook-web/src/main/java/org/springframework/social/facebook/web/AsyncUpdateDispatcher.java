@@ -0,0 +1,399 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Hands real-time updates to {@link UpdateHandler}s on a pool of worker threads, so that {@link RealTimeUpdateController} may acknowledge each update to Facebook without waiting for the handlers.
+ * Updates wait for a worker in a bounded queue; what happens when that queue is full is decided by the dispatcher's {@link OverflowPolicy}.
+ * Each handler may also be limited in how many updates it handles at once, for handlers that call on resources of their own that are limited, such as a database connection pool.
+ * The dispatcher should be shut down with {@link #destroy()} when no longer needed, which happens automatically when it is declared as a Spring bean.
+ * @author Craig Walls
+ */
+public class AsyncUpdateDispatcher implements DisposableBean {
+
+	private final List<UpdateHandler> updateHandlers;
+
+	private final Map<UpdateHandler, HandlerMetrics> handlerMetrics;
+
+	private final ThreadPoolExecutor executor;
+
+	private final OverflowPolicy overflowPolicy;
+
+	private final AtomicLong accepted = new AtomicLong();
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * Constructs an AsyncUpdateDispatcher that rejects updates when its queue is full, leaving Facebook to deliver them again later.
+	 * @param updateHandlers the handlers to hand updates to, in the order they should be called
+	 * @param workers the number of worker threads
+	 * @param queueCapacity the number of updates that may wait for a worker
+	 */
+	public AsyncUpdateDispatcher(List<UpdateHandler> updateHandlers, int workers, int queueCapacity) {
+		this(updateHandlers, workers, queueCapacity, OverflowPolicy.REJECT);
+	}
+
+	/**
+	 * Constructs an AsyncUpdateDispatcher.
+	 * @param updateHandlers the handlers to hand updates to, in the order they should be called
+	 * @param workers the number of worker threads
+	 * @param queueCapacity the number of updates that may wait for a worker
+	 * @param overflowPolicy what to do with an update that arrives when the queue is full
+	 */
+	public AsyncUpdateDispatcher(List<UpdateHandler> updateHandlers, int workers, int queueCapacity, OverflowPolicy overflowPolicy) {
+		Assert.notNull(updateHandlers, "updateHandlers must not be null");
+		Assert.isTrue(workers > 0, "workers must be greater than 0");
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0");
+		Assert.notNull(overflowPolicy, "overflowPolicy must not be null");
+		this.updateHandlers = updateHandlers;
+		this.handlerMetrics = new LinkedHashMap<UpdateHandler, HandlerMetrics>();
+		for (UpdateHandler handler : updateHandlers) {
+			handlerMetrics.put(handler, new HandlerMetrics(workers));
+		}
+		this.overflowPolicy = overflowPolicy;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("facebook-realtime-");
+		threadFactory.setDaemon(true);
+		this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory);
+	}
+
+	/**
+	 * Limits the number of updates that a handler may handle at once.
+	 * By default, a handler may handle as many updates at once as there are workers.
+	 * Should be set before any updates are dispatched.
+	 * @param handler one of the dispatcher's handlers
+	 * @param maxConcurrency the number of updates that the handler may handle at once
+	 */
+	public void setHandlerConcurrency(UpdateHandler handler, int maxConcurrency) {
+		Assert.isTrue(handlerMetrics.containsKey(handler), "handler is not one of this dispatcher's handlers");
+		Assert.isTrue(maxConcurrency > 0, "maxConcurrency must be greater than 0");
+		handlerMetrics.put(handler, new HandlerMetrics(maxConcurrency));
+	}
+
+	/**
+	 * Queues an update to be handed to the handlers.
+	 * If the queue is full, the update is handled according to the dispatcher's {@link OverflowPolicy}.
+	 * @param subscription the subscription name
+	 * @param update the update
+	 * @return true if Facebook should be told the update was received; false if the update was rejected and should be delivered again later.
+	 */
+	public boolean dispatch(String subscription, RealTimeUpdate update) {
+		return dispatch(subscription, update, null);
+	}
+
+	/**
+	 * Queues an update to be handed to the handlers, with a callback for when the dispatcher is done with it.
+	 * The callback is called once every handler has been handed the update, whether or not they succeeded, or once the update has been dropped.
+	 * It is not called for an update that is rejected.
+	 * @param subscription the subscription name
+	 * @param update the update
+	 * @param onCompletion the callback, which may be null
+	 * @return true if Facebook should be told the update was received; false if the update was rejected and should be delivered again later.
+	 */
+	public boolean dispatch(String subscription, RealTimeUpdate update, Runnable onCompletion) {
+		DispatchTask task = new DispatchTask(subscription, update, onCompletion);
+		if (tryExecute(task)) {
+			return true;
+		}
+		if (executor.isShutdown()) {
+			rejected.incrementAndGet();
+			return false;
+		}
+		switch (overflowPolicy) {
+		case DROP_NEWEST:
+			drop(task);
+			return true;
+		case DROP_OLDEST:
+			Runnable oldest = executor.getQueue().poll();
+			if (oldest != null) {
+				drop((DispatchTask) oldest);
+			}
+			if (!tryExecute(task)) {
+				drop(task);
+			}
+			return true;
+		case CALLER_RUNS:
+			accepted.incrementAndGet();
+			task.run();
+			return true;
+		default:
+			rejected.incrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * @return the number of updates waiting for a worker
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * @return the number of updates that workers are currently handling
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * @return the number of updates accepted for handling
+	 */
+	public long getAcceptedCount() {
+		return accepted.get();
+	}
+
+	/**
+	 * @return the number of updates rejected because the queue was full
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	/**
+	 * @return the number of updates dropped because the queue was full, including older updates dropped to make room with {@link OverflowPolicy#DROP_OLDEST}
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return the metrics of each handler, in the order the handlers are called
+	 */
+	public Map<UpdateHandler, HandlerMetrics> getHandlerMetrics() {
+		return Collections.unmodifiableMap(handlerMetrics);
+	}
+
+	/**
+	 * Stops taking updates and waits briefly for those already queued to be handled.
+	 */
+	public void destroy() throws InterruptedException {
+		executor.shutdown();
+		if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			logger.warn(executor.shutdownNow().size() + " real-time updates were not handled before shutdown.");
+		}
+	}
+
+	/**
+	 * What to do with an update that arrives when the dispatcher's queue is full.
+	 */
+	public static enum OverflowPolicy {
+
+		/**
+		 * Refuses the update, so that the controller fails the request and Facebook delivers the update again later.
+		 */
+		REJECT,
+
+		/**
+		 * Acknowledges and discards the update.
+		 */
+		DROP_NEWEST,
+
+		/**
+		 * Discards the update that has waited longest to make room for the new one.
+		 */
+		DROP_OLDEST,
+
+		/**
+		 * Handles the update on the request thread, slowing the acknowledgment down as the synchronous controller does.
+		 */
+		CALLER_RUNS
+
+	}
+
+	/**
+	 * Measurements of a single handler.
+	 */
+	public static class HandlerMetrics {
+
+		private final Semaphore permits;
+
+		private final int maxConcurrency;
+
+		private final AtomicInteger active = new AtomicInteger();
+
+		private final AtomicInteger peakActive = new AtomicInteger();
+
+		private final AtomicLong handled = new AtomicLong();
+
+		private final AtomicLong failed = new AtomicLong();
+
+		private final AtomicLong handlingTime = new AtomicLong();
+
+		HandlerMetrics(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+			this.permits = new Semaphore(maxConcurrency);
+		}
+
+		/**
+		 * @return the number of updates that the handler may handle at once
+		 */
+		public int getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		/**
+		 * @return the number of updates the handler is currently handling
+		 */
+		public int getActiveCount() {
+			return active.get();
+		}
+
+		/**
+		 * @return the largest number of updates the handler has handled at once
+		 */
+		public int getPeakActiveCount() {
+			return peakActive.get();
+		}
+
+		/**
+		 * @return the number of updates the handler has handled without throwing an exception
+		 */
+		public long getHandledCount() {
+			return handled.get();
+		}
+
+		/**
+		 * @return the number of updates for which the handler threw an exception
+		 */
+		public long getFailedCount() {
+			return failed.get();
+		}
+
+		/**
+		 * @return the total time, in nanoseconds, that the handler has spent handling updates
+		 */
+		public long getHandlingTime() {
+			return handlingTime.get();
+		}
+
+		private void handle(UpdateHandler handler, String subscription, RealTimeUpdate update) throws InterruptedException {
+			permits.acquire();
+			try {
+				int current = active.incrementAndGet();
+				int peak;
+				while ((peak = peakActive.get()) < current && !peakActive.compareAndSet(peak, current)) {
+				}
+				long start = System.nanoTime();
+				try {
+					handler.handleUpdate(subscription, update);
+					handled.incrementAndGet();
+				} catch (RuntimeException e) {
+					failed.incrementAndGet();
+					logger.error("Update handler failed to handle " + update.getObject() + " update for '" + subscription + "'.", e);
+				} finally {
+					handlingTime.addAndGet(System.nanoTime() - start);
+					active.decrementAndGet();
+				}
+			} finally {
+				permits.release();
+			}
+		}
+
+	}
+
+	private class DispatchTask implements Runnable {
+
+		private final String subscription;
+
+		private final RealTimeUpdate update;
+
+		private final Runnable onCompletion;
+
+		public DispatchTask(String subscription, RealTimeUpdate update, Runnable onCompletion) {
+			this.subscription = subscription;
+			this.update = update;
+			this.onCompletion = onCompletion;
+		}
+
+		public void run() {
+			UpdateCompletion completion = new UpdateCompletion(new Runnable() {
+				public void run() {
+					complete();
+				}
+			});
+			completion.begin();
+			try {
+				for (UpdateHandler handler : updateHandlers) {
+					handlerMetrics.get(handler).handle(handler, subscription, update);
+				}
+			} catch (InterruptedException e) {
+				completion.abandon();
+				Thread.currentThread().interrupt();
+				return;
+			}
+			completion.end();
+		}
+
+		public void complete() {
+			if (onCompletion != null) {
+				try {
+					onCompletion.run();
+				} catch (RuntimeException e) {
+					logger.error("Completion callback failed for " + update.getObject() + " update for '" + subscription + "'.", e);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Hands an update to the handlers on the calling thread, as when replaying updates from an {@link UpdateJournal}.
+	 */
+	void handle(String subscription, RealTimeUpdate update, Runnable onCompletion) {
+		new DispatchTask(subscription, update, onCompletion).run();
+	}
+
+	private void drop(DispatchTask task) {
+		dropped.incrementAndGet();
+		logger.warn("Real-time update queue is full. Dropping " + task.update.getObject() + " update for '" + task.subscription + "'.");
+		task.complete();
+	}
+
+	private boolean tryExecute(DispatchTask task) {
+		try {
+			executor.execute(task);
+			accepted.incrementAndGet();
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+	private final static Log logger = LogFactory.getLog(AsyncUpdateDispatcher.class);
+
+}
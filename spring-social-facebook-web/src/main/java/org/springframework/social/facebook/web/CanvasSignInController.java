@@ -64,6 +64,8 @@ public class CanvasSignInController {
 
 	private final SignInAdapter signInAdapter;
 	
+	private final String clientSecret;
+
 	private final SignedRequestDecoder signedRequestDecoder;
 	
 	private String postSignInUrl = "/";
@@ -79,6 +81,7 @@ public class CanvasSignInController {
 		this.clientId = clientId;
 		this.canvasPage = canvasPage;
 		this.connectionFactoryLocator = connectionFactoryLocator;
+		this.clientSecret = clientSecret;
 		this.signedRequestDecoder = new SignedRequestDecoder(clientSecret);
 	}
 	
@@ -116,7 +119,7 @@ public class CanvasSignInController {
 			return new RedirectView(canvasPage, false);
 		}
 		
-		Map<String, ?> decodedSignedRequest = signedRequestDecoder.decodeSignedRequest(signedRequest);
+		Map<String, ?> decodedSignedRequest = decodeSignedRequest(request, signedRequest);
 		String accessToken = (String) decodedSignedRequest.get("oauth_token");
 		if (accessToken == null) {
 			debug("No access token in the signed_request parameter. Redirecting to the authorization dialog.");
@@ -171,6 +174,15 @@ public class CanvasSignInController {
 		};
 	}
 	
+	// shares the decoded signed_request with any argument resolvers through the request's FacebookRequestContext
+	private Map<String, ?> decodeSignedRequest(NativeWebRequest request, String signedRequest) throws SignedRequestException {
+		HttpServletRequest nativeRequest = request.getNativeRequest(HttpServletRequest.class);
+		if (nativeRequest == null) {
+			return signedRequestDecoder.decodeSignedRequest(signedRequest);
+		}
+		return FacebookRequestContext.getContext(nativeRequest, clientId, clientSecret, signedRequestDecoder).getSignedRequest();
+	}
+
 	private void debug(String string) {
 		if (logger.isDebugEnabled()) {
 			logger.debug(string);
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * An {@link UpdateHandler} that collects the entries of updates arriving within a window of time and hands them to another handler as a single update.
+ * Facebook often sends the same object's changes in several updates within a few seconds;
+ * entries for the same object are merged into one, with the union of their changed fields and the latest of their times,
+ * so that a handler that fetches the changed object's data fetches it once per window rather than once per entry.
+ * Entries are merged per subscription and object type, and the merged update is handed over once the window has passed since the first of its entries arrived.
+ * May be used with either the synchronous {@link RealTimeUpdateController} or an {@link AsyncUpdateDispatcher}.
+ * When the controller is given an {@link UpdateJournal}, the updates whose entries are being collected are only marked complete in the journal 
+ * once the merged update has been handed over, so that entries still waiting when the application stops are replayed when it starts again.
+ * Any entries still waiting are handed over by {@link #destroy()}, which happens automatically when the handler is declared as a Spring bean.
+ * @author Craig Walls
+ */
+public class CoalescingUpdateHandler implements UpdateHandler, DisposableBean {
+
+	private final UpdateHandler delegate;
+
+	private final long windowMillis;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Map<BatchKey, Batch> batches = new LinkedHashMap<BatchKey, Batch>();
+
+	private long receivedCount;
+
+	private long deliveredCount;
+
+	/**
+	 * Constructs a CoalescingUpdateHandler.
+	 * @param delegate the handler to hand merged updates to
+	 * @param windowMillis how long, in milliseconds, to collect entries before handing them over
+	 */
+	public CoalescingUpdateHandler(UpdateHandler delegate, long windowMillis) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.isTrue(windowMillis > 0, "windowMillis must be greater than 0");
+		this.delegate = delegate;
+		this.windowMillis = windowMillis;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("facebook-realtime-coalescer-");
+		threadFactory.setDaemon(true);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, threadFactory);
+	}
+
+	public void handleUpdate(String subscription, RealTimeUpdate update) {
+		if (update.getEntries() == null || update.getEntries().isEmpty()) {
+			return;
+		}
+		final BatchKey key = new BatchKey(subscription, update.getObject());
+		synchronized (batches) {
+			Batch batch = batches.get(key);
+			if (batch == null) {
+				batch = new Batch();
+				batches.put(key, batch);
+				scheduler.schedule(new Runnable() {
+					public void run() {
+						flush(key);
+					}
+				}, windowMillis, TimeUnit.MILLISECONDS);
+			}
+			for (RealTimeUpdate.Entry entry : update.getEntries()) {
+				MergedEntry merged = batch.entries.get(entry.getId());
+				if (merged == null) {
+					batch.entries.put(entry.getId(), new MergedEntry(entry));
+				} else {
+					merged.merge(entry);
+				}
+				receivedCount++;
+			}
+			Runnable completion = UpdateCompletion.defer();
+			if (completion != null) {
+				batch.completions.add(completion);
+			}
+		}
+	}
+
+	/**
+	 * Hands over every update still being collected without waiting for its window to pass.
+	 */
+	public void flush() {
+		List<BatchKey> keys;
+		synchronized (batches) {
+			keys = new ArrayList<BatchKey>(batches.keySet());
+		}
+		for (BatchKey key : keys) {
+			flush(key);
+		}
+	}
+
+	/**
+	 * @return the number of entries received
+	 */
+	public long getReceivedEntryCount() {
+		synchronized (batches) {
+			return receivedCount;
+		}
+	}
+
+	/**
+	 * @return the number of merged entries handed over; the difference from {@link #getReceivedEntryCount()} is the number of duplicate entries that were merged away
+	 */
+	public long getDeliveredEntryCount() {
+		synchronized (batches) {
+			return deliveredCount;
+		}
+	}
+
+	/**
+	 * Hands over any entries still being collected and stops the handler's timer.
+	 */
+	public void destroy() {
+		scheduler.shutdownNow();
+		flush();
+	}
+
+	private void flush(BatchKey key) {
+		final Batch batch;
+		synchronized (batches) {
+			batch = batches.remove(key);
+			if (batch == null) {
+				return;
+			}
+			deliveredCount += batch.entries.size();
+		}
+		List<RealTimeUpdate.Entry> entries = new ArrayList<RealTimeUpdate.Entry>(batch.entries.size());
+		for (MergedEntry merged : batch.entries.values()) {
+			entries.add(merged.toEntry());
+		}
+		// the merged update is complete (and so are the updates merged into it) once the delegate is done with it
+		UpdateCompletion completion = new UpdateCompletion(new Runnable() {
+			public void run() {
+				for (Runnable mergedCompletion : batch.completions) {
+					mergedCompletion.run();
+				}
+			}
+		});
+		completion.begin();
+		try {
+			delegate.handleUpdate(key.subscription, new RealTimeUpdate(key.object, entries));
+		} catch (RuntimeException e) {
+			logger.error("Update handler failed to handle " + key.object + " update for '" + key.subscription + "'.", e);
+		} finally {
+			completion.end();
+		}
+	}
+
+	private static class Batch {
+
+		private final Map<Long, MergedEntry> entries = new LinkedHashMap<Long, MergedEntry>();
+
+		private final List<Runnable> completions = new ArrayList<Runnable>();
+
+	}
+
+	private static class MergedEntry {
+
+		private final long id;
+
+		private long time;
+
+		private final Set<String> changedFields = new LinkedHashSet<String>();
+
+		public MergedEntry(RealTimeUpdate.Entry entry) {
+			this.id = entry.getId();
+			merge(entry);
+		}
+
+		public void merge(RealTimeUpdate.Entry entry) {
+			time = Math.max(time, entry.getTime());
+			if (entry.getChangedFields() != null) {
+				changedFields.addAll(entry.getChangedFields());
+			}
+		}
+
+		public RealTimeUpdate.Entry toEntry() {
+			return new RealTimeUpdate.Entry(id, time, new ArrayList<String>(changedFields));
+		}
+
+	}
+
+	private static class BatchKey {
+
+		private final String subscription;
+
+		private final String object;
+
+		public BatchKey(String subscription, String object) {
+			this.subscription = subscription;
+			this.object = object;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof BatchKey)) {
+				return false;
+			}
+			BatchKey other = (BatchKey) o;
+			return ObjectUtils.nullSafeEquals(subscription, other.subscription) && ObjectUtils.nullSafeEquals(object, other.object);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * ObjectUtils.nullSafeHashCode(subscription) + ObjectUtils.nullSafeHashCode(object);
+		}
+
+	}
+
+	private final static Log logger = LogFactory.getLog(CoalescingUpdateHandler.class);
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.util.ObjectUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The Facebook data sent with a single HTTP request: the "fbs_{appId}" cookie set by Facebook's JavaScript API and the signed_request parameter sent to canvas applications.
+ * Each is verified and parsed at most once per request, when first asked for, and the result is shared by 
+ * {@link FacebookWebArgumentResolver}, {@link SignedRequestArgumentResolver}, {@link CanvasSignInController}, and any controller that asks for the context with {@link #getContext(HttpServletRequest)}.
+ * The context is kept as a request attribute. It is created by the first of those components to need it, 
+ * or, so that controllers may rely on it being there, by a {@link FacebookRequestContextInterceptor} before the request is handled.
+ * @author Craig Walls
+ */
+public class FacebookRequestContext {
+
+	private final HttpServletRequest request;
+
+	private String appId;
+
+	private final String appSecret;
+
+	private SignedRequestDecoder signedRequestDecoder;
+
+	private Map<String, String> cookieData;
+
+	private JsonNode signedRequestPayload;
+
+	private SignedRequestException signedRequestException;
+
+	FacebookRequestContext(HttpServletRequest request, String appId, String appSecret, SignedRequestDecoder signedRequestDecoder) {
+		this.request = request;
+		this.appId = appId;
+		this.appSecret = appSecret;
+		this.signedRequestDecoder = signedRequestDecoder;
+	}
+
+	/**
+	 * Looks up the Facebook context of a request.
+	 * @param request the HTTP request
+	 * @return the request's Facebook context, or null if none has been created for it
+	 */
+	public static FacebookRequestContext getContext(HttpServletRequest request) {
+		return (FacebookRequestContext) request.getAttribute(CONTEXT_ATTRIBUTE);
+	}
+
+	/**
+	 * Looks up the Facebook context of a request, creating it if none has been created for it with the same app secret.
+	 * @param appId the application's Facebook App ID, or null if the caller does not know it and needs no cookie data
+	 * @param signedRequestDecoder the caller's decoder for the app secret, or null if the caller only needs cookie data; 
+	 * 			one is created when the signed request is first asked for if no caller has given one
+	 */
+	static FacebookRequestContext getContext(HttpServletRequest request, String appId, String appSecret, SignedRequestDecoder signedRequestDecoder) {
+		FacebookRequestContext context = getContext(request);
+		if (context != null && ObjectUtils.nullSafeEquals(context.appSecret, appSecret)) {
+			if (context.appId == null && appId != null) {
+				context.appId = appId;
+			}
+			if (context.signedRequestDecoder == null && signedRequestDecoder != null) {
+				context.signedRequestDecoder = signedRequestDecoder;
+			}
+			return context;
+		}
+		context = new FacebookRequestContext(request, appId, appSecret, signedRequestDecoder);
+		request.setAttribute(CONTEXT_ATTRIBUTE, context);
+		return context;
+	}
+
+	/**
+	 * Returns the data of the request's Facebook cookie as key/value pairs, as extracted by {@link FacebookCookieParser}.
+	 * @return the cookie data, or an empty Map if the request carries no Facebook cookie or the cookie's signature is invalid.
+	 * @throws IllegalStateException if the context was created without the application's App ID
+	 */
+	public Map<String, String> getCookieData() {
+		if (cookieData == null) {
+			if (appId == null) {
+				throw new IllegalStateException("The application's Facebook App ID is required to read the Facebook cookie");
+			}
+			cookieData = FacebookCookieParser.getFacebookCookieData(request.getCookies(), appId, appSecret);
+		}
+		return cookieData;
+	}
+
+	/**
+	 * @return true if the request carries a signed_request parameter
+	 */
+	public boolean hasSignedRequest() {
+		return request.getParameter(SIGNED_REQUEST_PARAMETER) != null;
+	}
+
+	/**
+	 * Returns the payload of the request's signed_request parameter as a Map.
+	 * @return the payload, or null if the request carries no signed_request parameter
+	 * @throws SignedRequestException if the signed request could not be decoded
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, ?> getSignedRequest() throws SignedRequestException {
+		return getSignedRequest(Map.class);
+	}
+
+	/**
+	 * Returns the payload of the request's signed_request parameter as a specified type.
+	 * The signed request is verified once per request, but the payload is bound to a new object each time it is asked for, 
+	 * so that callers never see each other's changes to it.
+	 * @param type the type to bind the payload to
+	 * @param <T> the Java type to bind the payload to
+	 * @return the payload, or null if the request carries no signed_request parameter
+	 * @throws SignedRequestException if the signed request could not be decoded
+	 */
+	public <T> T getSignedRequest(Class<T> type) throws SignedRequestException {
+		if (signedRequestException != null) {
+			throw signedRequestException;
+		}
+		if (signedRequestPayload == null) {
+			String signedRequest = request.getParameter(SIGNED_REQUEST_PARAMETER);
+			if (signedRequest == null) {
+				return null;
+			}
+			if (signedRequestDecoder == null) {
+				signedRequestDecoder = new SignedRequestDecoder(appSecret);
+			}
+			try {
+				signedRequestPayload = signedRequestDecoder.verify(signedRequest);
+			} catch (SignedRequestException e) {
+				signedRequestException = e;
+				throw e;
+			}
+		}
+		return signedRequestDecoder.bind(signedRequestPayload, type);
+	}
+
+	private static final String CONTEXT_ATTRIBUTE = FacebookRequestContext.class.getName();
+
+	private static final String SIGNED_REQUEST_PARAMETER = "signed_request";
+
+}
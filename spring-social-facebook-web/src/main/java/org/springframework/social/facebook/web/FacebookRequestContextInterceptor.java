@@ -0,0 +1,53 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Interceptor that gives each request a {@link FacebookRequestContext}, so that controllers may look it up with {@link FacebookRequestContext#getContext(HttpServletRequest)}.
+ * The context's cookie and signed_request data are only verified and parsed once asked for.
+ * @author Craig Walls
+ */
+public class FacebookRequestContextInterceptor extends HandlerInterceptorAdapter {
+
+	private final String appId;
+
+	private final String appSecret;
+
+	private final SignedRequestDecoder signedRequestDecoder;
+
+	/**
+	 * Construct a FacebookRequestContextInterceptor given the Facebook app id and secret.
+	 * @param appId the application's Facebook App ID
+	 * @param appSecret the application's Facebook App Secret
+	 */
+	public FacebookRequestContextInterceptor(String appId, String appSecret) {
+		this.appId = appId;
+		this.appSecret = appSecret;
+		this.signedRequestDecoder = new SignedRequestDecoder(appSecret);
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+		FacebookRequestContext.getContext(request, appId, appSecret, signedRequestDecoder);
+		return true;
+	}
+
+}
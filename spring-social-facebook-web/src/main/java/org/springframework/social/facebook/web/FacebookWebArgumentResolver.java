@@ -30,6 +30,7 @@ import org.springframework.web.context.request.NativeWebRequest;
  * This web argument resolver extracts that information from the cookie (if available) and supplies it to a controller handler method as String values. 
  * {@link FacebookCookieValue} is required by default. If the cookie value cannot be resolved and if the annotation is set to be 
  * required, an exception will be thrown indicating an illegal state. If the annotation is set to not be required, null will be returned.
+ * The cookie is verified and parsed once per request, however many parameters are resolved from it, and shared through the request's {@link FacebookRequestContext}.
  * @author Craig Walls
  */
 public class FacebookWebArgumentResolver implements WebArgumentResolver {
@@ -55,7 +56,7 @@ public class FacebookWebArgumentResolver implements WebArgumentResolver {
 			return WebArgumentResolver.UNRESOLVED;
 		}
 		HttpServletRequest nativeRequest = (HttpServletRequest) request.getNativeRequest();
-		Map<String, String> cookieData = FacebookCookieParser.getFacebookCookieData(nativeRequest.getCookies(), appId, appSecret);
+		Map<String, String> cookieData = FacebookRequestContext.getContext(nativeRequest, appId, appSecret, null).getCookieData();
 		String key = annotation.value();
 		if (!cookieData.containsKey(key) && annotation.required()) {
 			throw new IllegalStateException("Missing required Facebook cookie value '" + key + "'");
@@ -33,6 +33,19 @@ public class RealTimeUpdate {
 	
 	@JsonProperty("entry")
 	private List<Entry> entries;
+
+	RealTimeUpdate() {
+	}
+
+	/**
+	 * Constructs a RealTimeUpdate, as when combining several updates into one.
+	 * @param object the object type that changed
+	 * @param entries the entries that changed
+	 */
+	public RealTimeUpdate(String object, List<Entry> entries) {
+		this.object = object;
+		this.entries = entries;
+	}
 		
 	/**
 	 * @return the object type that changed (e.g., "user", "page", etc).
@@ -61,6 +74,21 @@ public class RealTimeUpdate {
 		
 		@JsonProperty("changed_fields")
 		private List<String> changedFields;
+
+		Entry() {
+		}
+
+		/**
+		 * Constructs an Entry.
+		 * @param id the ID of the object that changed
+		 * @param time the time of the change in seconds since Jan 1, 1970
+		 * @param changedFields the fields that changed on the object
+		 */
+		public Entry(long id, long time, List<String> changedFields) {
+			this.id = id;
+			this.time = time;
+			this.changedFields = changedFields;
+		}
 		
 		/**
 		 * @return the ID of the object that changed (e.g., if the object is a "user", then this is the user's Facebook ID).
@@ -25,6 +25,7 @@ import javax.crypto.spec.SecretKeySpec;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.codec.Hex;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -33,6 +34,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -46,6 +48,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * </ul>
  * 
  * Note that these requests are performed by Facebook and are not typically linked to or otherwise called in a web application.
+ * 
+ * By default, updates are handed to the handlers on the request thread, and Facebook's request is only answered once every handler has returned.
+ * Constructed with an {@link AsyncUpdateDispatcher}, the controller instead answers as soon as the update's signature has been verified and the update queued,
+ * leaving the dispatcher's workers to hand it to the handlers.
+ * To not lose updates that have been answered but not yet handled when the application stops, the controller may also be given an {@link UpdateJournal}.
  * @author Craig Walls
  */
 @Controller
@@ -56,8 +63,12 @@ public class RealTimeUpdateController {
 	
 	private List<UpdateHandler> updateHandlers;
 
+	private AsyncUpdateDispatcher updateDispatcher;
+
 	private String applicationSecret;
 
+	private UpdateJournal updateJournal;
+
 	/**
 	 * Constructs a RealTimeUpdateController.
 	 * @param tokens A map of subscription names to verification tokens.
@@ -70,6 +81,51 @@ public class RealTimeUpdateController {
 		this.applicationSecret = applicationSecret;
 	}
 
+	/**
+	 * Constructs a RealTimeUpdateController that hands updates to its handlers asynchronously.
+	 * @param tokens A map of subscription names to verification tokens.
+	 * @param updateDispatcher An {@link AsyncUpdateDispatcher} that hands incoming updates to its handlers.
+	 * @param applicationSecret the application's Facebook App Secret
+	 */
+	public RealTimeUpdateController(Map<String, String> tokens, AsyncUpdateDispatcher updateDispatcher, String applicationSecret) {
+		this.tokens = tokens;
+		this.updateDispatcher = updateDispatcher;
+		this.applicationSecret = applicationSecret;
+	}
+
+	/**
+	 * Sets a journal that updates are appended to before Facebook is answered, and marked complete in once they have been handled.
+	 * Any updates in the journal that were not marked complete, such as those received shortly before the application last stopped, 
+	 * are handed to the handlers on the calling thread before this method returns.
+	 * @param updateJournal the journal
+	 */
+	public void setUpdateJournal(final UpdateJournal updateJournal) {
+		int replayed = updateJournal.replay(new UpdateJournal.ReplayCallback() {
+			public void replay(final long recordId, String subscription, String payload) {
+				Runnable onCompletion = new Runnable() {
+					public void run() {
+						updateJournal.complete(recordId);
+					}
+				};
+				try {
+					RealTimeUpdate update = OBJECT_MAPPER.readValue(payload, RealTimeUpdate.class);
+					if (updateDispatcher != null) {
+						updateDispatcher.handle(subscription, update, onCompletion);
+					} else {
+						handleUpdate(subscription, update, onCompletion);
+					}
+				} catch (Exception e) {
+					logger.error("Failed to replay update for '" + subscription + "' from the update journal.", e);
+					onCompletion.run();
+				}
+			}
+		});
+		if (replayed > 0) {
+			logger.info("Replayed " + replayed + " updates from the update journal.");
+		}
+		this.updateJournal = updateJournal;
+	}
+
 	/**
 	 * Handles subscription verification callback from Facebook.
 	 * @param subscription The subscription name.
@@ -100,20 +156,45 @@ public class RealTimeUpdateController {
 			@RequestBody String payload,
 			@RequestHeader(X_HUB_SIGNATURE) String signature) throws Exception {
 
+		if (!verifySignature(payload, signature)) {
+			logger.warn("Received an update, but signature was invalid. Not delegating to handlers.");
+			return "";
+		}
 		// Can only read body once and we need it as a raw String to calculate the signature.
 		// Therefore, use Jackson ObjectMapper to give us a RealTimeUpdate object from that raw String.
-		RealTimeUpdate update = new ObjectMapper().readValue(payload, RealTimeUpdate.class);		
-		if (verifySignature(payload, signature)) {
-			logger.debug("Received " + update.getObject() + " update for '" + subscription + "'.");
-			for (UpdateHandler handler : updateHandlers) {
-				handler.handleUpdate(subscription, update);
+		RealTimeUpdate update = OBJECT_MAPPER.readValue(payload, RealTimeUpdate.class);
+		logger.debug("Received " + update.getObject() + " update for '" + subscription + "'.");
+		final long recordId = updateJournal != null ? updateJournal.append(subscription, payload) : -1;
+		Runnable onCompletion = updateJournal != null ? new Runnable() {
+			public void run() {
+				updateJournal.complete(recordId);
+			}
+		} : null;
+		if (updateDispatcher != null) {
+			if (!updateDispatcher.dispatch(subscription, update, onCompletion)) {
+				if (onCompletion != null) {
+					onCompletion.run();
+				}
+				throw new UpdateRejectedException();
 			}
 		} else {
-			logger.warn("Received an update, but signature was invalid. Not delegating to handlers.");
+			handleUpdate(subscription, update, onCompletion);
 		}
 		return "";
 	}
 
+	private void handleUpdate(String subscription, RealTimeUpdate update, Runnable onCompletion) {
+		UpdateCompletion completion = new UpdateCompletion(onCompletion);
+		completion.begin();
+		try {
+			for (UpdateHandler handler : updateHandlers) {
+				handler.handleUpdate(subscription, update);
+			}
+		} finally {
+			completion.end();
+		}
+	}
+
 	private boolean verifySignature(String payload, String signature) throws Exception {
 		if (!signature.startsWith("sha1=")) {
 			return false;
@@ -127,6 +208,18 @@ public class RealTimeUpdateController {
 		return expected.equals(actual);
 	}
 
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	@SuppressWarnings("serial")
+	private static class UpdateRejectedException extends RuntimeException {
+
+		public UpdateRejectedException() {
+			super("Real-time update was rejected. Facebook will deliver it again later.");
+		}
+
+	}
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
 	private static final String HMAC_SHA1_ALGORITHM = "HmacSHA1";
 
 	private static final String X_HUB_SIGNATURE = "X-Hub-Signature";
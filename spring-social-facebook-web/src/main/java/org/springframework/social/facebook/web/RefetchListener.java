@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Callback interface for objects refetched by {@link RefetchingUpdateHandler}.
+ * @author Craig Walls
+ */
+public interface RefetchListener {
+
+	/**
+	 * Called with the objects refetched for a real-time update.
+	 * @param subscription the subscription name
+	 * @param objectType the type of the objects that changed (e.g., "user", "page", etc).
+	 * @param objects the refetched objects, keyed by ID. Each holds the object's "id" and only the fields that changed.
+	 */
+	void objectsRefetched(String subscription, String objectType, Map<String, JsonNode> objects);
+
+}
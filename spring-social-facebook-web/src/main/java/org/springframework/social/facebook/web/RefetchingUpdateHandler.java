@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.springframework.social.facebook.api.BatchRequest;
+import org.springframework.social.facebook.api.BatchResult;
+import org.springframework.social.facebook.api.GraphApi;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An {@link UpdateHandler} that fetches only the fields that changed on each object named in a real-time update, 
+ * and hands the refetched objects to a {@link RefetchListener}.
+ * Each object is fetched once, with the union of the fields changed by all of its entries in the update.
+ * Objects whose changed fields are the same are fetched together through the Graph API's "ids" parameter, 
+ * and when an update needs more than one such request, the requests are sent together as a batch.
+ * Entries that name no changed fields are not fetched.
+ * Exceptions thrown while fetching are not caught, so that they are reported by the controller or dispatcher handing over the update.
+ * @author Craig Walls
+ */
+public class RefetchingUpdateHandler implements UpdateHandler {
+
+	private final GraphApi graphApi;
+
+	private final RefetchListener listener;
+
+	/**
+	 * Constructs a RefetchingUpdateHandler.
+	 * @param graphApi the Graph API to fetch objects with, authorized to read the objects that updates will be received for (typically with an app access token)
+	 * @param listener the listener to hand refetched objects to
+	 */
+	public RefetchingUpdateHandler(GraphApi graphApi, RefetchListener listener) {
+		Assert.notNull(graphApi, "graphApi must not be null");
+		Assert.notNull(listener, "listener must not be null");
+		this.graphApi = graphApi;
+		this.listener = listener;
+	}
+
+	public void handleUpdate(String subscription, RealTimeUpdate update) {
+		List<MultiValueMap<String, String>> requests = buildRequests(update);
+		if (requests.isEmpty()) {
+			return;
+		}
+		Map<String, JsonNode> objects = new LinkedHashMap<String, JsonNode>();
+		if (requests.size() == 1) {
+			collect(graphApi.fetchObject("", JsonNode.class, requests.get(0)), objects);
+		} else {
+			BatchRequest batch = graphApi.newBatch();
+			List<BatchResult<JsonNode>> results = new ArrayList<BatchResult<JsonNode>>(requests.size());
+			for (MultiValueMap<String, String> request : requests) {
+				results.add(batch.fetchObject("", JsonNode.class, request));
+			}
+			batch.execute();
+			for (BatchResult<JsonNode> result : results) {
+				collect(result.get(), objects);
+			}
+		}
+		listener.objectsRefetched(subscription, update.getObject(), objects);
+	}
+
+	// unions the changed fields of each object's entries, then groups the objects by those fields, with one request per group of up to MAX_IDS_PER_REQUEST IDs
+	private List<MultiValueMap<String, String>> buildRequests(RealTimeUpdate update) {
+		Map<String, TreeSet<String>> fieldsById = new LinkedHashMap<String, TreeSet<String>>();
+		if (update.getEntries() != null) {
+			for (RealTimeUpdate.Entry entry : update.getEntries()) {
+				if (entry.getChangedFields() == null || entry.getChangedFields().isEmpty()) {
+					continue;
+				}
+				String id = String.valueOf(entry.getId());
+				TreeSet<String> fields = fieldsById.get(id);
+				if (fields == null) {
+					fields = new TreeSet<String>();
+					fields.add("id");
+					fieldsById.put(id, fields);
+				}
+				fields.addAll(entry.getChangedFields());
+			}
+		}
+		Map<String, List<String>> idsByFields = new LinkedHashMap<String, List<String>>();
+		for (Map.Entry<String, TreeSet<String>> object : fieldsById.entrySet()) {
+			String joinedFields = StringUtils.collectionToCommaDelimitedString(object.getValue());
+			List<String> ids = idsByFields.get(joinedFields);
+			if (ids == null) {
+				ids = new ArrayList<String>();
+				idsByFields.put(joinedFields, ids);
+			}
+			ids.add(object.getKey());
+		}
+		List<MultiValueMap<String, String>> requests = new ArrayList<MultiValueMap<String, String>>();
+		for (Map.Entry<String, List<String>> group : idsByFields.entrySet()) {
+			List<String> ids = group.getValue();
+			for (int start = 0; start < ids.size(); start += GraphApi.MAX_IDS_PER_REQUEST) {
+				MultiValueMap<String, String> request = new LinkedMultiValueMap<String, String>();
+				request.set("ids", StringUtils.collectionToCommaDelimitedString(ids.subList(start, Math.min(start + GraphApi.MAX_IDS_PER_REQUEST, ids.size()))));
+				request.set("fields", group.getKey());
+				requests.add(request);
+			}
+		}
+		return requests;
+	}
+
+	private void collect(JsonNode response, Map<String, JsonNode> objects) {
+		if (response == null) {
+			return;
+		}
+		for (Iterator<Map.Entry<String, JsonNode>> fields = response.fields(); fields.hasNext(); ) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			objects.put(field.getKey(), field.getValue());
+		}
+	}
+
+}
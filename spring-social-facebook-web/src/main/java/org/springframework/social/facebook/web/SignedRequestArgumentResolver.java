@@ -17,6 +17,8 @@ package org.springframework.social.facebook.web;
 
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.core.MethodParameter;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -31,13 +33,18 @@ import org.springframework.web.method.support.ModelAndViewContainer;
  * Binds JSON payload of the signed_request parameter to the parameter type.
  * JSON properties named with underbar (_) separates will be converted to camel-case when binding to field name. (e.g., "user_id" will bind to a property named "userId").
  * Any JSON properties without corresponding fields in the target type will be ignored.
+ * The signed_request is verified once per request, however many parameters are bound to it, through the request's {@link FacebookRequestContext};
+ * its payload is then bound afresh for each parameter, so that parameters never share an object.
  * @author Craig Walls
  */
 public class SignedRequestArgumentResolver implements HandlerMethodArgumentResolver {
 
+	private final String appSecret;
+
 	private final SignedRequestDecoder signedRequestDecoder;
 
 	public SignedRequestArgumentResolver(String appSecret) {
+		this.appSecret = appSecret;
 		this.signedRequestDecoder = new SignedRequestDecoder(appSecret);
 	}
 	
@@ -61,11 +68,19 @@ public class SignedRequestArgumentResolver implements HandlerMethodArgumentResol
 		}
 		Class<?> parameterType = parameter.getParameterType();
 		if (MultiValueMap.class.isAssignableFrom(parameterType)) {
-			Map map = signedRequestDecoder.decodeSignedRequest(signedRequest, Map.class);
+			Map map = decodeSignedRequest(request, signedRequest, Map.class);
 			LinkedMultiValueMap<String, Object> mvm = new LinkedMultiValueMap<String, Object>(map.size());
 			mvm.setAll((Map<String, Object>) map);
 			return mvm;
 		}
-		return signedRequestDecoder.decodeSignedRequest(signedRequest, parameterType);
+		return decodeSignedRequest(request, signedRequest, parameterType);
+	}
+
+	private <T> T decodeSignedRequest(NativeWebRequest request, String signedRequest, Class<T> type) throws SignedRequestException {
+		HttpServletRequest nativeRequest = request.getNativeRequest(HttpServletRequest.class);
+		if (nativeRequest == null) {
+			return signedRequestDecoder.decodeSignedRequest(signedRequest, type);
+		}
+		return FacebookRequestContext.getContext(nativeRequest, null, appSecret, signedRequestDecoder).getSignedRequest(type);
 	}
 }
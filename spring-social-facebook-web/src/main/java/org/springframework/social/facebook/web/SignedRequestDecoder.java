@@ -17,38 +17,70 @@ package org.springframework.social.facebook.web;
 
 import java.io.IOException;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
-import org.springframework.security.crypto.codec.Base64;
-
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 
 /**
  * Utility class for extracting the payload of a signed request sent by Facebook.
+ * The signature is verified before the payload is parsed, so that forged requests are turned away without any JSON work, 
+ * and the payload is then parsed once.
+ * Recently verified signed requests are remembered, so that a signed request sent again, as with each page load of a canvas application, is not verified and parsed again.
+ * Instances are thread-safe.
  * @author Craig Walls
  */
 public class SignedRequestDecoder {
 	
-	private String secret;
+	private final SecretKeySpec secretKeySpec;
+
+	private final ObjectMapper objectMapper;
 
-	private ObjectMapper objectMapper;
+	private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>() {
+		@Override
+		protected Mac initialValue() {
+			try {
+				Mac mac = Mac.getInstance(HMAC_SHA256_MAC_NAME);
+				mac.init(secretKeySpec);
+				return mac;
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			} catch (InvalidKeyException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+
+	private volatile Map<String, JsonNode> verifiedPayloads = createCache(DEFAULT_CACHE_SIZE);
 
 	/**
 	 * @param secret the application secret used in creating and verifying the signature of the signed request.
 	 */
 	public SignedRequestDecoder(String secret) {
-		this.secret = secret;
+		this.secretKeySpec = new SecretKeySpec(secret.getBytes(), HMAC_SHA256_MAC_NAME);
 		this.objectMapper = new ObjectMapper();
 		this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 		this.objectMapper.setPropertyNamingStrategy(PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
 	}
+
+	/**
+	 * Sets the number of recently verified signed requests to remember.
+	 * Defaults to 1024. Set to 0 to verify and parse every signed request.
+	 * @param cacheSize the number of signed requests to remember
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.verifiedPayloads = createCache(cacheSize);
+	}
 	
 	/**
 	 * Decodes a signed request, returning the payload of the signed request as a Map
@@ -70,53 +102,139 @@ public class SignedRequestDecoder {
 	 * @throws SignedRequestException if there is an error decoding the signed request
 	 */
 	public <T> T decodeSignedRequest(String signedRequest, Class<T> type) throws SignedRequestException {
-		String[] split = signedRequest.split("\\.");
-		String encodedSignature = split[0];
-		String payload = split[1];		
-		String decoded = base64DecodeToString(payload);		
-		byte[] signature = base64DecodeToBytes(encodedSignature);
+		return bind(verify(signedRequest), type);
+	}
+
+	/**
+	 * Verifies a signed request's signature and parses its payload, or looks up the payload if the signed request has already been verified.
+	 * The payload returned may be shared, and so must not be modified.
+	 */
+	JsonNode verify(String signedRequest) throws SignedRequestException {
+		Map<String, JsonNode> cache = verifiedPayloads;
+		JsonNode payload = cache != null ? cache.get(signedRequest) : null;
+		if (payload == null) {
+			payload = verifyAndParse(signedRequest);
+			if (cache != null) {
+				cache.put(signedRequest, payload);
+			}
+		}
+		return payload;
+	}
+
+	/**
+	 * Binds a verified payload to a new object of the specified type.
+	 */
+	<T> T bind(JsonNode payload, Class<T> type) throws SignedRequestException {
+		if (type.isInstance(payload)) {
+			// treeToValue would hand back the shared payload itself
+			return type.cast(payload.deepCopy());
+		}
 		try {
-			T data = objectMapper.readValue(decoded, type);			
-			String algorithm = objectMapper.readTree(decoded).get("algorithm").textValue();
-			if (algorithm == null || !algorithm.equals("HMAC-SHA256")) {
-				throw new SignedRequestException("Unknown encryption algorithm: " + algorithm);
-			}			
-			byte[] expectedSignature = encrypt(payload, secret);
-			if (!Arrays.equals(expectedSignature, signature)) {
-				throw new SignedRequestException("Invalid signature.");
-			}			
-			return data;
+			return objectMapper.treeToValue(payload, type);
 		} catch (IOException e) {
 			throw new SignedRequestException("Error parsing payload.", e);
 		}
 	}
 
-	private String padForBase64(String base64) {
-		return base64 + PADDING.substring(0, (4-base64.length() % 4) % 4);
+	private JsonNode verifyAndParse(String signedRequest) throws SignedRequestException {
+		int separator = signedRequest.indexOf('.');
+		if (separator < 0) {
+			throw new SignedRequestException("Invalid signed request.");
+		}
+		byte[] signature = base64UrlDecode(signedRequest, 0, separator);
+		if (signature == null || !MessageDigest.isEqual(sign(signedRequest, separator + 1), signature)) {
+			throw new SignedRequestException("Invalid signature.");
+		}
+		byte[] payloadBytes = base64UrlDecode(signedRequest, separator + 1, signedRequest.length());
+		JsonNode payload;
+		try {
+			payload = payloadBytes != null ? objectMapper.readTree(payloadBytes) : null;
+		} catch (IOException e) {
+			throw new SignedRequestException("Error parsing payload.", e);
+		}
+		if (payload == null || !payload.isObject()) {
+			throw new SignedRequestException("Error parsing payload.");
+		}
+		String algorithm = payload.path("algorithm").textValue();
+		if (algorithm == null || !algorithm.equals("HMAC-SHA256")) {
+			throw new SignedRequestException("Unknown encryption algorithm: " + algorithm);
+		}
+		return payload;
 	}
 
-	private byte[] base64DecodeToBytes(String in) {
-		return Base64.decode(padForBase64(in.replace('_', '/').replace('-', '+')).getBytes());
+	// signs the encoded payload, which is base64url and so ASCII, without copying it into a separate String first
+	private byte[] sign(String signedRequest, int payloadStart) {
+		Mac mac = macs.get();
+		byte[] block = new byte[Math.min(SIGNING_BLOCK_SIZE, signedRequest.length() - payloadStart)];
+		for (int start = payloadStart; start < signedRequest.length(); start += block.length) {
+			int length = Math.min(block.length, signedRequest.length() - start);
+			for (int i = 0; i < length; i++) {
+				block[i] = (byte) signedRequest.charAt(start + i);
+			}
+			mac.update(block, 0, length);
+		}
+		return mac.doFinal();
 	}
 
-	private String base64DecodeToString(String in) {
-		return new String(base64DecodeToBytes(in));
+	// decodes unpadded base64url, returning null if the characters are not valid base64url
+	private static byte[] base64UrlDecode(String in, int start, int end) {
+		while (end > start && in.charAt(end - 1) == '=') {
+			end--;
+		}
+		int length = end - start;
+		if (length % 4 == 1) {
+			return null;
+		}
+		byte[] out = new byte[length * 3 / 4];
+		int buffer = 0;
+		int bits = 0;
+		int position = 0;
+		for (int i = start; i < end; i++) {
+			char c = in.charAt(i);
+			int value = c < BASE64_URL_VALUES.length ? BASE64_URL_VALUES[c] : -1;
+			if (value < 0) {
+				return null;
+			}
+			buffer = (buffer << 6) | value;
+			bits += 6;
+			if (bits >= 8) {
+				bits -= 8;
+				out[position++] = (byte) (buffer >> bits);
+			}
+		}
+		return out;
 	}
 
-	private byte[] encrypt(String base, String key) {
-		try {
-			SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(), HMAC_SHA256_MAC_NAME);
-			Mac mac = Mac.getInstance(HMAC_SHA256_MAC_NAME);
-			mac.init(secretKeySpec);
-			return mac.doFinal(base.getBytes());
-		} catch (NoSuchAlgorithmException e) {
-			throw new IllegalStateException(e);
-		} catch (InvalidKeyException e) {
-			throw new IllegalStateException(e);
+	private static Map<String, JsonNode> createCache(final int maxSize) {
+		if (maxSize <= 0) {
+			return null;
 		}
+		return Collections.synchronizedMap(new LinkedHashMap<String, JsonNode>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, JsonNode> eldest) {
+				return size() > maxSize;
+			}
+		});
 	}
-	
-	private static final String PADDING = "===";
+
+	private static final int[] BASE64_URL_VALUES = new int[128];
+
+	static {
+		Arrays.fill(BASE64_URL_VALUES, -1);
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+		for (int i = 0; i < alphabet.length(); i++) {
+			BASE64_URL_VALUES[alphabet.charAt(i)] = i;
+		}
+		// accept standard base64 as well, as the decoder always has
+		BASE64_URL_VALUES['+'] = 62;
+		BASE64_URL_VALUES['/'] = 63;
+	}
+
+	private static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private static final int SIGNING_BLOCK_SIZE = 256;
 
 	private static final String HMAC_SHA256_MAC_NAME = "HMACSHA256";
 
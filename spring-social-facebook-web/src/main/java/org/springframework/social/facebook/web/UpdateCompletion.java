@@ -0,0 +1,102 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+/**
+ * Tracks whether every {@link UpdateHandler} is done with a real-time update, so that the update's {@link UpdateJournal} record is only marked complete once they are.
+ * The handlers are run between {@link #begin()} and {@link #end()} on a single thread.
+ * A handler that finishes handling the update after it returns, as {@link CoalescingUpdateHandler} does, calls {@link #defer()} while handling it, 
+ * and runs the callback it is given once it is done; the update is complete once the handlers have returned and every deferred callback has been run.
+ * @author Craig Walls
+ */
+class UpdateCompletion {
+
+	private static final ThreadLocal<UpdateCompletion> CURRENT = new ThreadLocal<UpdateCompletion>();
+
+	private final Runnable onCompletion;
+
+	private int outstanding = 1;
+
+	private UpdateCompletion previous;
+
+	/**
+	 * @param onCompletion the callback to run once the update is complete. May be null.
+	 */
+	public UpdateCompletion(Runnable onCompletion) {
+		this.onCompletion = onCompletion;
+	}
+
+	/**
+	 * Makes this the completion that handlers running on the calling thread defer.
+	 */
+	public void begin() {
+		previous = CURRENT.get();
+		CURRENT.set(this);
+	}
+
+	/**
+	 * Ends the handlers' run, completing the update unless a handler has deferred its completion.
+	 */
+	public void end() {
+		abandon();
+		release();
+	}
+
+	/**
+	 * Ends the handlers' run without completing the update, as when they were interrupted before all of them had handled it.
+	 */
+	public void abandon() {
+		if (previous != null) {
+			CURRENT.set(previous);
+		} else {
+			CURRENT.remove();
+		}
+	}
+
+	/**
+	 * Defers the completion of the update being handled on the calling thread.
+	 * @return a callback to run once the caller is done with the update, or null if no update's completion is being tracked on the calling thread
+	 */
+	public static Runnable defer() {
+		final UpdateCompletion completion = CURRENT.get();
+		if (completion == null) {
+			return null;
+		}
+		synchronized (completion) {
+			completion.outstanding++;
+		}
+		return new Runnable() {
+			private boolean released;
+			public synchronized void run() {
+				if (!released) {
+					released = true;
+					completion.release();
+				}
+			}
+		};
+	}
+
+	private void release() {
+		boolean complete;
+		synchronized (this) {
+			complete = --outstanding == 0;
+		}
+		if (complete && onCompletion != null) {
+			onCompletion.run();
+		}
+	}
+
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * A write-ahead journal of the real-time updates received by {@link RealTimeUpdateController}, 
+ * so that updates that Facebook has been told were received are not lost if the application stops before its handlers have handled them.
+ * Each update's raw payload is appended to a memory-mapped segment file before Facebook is answered, and marked complete once the handlers have handled it.
+ * Updates not marked complete are replayed to the handlers when the journal is given to a controller, typically as the application starts.
+ * 
+ * A new segment file is started when the current one is full, and a segment file is deleted once every update in it is complete.
+ * Appended updates are written to the operating system's page cache, where they survive the application's JVM stopping;
+ * to also have them survive the operating system stopping, set {@link #setForceOnAppend(boolean)}, at the cost of a disk write per update.
+ * The journal should be closed with {@link #destroy()} when no longer needed, which happens automatically when it is declared as a Spring bean.
+ * @author Craig Walls
+ */
+public class UpdateJournal implements DisposableBean {
+
+	private final File directory;
+
+	private final int segmentSize;
+
+	private final Map<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+
+	private Segment activeSegment;
+
+	private volatile boolean forceOnAppend;
+
+	/**
+	 * Opens a journal with 16MB segments.
+	 * @param directory the directory holding the journal's segment files, created if it does not exist
+	 */
+	public UpdateJournal(File directory) {
+		this(directory, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Opens a journal.
+	 * @param directory the directory holding the journal's segment files, created if it does not exist
+	 * @param segmentSize the size, in bytes, of each segment file
+	 */
+	public UpdateJournal(File directory, int segmentSize) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(segmentSize > HEADER_SIZE, "segmentSize must be greater than " + HEADER_SIZE);
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalStateException("Unable to create update journal directory " + directory);
+		}
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		openSegments();
+	}
+
+	/**
+	 * Sets whether each appended update is forced to disk before {@link #append(String, String)} returns.
+	 * Defaults to false.
+	 */
+	public void setForceOnAppend(boolean forceOnAppend) {
+		this.forceOnAppend = forceOnAppend;
+	}
+
+	/**
+	 * Appends an update to the journal.
+	 * @param subscription the subscription name
+	 * @param payload the update's raw payload
+	 * @return the ID of the journal record, to be passed to {@link #complete(long)} once the update has been handled
+	 */
+	public synchronized long append(String subscription, String payload) {
+		byte[] subscriptionBytes = toBytes(subscription);
+		byte[] payloadBytes = toBytes(payload);
+		int recordSize = HEADER_SIZE + subscriptionBytes.length + payloadBytes.length;
+		if (activeSegment == null || activeSegment.remaining() < recordSize + LENGTH_SIZE) {
+			int index = activeSegment != null ? activeSegment.index + 1 : nextSegmentIndex();
+			Segment previous = activeSegment;
+			activeSegment = createSegment(index, Math.max(segmentSize, recordSize + LENGTH_SIZE));
+			if (previous != null) {
+				deleteIfComplete(previous);
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(subscriptionBytes);
+		crc.update(payloadBytes);
+		MappedByteBuffer buffer = activeSegment.buffer;
+		int offset = activeSegment.writePosition;
+		buffer.putInt(offset + CRC_OFFSET, (int) crc.getValue());
+		buffer.put(offset + STATUS_OFFSET, PENDING);
+		buffer.putShort(offset + SUBSCRIPTION_LENGTH_OFFSET, (short) subscriptionBytes.length);
+		buffer.position(offset + HEADER_SIZE);
+		buffer.put(subscriptionBytes);
+		buffer.put(payloadBytes);
+		// the length is written last, so that a record cut short by a crash reads as the end of the segment
+		buffer.putInt(offset, recordSize);
+		if (forceOnAppend) {
+			buffer.force();
+		}
+		activeSegment.writePosition += recordSize;
+		activeSegment.outstanding++;
+		return recordId(activeSegment.index, offset);
+	}
+
+	/**
+	 * Marks an update as handled, so that it is not replayed.
+	 * @param recordId the ID returned when the update was appended
+	 */
+	public synchronized void complete(long recordId) {
+		Segment segment = segments.get((int) (recordId >>> 32));
+		if (segment == null) {
+			return;
+		}
+		int offset = (int) recordId;
+		if (segment.buffer.get(offset + STATUS_OFFSET) == PENDING) {
+			segment.buffer.put(offset + STATUS_OFFSET, COMPLETE);
+			segment.outstanding--;
+			if (segment != activeSegment) {
+				deleteIfComplete(segment);
+			}
+		}
+	}
+
+	/**
+	 * Hands each update in the journal that has not been marked complete to a callback, in the order they were appended.
+	 * The callback is expected to call {@link #complete(long)} for each update once it has been handled.
+	 * @param callback the callback to hand updates to
+	 * @return the number of updates replayed
+	 */
+	public int replay(ReplayCallback callback) {
+		List<Long> pending = new ArrayList<Long>();
+		synchronized (this) {
+			for (Segment segment : segments.values()) {
+				for (int offset = 0; offset < segment.writePosition; offset += segment.buffer.getInt(offset)) {
+					if (segment.buffer.get(offset + STATUS_OFFSET) == PENDING) {
+						pending.add(recordId(segment.index, offset));
+					}
+				}
+			}
+		}
+		for (long recordId : pending) {
+			String[] update;
+			synchronized (this) {
+				update = read(recordId);
+			}
+			if (update != null) {
+				callback.replay(recordId, update[0], update[1]);
+			}
+		}
+		return pending.size();
+	}
+
+	/**
+	 * @return the number of updates in the journal that have not been marked complete
+	 */
+	public synchronized int getPendingCount() {
+		int pending = 0;
+		for (Segment segment : segments.values()) {
+			pending += segment.outstanding;
+		}
+		return pending;
+	}
+
+	/**
+	 * @return the number of segment files in the journal
+	 */
+	public synchronized int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Forces the journal to disk and closes its segment files.
+	 */
+	public synchronized void destroy() {
+		for (Segment segment : segments.values()) {
+			segment.buffer.force();
+			segment.close();
+		}
+		segments.clear();
+		activeSegment = null;
+	}
+
+	/**
+	 * Callback for updates replayed from the journal.
+	 */
+	public static interface ReplayCallback {
+
+		/**
+		 * Handles an update replayed from the journal.
+		 * @param recordId the ID of the journal record, to be passed to {@link UpdateJournal#complete(long)} once the update has been handled
+		 * @param subscription the subscription name
+		 * @param payload the update's raw payload
+		 */
+		void replay(long recordId, String subscription, String payload);
+
+	}
+
+	private String[] read(long recordId) {
+		Segment segment = segments.get((int) (recordId >>> 32));
+		if (segment == null) {
+			return null;
+		}
+		int offset = (int) recordId;
+		int recordSize = segment.buffer.getInt(offset);
+		byte[] subscriptionBytes = new byte[segment.buffer.getShort(offset + SUBSCRIPTION_LENGTH_OFFSET)];
+		byte[] payloadBytes = new byte[recordSize - HEADER_SIZE - subscriptionBytes.length];
+		segment.buffer.position(offset + HEADER_SIZE);
+		segment.buffer.get(subscriptionBytes);
+		segment.buffer.get(payloadBytes);
+		return new String[] { fromBytes(subscriptionBytes), fromBytes(payloadBytes) };
+	}
+
+	private void openSegments() {
+		String[] names = directory.list(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.endsWith(SEGMENT_SUFFIX);
+			}
+		});
+		Arrays.sort(names);
+		for (String name : names) {
+			int index = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+			File file = new File(directory, name);
+			Segment segment = mapSegment(index, file, (int) file.length());
+			scan(segment);
+			segments.put(index, segment);
+			deleteIfComplete(segment);
+		}
+	}
+
+	private void scan(Segment segment) {
+		MappedByteBuffer buffer = segment.buffer;
+		int offset = 0;
+		while (offset + LENGTH_SIZE <= buffer.capacity()) {
+			int recordSize = buffer.getInt(offset);
+			if (recordSize < HEADER_SIZE || offset + recordSize > buffer.capacity()) {
+				break;
+			}
+			byte[] body = new byte[recordSize - HEADER_SIZE];
+			buffer.position(offset + HEADER_SIZE);
+			buffer.get(body);
+			CRC32 crc = new CRC32();
+			crc.update(body);
+			if ((int) crc.getValue() != buffer.getInt(offset + CRC_OFFSET)) {
+				logger.warn("Update journal segment " + segment.file + " is corrupt at offset " + offset + ". Ignoring the rest of the segment.");
+				break;
+			}
+			if (buffer.get(offset + STATUS_OFFSET) == PENDING) {
+				segment.outstanding++;
+			}
+			offset += recordSize;
+		}
+		segment.writePosition = offset;
+	}
+
+	private int nextSegmentIndex() {
+		int index = 0;
+		for (Integer existing : segments.keySet()) {
+			index = Math.max(index, existing + 1);
+		}
+		return index;
+	}
+
+	private Segment createSegment(int index, int size) {
+		File file = new File(directory, String.format("%010d", index) + SEGMENT_SUFFIX);
+		Segment segment = mapSegment(index, file, size);
+		segments.put(index, segment);
+		return segment;
+	}
+
+	private Segment mapSegment(int index, File file, int size) {
+		try {
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			try {
+				FileChannel channel = randomAccessFile.getChannel();
+				return new Segment(index, file, randomAccessFile, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+			} catch (IOException e) {
+				randomAccessFile.close();
+				throw e;
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to map update journal segment " + file, e);
+		}
+	}
+
+	private void deleteIfComplete(Segment segment) {
+		if (segment.outstanding == 0 && segment != activeSegment) {
+			segments.remove(segment.index);
+			segment.close();
+			if (!segment.file.delete()) {
+				logger.debug("Unable to delete completed update journal segment " + segment.file + ". It will be deleted when the journal is next opened.");
+			}
+		}
+	}
+
+	private static long recordId(int segmentIndex, int offset) {
+		return ((long) segmentIndex << 32) | offset;
+	}
+
+	private static byte[] toBytes(String value) {
+		try {
+			return value.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String fromBytes(byte[] bytes) {
+		try {
+			return new String(bytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class Segment {
+
+		private final int index;
+
+		private final File file;
+
+		private final RandomAccessFile randomAccessFile;
+
+		private final MappedByteBuffer buffer;
+
+		private int writePosition;
+
+		private int outstanding;
+
+		public Segment(int index, File file, RandomAccessFile randomAccessFile, MappedByteBuffer buffer) {
+			this.index = index;
+			this.file = file;
+			this.randomAccessFile = randomAccessFile;
+			this.buffer = buffer;
+		}
+
+		public int remaining() {
+			return buffer.capacity() - writePosition;
+		}
+
+		public void close() {
+			try {
+				randomAccessFile.close();
+			} catch (IOException e) {
+				logger.debug("Unable to close update journal segment " + file, e);
+			}
+		}
+
+	}
+
+	private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+	private static final String SEGMENT_SUFFIX = ".journal";
+
+	private static final int LENGTH_SIZE = 4;
+
+	private static final int CRC_OFFSET = 4;
+
+	private static final int STATUS_OFFSET = 8;
+
+	private static final int SUBSCRIPTION_LENGTH_OFFSET = 9;
+
+	private static final int HEADER_SIZE = 11;
+
+	private static final byte PENDING = 1;
+
+	private static final byte COMPLETE = 2;
+
+	private final static Log logger = LogFactory.getLog(UpdateJournal.class);
+
+}
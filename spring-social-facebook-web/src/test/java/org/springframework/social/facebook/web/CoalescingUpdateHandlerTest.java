@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class CoalescingUpdateHandlerTest {
+
+	@Test
+	public void handleUpdate_mergesEntriesForSameObject() {
+		RecordingUpdateHandler delegate = new RecordingUpdateHandler();
+		CoalescingUpdateHandler handler = new CoalescingUpdateHandler(delegate, 60000);
+		handler.handleUpdate("foo", update("user", entry(424711, 1373804766, "friends")));
+		handler.handleUpdate("foo", update("user", entry(424711, 1373804768, "feed", "friends"), entry(620448186, 1373804766, "feed")));
+		handler.handleUpdate("foo", update("user", entry(424711, 1373804767, "likes")));
+		assertEquals(0, delegate.updates.size());
+
+		handler.flush();
+		assertEquals(1, delegate.updates.size());
+		assertEquals("foo", delegate.subscriptions.get(0));
+		RealTimeUpdate update = delegate.updates.get(0);
+		assertEquals("user", update.getObject());
+		assertEquals(2, update.getEntries().size());
+		assertEquals(424711, update.getEntries().get(0).getId());
+		assertEquals(1373804768, update.getEntries().get(0).getTime());
+		assertEquals(asList("friends", "feed", "likes"), update.getEntries().get(0).getChangedFields());
+		assertEquals(620448186, update.getEntries().get(1).getId());
+		assertEquals(asList("feed"), update.getEntries().get(1).getChangedFields());
+		assertEquals(4, handler.getReceivedEntryCount());
+		assertEquals(2, handler.getDeliveredEntryCount());
+
+		handler.flush();
+		assertEquals(1, delegate.updates.size());
+		handler.destroy();
+	}
+
+	@Test
+	public void handleUpdate_keepsSubscriptionsAndObjectTypesApart() {
+		RecordingUpdateHandler delegate = new RecordingUpdateHandler();
+		CoalescingUpdateHandler handler = new CoalescingUpdateHandler(delegate, 60000);
+		handler.handleUpdate("foo", update("user", entry(424711, 1373804766, "friends")));
+		handler.handleUpdate("bar", update("user", entry(424711, 1373804766, "friends")));
+		handler.handleUpdate("foo", update("page", entry(424711, 1373804766, "feed")));
+		handler.destroy();
+		assertEquals(asList("foo", "bar", "foo"), delegate.subscriptions);
+		assertEquals("user", delegate.updates.get(0).getObject());
+		assertEquals("user", delegate.updates.get(1).getObject());
+		assertEquals("page", delegate.updates.get(2).getObject());
+	}
+
+	@Test
+	public void handleUpdate_handsOverAfterWindow() throws Exception {
+		final CountDownLatch handled = new CountDownLatch(1);
+		RecordingUpdateHandler delegate = new RecordingUpdateHandler() {
+			public void handleUpdate(String subscription, RealTimeUpdate update) {
+				super.handleUpdate(subscription, update);
+				handled.countDown();
+			}
+		};
+		CoalescingUpdateHandler handler = new CoalescingUpdateHandler(delegate, 50);
+		handler.handleUpdate("foo", update("user", entry(424711, 1373804766, "friends")));
+		handler.handleUpdate("foo", update("user", entry(424711, 1373804766, "feed")));
+		assertTrue(handled.await(5, TimeUnit.SECONDS));
+		assertEquals(1, delegate.updates.size());
+		assertEquals(asList("friends", "feed"), delegate.updates.get(0).getEntries().get(0).getChangedFields());
+		handler.destroy();
+	}
+
+	private RealTimeUpdate update(String object, RealTimeUpdate.Entry... entries) {
+		return new RealTimeUpdate(object, asList(entries));
+	}
+
+	private RealTimeUpdate.Entry entry(long id, long time, String... changedFields) {
+		return new RealTimeUpdate.Entry(id, time, asList(changedFields));
+	}
+
+	private static class RecordingUpdateHandler implements UpdateHandler {
+		private final List<String> subscriptions = new ArrayList<String>();
+
+		private final List<RealTimeUpdate> updates = new ArrayList<RealTimeUpdate>();
+
+		public synchronized void handleUpdate(String subscription, RealTimeUpdate update) {
+			subscriptions.add(subscription);
+			updates.add(update);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class FacebookRequestContextTest {
+
+	private static final String APP_ID = "API_KEY";
+
+	private static final String APP_SECRET = "APP_SECRET";
+
+	private static final String COOKIE_VALUE = "uid=24680&access_token=a1b2c3d4%7Ce5f6&sig=624a33571227a6f7fbdec1d0e8a223b0";
+
+	private static final String DEAUTH_SECRET = "888e92659dae96040216a257576b092a";
+
+	private static final String DEAUTH_CALLBACK = "T4PCp840PHnhgQwMgCSZODpDGqhLC4mFGaNG8oHW7WU.eyJhbGdvcml0aG0iOiJITUFDLVNIQTI1NiIsImlzc3VlZF9hdCI6MTMzNTg5NDc5NiwidXNlciI6eyJjb3VudHJ5IjoidXMiLCJsb2NhbGUiOiJlbl9VUyJ9LCJ1c2VyX2lkIjoiNzM4MTQwNTc5In0";
+
+	@Test
+	public void interceptor_createsContext() throws Exception {
+		MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+		httpServletRequest.setCookies(new Cookie("fbs_" + APP_ID, COOKIE_VALUE));
+		assertNull(FacebookRequestContext.getContext(httpServletRequest));
+		assertTrue(new FacebookRequestContextInterceptor(APP_ID, APP_SECRET).preHandle(httpServletRequest, new MockHttpServletResponse(), null));
+		FacebookRequestContext context = FacebookRequestContext.getContext(httpServletRequest);
+		assertNotNull(context);
+		assertFalse(context.hasSignedRequest());
+		assertNull(context.getSignedRequest());
+		assertEquals("24680", context.getCookieData().get("uid"));
+		assertSame(context.getCookieData(), context.getCookieData());
+
+		NativeWebRequest request = new ServletWebRequest(httpServletRequest);
+		FacebookWebArgumentResolver resolver = new FacebookWebArgumentResolver(APP_ID, APP_SECRET);
+		assertEquals("24680", resolver.resolveArgument(parameter("cookieMethod", 0), request));
+		assertEquals("a1b2c3d4|e5f6", resolver.resolveArgument(parameter("cookieMethod", 1), request));
+		assertSame(context, FacebookRequestContext.getContext(httpServletRequest));
+	}
+
+	@Test
+	public void resolvers_shareSignedRequest() throws Exception {
+		MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+		httpServletRequest.setParameter("signed_request", DEAUTH_CALLBACK);
+		NativeWebRequest request = new ServletWebRequest(httpServletRequest);
+		SignedRequestArgumentResolver resolver = new SignedRequestArgumentResolver(DEAUTH_SECRET);
+		DeauthorizationRequest first = (DeauthorizationRequest) resolver.resolveArgument(parameter("signedRequestMethod", 0), null, request, null);
+		DeauthorizationRequest second = (DeauthorizationRequest) new SignedRequestArgumentResolver(DEAUTH_SECRET).resolveArgument(parameter("signedRequestMethod", 0), null, request, null);
+		assertNotSame(first, second);
+		assertEquals("738140579", first.getUserId());
+		assertEquals("738140579", second.getUserId());
+
+		FacebookRequestContext context = FacebookRequestContext.getContext(httpServletRequest);
+		assertTrue(context.hasSignedRequest());
+		assertEquals("738140579", context.getSignedRequest(DeauthorizationRequest.class).getUserId());
+		assertEquals("738140579", context.getSignedRequest().get("user_id"));
+		assertEquals(context.getSignedRequest(), resolver.resolveArgument(parameter("signedRequestMethod", 1), null, request, null));
+	}
+
+	@Test
+	public void getSignedRequest_callersGetTheirOwnPayload() throws Exception {
+		MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+		httpServletRequest.setParameter("signed_request", DEAUTH_CALLBACK);
+		FacebookRequestContext context = FacebookRequestContext.getContext(httpServletRequest, null, DEAUTH_SECRET, new SignedRequestDecoder(DEAUTH_SECRET));
+		context.getSignedRequest(ObjectNode.class).put("user_id", "tampered");
+		context.getSignedRequest(DeauthorizationRequest.class).setUserId("tampered");
+		assertEquals("738140579", context.getSignedRequest(ObjectNode.class).get("user_id").asText());
+		assertEquals("738140579", context.getSignedRequest(DeauthorizationRequest.class).getUserId());
+	}
+
+	@Test
+	public void getSignedRequest_contextCreatedWithoutDecoder() throws Exception {
+		MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+		httpServletRequest.setParameter("signed_request", DEAUTH_CALLBACK);
+		// as created by FacebookWebArgumentResolver, which only reads the cookie
+		FacebookRequestContext context = FacebookRequestContext.getContext(httpServletRequest, APP_ID, DEAUTH_SECRET, null);
+		assertEquals("738140579", context.getSignedRequest(DeauthorizationRequest.class).getUserId());
+		SignedRequestArgumentResolver resolver = new SignedRequestArgumentResolver(DEAUTH_SECRET);
+		DeauthorizationRequest resolved = (DeauthorizationRequest) resolver.resolveArgument(parameter("signedRequestMethod", 0), null, new ServletWebRequest(httpServletRequest), null);
+		assertEquals("738140579", resolved.getUserId());
+		assertSame(context, FacebookRequestContext.getContext(httpServletRequest));
+	}
+
+	@Test
+	public void getSignedRequest_invalid() throws Exception {
+		MockHttpServletRequest httpServletRequest = new MockHttpServletRequest();
+		httpServletRequest.setParameter("signed_request", DEAUTH_CALLBACK);
+		FacebookRequestContext context = FacebookRequestContext.getContext(httpServletRequest, null, "wrong_secret", new SignedRequestDecoder("wrong_secret"));
+		SignedRequestException first = null;
+		try {
+			context.getSignedRequest();
+			fail("Expected SignedRequestException");
+		} catch (SignedRequestException e) {
+			first = e;
+		}
+		try {
+			context.getSignedRequest(DeauthorizationRequest.class);
+			fail("Expected SignedRequestException");
+		} catch (SignedRequestException e) {
+			assertSame(first, e);
+		}
+		try {
+			context.getCookieData();
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException e) {
+		}
+
+		// a context created with a different secret is not reused
+		FacebookRequestContext other = FacebookRequestContext.getContext(httpServletRequest, APP_ID, DEAUTH_SECRET, new SignedRequestDecoder(DEAUTH_SECRET));
+		assertNotSame(context, other);
+		assertEquals("738140579", other.getSignedRequest().get("user_id"));
+		assertSame(other, FacebookRequestContext.getContext(httpServletRequest, null, DEAUTH_SECRET, null));
+	}
+
+	private MethodParameter parameter(String methodName, int index) throws Exception {
+		for (Method method : getClass().getDeclaredMethods()) {
+			if (method.getName().equals(methodName)) {
+				return new MethodParameter(method, index);
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+
+	@SuppressWarnings("unused")
+	private void cookieMethod(@FacebookCookieValue("uid") String userId, @FacebookCookieValue("access_token") String accessToken) {
+	}
+
+	@SuppressWarnings("unused")
+	private void signedRequestMethod(@SignedRequest DeauthorizationRequest deauthorizationRequest, @SignedRequest Map<String, ?> signedRequest) {
+	}
+
+}
@@ -22,22 +22,32 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StreamUtils;
 
 public class RealTimeUpdateControllerTest {
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	@Test
 	public void verifySubscription() throws Exception {
 		Map<String, String> tokens = new HashMap<String, String>();
@@ -199,6 +209,160 @@ public class RealTimeUpdateControllerTest {
 		assertEquals(0, updates.size());
 	}
 
+	@Test
+	public void receiveUpdate_async() throws Exception {
+		BlockingUpdateHandler handler = new BlockingUpdateHandler();
+		AsyncUpdateDispatcher dispatcher = new AsyncUpdateDispatcher(Collections.<UpdateHandler>singletonList(handler), 1, 1);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), dispatcher, "shhhhh!!!!");
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		postUpdate(mockMvc, "foo").andExpect(status().isOk()).andExpect(content().string(""));
+		handler.awaitStarted();
+		postUpdate(mockMvc, "bar").andExpect(status().isOk());
+		assertEquals(1, dispatcher.getQueueDepth());
+		postUpdate(mockMvc, "baz").andExpect(status().isServiceUnavailable());
+		assertEquals(1, dispatcher.getHandlerMetrics().get(handler).getActiveCount());
+		assertEquals(0, handler.getUpdates().size());
+
+		handler.release();
+		dispatcher.destroy();
+		assertEquals(asList("foo", "bar"), new ArrayList<String>(handler.getUpdates().keySet()));
+		assertEquals(2, dispatcher.getAcceptedCount());
+		assertEquals(1, dispatcher.getRejectedCount());
+		assertEquals(0, dispatcher.getDroppedCount());
+		AsyncUpdateDispatcher.HandlerMetrics metrics = dispatcher.getHandlerMetrics().get(handler);
+		assertEquals(2, metrics.getHandledCount());
+		assertEquals(1, metrics.getPeakActiveCount());
+		assertEquals(0, metrics.getActiveCount());
+	}
+
+	@Test
+	public void receiveUpdate_async_dropOldest() throws Exception {
+		BlockingUpdateHandler handler = new BlockingUpdateHandler();
+		AsyncUpdateDispatcher dispatcher = new AsyncUpdateDispatcher(Collections.<UpdateHandler>singletonList(handler), 1, 1, AsyncUpdateDispatcher.OverflowPolicy.DROP_OLDEST);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), dispatcher, "shhhhh!!!!");
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		postUpdate(mockMvc, "foo").andExpect(status().isOk());
+		handler.awaitStarted();
+		postUpdate(mockMvc, "bar").andExpect(status().isOk());
+		postUpdate(mockMvc, "baz").andExpect(status().isOk());
+
+		handler.release();
+		dispatcher.destroy();
+		assertEquals(asList("foo", "baz"), new ArrayList<String>(handler.getUpdates().keySet()));
+		assertEquals(1, dispatcher.getDroppedCount());
+		assertEquals(0, dispatcher.getRejectedCount());
+	}
+
+	@Test
+	public void receiveUpdate_async_failingHandler() throws Exception {
+		UpdateHandler failingHandler = new UpdateHandler() {
+			public void handleUpdate(String subscription, RealTimeUpdate update) {
+				throw new IllegalStateException("Handler failed");
+			}
+		};
+		TestUpdateHandler handler = new TestUpdateHandler();
+		AsyncUpdateDispatcher dispatcher = new AsyncUpdateDispatcher(asList(failingHandler, handler), 2, 10);
+		dispatcher.setHandlerConcurrency(handler, 1);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), dispatcher, "shhhhh!!!!");
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		postUpdate(mockMvc, "foo").andExpect(status().isOk());
+		postUpdate(mockMvc, "bar").andExpect(status().isOk());
+
+		dispatcher.destroy();
+		assertEquals(2, dispatcher.getHandlerMetrics().get(failingHandler).getFailedCount());
+		assertEquals(2, dispatcher.getHandlerMetrics().get(handler).getHandledCount());
+		assertEquals(1, dispatcher.getHandlerMetrics().get(handler).getMaxConcurrency());
+		assertEquals(1, dispatcher.getHandlerMetrics().get(handler).getPeakActiveCount());
+		assertEquals(2, handler.getUpdates().size());
+	}
+
+	@Test
+	public void receiveUpdate_async_badSignature() throws Exception {
+		TestUpdateHandler handler = new TestUpdateHandler();
+		AsyncUpdateDispatcher dispatcher = new AsyncUpdateDispatcher(Collections.<UpdateHandler>singletonList(handler), 1, 1);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), dispatcher, "shhhhh!!!!");
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		mockMvc.perform(post("/realtime/facebook/foo")
+							.contentType(APPLICATION_JSON)
+							.content(jsonFromFile("rtupdate-simple"))
+							.header("X-Hub-Signature", "sha1=765aa709e93724268969ad0cd922d6e0acbb3f36"))
+			.andExpect(status().isOk());
+
+		dispatcher.destroy();
+		assertEquals(0, dispatcher.getAcceptedCount());
+		assertEquals(0, handler.getUpdates().size());
+	}
+
+	@Test
+	public void receiveUpdate_journaled() throws Exception {
+		File directory = temporaryFolder.newFolder("journal");
+		UpdateJournal journal = new UpdateJournal(directory);
+		journal.append("bar", jsonFromFile("rtupdate-many"));
+		journal.destroy();
+
+		TestUpdateHandler handler = new TestUpdateHandler();
+		List<UpdateHandler> handlers = new ArrayList<UpdateHandler>();
+		handlers.add(handler);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), handlers, "shhhhh!!!!");
+		journal = new UpdateJournal(directory);
+		controller.setUpdateJournal(journal);
+		assertEquals(2, handler.getUpdates().get("bar").get(0).getEntries().size());
+		assertEquals(0, journal.getPendingCount());
+
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		postUpdate(mockMvc, "foo").andExpect(status().isOk());
+		assertEquals(1, handler.getUpdates().get("foo").size());
+		assertEquals(0, journal.getPendingCount());
+		journal.destroy();
+	}
+
+	@Test
+	public void receiveUpdate_async_journaled() throws Exception {
+		BlockingUpdateHandler handler = new BlockingUpdateHandler();
+		AsyncUpdateDispatcher dispatcher = new AsyncUpdateDispatcher(Collections.<UpdateHandler>singletonList(handler), 1, 1);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), dispatcher, "shhhhh!!!!");
+		UpdateJournal journal = new UpdateJournal(temporaryFolder.newFolder("journal"));
+		controller.setUpdateJournal(journal);
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		postUpdate(mockMvc, "foo").andExpect(status().isOk());
+		handler.awaitStarted();
+		postUpdate(mockMvc, "bar").andExpect(status().isOk());
+		postUpdate(mockMvc, "baz").andExpect(status().isServiceUnavailable());
+		assertEquals(2, journal.getPendingCount());
+
+		handler.release();
+		dispatcher.destroy();
+		assertEquals(0, journal.getPendingCount());
+		journal.destroy();
+	}
+
+	@Test
+	public void receiveUpdate_coalesced_journaledUntilHandedOver() throws Exception {
+		TestUpdateHandler handler = new TestUpdateHandler();
+		CoalescingUpdateHandler coalescer = new CoalescingUpdateHandler(handler, 60000);
+		RealTimeUpdateController controller = new RealTimeUpdateController(new HashMap<String, String>(), Collections.<UpdateHandler>singletonList(coalescer), "shhhhh!!!!");
+		UpdateJournal journal = new UpdateJournal(temporaryFolder.newFolder("journal"));
+		controller.setUpdateJournal(journal);
+		MockMvc mockMvc = standaloneSetup(controller).build();
+		postUpdate(mockMvc, "foo").andExpect(status().isOk());
+		postUpdate(mockMvc, "foo").andExpect(status().isOk());
+		assertEquals(0, handler.getUpdates().size());
+		assertEquals(2, journal.getPendingCount());
+
+		coalescer.flush();
+		assertEquals(1, handler.getUpdates().get("foo").size());
+		assertEquals(0, journal.getPendingCount());
+		coalescer.destroy();
+		journal.destroy();
+	}
+
+	private ResultActions postUpdate(MockMvc mockMvc, String subscription) throws Exception {
+		return mockMvc.perform(post("/realtime/facebook/" + subscription)
+							.contentType(APPLICATION_JSON)
+							.content(jsonFromFile("rtupdate-simple"))
+							.header("X-Hub-Signature", "sha1=765aa709e93724268969ad0cd922d6e0acbb3f35"));
+	}
+
 	private String jsonFromFile(String filename) throws IOException {
 		ClassPathResource resource = new ClassPathResource(filename + ".json", getClass());
 		return StreamUtils.copyToString(resource.getInputStream(), Charset.forName("UTF-8"));
@@ -207,12 +371,36 @@ public class RealTimeUpdateControllerTest {
 	private static class TestUpdateHandler implements UpdateHandler {
 		private MultiValueMap<String, RealTimeUpdate> updates = new LinkedMultiValueMap<String, RealTimeUpdate>();
 		
-		public void handleUpdate(String subscription, RealTimeUpdate update) {
+		public synchronized void handleUpdate(String subscription, RealTimeUpdate update) {
 			updates.add(subscription, update);
 		}
 
-		public MultiValueMap<String, RealTimeUpdate> getUpdates() {
+		public synchronized MultiValueMap<String, RealTimeUpdate> getUpdates() {
 			return updates;
 		}
 	}
+
+	private static class BlockingUpdateHandler extends TestUpdateHandler {
+		private CountDownLatch started = new CountDownLatch(1);
+
+		private CountDownLatch released = new CountDownLatch(1);
+
+		public void handleUpdate(String subscription, RealTimeUpdate update) {
+			started.countDown();
+			try {
+				released.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.handleUpdate(subscription, update);
+		}
+
+		public void awaitStarted() throws InterruptedException {
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+		}
+
+		public void release() {
+			released.countDown();
+		}
+	}
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.social.facebook.api.impl.FacebookTemplate;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class RefetchingUpdateHandlerTest {
+
+	private FacebookTemplate facebook;
+
+	private MockRestServiceServer mockServer;
+
+	private RecordingRefetchListener listener;
+
+	private RefetchingUpdateHandler handler;
+
+	@Before
+	public void setup() {
+		facebook = new FacebookTemplate("someAccessToken");
+		mockServer = MockRestServiceServer.createServer(facebook.getRestTemplate());
+		listener = new RecordingRefetchListener();
+		handler = new RefetchingUpdateHandler(facebook, listener);
+	}
+
+	@Test
+	public void handleUpdate_fetchesChangedFieldsByIds() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=424711%2C620448186&fields=friends%2Cid"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess("{\"424711\":{\"id\":\"424711\",\"friends\":{\"data\":[]}},\"620448186\":{\"id\":\"620448186\",\"friends\":{\"data\":[]}}}", MediaType.APPLICATION_JSON));
+		handler.handleUpdate("foo", new RealTimeUpdate("user", asList(
+				entry(424711, "friends"), entry(620448186, "friends"), entry(424711, "friends"), entry(183562555))));
+		mockServer.verify();
+		assertEquals(asList("foo"), listener.subscriptions);
+		assertEquals("user", listener.objectTypes.get(0));
+		Map<String, JsonNode> objects = listener.objects.get(0);
+		assertEquals(asList("424711", "620448186"), new ArrayList<String>(objects.keySet()));
+		assertEquals("424711", objects.get("424711").get("id").asText());
+		assertTrue(objects.get("620448186").has("friends"));
+	}
+
+	@Test
+	public void handleUpdate_batchesRequestsForDifferentFields() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("[" +
+					"{\"code\":200,\"body\":\"{\\\"424711\\\":{\\\"id\\\":\\\"424711\\\",\\\"name\\\":\\\"Craig Walls\\\"}}\"}," +
+					"{\"code\":200,\"body\":\"{\\\"620448186\\\":{\\\"id\\\":\\\"620448186\\\",\\\"feed\\\":{\\\"data\\\":[]}}}\"}]", MediaType.APPLICATION_JSON));
+		handler.handleUpdate("foo", new RealTimeUpdate("user", asList(entry(424711, "name"), entry(620448186, "feed"))));
+		mockServer.verify();
+		Map<String, JsonNode> objects = listener.objects.get(0);
+		assertEquals(2, objects.size());
+		assertEquals("Craig Walls", objects.get("424711").get("name").asText());
+		assertTrue(objects.get("620448186").has("feed"));
+	}
+
+	@Test
+	public void handleUpdate_unionsFieldsOfEntriesForSameObject() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=424711%2C620448186&fields=feed%2Cid%2Cname"))
+			.andExpect(method(GET))
+			.andRespond(withSuccess("{\"424711\":{\"id\":\"424711\",\"name\":\"Craig Walls\",\"feed\":{\"data\":[]}},\"620448186\":{\"id\":\"620448186\",\"name\":\"Art Names\",\"feed\":{\"data\":[]}}}", MediaType.APPLICATION_JSON));
+		handler.handleUpdate("foo", new RealTimeUpdate("user", asList(entry(424711, "name"), entry(620448186, "name", "feed"), entry(424711, "feed"))));
+		mockServer.verify();
+		Map<String, JsonNode> objects = listener.objects.get(0);
+		assertEquals(2, objects.size());
+		assertEquals("Craig Walls", objects.get("424711").get("name").asText());
+		assertTrue(objects.get("424711").has("feed"));
+	}
+
+	@Test
+	public void handleUpdate_noChangedFields() {
+		handler.handleUpdate("foo", new RealTimeUpdate("user", asList(entry(424711))));
+		mockServer.verify();
+		assertTrue(listener.objects.isEmpty());
+	}
+
+	private RealTimeUpdate.Entry entry(long id, String... changedFields) {
+		return new RealTimeUpdate.Entry(id, 1373804766, asList(changedFields));
+	}
+
+	private static class RecordingRefetchListener implements RefetchListener {
+		private final List<String> subscriptions = new ArrayList<String>();
+
+		private final List<String> objectTypes = new ArrayList<String>();
+
+		private final List<Map<String, JsonNode>> objects = new ArrayList<Map<String, JsonNode>>();
+
+		public void objectsRefetched(String subscription, String objectType, Map<String, JsonNode> objects) {
+			subscriptions.add(subscription);
+			objectTypes.add(objectType);
+			this.objects.add(objects);
+		}
+	}
+}
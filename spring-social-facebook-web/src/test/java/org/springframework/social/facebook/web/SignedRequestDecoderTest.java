@@ -35,13 +35,35 @@ public class SignedRequestDecoderTest {
 	public void decodeSignedRequest_jsonError() throws Exception {
 		try {
 			SignedRequestDecoder decoder = new SignedRequestDecoder("secret");
-			decoder.decodeSignedRequest("vlXgu64BQGFSQrY0ZcJBZASMvYvTHu9GQ0YM9rjPSso.fyJhbGdvcml0aG0iOiJITUFDLVNIQTI1NiIsIjAiOiJwYXlsb2FkIn0");
+			decoder.decodeSignedRequest("McMdzs8oeaUgN0APkhUYlzzONV6qSArH42eOdMXVtpw.eyJhbGdvcml0aG0iOiJITUFDLVNIQTI1NiIsIjAiOg");
 		} catch (SignedRequestException e) {
 			assertEquals("Error parsing payload.", e.getMessage());
 			throw e;
 		}		
 	}
 
+	@Test(expected=SignedRequestException.class)
+	public void decodeSignedRequest_tamperedPayload() throws Exception {
+		try {
+			SignedRequestDecoder decoder = new SignedRequestDecoder("secret");
+			decoder.decodeSignedRequest("vlXgu64BQGFSQrY0ZcJBZASMvYvTHu9GQ0YM9rjPSso.fyJhbGdvcml0aG0iOiJITUFDLVNIQTI1NiIsIjAiOiJwYXlsb2FkIn0");
+		} catch (SignedRequestException e) {
+			assertEquals("Invalid signature.", e.getMessage());
+			throw e;
+		}		
+	}
+
+	@Test(expected=SignedRequestException.class)
+	public void decodeSignedRequest_malformed() throws Exception {
+		try {
+			SignedRequestDecoder decoder = new SignedRequestDecoder("secret");
+			decoder.decodeSignedRequest("vlXgu64BQGFSQrY0ZcJBZASMvYvTHu9GQ0YM9rjPSso");
+		} catch (SignedRequestException e) {
+			assertEquals("Invalid signed request.", e.getMessage());
+			throw e;
+		}		
+	}
+
 	@Test(expected=SignedRequestException.class)
 	public void decodeSignedRequest_signatureError() throws Exception {
 		try {
@@ -88,5 +110,31 @@ public class SignedRequestDecoderTest {
 		assertEquals("us", deauth.getUser().getCountry());
 		assertEquals("en_US", deauth.getUser().getLocale());
 	}
-	
+
+	@Test
+	public void decodeSignedRequest_repeated() throws Exception {
+		SignedRequestDecoder decoder = new SignedRequestDecoder("secret");
+		String signedRequest = "_4eygT1xKMb-f_cmil-SGN8LVAjkY3cNsryBFTzWtPw.eyJhbGdvcml0aG0iOiJITUFDLVNIQTI1NiIsInVzZXJfaWQiOiI3MzgxNDA1NzkiLCJ1c2VyIjp7ImNvdW50cnkiOiJ1cyIsImxvY2FsZSI6ImVuX1VTIn19";
+		DeauthorizationRequest first = decoder.decodeSignedRequest(signedRequest, DeauthorizationRequest.class);
+		DeauthorizationRequest second = decoder.decodeSignedRequest(signedRequest, DeauthorizationRequest.class);
+		assertNotSame(first, second);
+		assertEquals("738140579", second.getUserId());
+		assertEquals("en_US", second.getUser().getLocale());
+		@SuppressWarnings("unchecked")
+		Map<String, Object> map = (Map<String, Object>) decoder.decodeSignedRequest(signedRequest);
+		map.put("user_id", "12345");
+		assertEquals("738140579", decoder.decodeSignedRequest(signedRequest).get("user_id"));
+
+		decoder.setCacheSize(0);
+		assertEquals("738140579", decoder.decodeSignedRequest(signedRequest, DeauthorizationRequest.class).getUserId());
+	}
+
+	@Test(expected=SignedRequestException.class)
+	public void decodeSignedRequest_repeatedSignatureError() throws Exception {
+		SignedRequestDecoder decoder = new SignedRequestDecoder("secret");
+		String signedRequest = "_4eygT1xKMb-f_cmil-SGN8LVAjkY3cNsryBFTzWtPw.eyJhbGdvcml0aG0iOiJITUFDLVNIQTI1NiIsInVzZXJfaWQiOiI3MzgxNDA1NzkiLCJ1c2VyIjp7ImNvdW50cnkiOiJ1cyIsImxvY2FsZSI6ImVuX1VTIn19";
+		decoder.decodeSignedRequest(signedRequest);
+		new SignedRequestDecoder("secretx").decodeSignedRequest(signedRequest);
+	}
+
 }
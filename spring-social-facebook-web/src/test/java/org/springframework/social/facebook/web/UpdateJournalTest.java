@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.web;
+
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UpdateJournalTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void replay_pendingUpdatesAfterReopen() throws Exception {
+		File directory = temporaryFolder.newFolder("journal");
+		UpdateJournal journal = new UpdateJournal(directory);
+		long first = journal.append("foo", "{\"object\":\"user\"}");
+		journal.append("bar", "{\"object\":\"page\"}");
+		journal.append("foo", "{\"object\":\"user\",\"entry\":[]}");
+		journal.complete(first);
+		journal.complete(first);
+		assertEquals(2, journal.getPendingCount());
+		journal.destroy();
+
+		UpdateJournal reopened = new UpdateJournal(directory);
+		assertEquals(2, reopened.getPendingCount());
+		RecordingCallback callback = new RecordingCallback(reopened);
+		assertEquals(2, reopened.replay(callback));
+		assertEquals(asList("bar", "foo"), callback.subscriptions);
+		assertEquals(asList("{\"object\":\"page\"}", "{\"object\":\"user\",\"entry\":[]}"), callback.payloads);
+		assertEquals(0, reopened.getPendingCount());
+		assertEquals(0, reopened.replay(callback));
+		reopened.destroy();
+
+		UpdateJournal reopenedAgain = new UpdateJournal(directory);
+		assertEquals(0, reopenedAgain.getPendingCount());
+		assertEquals(0, reopenedAgain.getSegmentCount());
+		reopenedAgain.destroy();
+	}
+
+	@Test
+	public void append_rotatesAndDeletesCompletedSegments() throws Exception {
+		File directory = temporaryFolder.newFolder("journal");
+		UpdateJournal journal = new UpdateJournal(directory, 64);
+		List<Long> recordIds = new ArrayList<Long>();
+		for (int i = 0; i < 5; i++) {
+			recordIds.add(journal.append("foo", "{\"object\":\"user\",\"n\":" + i + "}"));
+		}
+		long large = journal.append("foo", "{\"object\":\"user\",\"entry\":[" + repeat("{\"id\":1},", 20) + "{\"id\":2}]}");
+		assertEquals(6, journal.getSegmentCount());
+		assertEquals(6, directory.list().length);
+
+		for (long recordId : recordIds) {
+			journal.complete(recordId);
+		}
+		assertEquals(1, journal.getSegmentCount());
+		assertEquals(1, directory.list().length);
+		journal.complete(large);
+		assertEquals(1, journal.getSegmentCount());
+		journal.destroy();
+	}
+
+	@Test
+	public void replay_ignoresTornRecord() throws Exception {
+		File directory = temporaryFolder.newFolder("journal");
+		UpdateJournal journal = new UpdateJournal(directory, 1024);
+		journal.append("foo", "{\"object\":\"user\"}");
+		long second = journal.append("bar", "{\"object\":\"page\"}");
+		journal.destroy();
+
+		RandomAccessFile segment = new RandomAccessFile(new File(directory, directory.list()[0]), "rw");
+		segment.seek((int) second + 20);
+		segment.write('X');
+		segment.close();
+
+		UpdateJournal reopened = new UpdateJournal(directory, 1024);
+		RecordingCallback callback = new RecordingCallback(reopened);
+		assertEquals(1, reopened.replay(callback));
+		assertEquals(asList("foo"), callback.subscriptions);
+		reopened.destroy();
+	}
+
+	private String repeat(String value, int times) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < times; i++) {
+			builder.append(value);
+		}
+		return builder.toString();
+	}
+
+	private static class RecordingCallback implements UpdateJournal.ReplayCallback {
+		private final UpdateJournal journal;
+
+		private final List<String> subscriptions = new ArrayList<String>();
+
+		private final List<String> payloads = new ArrayList<String>();
+
+		public RecordingCallback(UpdateJournal journal) {
+			this.journal = journal;
+		}
+
+		public void replay(long recordId, String subscription, String payload) {
+			subscriptions.add(subscription);
+			payloads.add(payload);
+			journal.complete(recordId);
+		}
+	}
+}
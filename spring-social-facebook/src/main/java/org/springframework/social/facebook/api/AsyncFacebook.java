@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.social.facebook.api.impl.AsyncFacebookTemplate;
+import org.springframework.web.client.AsyncRestOperations;
+
+/**
+ * Interface specifying a non-blocking set of operations for interacting with Facebook.
+ * Where {@link Facebook} ties up the calling thread until Facebook responds, every operation here returns a future,
+ * so that many Graph API requests may be in flight at once without a thread waiting on each of them.
+ * Implemented by {@link AsyncFacebookTemplate}.
+ * @author Craig Walls
+ */
+public interface AsyncFacebook extends AsyncGraphApi {
+
+	/**
+	 * API for performing operations on feeds.
+	 * @return {@link AsyncFeedOperations}
+	 */
+	AsyncFeedOperations feedOperations();
+
+	/**
+	 * API for working with albums, photos, and videos.
+	 * @return {@link AsyncMediaOperations}
+	 */
+	AsyncMediaOperations mediaOperations();
+
+	/**
+	 * API for performing operations on Facebook user profiles.
+	 * @return {@link AsyncUserOperations}
+	 */
+	AsyncUserOperations userOperations();
+
+	/**
+	 * Returns the underlying {@link AsyncRestOperations} object allowing for consumption of Facebook endpoints that may not be otherwise covered by the API binding.
+	 * The AsyncRestOperations object returned is configured to include an OAuth 2 "Authorization" header on all requests.
+	 * @return AsyncRestOperations instrumented to include Authorization header on all requests
+	 */
+	AsyncRestOperations asyncRestOperations();
+
+}
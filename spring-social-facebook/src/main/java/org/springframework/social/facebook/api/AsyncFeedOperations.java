@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Defines non-blocking operations for reading and posting to a Facebook feed.
+ * Each operation mirrors the corresponding operation in {@link FeedOperations}, but returns a future for its result.
+ * Errors are reported by failing the future with the exception that {@link FeedOperations} would have thrown.
+ * @author Craig Walls
+ */
+public interface AsyncFeedOperations {
+
+	/**
+	 * Retrieves recent posts for the authenticated user.
+	 * Requires "read_stream" permission to read non-public posts. 
+	 * Returns up to the most recent 25 posts.
+	 * @return a future for a list of {@link Post}s for the authenticated user. 
+	 */
+	ListenableFuture<PagedList<Post>> getFeed();
+
+	/**
+	 * Retrieves recent posts for the authenticated user.
+	 * Requires "read_stream" permission to read non-public posts. 
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list of {@link Post}s for the authenticated user. 
+	 */
+	ListenableFuture<PagedList<Post>> getFeed(PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves recent feed entries for a given user. 
+	 * Returns up to the most recent 25 posts.
+	 * Requires "read_stream" permission to read non-public posts. 
+	 * @param ownerId the Facebook ID or alias for the owner (user, group, event, page, etc) of the feed.
+	 * @return a future for a list of {@link Post}s for the specified user. 
+	 */
+	ListenableFuture<PagedList<Post>> getFeed(String ownerId);
+
+	/**
+	 * Retrieves recent feed entries for a given user. 
+	 * Requires "read_stream" permission to read non-public posts.
+	 * @param ownerId the Facebook ID or alias for the owner (user, group, event, page, etc) of the feed.
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list of {@link Post}s for the specified user. 
+	 */
+	ListenableFuture<PagedList<Post>> getFeed(String ownerId, PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves the user's home feed. This includes entries from the user's friends.
+	 * Returns up to the most recent 25 posts.
+	 * Requires "read_stream" permission. 
+	 * @return a future for a list of {@link Post}s from the authenticated user's home feed.
+	 */
+	ListenableFuture<PagedList<Post>> getHomeFeed();
+
+	/**
+	 * Retrieves the user's home feed. This includes entries from the user's friends.
+	 * Requires "read_stream" permission. 
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list of {@link Post}s from the authenticated user's home feed.
+	 */
+	ListenableFuture<PagedList<Post>> getHomeFeed(PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves a list of posts made by a given owner (user, page, etc).
+	 * Requires "read_stream" permission to read non-public posts. 
+	 * @param ownerId the Facebook ID or alias for the owner of the posts.
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list of {@link Post}s made by the owner. 
+	 */
+	ListenableFuture<PagedList<Post>> getPosts(String ownerId, PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves a single feed entry.
+	 * @param entryId the entry ID
+	 * @return a future for the requested {@link Post}
+	 */
+	ListenableFuture<Post> getPost(String entryId);
+
+	/**
+	 * Posts a status update to the authenticated user's feed.
+	 * Requires "publish_actions" permission.
+	 * @param message the message to post.
+	 * @return a future for the ID of the new feed entry.
+	 */
+	ListenableFuture<String> updateStatus(String message);
+
+	/**
+	 * Posts a message to a feed.
+	 * Requires "publish_actions" permission.
+	 * @param ownerId the feed owner ID. Could be a user ID or a page ID.
+	 * @param message the message to post.
+	 * @return a future for the ID of the new feed entry.
+	 */
+	ListenableFuture<String> post(String ownerId, String message);
+
+	/**
+	 * Publishes a post to a feed.
+	 * Requires "publish_actions" permission.
+	 * @param post the post to publish.
+	 * @return a future for the ID of the new feed entry.
+	 */
+	ListenableFuture<String> post(PostData post);
+
+	/**
+	 * Deletes a post.
+	 * Requires "publish_actions" permission and the post must have been created by the same application.
+	 * @param id the feed entry ID
+	 * @return a future that completes once the post has been deleted.
+	 */
+	ListenableFuture<Void> deletePost(String id);
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Defines low-level, non-blocking operations against Facebook's Graph API.
+ * Each operation returns immediately with a {@link ListenableFuture} that is completed once Facebook's response has arrived,
+ * or that fails with the same exception the blocking {@link GraphApi} operation would have thrown.
+ * @author Craig Walls
+ */
+public interface AsyncGraphApi {
+
+	/**
+	 * Fetches an object, extracting it into the given Java type
+	 * Requires appropriate permission to fetch the object.
+	 * @param objectId the Facebook object's ID
+	 * @param type the Java type to fetch
+	 * @param fields the fields to include in the response.
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a future for a Java object representing the requested Facebook object.
+	 */
+	<T> ListenableFuture<T> fetchObject(String objectId, Class<T> type, String... fields);
+
+	/**
+	 * Fetches an object, extracting it into the given Java type
+	 * Requires appropriate permission to fetch the object.
+	 * @param objectId the Facebook object's ID
+	 * @param type the Java type to fetch
+	 * @param queryParameters query parameters to include in the request
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a future for a Java object representing the requested Facebook object.
+	 */
+	<T> ListenableFuture<T> fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters);
+
+	/**
+	 * Fetches connections, extracting them into a collection of the given Java type 
+	 * Requires appropriate permission to fetch the object connection.
+	 * @param objectId the ID of the object to retrieve the connections for.
+	 * @param connectionName the connection name.
+	 * @param type the Java type of each connection.
+	 * @param queryParameters query parameters to include in the request
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a future for a list of Java objects representing the Facebook objects in the connections.
+	 */
+	<T> ListenableFuture<PagedList<T>> fetchConnections(String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters);
+
+	/**
+	 * Fetches an image as an array of bytes.
+	 * @param objectId the object ID
+	 * @param connectionName the connection name
+	 * @param imageType the type of image to retrieve (eg., small, normal, large, or square)
+	 * @return a future for an image as an array of bytes.
+	 */
+	ListenableFuture<byte[]> fetchImage(String objectId, String connectionName, ImageType imageType);
+
+	/**
+	 * Publishes data to an object's connection.
+	 * Requires appropriate permission to publish to the object connection.
+	 * @param objectId the object ID to publish to.
+	 * @param connectionName the connection name to publish to.
+	 * @param data the data to publish to the connection.
+	 * @return a future for the ID of the newly published object.
+	 */
+	ListenableFuture<String> publish(String objectId, String connectionName, MultiValueMap<String, Object> data);
+
+	/**
+	 * Deletes an object.
+	 * Requires appropriate permission to delete the object.
+	 * @param objectId the object ID
+	 * @return a future that completes once the object has been deleted.
+	 */
+	ListenableFuture<Void> delete(String objectId);
+
+}
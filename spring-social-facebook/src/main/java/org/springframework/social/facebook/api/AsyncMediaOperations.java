@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Defines non-blocking operations for working with albums, photos, and videos.
+ * Each operation mirrors the corresponding operation in {@link MediaOperations}, but returns a future for its result.
+ * @author Craig Walls
+ */
+public interface AsyncMediaOperations {
+
+	/**
+	 * Retrieves a list of albums belonging to a specific owner (user, page, etc).
+	 * Requires "user_photos" or "friends_photos" permission.
+	 * @param ownerId the album owner's ID
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list {@link Album}s for the user, or an empty list if not available.
+	 */
+	ListenableFuture<PagedList<Album>> getAlbums(String ownerId, PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves data for a specific album.
+	 * Requires "user_photos" or "friends_photos" permission if the album is not public.
+	 * @param albumId the album ID
+	 * @return a future for the requested {@link Album} object.
+	 */
+	ListenableFuture<Album> getAlbum(String albumId);
+
+	/**
+	 * Retrieves photos from a specific album or that a user is tagged in.
+	 * Requires "user_photos" or "friends_photos" permission if the album is not public.
+	 * @param objectId either an album ID or a user ID
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list of {@link Photo}s in the specified album.
+	 */
+	ListenableFuture<PagedList<Photo>> getPhotos(String objectId, PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieve data for a specified photo.
+	 * Requires "user_photos" or "friends_photos" permission if the photo is not public.
+	 * @param photoId the photo's ID
+	 * @return a future for the requested {@link Photo}
+	 */
+	ListenableFuture<Photo> getPhoto(String photoId);
+
+	/**
+	 * Retrieves a photo's image as an array of bytes.
+	 * Requires "user_photos" or "friends_photos" permission if the photo is not public.
+	 * @param photoId the photo ID
+	 * @param imageType the image type (eg., small, normal, large. or square)
+	 * @return a future for an array of bytes containing the photo's image.
+	 */
+	ListenableFuture<byte[]> getPhotoImage(String photoId, ImageType imageType);
+
+	/**
+	 * Uploads a photo to a specific album.
+	 * Requires "publish_actions" permission.
+	 * @param albumId the ID of the album to upload the photo to. 
+	 * @param photo A {@link Resource} for the photo data. The given Resource must implement the getFilename() method (such as {@link org.springframework.core.io.FileSystemResource} or {@link org.springframework.core.io.ClassPathResource}).
+	 * @param caption A caption describing the photo.
+	 * @return a future for the ID of the photo.
+	 */
+	ListenableFuture<String> postPhoto(String albumId, Resource photo, String caption);
+
+	/**
+	 * Retrieves a list of videos that a specified user is tagged in.
+	 * Requires "user_videos" or "friends_videos" permission.
+	 * @param userId the ID of the user who is tagged in the videos.
+	 * @param pagedListParameters the parameters defining the bounds of the list to return.
+	 * @return a future for a list of {@link Video} belonging to the user.
+	 */
+	ListenableFuture<PagedList<Video>> getVideos(String userId, PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves data for a specific video.
+	 * Requires "user_videos" or "friends_videos" permission.
+	 * @param videoId the ID of the video.
+	 * @return a future for the requested {@link Video} data.
+	 */
+	ListenableFuture<Video> getVideo(String videoId);
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.util.List;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Defines non-blocking operations for working with Facebook user profiles.
+ * Each operation mirrors the corresponding operation in {@link UserOperations}, but returns a future for its result.
+ * @author Craig Walls
+ */
+public interface AsyncUserOperations {
+
+	/**
+	 * Retrieves the profile for the authenticated user.
+	 * @return a future for the user's profile information.
+	 */
+	ListenableFuture<FacebookProfile> getUserProfile();
+
+	/**
+	 * Retrieves the profile for the specified user.
+	 * @param userId the Facebook user ID to retrieve profile data for.
+	 * @return a future for the user's profile information.
+	 */
+	ListenableFuture<FacebookProfile> getUserProfile(String userId);
+
+	/**
+	 * Retrieves the user's profile image.
+	 * @param userId the Facebook user ID.
+	 * @param imageType the image type (eg., small, normal, large. or square)
+	 * @return a future for an array of bytes containing the user's profile image.
+	 */
+	ListenableFuture<byte[]> getUserProfileImage(String userId, ImageType imageType);
+
+	/**
+	 * Retrieves a list of permissions that the application has been granted for the authenticated user.
+	 * @return a future for the permissions granted for the user.
+	 */
+	ListenableFuture<List<String>> getUserPermissions();
+
+}
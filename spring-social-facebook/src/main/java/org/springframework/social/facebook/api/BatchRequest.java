@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.social.ApiException;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Collects low-level Graph API operations to be sent to Facebook together as one or more batch requests.
+ * Each queued operation returns a {@link BatchResult} handle that resolves once {@link #execute()} has been called.
+ * Operations are sent in batches of up to {@link #MAX_BATCH_SIZE} operations per HTTP request.
+ * Obtain an instance from {@link GraphApi#newBatch()}.
+ * @author Craig Walls
+ */
+public interface BatchRequest {
+
+	/**
+	 * Queues a request to fetch an object.
+	 * @param objectId the Facebook object's ID
+	 * @param type the Java type to fetch
+	 * @param fields the fields to include in the response.
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a handle to the fetched object
+	 */
+	<T> BatchResult<T> fetchObject(String objectId, Class<T> type, String... fields);
+
+	/**
+	 * Queues a request to fetch an object.
+	 * @param objectId the Facebook object's ID
+	 * @param type the Java type to fetch
+	 * @param queryParameters query parameters to include in the request
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a handle to the fetched object
+	 */
+	<T> BatchResult<T> fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters);
+
+	/**
+	 * Queues a request to fetch an object's connections.
+	 * @param objectId the ID of the object to retrieve the connections for.
+	 * @param connectionName the connection name.
+	 * @param type the Java type of each connection.
+	 * @param fields the fields to include in the response.
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a handle to the list of connections
+	 */
+	<T> BatchResult<PagedList<T>> fetchConnections(String objectId, String connectionName, Class<T> type, String... fields);
+
+	/**
+	 * Queues a request to fetch an object's connections.
+	 * @param objectId the ID of the object to retrieve the connections for.
+	 * @param connectionName the connection name.
+	 * @param type the Java type of each connection.
+	 * @param queryParameters query parameters to include in the request
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a handle to the list of connections
+	 */
+	<T> BatchResult<PagedList<T>> fetchConnections(String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters);
+
+	/**
+	 * Queues a request to publish data to an object's connection.
+	 * Only simple (String-valued) data may be published in a batch; file uploads must be published individually.
+	 * @param objectId the object ID to publish to.
+	 * @param connectionName the connection name to publish to.
+	 * @param data the data to publish to the connection.
+	 * @return a handle to the ID of the newly published object.
+	 * @throws IllegalArgumentException if the data contains values other than Strings.
+	 */
+	BatchResult<String> publish(String objectId, String connectionName, MultiValueMap<String, Object> data);
+
+	/**
+	 * Queues a request to delete an object.
+	 * @param objectId the object ID
+	 * @return a handle that resolves when the object has been deleted
+	 */
+	BatchResult<Void> delete(String objectId);
+
+	/**
+	 * Queues a request to delete an object connection.
+	 * @param objectId the object ID
+	 * @param connectionName the connection name
+	 * @return a handle that resolves when the object connection has been deleted
+	 */
+	BatchResult<Void> delete(String objectId, String connectionName);
+
+	/**
+	 * @return the number of operations queued and not yet executed.
+	 */
+	int size();
+
+	/**
+	 * Sends all queued operations to Facebook, resolving their {@link BatchResult} handles.
+	 * Failures of individual operations do not cause this method to fail; they are reported through the corresponding handle.
+	 * @throws ApiException if a batch request as a whole fails. Handles for the operations in that batch will fail with the same exception.
+	 */
+	void execute();
+
+	/**
+	 * The maximum number of operations Facebook accepts in a single batch request.
+	 */
+	static final int MAX_BATCH_SIZE = 50;
+
+}
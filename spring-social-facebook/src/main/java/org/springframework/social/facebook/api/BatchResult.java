@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.social.ApiException;
+
+/**
+ * A handle to the result of a single operation queued in a {@link BatchRequest}.
+ * The result is available once the batch has been executed.
+ * @author Craig Walls
+ * @param <T> the type of the operation's result
+ */
+public interface BatchResult<T> {
+
+	/**
+	 * @return true if the batch containing this operation has been executed and the operation's result (or failure) is available.
+	 */
+	boolean isDone();
+	
+	/**
+	 * Retrieves the result of the batched operation.
+	 * @return the result of the operation, bound to the requested Java type.
+	 * @throws ApiException the same exception that the operation would have thrown had it been performed outside of a batch.
+	 * @throws IllegalStateException if the batch has not yet been executed.
+	 */
+	T get();
+
+}
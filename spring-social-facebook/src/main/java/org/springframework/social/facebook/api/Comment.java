@@ -51,6 +51,10 @@ public class Comment extends FacebookObject {
 	private Comment parent;
 
 	private boolean userLikes;
+
+	private PagedList<Comment> comments;
+
+	private PagedList<Reference> likes;
 	
 	/**
 	 * @return the comment's Graph API object ID
@@ -136,4 +140,20 @@ public class Comment extends FacebookObject {
 		return messageTags != null ? messageTags : EMPTY_TAG_LIST;
 	}
 
+	/**
+	 * @return the first page of replies to this comment, if they were requested by expanding the comment's "comments" field; otherwise null.
+	 * @see GraphQuery
+	 */
+	public PagedList<Comment> getComments() {
+		return comments;
+	}
+
+	/**
+	 * @return the first page of references to the users who like this comment, if they were requested by expanding the comment's "likes" field; otherwise null.
+	 * @see GraphQuery
+	 */
+	public PagedList<Reference> getLikes() {
+		return likes;
+	}
+
 }
@@ -15,6 +15,8 @@
  */
 package org.springframework.social.facebook.api;
 
+import java.util.List;
+
 import org.springframework.social.ApiException;
 import org.springframework.social.InsufficientPermissionException;
 import org.springframework.social.MissingAuthorizationException;
@@ -33,6 +35,33 @@ public interface EventOperations {
 	 * @throws ApiException if there is an error while communicating with Facebook.
 	 */
 	Event getEvent(String eventId);
+
+	/**
+	 * Retrieves event data for several events, fetching up to 50 events per request.
+	 * @param eventIds the event IDs
+	 * @return a list of {@link Event} objects, in the order that their IDs were given. IDs for which Facebook returned nothing are omitted.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	List<Event> getEvents(List<String> eventIds);
+
+	/**
+	 * Retrieves the given fields of a specified event.
+	 * @param eventId the event ID
+	 * @param projection the event fields to retrieve, such as {@link #MINIMAL_EVENT}.
+	 * @return an {@link Event} object, with only the projected fields populated.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	Event getEvent(String eventId, FieldProjection<Event> projection);
+
+	/**
+	 * Retrieves the given fields of several events, fetching up to 50 events per request.
+	 * @param eventIds the event IDs
+	 * @param projection the event fields to retrieve, such as {@link #MINIMAL_EVENT}.
+	 * @return a list of {@link Event} objects, in the order that their IDs were given, with only the projected fields populated. 
+	 * 			IDs for which Facebook returned nothing are omitted.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	List<Event> getEvents(List<String> eventIds, FieldProjection<Event> projection);
 	
 	/**
 	 * Retrieves an event's image as an array of bytes. Returns the image in Facebook's "normal" type.
@@ -338,4 +367,21 @@ public interface EventOperations {
 	 */
 	PagedList<Event> search(String query, PagingParameters pagedListParameters);
 
+	/**
+	 * Projects an event's ID, name, and last update time.
+	 */
+	static final FieldProjection<Event> MINIMAL_EVENT = FieldProjection.of(Event.class, "id", "name", "updated_time");
+
+	/**
+	 * Projects an event's ID, name, owner, start and end times, location, and last update time.
+	 */
+	static final FieldProjection<Event> STANDARD_EVENT = FieldProjection.of(Event.class, 
+			"id", "name", "owner", "start_time", "end_time", "timezone", "location", "updated_time");
+
+	/**
+	 * Projects the event fields fetched by {@link #getEvent(String)}.
+	 */
+	static final FieldProjection<Event> FULL_EVENT = FieldProjection.of(Event.class, "id", "cover", "description", "end_time", "is_date_only", 
+			"location", "name", "owner", "parent_group", "privacy", "start_time", "ticket_uri", "timezone", "updated_time", "venue");
+
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The high watermark of a feed, as recorded by {@link FeedSync} in a {@link FeedCheckpointStore} at the end of each successful run.
+ * Facebook's "since" bound is inclusive, so alongside the creation time of the newest post seen, the checkpoint keeps the IDs of the posts 
+ * created at that same second so that they are not delivered again by the next run.
+ * @author Craig Walls
+ */
+public class FeedCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long since;
+
+	private final Set<String> lastSeenIds;
+
+	/**
+	 * Creates a checkpoint.
+	 * @param since the creation time, in seconds since the epoch, of the newest post seen
+	 * @param lastSeenIds the IDs of the posts created at that time
+	 */
+	public FeedCheckpoint(long since, Set<String> lastSeenIds) {
+		this.since = since;
+		this.lastSeenIds = Collections.unmodifiableSet(new LinkedHashSet<String>(lastSeenIds));
+	}
+
+	/**
+	 * @return the creation time, in seconds since the epoch, of the newest post seen. The next run fetches posts created at or after this time.
+	 */
+	public long getSince() {
+		return since;
+	}
+
+	/**
+	 * @return the IDs of the posts created at {@link #getSince()} that have already been seen
+	 */
+	public Set<String> getLastSeenIds() {
+		return lastSeenIds;
+	}
+
+	@Override
+	public String toString() {
+		return "FeedCheckpoint[since=" + since + ", lastSeenIds=" + lastSeenIds + "]";
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+/**
+ * Store for the checkpoints that {@link FeedSync} records at the end of each run, so that the next run (possibly in another process) 
+ * fetches only the posts that are newer than the last run's.
+ * {@link InMemoryFeedCheckpointStore} keeps checkpoints on the heap for the life of the JVM; {@link FileFeedCheckpointStore} keeps them in files
+ * so that they survive restarts. Other implementations may keep them in a database.
+ * Implementations must be safe for use by multiple threads.
+ * @author Craig Walls
+ */
+public interface FeedCheckpointStore {
+
+	/**
+	 * Loads a feed's checkpoint.
+	 * @param key the key that identifies the feed, such as "feed:12345"
+	 * @return the checkpoint, or null if none has been saved for the feed
+	 */
+	FeedCheckpoint load(String key);
+
+	/**
+	 * Saves a feed's checkpoint, replacing any checkpoint already saved for it.
+	 * @param key the key that identifies the feed
+	 * @param checkpoint the checkpoint
+	 */
+	void save(String key, FeedCheckpoint checkpoint);
+
+	/**
+	 * Removes a feed's checkpoint, if there is one, so that the next run fetches the feed from its beginning.
+	 * @param key the key that identifies the feed
+	 */
+	void remove(String key);
+
+}
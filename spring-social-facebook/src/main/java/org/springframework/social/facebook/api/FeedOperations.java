@@ -99,6 +99,15 @@ public interface FeedOperations {
 	 * @throws ApiException if there is an error while communicating with Facebook.
 	 */
 	Post getPost(String entryId);
+
+	/**
+	 * Retrieves the given fields of a single post.
+	 * @param entryId the entry ID
+	 * @param projection the post fields to retrieve, such as {@link #MINIMAL_POST}.
+	 * @return the requested {@link Post}, with only the projected fields populated.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	Post getPost(String entryId, FieldProjection<Post> projection);
 	
 	/**
 	 * Retrieves the status entries from the authenticated user's feed.
@@ -421,5 +430,16 @@ public interface FeedOperations {
 	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
 	 */
 	Post getCheckin(String checkinId);
-	
+
+	/**
+	 * Projects a post's ID and its creation and last update times.
+	 */
+	static final FieldProjection<Post> MINIMAL_POST = FieldProjection.of(Post.class, "id", "created_time", "updated_time");
+
+	/**
+	 * Projects a post's ID, author, message, type, link, and its creation and last update times.
+	 */
+	static final FieldProjection<Post> STANDARD_POST = FieldProjection.of(Post.class, 
+			"id", "from", "message", "type", "status_type", "link", "created_time", "updated_time");
+
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * <p>Incrementally synchronizes feeds, fetching on each run only the posts created since the previous run.</p>
+ * <p>
+ * At the end of each run, the creation time of the newest post seen (and the IDs of the posts created at that second) are saved to a 
+ * {@link FeedCheckpointStore} as the feed's {@link FeedCheckpoint}. The next run asks Facebook only for posts created since then, 
+ * following the feed's pages back until it reaches posts it has already seen, so a feed that has not changed costs a single request.
+ * A checkpoint is only saved once a run has fetched every new post, so a run that fails is simply repeated by the next run.
+ * </p>
+ * <p>
+ * The first run for a feed fetches it in full, or only back to the {@link #setInitialSince(Date) initial since time} if one is set.
+ * Checkpoints are saved under the keys "feed:{ownerId}", "posts:{ownerId}", and "home:{userId}"; removing a feed's checkpoint from the store 
+ * causes its next run to start over.
+ * </p>
+ * @author Craig Walls
+ */
+public class FeedSync {
+
+	private static final int DEFAULT_PAGE_SIZE = 25;
+
+	private final FeedOperations feedOperations;
+
+	private final FeedCheckpointStore checkpointStore;
+
+	private int pageSize = DEFAULT_PAGE_SIZE;
+
+	private Long initialSince;
+
+	/**
+	 * Creates a feed synchronizer.
+	 * @param feedOperations the feed operations to fetch posts with
+	 * @param checkpointStore the store to keep each feed's checkpoint in
+	 */
+	public FeedSync(FeedOperations feedOperations, FeedCheckpointStore checkpointStore) {
+		Assert.notNull(feedOperations, "Feed operations must not be null");
+		Assert.notNull(checkpointStore, "Checkpoint store must not be null");
+		this.feedOperations = feedOperations;
+		this.checkpointStore = checkpointStore;
+	}
+
+	/**
+	 * Sets the number of posts to fetch per request. Defaults to 25.
+	 * @param pageSize the page size
+	 */
+	public void setPageSize(int pageSize) {
+		Assert.isTrue(pageSize > 0, "Page size must be positive");
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Sets how far back the first run for a feed (one with no checkpoint) fetches. By default, the first run fetches the entire feed.
+	 * @param initialSince the creation time of the oldest posts to fetch on a first run, or null to fetch the entire feed
+	 */
+	public void setInitialSince(Date initialSince) {
+		this.initialSince = initialSince != null ? toSeconds(initialSince) : null;
+	}
+
+	/**
+	 * Fetches the posts added to a feed since the last run.
+	 * @param ownerId the ID of the feed's owner
+	 * @return the new posts, newest first
+	 * @see FeedOperations#getFeed(String, PagingParameters)
+	 */
+	public List<Post> syncFeed(final String ownerId) {
+		return sync("feed:" + ownerId, new PageFetcher() {
+			public PagedList<Post> fetchPage(PagingParameters page) {
+				return feedOperations.getFeed(ownerId, page);
+			}
+		});
+	}
+
+	/**
+	 * Fetches the posts made by a feed's owner since the last run.
+	 * @param ownerId the ID of the feed's owner
+	 * @return the new posts, newest first
+	 * @see FeedOperations#getPosts(String, PagingParameters)
+	 */
+	public List<Post> syncPosts(final String ownerId) {
+		return sync("posts:" + ownerId, new PageFetcher() {
+			public PagedList<Post> fetchPage(PagingParameters page) {
+				return feedOperations.getPosts(ownerId, page);
+			}
+		});
+	}
+
+	/**
+	 * Fetches the posts added to the authenticated user's home feed since the last run.
+	 * The home feed is always fetched as "me", so the user's ID is needed to keep each user's checkpoint apart 
+	 * when several users' feed operations share a checkpoint store.
+	 * @param userId the ID of the authenticated user
+	 * @return the new posts, newest first
+	 * @see FeedOperations#getHomeFeed(PagingParameters)
+	 */
+	public List<Post> syncHomeFeed(String userId) {
+		return sync("home:" + userId, new PageFetcher() {
+			public PagedList<Post> fetchPage(PagingParameters page) {
+				return feedOperations.getHomeFeed(page);
+			}
+		});
+	}
+
+	// private helpers
+	private List<Post> sync(String key, PageFetcher fetcher) {
+		FeedCheckpoint checkpoint = checkpointStore.load(key);
+		Long since = checkpoint != null ? Long.valueOf(checkpoint.getSince()) : initialSince;
+		Set<String> lastSeenIds = checkpoint != null ? checkpoint.getLastSeenIds() : new LinkedHashSet<String>();
+		List<Post> newPosts = new ArrayList<Post>();
+		PagingParameters page = new PagingParameters(pageSize, null, since, null);
+		boolean reachedSeenPosts = false;
+		while (page != null && !reachedSeenPosts) {
+			PagedList<Post> posts = fetcher.fetchPage(page);
+			for (Post post : posts) {
+				Long createdTime = post.getCreatedTime() != null ? toSeconds(post.getCreatedTime()) : null;
+				if (since != null && createdTime != null && createdTime < since) {
+					reachedSeenPosts = true;
+				} else if (!lastSeenIds.contains(post.getId())) {
+					newPosts.add(post);
+				}
+			}
+			// the next page's URL carries Facebook's own cursor, but not the since bound
+			PagingParameters nextPage = posts.isEmpty() ? null : posts.getNextPage();
+			page = nextPage != null ? new PagingParameters(nextPage.getLimit(), nextPage.getOffset(), since, nextPage.getUntil(), nextPage.getAfter(), nextPage.getBefore()) : null;
+		}
+		FeedCheckpoint newCheckpoint = advance(checkpoint, newPosts);
+		if (newCheckpoint != checkpoint) {
+			checkpointStore.save(key, newCheckpoint);
+		}
+		return newPosts;
+	}
+
+	private FeedCheckpoint advance(FeedCheckpoint checkpoint, List<Post> newPosts) {
+		long newest = checkpoint != null ? checkpoint.getSince() : Long.MIN_VALUE;
+		for (Post post : newPosts) {
+			if (post.getCreatedTime() != null) {
+				newest = Math.max(newest, toSeconds(post.getCreatedTime()));
+			}
+		}
+		if (newest == Long.MIN_VALUE) {
+			return checkpoint;
+		}
+		Set<String> newestIds = new LinkedHashSet<String>();
+		if (checkpoint != null && checkpoint.getSince() == newest) {
+			newestIds.addAll(checkpoint.getLastSeenIds());
+		}
+		for (Post post : newPosts) {
+			if (post.getCreatedTime() != null && toSeconds(post.getCreatedTime()) == newest) {
+				newestIds.add(post.getId());
+			}
+		}
+		if (checkpoint != null && checkpoint.getSince() == newest && checkpoint.getLastSeenIds().equals(newestIds)) {
+			return checkpoint;
+		}
+		return new FeedCheckpoint(newest, newestIds);
+	}
+
+	private static long toSeconds(Date date) {
+		return date.getTime() / 1000;
+	}
+
+	private static interface PageFetcher {
+		PagedList<Post> fetchPage(PagingParameters page);
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * <p>Selects the fields that Facebook returns for an object of a given type, so that only the fields a caller needs are sent over the wire and bound.</p>
+ * <p>
+ * Operations that accept a projection send its fields as the request's "fields" parameter. Fields that are not projected are left null
+ * (or at their defaults) in the bound object. The operations interfaces define named projections for the types they fetch,
+ * such as {@link UserOperations#MINIMAL_PROFILE}, {@link UserOperations#STANDARD_PROFILE}, and {@link UserOperations#FULL_PROFILE}.
+ * A named projection may be extended with {@link #and(String...)}.
+ * </p>
+ * @author Craig Walls
+ * @param <T> the type of object whose fields are projected
+ */
+@SuppressWarnings("serial")
+public final class FieldProjection<T> implements Serializable {
+
+	private final Class<T> type;
+
+	private final String[] fields;
+
+	private final String fieldsParameter;
+
+	private FieldProjection(Class<T> type, Set<String> fields) {
+		this.type = type;
+		this.fields = fields.toArray(new String[fields.size()]);
+		StringBuilder builder = new StringBuilder();
+		for (String field : fields) {
+			builder.append(builder.length() > 0 ? "," : "").append(field);
+		}
+		this.fieldsParameter = builder.toString();
+	}
+
+	/**
+	 * Creates a projection of the given fields of an object type.
+	 * @param type the type of object whose fields are projected
+	 * @param fields the names of the fields, as named by the Graph API (e.g., "id", "name", "updated_time"). Duplicates are ignored.
+	 * @param <T> the type of object whose fields are projected
+	 * @return a projection of the given fields
+	 */
+	public static <T> FieldProjection<T> of(Class<T> type, String... fields) {
+		Assert.notNull(type, "Type must not be null");
+		Assert.notEmpty(fields, "At least one field must be projected");
+		return new FieldProjection<T>(type, new LinkedHashSet<String>(Arrays.asList(fields)));
+	}
+
+	/**
+	 * Creates a projection of this projection's fields and the given fields.
+	 * @param fields the names of the fields to add
+	 * @return a new projection, leaving this projection unchanged
+	 */
+	public FieldProjection<T> and(String... fields) {
+		Set<String> combinedFields = new LinkedHashSet<String>(Arrays.asList(this.fields));
+		combinedFields.addAll(Arrays.asList(fields));
+		return new FieldProjection<T>(type, combinedFields);
+	}
+
+	/**
+	 * @return the type of object whose fields are projected
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * @return the names of the projected fields
+	 */
+	public String[] getFields() {
+		return fields.clone();
+	}
+
+	/**
+	 * @return the projected fields as the value of a "fields" request parameter
+	 */
+	public String toFieldsParameter() {
+		return fieldsParameter;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof FieldProjection)) {
+			return false;
+		}
+		FieldProjection<?> other = (FieldProjection<?>) o;
+		return type.equals(other.type) && fieldsParameter.equals(other.fieldsParameter);
+	}
+
+	@Override
+	public int hashCode() {
+		return type.hashCode() * 31 + fieldsParameter.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return type.getSimpleName() + "{" + fieldsParameter + "}";
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link FeedCheckpointStore} that keeps each checkpoint in a small properties file in a given directory, so that checkpoints survive restarts.
+ * A checkpoint is written to a temporary file that then replaces the previous checkpoint's file, so that a crash while saving 
+ * leaves the previous checkpoint intact.
+ * Files are named after a hash of the feed's key; the key itself is recorded in the file.
+ * @author Craig Walls
+ */
+public class FileFeedCheckpointStore implements FeedCheckpointStore {
+
+	private static final String FILE_SUFFIX = ".checkpoint";
+
+	private final File directory;
+
+	/**
+	 * Creates a file-based checkpoint store.
+	 * @param directory the directory to keep checkpoint files in. Created if it does not exist.
+	 */
+	public FileFeedCheckpointStore(File directory) {
+		Assert.notNull(directory, "Directory must not be null");
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalArgumentException("Unable to create checkpoint directory " + directory);
+		}
+		this.directory = directory;
+	}
+
+	public synchronized FeedCheckpoint load(String key) {
+		File file = checkpointFile(key);
+		if (!file.exists()) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try {
+			InputStream in = new FileInputStream(file);
+			try {
+				properties.load(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read checkpoint for " + key + " from " + file, e);
+		}
+		Set<String> lastSeenIds = new LinkedHashSet<String>(StringUtils.commaDelimitedListToSet(properties.getProperty("lastSeenIds", "")));
+		return new FeedCheckpoint(Long.parseLong(properties.getProperty("since")), lastSeenIds);
+	}
+
+	public synchronized void save(String key, FeedCheckpoint checkpoint) {
+		Properties properties = new Properties();
+		properties.setProperty("key", key);
+		properties.setProperty("since", String.valueOf(checkpoint.getSince()));
+		properties.setProperty("lastSeenIds", StringUtils.collectionToCommaDelimitedString(checkpoint.getLastSeenIds()));
+		File file = checkpointFile(key);
+		File tempFile = new File(directory, file.getName() + ".tmp");
+		try {
+			OutputStream out = new FileOutputStream(tempFile);
+			try {
+				properties.store(out, null);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			tempFile.delete();
+			throw new IllegalStateException("Unable to write checkpoint for " + key + " to " + tempFile, e);
+		}
+		// File.renameTo() won't replace an existing file on some platforms
+		if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+			throw new IllegalStateException("Unable to replace checkpoint for " + key + " at " + file);
+		}
+	}
+
+	public synchronized void remove(String key) {
+		checkpointFile(key).delete();
+	}
+
+	private File checkpointFile(String key) {
+		return new File(directory, DigestUtils.md5DigestAsHex(key.getBytes()) + FILE_SUFFIX);
+	}
+
+}
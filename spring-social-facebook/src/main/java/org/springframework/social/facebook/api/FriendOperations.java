@@ -120,6 +120,18 @@ public interface FriendOperations {
 	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
 	 */
 	PagedList<FacebookProfile> getFriendProfiles(String userId, PagingParameters pagedListParameters);
+
+	/**
+	 * Retrieves the given profile fields of the specified user's friends.
+	 * The list of profiles is ordered by each user's Facebook ID.
+	 * @param userId the user's ID
+	 * @param projection the profile fields to retrieve, such as {@link UserOperations#MINIMAL_PROFILE}.
+	 * @param pagedListParameters the parameters defining the bounds of the list to return. May be null.
+	 * @return a list {@link FacebookProfile}s, each representing a friend of the user, with only the projected fields populated.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
+	 */
+	PagedList<FacebookProfile> getFriendProfiles(String userId, FieldProjection<FacebookProfile> projection, PagingParameters pagedListParameters);
 	
 	/**
 	 * Retrieves a list of FamilyMember references for the authenticated user.
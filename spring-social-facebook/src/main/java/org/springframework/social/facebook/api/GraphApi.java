@@ -15,6 +15,11 @@
  */
 package org.springframework.social.facebook.api;
 
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
 import org.springframework.util.MultiValueMap;
 
 /**
@@ -55,6 +60,31 @@ public interface GraphApi {
 	 */
 	<T> T fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters);
 
+	/**
+	 * Fetches an object, extracting it into the given Java type, along with any of its connections that the query expands.
+	 * Requires appropriate permission to fetch the object.
+	 * @param objectId the Facebook object's ID
+	 * @param type the Java type to fetch
+	 * @param query the fields to fetch, including connections to expand into the object.
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return an Java object representing the requested Facebook object.
+	 */
+	<T> T fetchObject(String objectId, Class<T> type, GraphQuery query);
+
+	/**
+	 * Fetches several objects of the same type, extracting them into the given Java type.
+	 * Uses the Graph API's "ids" parameter to fetch many objects per request, splitting the IDs
+	 * into as many requests as needed to stay within Facebook's limit of {@link #MAX_IDS_PER_REQUEST} IDs per request.
+	 * Requires appropriate permission to fetch the objects.
+	 * @param objectIds the Facebook objects' IDs
+	 * @param type the Java type to fetch
+	 * @param fields the fields to include in the response.
+	 * @param <T> The Java type to bind the Facebook objects to
+	 * @return a list of Java objects representing the requested Facebook objects, in the order that their IDs were given. 
+	 * 			IDs for which Facebook returned no object are omitted.
+	 */
+	<T> List<T> fetchObjects(List<String> objectIds, Class<T> type, String... fields);
+
 	/**
 	 * Fetches connections, extracting them into a collection of the given Java type 
 	 * Requires appropriate permission to fetch the object connection.
@@ -92,6 +122,35 @@ public interface GraphApi {
 	 */
 	<T> PagedList<T> fetchConnections(String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters, String... fields);
 
+	/**
+	 * Fetches connections, extracting them into a collection of the given Java type, along with any of their own connections that the query expands.
+	 * For example, a query that expands "comments" and "likes" fetches a page of a feed's posts and their comments and likes in a single request.
+	 * Requires appropriate permission to fetch the object connection.
+	 * @param objectId the ID of the object to retrieve the connections for.
+	 * @param connectionName the connection name.
+	 * @param type the Java type of each connection.
+	 * @param query the fields to fetch, including connections to expand into each fetched object.
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return a list of Java objects representing the Facebook objects in the connections.
+	 */
+	<T> PagedList<T> fetchConnections(String objectId, String connectionName, Class<T> type, GraphQuery query);
+
+	/**
+	 * Iterates over all of an object's connections, extracting them into the given Java type.
+	 * Pages of connections are fetched lazily as the iteration proceeds, following each page's next-page cursor,
+	 * so that only the page being consumed (and possibly the next page, if prefetching is enabled) is held in memory.
+	 * For example, <code>iterateConnections("me", "feed", Post.class, params)</code> visits every post in a user's feed,
+	 * and <code>iterateConnections("me", "likes", Page.class, params)</code> visits every page the user likes.
+	 * Requires appropriate permission to fetch the object connection.
+	 * @param objectId the ID of the object to retrieve the connections for.
+	 * @param connectionName the connection name.
+	 * @param type the Java type of each connection.
+	 * @param queryParameters query parameters to include in each page request, such as "fields" and "limit" (the page size).
+	 * @param <T> The Java type to bind the Facebook object to
+	 * @return an Iterable whose iterators fetch pages of connections on demand.
+	 */
+	<T> Iterable<T> iterateConnections(String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters);
+
 	/**
 	 * Fetches an image as an array of bytes.
 	 * @param objectId the object ID
@@ -101,6 +160,38 @@ public interface GraphApi {
 	 */
 	byte[] fetchImage(String objectId, String connectionName, ImageType imageType);	
 
+	/**
+	 * Fetches an image, streaming it to the given output stream as it is read rather than holding it in memory.
+	 * Redirects (such as to Facebook's CDN) are followed. The output stream is not closed.
+	 * @param objectId the object ID
+	 * @param connectionName the connection name
+	 * @param imageType the type of image to retrieve (eg., small, normal, large, or square)
+	 * @param out the output stream to write the image to
+	 */
+	void fetchImage(String objectId, String connectionName, ImageType imageType, OutputStream out);
+
+	/**
+	 * Fetches an image, streaming it to the given channel as it is read rather than holding it in memory.
+	 * If the channel is a {@link java.nio.channels.FileChannel}, the image is transferred to it at its current position with 
+	 * {@link java.nio.channels.FileChannel#transferFrom(java.nio.channels.ReadableByteChannel, long, long)}.
+	 * Redirects (such as to Facebook's CDN) are followed. The channel is not closed.
+	 * @param objectId the object ID
+	 * @param connectionName the connection name
+	 * @param imageType the type of image to retrieve (eg., small, normal, large, or square)
+	 * @param channel the channel to write the image to
+	 */
+	void fetchImage(String objectId, String connectionName, ImageType imageType, WritableByteChannel channel);
+
+	/**
+	 * Fetches an image, streaming it into the given file, which is created or overwritten.
+	 * Redirects (such as to Facebook's CDN) are followed.
+	 * @param objectId the object ID
+	 * @param connectionName the connection name
+	 * @param imageType the type of image to retrieve (eg., small, normal, large, or square)
+	 * @param file the file to write the image to
+	 */
+	void fetchImage(String objectId, String connectionName, ImageType imageType, File file);
+
 	/**
 	 * Publishes data to an object's connection.
 	 * Requires appropriate permission to publish to the object connection.
@@ -146,6 +237,13 @@ public interface GraphApi {
 	 */
 	void delete(String objectId, String connectionName, MultiValueMap<String, String> data);
 
+	/**
+	 * Creates a new batch into which fetch, publish, and delete operations may be queued and then sent to Facebook
+	 * using as few HTTP requests as possible.
+	 * @return a new, empty {@link BatchRequest}
+	 */
+	BatchRequest newBatch();
+
 	/**
 	 * @return The application namespace associated with this GraphApi instance. Useful for interacting with Facebook's OpenGraph actions.
 	 * 			May be null if no namespace was specified.
@@ -154,4 +252,9 @@ public interface GraphApi {
 	
 	static final String GRAPH_API_URL = "https://graph.facebook.com/v2.2/";
 
+	/**
+	 * The maximum number of object IDs that Facebook accepts in a single request's "ids" parameter.
+	 */
+	static final int MAX_IDS_PER_REQUEST = 50;
+
 }
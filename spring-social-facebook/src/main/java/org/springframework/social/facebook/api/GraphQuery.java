@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * <p>Describes the fields to fetch for a Graph API object or connection, including connections of the fetched objects that are to be expanded into them.</p>
+ * <p>
+ * Field expansion lets a single request fetch objects together with their own connections. For example, the following fetches a page of 
+ * a user's feed along with up to 50 comments on each post and a summary of each post's likes:
+ * </p>
+ * <pre>
+ * GraphQuery query = GraphQuery.select("id", "from", "message", "created_time")
+ *     .expanding(GraphQuery.expand("comments").limit(50).fields("from", "message"))
+ *     .expanding(GraphQuery.expand("likes").summary(true))
+ *     .limit(25);
+ * PagedList&lt;Post&gt; feed = facebook.fetchConnections("me", "feed", Post.class, query);
+ * </pre>
+ * <p>
+ * This is sent as <code>me/feed?fields=id,from,message,created_time,comments.limit(50){from,message},likes.summary(true)&amp;limit=25</code>,
+ * and each post's expanded connections are available from {@link Post#getComments()} and {@link Post#getLikes()} as {@link PagedList}s
+ * whose next pages may be fetched with the connection's operations (such as {@link CommentOperations#getComments(String, PagingParameters)}).
+ * </p>
+ * Given to {@link GraphApi#fetchObject(String, Class, GraphQuery)} and {@link GraphApi#fetchConnections(String, String, Class, GraphQuery)}.
+ * @author Craig Walls
+ */
+public class GraphQuery {
+
+	private final String connectionName;
+
+	private final List<String> fields = new ArrayList<String>();
+
+	private final List<GraphQuery> expansions = new ArrayList<GraphQuery>();
+
+	private Integer limit;
+
+	private boolean summary;
+
+	private GraphQuery(String connectionName) {
+		this.connectionName = connectionName;
+	}
+
+	/**
+	 * Creates a query for the given fields of the fetched objects.
+	 * @param fields the names of the fields to fetch
+	 * @return a new query
+	 */
+	public static GraphQuery select(String... fields) {
+		return new GraphQuery(null).fields(fields);
+	}
+
+	/**
+	 * Creates an expansion of a connection of the fetched objects, to be given to {@link #expanding(GraphQuery)}.
+	 * Unless fields are given with {@link #fields(String...)}, Facebook's default fields are fetched for the connection's objects.
+	 * @param connectionName the connection to expand (e.g., "comments" or "likes")
+	 * @return a new expansion
+	 */
+	public static GraphQuery expand(String connectionName) {
+		Assert.hasText(connectionName, "Connection name must not be empty");
+		return new GraphQuery(connectionName);
+	}
+
+	/**
+	 * @param fields additional fields to fetch
+	 * @return the GraphQuery object for additional configuration
+	 */
+	public GraphQuery fields(String... fields) {
+		for (String field : fields) {
+			this.fields.add(field);
+		}
+		return this;
+	}
+
+	/**
+	 * @param expansion a connection to expand into each fetched object, created with {@link #expand(String)}. May itself expand further connections.
+	 * @return the GraphQuery object for additional configuration
+	 */
+	public GraphQuery expanding(GraphQuery expansion) {
+		Assert.notNull(expansion.connectionName, "Only queries created with GraphQuery.expand() may be expanded into another query");
+		expansions.add(expansion);
+		return this;
+	}
+
+	/**
+	 * @param limit the maximum number of objects to fetch. For an expansion, the maximum number of the connection's objects to embed in each fetched object;
+	 * 			otherwise, the page size of the fetched connection.
+	 * @return the GraphQuery object for additional configuration
+	 */
+	public GraphQuery limit(int limit) {
+		this.limit = limit;
+		return this;
+	}
+
+	/**
+	 * @param summary whether the fetched connection (or an expanded connection) should carry a summary, making its total count available from {@link PagedList#getTotalCount()}.
+	 * @return the GraphQuery object for additional configuration
+	 */
+	public GraphQuery summary(boolean summary) {
+		this.summary = summary;
+		return this;
+	}
+
+	/**
+	 * @return the query's fields and expansions as the value of a "fields" request parameter
+	 */
+	public String toFieldsParameter() {
+		StringBuilder builder = new StringBuilder();
+		appendFields(builder);
+		return builder.toString();
+	}
+
+	/**
+	 * @return the query's request parameters
+	 */
+	public MultiValueMap<String, String> toRequestParameters() {
+		MultiValueMap<String, String> parameters = new LinkedMultiValueMap<String, String>();
+		if (!fields.isEmpty() || !expansions.isEmpty()) {
+			parameters.set("fields", toFieldsParameter());
+		}
+		if (limit != null && connectionName == null) {
+			parameters.set("limit", String.valueOf(limit));
+		}
+		if (summary && connectionName == null) {
+			parameters.set("summary", "true");
+		}
+		return parameters;
+	}
+
+	private void appendFields(StringBuilder builder) {
+		for (String field : fields) {
+			builder.append(builder.length() > 0 ? "," : "").append(field);
+		}
+		for (GraphQuery expansion : expansions) {
+			builder.append(builder.length() > 0 ? "," : "");
+			expansion.appendExpansion(builder);
+		}
+	}
+
+	private void appendExpansion(StringBuilder builder) {
+		builder.append(connectionName);
+		if (limit != null) {
+			builder.append(".limit(").append(limit).append(")");
+		}
+		if (summary) {
+			builder.append(".summary(true)");
+		}
+		if (!fields.isEmpty() || !expansions.isEmpty()) {
+			StringBuilder nestedBuilder = new StringBuilder();
+			appendFields(nestedBuilder);
+			builder.append("{").append(nestedBuilder).append("}");
+		}
+	}
+
+}
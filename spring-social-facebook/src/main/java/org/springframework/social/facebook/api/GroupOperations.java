@@ -15,6 +15,8 @@
  */
 package org.springframework.social.facebook.api;
 
+import java.io.OutputStream;
+
 import org.springframework.social.ApiException;
 import org.springframework.social.InsufficientPermissionException;
 import org.springframework.social.MissingAuthorizationException;
@@ -50,6 +52,15 @@ public interface GroupOperations {
 	 * @throws ApiException if there is an error while communicating with Facebook.
 	 */
 	byte[] getGroupImage(String groupId, ImageType imageType);
+
+	/**
+	 * Retrieves a group's image, streaming it to the given output stream rather than holding it in memory.
+	 * @param groupId the group ID
+	 * @param imageType the image type (eg., small, normal, large. square)
+	 * @param out the output stream to write the image to. The stream is not closed.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	void getGroupImage(String groupId, ImageType imageType, OutputStream out);
 	
 	/**
 	 * Retrieves the members of the specified group.
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link FeedCheckpointStore} that keeps checkpoints on the heap. Checkpoints are lost when the JVM exits.
+ * @author Craig Walls
+ */
+public class InMemoryFeedCheckpointStore implements FeedCheckpointStore {
+
+	private final ConcurrentMap<String, FeedCheckpoint> checkpoints = new ConcurrentHashMap<String, FeedCheckpoint>();
+
+	public FeedCheckpoint load(String key) {
+		return checkpoints.get(key);
+	}
+
+	public void save(String key, FeedCheckpoint checkpoint) {
+		checkpoints.put(key, checkpoint);
+	}
+
+	public void remove(String key) {
+		checkpoints.remove(key);
+	}
+
+}
@@ -15,6 +15,9 @@
  */
 package org.springframework.social.facebook.api;
 
+import java.io.File;
+import java.io.OutputStream;
+
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -115,6 +118,18 @@ public interface MediaOperations {
 	 */
 	byte[] getAlbumImage(String albumId, ImageType imageType);
 
+	/**
+	 * Retrieves an album's image, streaming it to the given output stream rather than holding it in memory.
+	 * Requires "user_photos" or "friends_photos" permission if the album is not public.
+	 * @param albumId the album ID
+	 * @param imageType the image type (eg., small, normal, large. square)
+	 * @param out the output stream to write the image to. The stream is not closed.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 * @throws InsufficientPermissionException if the album is not public and if the user has not granted "user_photos" or "friends_photos" permission.
+	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
+	 */
+	void getAlbumImage(String albumId, ImageType imageType, OutputStream out);
+
 	/**
 	 * Retrieves data for up to 25 photos from a specific album or that a user is tagged in.
 	 * If the objectId parameter is the ID of an album, the photos returned are the photos from that album.
@@ -170,6 +185,17 @@ public interface MediaOperations {
 	 * @throws InsufficientPermissionException if the photo is not public and if the user has not granted "user_photos" or "friends_photos" permission.
 	 */
 	byte[] getPhotoImage(String photoId, ImageType imageType);
+
+	/**
+	 * Retrieves a photo's image, streaming it to the given output stream rather than holding it in memory.
+	 * Requires "user_photos" or "friends_photos" permission if the photo is not public.
+	 * @param photoId the photo ID
+	 * @param imageType the image type (eg., small, normal, large. square)
+	 * @param out the output stream to write the image to. The stream is not closed.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 * @throws InsufficientPermissionException if the photo is not public and if the user has not granted "user_photos" or "friends_photos" permission.
+	 */
+	void getPhotoImage(String photoId, ImageType imageType, OutputStream out);
 	
 	/**
 	 * Uploads a photo to an album created specifically for the application.
@@ -287,6 +313,17 @@ public interface MediaOperations {
 	 */
 	byte[] getVideoImage(String videoId);
 
+	/**
+	 * Retrieves a video's image, streaming it to the given output stream rather than holding it in memory.
+	 * Requires "user_videos" or "friends_videos" permission.
+	 * @param videoId the video ID
+	 * @param out the output stream to write the image to. The stream is not closed.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 * @throws InsufficientPermissionException if the user has not granted "user_videos" or "friends_videos" permission.
+	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
+	 */
+	void getVideoImage(String videoId, OutputStream out);
+
 	/**
 	 * Uploads a video for the authenticated user.
 	 * Requires "publish_stream" permission.
@@ -313,4 +350,39 @@ public interface MediaOperations {
 	 */
 	String postVideo(Resource video, String title, String description);
 
+	/**
+	 * Uploads a video for the authenticated user in chunks, using Facebook's resumable upload protocol.
+	 * Intended for large videos: the file is read one chunk at a time as it is uploaded rather than being loaded into memory,
+	 * and a chunk that fails to upload because of an I/O or server error is retried without restarting the upload.
+	 * If a chunk still fails after several attempts, a {@link VideoUploadInterruptedException} reports the upload session, 
+	 * which may be given to {@link #postVideoInChunks(File, VideoUploadSession, String, String)} to resume the upload.
+	 * Facebook chooses the size of each chunk.
+	 * Note that the video will not be immediately available after uploading, as Facebook performs some post-upload processing on the video.
+	 * Requires "publish_stream" permission.
+	 * @param video the video file
+	 * @param title the video title. May be null.
+	 * @param description the video description. May be null.
+	 * @return the ID of the video.
+	 * @throws VideoUploadInterruptedException if a chunk could not be uploaded once the upload was under way.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 * @throws InsufficientPermissionException if the user has not granted "publish_stream" permission.
+	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
+	 */
+	String postVideoInChunks(File video, String title, String description);
+
+	/**
+	 * Resumes a chunked video upload that was interrupted, transferring the video from the chunk that Facebook last asked for.
+	 * Requires "publish_stream" permission.
+	 * @param video the video file, unchanged since the upload was started
+	 * @param session the upload session, as reported by {@link VideoUploadInterruptedException#getSession()}
+	 * @param title the video title. May be null.
+	 * @param description the video description. May be null.
+	 * @return the ID of the video.
+	 * @throws VideoUploadInterruptedException if a chunk could not be uploaded, with the session to resume from next.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 * @throws InsufficientPermissionException if the user has not granted "publish_stream" permission.
+	 * @throws MissingAuthorizationException if FacebookTemplate was not created with an access token.
+	 */
+	String postVideoInChunks(File video, VideoUploadSession session, String title, String description);
+
 }
@@ -15,6 +15,8 @@
  */
 package org.springframework.social.facebook.api;
 
+import java.util.List;
+
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -34,6 +36,30 @@ public interface PageOperations {
 	 * @return a {@link Page}
 	 */
 	Page getPage(String pageId);
+
+	/**
+	 * Retrieves data for several pages, fetching up to 50 pages per request.
+	 * @param pageIds the page IDs.
+	 * @return a list of {@link Page}s, in the order that their IDs were given. IDs for which Facebook returned nothing are omitted.
+	 */
+	List<Page> getPages(List<String> pageIds);
+
+	/**
+	 * Retrieves the given fields of a page.
+	 * @param pageId the page ID.
+	 * @param projection the page fields to retrieve, such as {@link #MINIMAL_PAGE}.
+	 * @return a {@link Page}, with only the projected fields populated.
+	 */
+	Page getPage(String pageId, FieldProjection<Page> projection);
+
+	/**
+	 * Retrieves the given fields of several pages, fetching up to 50 pages per request.
+	 * @param pageIds the page IDs.
+	 * @param projection the page fields to retrieve, such as {@link #MINIMAL_PAGE}.
+	 * @return a list of {@link Page}s, in the order that their IDs were given, with only the projected fields populated. 
+	 * 			IDs for which Facebook returned nothing are omitted.
+	 */
+	List<Page> getPages(List<String> pageIds, FieldProjection<Page> projection);
 	
 	/**
 	 * Checks whether the logged-in user for this session is an admin of the page with the given page ID.
@@ -123,4 +149,14 @@ public interface PageOperations {
 	 */
 	PagedList<Page> search(String query, double latitude, double longitude, long distance);
 
+	/**
+	 * Projects a page's ID, name, and link.
+	 */
+	static final FieldProjection<Page> MINIMAL_PAGE = FieldProjection.of(Page.class, "id", "name", "link");
+
+	/**
+	 * Projects a page's ID, name, link, category, description, website, and like count.
+	 */
+	static final FieldProjection<Page> STANDARD_PAGE = FieldProjection.of(Page.class, "id", "name", "link", "category", "description", "website", "likes");
+
 }
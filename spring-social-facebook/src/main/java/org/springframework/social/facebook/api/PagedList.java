@@ -25,10 +25,17 @@ public class PagedList<T> extends ArrayList<T> {
 	
 	private final PagingParameters nextPage;
 
+	private final Integer totalCount;
+
 	public PagedList(List<T> unpagedList, PagingParameters previousPage, PagingParameters nextPage) {
+		this(unpagedList, previousPage, nextPage, null);
+	}
+
+	public PagedList(List<T> unpagedList, PagingParameters previousPage, PagingParameters nextPage, Integer totalCount) {
 		super(unpagedList);
 		this.previousPage = previousPage;
 		this.nextPage = nextPage;
+		this.totalCount = totalCount;
 	}
 
 	public PagingParameters getPreviousPage() {
@@ -39,5 +46,12 @@ public class PagedList<T> extends ArrayList<T> {
 		return nextPage;
 	}
 
+	/**
+	 * @return the total number of items across all pages, if Facebook reported it (such as when a connection is expanded with a summary); otherwise null.
+	 */
+	public Integer getTotalCount() {
+		return totalCount;
+	}
+
 
 }
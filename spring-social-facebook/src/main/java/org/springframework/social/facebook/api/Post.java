@@ -79,6 +79,10 @@ public class Post extends FacebookObject {
 	private List<Reference> withTags;
 		
 	private int sharesCount;
+
+	private PagedList<Comment> comments;
+
+	private PagedList<Reference> likes;
 	
 	public String getId() {
 		return id;
@@ -185,6 +189,22 @@ public class Post extends FacebookObject {
 	public int getSharesCount() {
 		return sharesCount;
 	}
+
+	/**
+	 * @return the first page of the post's comments, if they were requested by expanding the post's "comments" field; otherwise null.
+	 * @see GraphQuery
+	 */
+	public PagedList<Comment> getComments() {
+		return comments;
+	}
+
+	/**
+	 * @return the first page of references to the users who like the post, if they were requested by expanding the post's "likes" field; otherwise null.
+	 * @see GraphQuery
+	 */
+	public PagedList<Reference> getLikes() {
+		return likes;
+	}
 	
 	public static class Privacy {
 		
@@ -15,6 +15,7 @@
  */
 package org.springframework.social.facebook.api;
 
+import java.io.OutputStream;
 import java.util.List;
 
 import org.springframework.social.ApiException;
@@ -40,6 +41,33 @@ public interface UserOperations {
 	 */
 	FacebookProfile getUserProfile(String userId);
 
+	/**
+	 * Retrieves the profiles for several users, fetching up to 50 profiles per request.
+	 * @param userIds the Facebook user IDs to retrieve profile data for.
+	 * @return the users' profile information, in the order that their IDs were given. IDs for which Facebook returned nothing are omitted.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	List<FacebookProfile> getUserProfiles(List<String> userIds);
+
+	/**
+	 * Retrieves the given fields of the profile for the specified user.
+	 * @param userId the Facebook user ID to retrieve profile data for.
+	 * @param projection the profile fields to retrieve, such as {@link #MINIMAL_PROFILE}.
+	 * @return the user's profile information, with only the projected fields populated.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	FacebookProfile getUserProfile(String userId, FieldProjection<FacebookProfile> projection);
+
+	/**
+	 * Retrieves the given fields of the profiles for several users, fetching up to 50 profiles per request.
+	 * @param userIds the Facebook user IDs to retrieve profile data for.
+	 * @param projection the profile fields to retrieve, such as {@link #MINIMAL_PROFILE}.
+	 * @return the users' profile information, in the order that their IDs were given, with only the projected fields populated. 
+	 * 			IDs for which Facebook returned nothing are omitted.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	List<FacebookProfile> getUserProfiles(List<String> userIds, FieldProjection<FacebookProfile> projection);
+
 	/**
 	 * Retrieves the user's profile image. Returns the image in Facebook's "normal" type.
 	 * @return an array of bytes containing the user's profile image.
@@ -74,6 +102,15 @@ public interface UserOperations {
 	 */
 	byte[] getUserProfileImage(String userId, ImageType imageType);
 
+	/**
+	 * Retrieves the user's profile image, streaming it to the given output stream rather than holding it in memory.
+	 * @param userId the Facebook user ID.
+	 * @param imageType the image type (eg., small, normal, large. square)
+	 * @param out the output stream to write the image to. The stream is not closed.
+	 * @throws ApiException if there is an error while communicating with Facebook.
+	 */
+	void getUserProfileImage(String userId, ImageType imageType, OutputStream out);
+
 	/**
 	 * Retrieves a list of permissions that the application has been granted for the authenticated user.
 	 * @return the permissions granted for the user.
@@ -99,4 +136,20 @@ public interface UserOperations {
 		"verified", "website", "work"
 	};
 
+	/**
+	 * Projects a profile's ID, name, and last update time.
+	 */
+	static final FieldProjection<FacebookProfile> MINIMAL_PROFILE = FieldProjection.of(FacebookProfile.class, "id", "name", "updated_time");
+
+	/**
+	 * Projects a profile's ID, names, gender, locale, link, and last update time.
+	 */
+	static final FieldProjection<FacebookProfile> STANDARD_PROFILE = FieldProjection.of(FacebookProfile.class, 
+			"id", "name", "first_name", "middle_name", "last_name", "gender", "locale", "link", "updated_time");
+
+	/**
+	 * Projects the profile fields fetched by {@link #getUserProfile(String)}.
+	 */
+	static final FieldProjection<FacebookProfile> FULL_PROFILE = FieldProjection.of(FacebookProfile.class, PROFILE_FIELDS);
+
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import org.springframework.social.ApiException;
+
+/**
+ * Exception thrown when a chunked video upload fails part way through, after its retries are exhausted.
+ * The upload session it carries may be given to {@link MediaOperations#postVideoInChunks(java.io.File, VideoUploadSession, String, String)} 
+ * to resume the upload where it stopped.
+ * @author Craig Walls
+ */
+@SuppressWarnings("serial")
+public class VideoUploadInterruptedException extends ApiException {
+
+	private final VideoUploadSession session;
+
+	public VideoUploadInterruptedException(VideoUploadSession session, Throwable cause) {
+		super("facebook", "Video upload " + session.getUploadSessionId() + " was interrupted at offset " + session.getStartOffset() + ": " + cause.getMessage(), cause);
+		this.session = session;
+	}
+
+	/**
+	 * @return the upload session, from which the upload may be resumed
+	 */
+	public VideoUploadSession getSession() {
+		return session;
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import java.io.Serializable;
+
+/**
+ * The state of a chunked video upload that has been started but not finished.
+ * Given to {@link MediaOperations#postVideoInChunks(java.io.File, VideoUploadSession, String, String)} to resume the upload 
+ * from the chunk that Facebook last asked for, rather than starting over.
+ * @author Craig Walls
+ */
+@SuppressWarnings("serial")
+public class VideoUploadSession implements Serializable {
+
+	private final String uploadSessionId;
+
+	private final String videoId;
+
+	private final long startOffset;
+
+	private final long endOffset;
+
+	/**
+	 * Creates an upload session, such as from values that were saved when an upload was interrupted.
+	 * @param uploadSessionId the ID that Facebook gave the upload session
+	 * @param videoId the ID of the video being uploaded
+	 * @param startOffset the offset of the first byte of the next chunk to transfer
+	 * @param endOffset the offset just past the last byte of the next chunk to transfer
+	 */
+	public VideoUploadSession(String uploadSessionId, String videoId, long startOffset, long endOffset) {
+		this.uploadSessionId = uploadSessionId;
+		this.videoId = videoId;
+		this.startOffset = startOffset;
+		this.endOffset = endOffset;
+	}
+
+	/**
+	 * @return the ID that Facebook gave the upload session
+	 */
+	public String getUploadSessionId() {
+		return uploadSessionId;
+	}
+
+	/**
+	 * @return the ID of the video being uploaded
+	 */
+	public String getVideoId() {
+		return videoId;
+	}
+
+	/**
+	 * @return the offset of the first byte of the next chunk to transfer
+	 */
+	public long getStartOffset() {
+		return startOffset;
+	}
+
+	/**
+	 * @return the offset just past the last byte of the next chunk to transfer. Equal to the start offset once every chunk has been transferred.
+	 */
+	public long getEndOffset() {
+		return endOffset;
+	}
+
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.facebook.api.AsyncFacebook;
+import org.springframework.social.facebook.api.AsyncFeedOperations;
+import org.springframework.social.facebook.api.AsyncMediaOperations;
+import org.springframework.social.facebook.api.AsyncUserOperations;
+import org.springframework.social.facebook.api.GraphApi;
+import org.springframework.social.facebook.api.ImageType;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.impl.json.FacebookModule;
+import org.springframework.social.support.URIBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.web.client.AsyncRestOperations;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * <p>Non-blocking counterpart to {@link FacebookTemplate}.</p>
+ * <p>
+ * Operations are sent through an {@link AsyncRestTemplate} and return {@link ListenableFuture}s immediately,
+ * so a single thread may have many Graph API requests outstanding at once.
+ * Responses are bound with the same JSON mapping and error handling as {@link FacebookTemplate};
+ * any exception that {@link FacebookTemplate} would throw is instead reported by failing the future.
+ * </p>
+ * <p>
+ * By default, requests are sent through the asynchronous request factory of the {@link FacebookHttpTransport#getSharedInstance() shared transport},
+ * so that creating an AsyncFacebookTemplate per user does not start an I/O reactor and connection pool per user.
+ * When Apache HttpComponents HttpAsyncClient is on the classpath, that is a single non-blocking I/O reactor;
+ * otherwise it falls back to HttpURLConnection, which dedicates a thread to each outstanding request.
+ * </p>
+ * @author Craig Walls
+ */
+public class AsyncFacebookTemplate implements AsyncFacebook {
+
+	private final AsyncRestTemplate asyncRestTemplate;
+
+	private final ObjectMapper objectMapper;
+	
+	private final AsyncUserOperations userOperations;
+	
+	private final AsyncFeedOperations feedOperations;
+	
+	private final AsyncMediaOperations mediaOperations;
+
+	/**
+	 * Create a new instance of AsyncFacebookTemplate that sends requests through the shared {@link FacebookHttpTransport}.
+	 * @param accessToken An access token given by Facebook after a successful OAuth 2 authentication (or through Facebook's JS library).
+	 */
+	public AsyncFacebookTemplate(String accessToken) {
+		this(accessToken, FacebookHttpTransport.getSharedInstance());
+	}
+
+	/**
+	 * Create a new instance of AsyncFacebookTemplate that sends requests through the given transport.
+	 * @param accessToken An access token given by Facebook after a successful OAuth 2 authentication (or through Facebook's JS library).
+	 * @param transport the transport whose asynchronous request factory requests are sent through.
+	 */
+	public AsyncFacebookTemplate(String accessToken, FacebookHttpTransport transport) {
+		this(accessToken, transport.getAsyncRequestFactory());
+	}
+
+	/**
+	 * Create a new instance of AsyncFacebookTemplate that sends requests through the given request factory.
+	 * @param accessToken An access token given by Facebook after a successful OAuth 2 authentication (or through Facebook's JS library).
+	 * @param requestFactory the request factory to create asynchronous requests with.
+	 */
+	public AsyncFacebookTemplate(String accessToken, AsyncClientHttpRequestFactory requestFactory) {
+		Assert.hasText(accessToken, "Access token must not be empty");
+		Assert.notNull(requestFactory, "Request factory must not be null");
+		objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new FacebookModule());
+		RestTemplate restTemplate = new RestTemplate(FacebookMessageConverters.create(objectMapper));
+		FacebookErrorHandler errorHandler = new FacebookErrorHandler();
+		restTemplate.setErrorHandler(errorHandler);
+		asyncRestTemplate = new AsyncRestTemplate(new FacebookAsyncRequestFactory(requestFactory, accessToken, errorHandler), restTemplate);
+		userOperations = new AsyncUserTemplate(this, asyncRestTemplate);
+		feedOperations = new AsyncFeedTemplate(this);
+		mediaOperations = new AsyncMediaTemplate(this);
+	}
+
+	public AsyncUserOperations userOperations() {
+		return userOperations;
+	}
+
+	public AsyncFeedOperations feedOperations() {
+		return feedOperations;
+	}
+
+	public AsyncMediaOperations mediaOperations() {
+		return mediaOperations;
+	}
+
+	public AsyncRestOperations asyncRestOperations() {
+		return asyncRestTemplate;
+	}
+
+	// low-level Graph API operations
+	public <T> ListenableFuture<T> fetchObject(String objectId, Class<T> type, String... fields) {
+		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
+		if (fields.length > 0) {
+			queryParameters.set("fields", join(fields));
+		}
+		return fetchObject(objectId, type, queryParameters);
+	}
+
+	public <T> ListenableFuture<T> fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		URI uri = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + objectId).queryParams(queryParameters).build();
+		return body(asyncRestTemplate.getForEntity(uri, type));
+	}
+
+	public <T> ListenableFuture<PagedList<T>> fetchConnections(String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		String connectionPath = connectionName != null && connectionName.length() > 0 ? "/" + connectionName : "";
+		URI uri = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + objectId + connectionPath).queryParams(queryParameters).build();
+		return asyncRestTemplate.execute(uri, HttpMethod.GET, null, new PagedListExtractor<T>(objectMapper, type));
+	}
+
+	public ListenableFuture<byte[]> fetchImage(String objectId, String connectionName, ImageType imageType) {
+		URI uri = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + objectId + "/" + connectionName + "?type=" + imageType.toString().toLowerCase()).build();
+		return body(asyncRestTemplate.getForEntity(uri, byte[].class));
+	}
+
+	@SuppressWarnings("rawtypes")
+	public ListenableFuture<String> publish(String objectId, String connectionName, MultiValueMap<String, Object> data) {
+		MultiValueMap<String, Object> requestData = new LinkedMultiValueMap<String, Object>(data);
+		URI uri = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + objectId + "/" + connectionName).build();
+		ListenableFuture<ResponseEntity<Map>> response = asyncRestTemplate.postForEntity(uri, new HttpEntity<MultiValueMap<String, Object>>(requestData), Map.class);
+		return new ListenableFutureAdapter<String, ResponseEntity<Map>>(response) {
+			@Override
+			protected String adapt(ResponseEntity<Map> response) throws ExecutionException {
+				return (String) response.getBody().get("id");
+			}
+		};
+	}
+
+	public ListenableFuture<Void> delete(String objectId) {
+		LinkedMultiValueMap<String, String> deleteRequest = new LinkedMultiValueMap<String, String>();
+		deleteRequest.set("method", "delete");
+		URI uri = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + objectId).build();
+		ListenableFuture<ResponseEntity<String>> response = asyncRestTemplate.postForEntity(uri, new HttpEntity<MultiValueMap<String, String>>(deleteRequest, new HttpHeaders()), String.class);
+		return new ListenableFutureAdapter<Void, ResponseEntity<String>>(response) {
+			@Override
+			protected Void adapt(ResponseEntity<String> response) throws ExecutionException {
+				return null;
+			}
+		};
+	}
+
+	// helpers for the async operations templates
+	static <T> ListenableFuture<T> body(ListenableFuture<ResponseEntity<T>> responseEntity) {
+		return new ListenableFutureAdapter<T, ResponseEntity<T>>(responseEntity) {
+			@Override
+			protected T adapt(ResponseEntity<T> responseEntity) throws ExecutionException {
+				return responseEntity.getBody();
+			}
+		};
+	}
+
+	// private helpers
+	private String join(String[] strings) {
+		StringBuilder builder = new StringBuilder();
+		if (strings.length > 0) {
+			builder.append(strings[0]);
+			for (int i = 1; i < strings.length; i++) {
+				builder.append("," + strings[i]);
+			}
+		}
+		return builder.toString();
+	}
+
+	/*
+	 * AsyncRestTemplate doesn't support interceptors, so the access token is added to each request as it is created.
+	 * Error responses are also interpreted here rather than by AsyncRestTemplate, which (as of Spring 4.0) throws the error handler's 
+	 * exception from Future.get() unwrapped and invokes the error handler again for each consumer of the failed future.
+	 * Failing the adapted future with an ExecutionException instead ensures each failure is interpreted once and reported consistently.
+	 */
+	private static class FacebookAsyncRequestFactory implements AsyncClientHttpRequestFactory {
+
+		private final AsyncClientHttpRequestFactory delegate;
+
+		private final String authorizationHeader;
+
+		private final ResponseErrorHandler errorHandler;
+
+		public FacebookAsyncRequestFactory(AsyncClientHttpRequestFactory delegate, String accessToken, ResponseErrorHandler errorHandler) {
+			this.delegate = delegate;
+			this.authorizationHeader = "OAuth " + accessToken;
+			this.errorHandler = errorHandler;
+		}
+
+		public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) throws IOException {
+			final AsyncClientHttpRequest request = delegate.createAsyncRequest(uri, httpMethod);
+			request.getHeaders().set("Authorization", authorizationHeader);
+			return new AsyncClientHttpRequest() {
+				public ListenableFuture<ClientHttpResponse> executeAsync() throws IOException {
+					return new ListenableFutureAdapter<ClientHttpResponse, ClientHttpResponse>(request.executeAsync()) {
+						@Override
+						protected ClientHttpResponse adapt(ClientHttpResponse response) throws ExecutionException {
+							try {
+								if (errorHandler.hasError(response)) {
+									try {
+										errorHandler.handleError(response);
+									} finally {
+										response.close();
+									}
+								}
+								return response;
+							} catch (IOException e) {
+								throw new ExecutionException(new ResourceAccessException("I/O error: " + e.getMessage(), e));
+							} catch (RuntimeException e) {
+								throw new ExecutionException(e);
+							}
+						}
+					};
+				}
+
+				public OutputStream getBody() throws IOException {
+					return request.getBody();
+				}
+
+				public HttpHeaders getHeaders() {
+					return request.getHeaders();
+				}
+
+				public HttpMethod getMethod() {
+					return request.getMethod();
+				}
+
+				public URI getURI() {
+					return request.getURI();
+				}
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import org.springframework.social.facebook.api.AsyncFeedOperations;
+import org.springframework.social.facebook.api.AsyncGraphApi;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.PagingParameters;
+import org.springframework.social.facebook.api.Post;
+import org.springframework.social.facebook.api.PostData;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.concurrent.ListenableFuture;
+
+class AsyncFeedTemplate implements AsyncFeedOperations {
+
+	private static final PagingParameters FIRST_PAGE = new PagingParameters(25, null, null, null);
+
+	private final AsyncGraphApi graphApi;
+
+	public AsyncFeedTemplate(AsyncGraphApi graphApi) {
+		this.graphApi = graphApi;
+	}
+
+	public ListenableFuture<PagedList<Post>> getFeed() {
+		return getFeed("me", FIRST_PAGE);
+	}
+
+	public ListenableFuture<PagedList<Post>> getFeed(PagingParameters pagedListParameters) {
+		return getFeed("me", pagedListParameters);
+	}
+
+	public ListenableFuture<PagedList<Post>> getFeed(String ownerId) {
+		return getFeed(ownerId, FIRST_PAGE);
+	}
+
+	public ListenableFuture<PagedList<Post>> getFeed(String ownerId, PagingParameters pagedListParameters) {
+		return graphApi.fetchConnections(ownerId, "feed", Post.class, getFeedParameters(pagedListParameters));
+	}
+
+	public ListenableFuture<PagedList<Post>> getHomeFeed() {
+		return getHomeFeed(FIRST_PAGE);
+	}
+
+	public ListenableFuture<PagedList<Post>> getHomeFeed(PagingParameters pagedListParameters) {
+		return graphApi.fetchConnections("me", "home", Post.class, getFeedParameters(pagedListParameters));
+	}
+
+	public ListenableFuture<PagedList<Post>> getPosts(String ownerId, PagingParameters pagedListParameters) {
+		return graphApi.fetchConnections(ownerId, "posts", Post.class, getFeedParameters(pagedListParameters));
+	}
+
+	public ListenableFuture<Post> getPost(String entryId) {
+		return graphApi.fetchObject(entryId, Post.class);
+	}
+
+	public ListenableFuture<String> updateStatus(String message) {
+		return post("me", message);
+	}
+
+	public ListenableFuture<String> post(String ownerId, String message) {
+		MultiValueMap<String, Object> map = new LinkedMultiValueMap<String, Object>();
+		map.set("message", message);
+		return graphApi.publish(ownerId, "feed", map);
+	}
+
+	public ListenableFuture<String> post(PostData post) {
+		return graphApi.publish(post.getTargetFeedId(), "feed", post.toRequestParameters());
+	}
+
+	public ListenableFuture<Void> deletePost(String id) {
+		return graphApi.delete(id);
+	}
+
+	// private helpers
+
+	private MultiValueMap<String, String> getFeedParameters(PagingParameters pagedListParameters) {
+		MultiValueMap<String, String> parameters = new LinkedMultiValueMap<String, String>();
+		if (pagedListParameters.getLimit() != null) {
+			parameters.set("limit", String.valueOf(pagedListParameters.getLimit()));
+		}
+		if (pagedListParameters.getSince() != null) {
+			parameters.set("since", String.valueOf(pagedListParameters.getSince()));
+		}
+		if (pagedListParameters.getUntil() != null) {
+			parameters.set("until", String.valueOf(pagedListParameters.getUntil()));
+		}
+		return parameters;
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import static org.springframework.social.facebook.api.impl.PagedListUtils.*;
+
+import org.springframework.core.io.Resource;
+import org.springframework.social.facebook.api.Album;
+import org.springframework.social.facebook.api.AsyncGraphApi;
+import org.springframework.social.facebook.api.AsyncMediaOperations;
+import org.springframework.social.facebook.api.ImageType;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.PagingParameters;
+import org.springframework.social.facebook.api.Photo;
+import org.springframework.social.facebook.api.Video;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.concurrent.ListenableFuture;
+
+class AsyncMediaTemplate implements AsyncMediaOperations {
+
+	private final AsyncGraphApi graphApi;
+
+	public AsyncMediaTemplate(AsyncGraphApi graphApi) {
+		this.graphApi = graphApi;
+	}
+
+	public ListenableFuture<PagedList<Album>> getAlbums(String ownerId, PagingParameters pagedListParameters) {
+		return graphApi.fetchConnections(ownerId, "albums", Album.class, getPagingParameters(pagedListParameters));
+	}
+
+	public ListenableFuture<Album> getAlbum(String albumId) {
+		return graphApi.fetchObject(albumId, Album.class);
+	}
+
+	public ListenableFuture<PagedList<Photo>> getPhotos(String objectId, PagingParameters pagedListParameters) {
+		return graphApi.fetchConnections(objectId, "photos", Photo.class, getPagingParameters(pagedListParameters));
+	}
+
+	public ListenableFuture<Photo> getPhoto(String photoId) {
+		return graphApi.fetchObject(photoId, Photo.class);
+	}
+
+	public ListenableFuture<byte[]> getPhotoImage(String photoId, ImageType imageType) {
+		return graphApi.fetchImage(photoId, "picture", imageType);
+	}
+
+	public ListenableFuture<String> postPhoto(String albumId, Resource photo, String caption) {
+		MultiValueMap<String, Object> parts = new LinkedMultiValueMap<String, Object>();
+		parts.set("source", photo);
+		parts.set("message", caption);
+		return graphApi.publish(albumId, "photos", parts);
+	}
+
+	public ListenableFuture<PagedList<Video>> getVideos(String userId, PagingParameters pagedListParameters) {
+		return graphApi.fetchConnections(userId, "videos", Video.class, getPagingParameters(pagedListParameters));
+	}
+
+	public ListenableFuture<Video> getVideo(String videoId) {
+		return graphApi.fetchObject(videoId, Video.class);
+	}
+
+}
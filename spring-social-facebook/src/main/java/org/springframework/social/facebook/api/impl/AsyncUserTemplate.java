@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import static org.springframework.social.facebook.api.impl.AsyncFacebookTemplate.*;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.social.facebook.api.AsyncGraphApi;
+import org.springframework.social.facebook.api.AsyncUserOperations;
+import org.springframework.social.facebook.api.FacebookProfile;
+import org.springframework.social.facebook.api.GraphApi;
+import org.springframework.social.facebook.api.ImageType;
+import org.springframework.social.facebook.api.UserOperations;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+import org.springframework.web.client.AsyncRestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+class AsyncUserTemplate implements AsyncUserOperations {
+
+	private final AsyncGraphApi graphApi;
+
+	private final AsyncRestTemplate asyncRestTemplate;
+
+	public AsyncUserTemplate(AsyncGraphApi graphApi, AsyncRestTemplate asyncRestTemplate) {
+		this.graphApi = graphApi;
+		this.asyncRestTemplate = asyncRestTemplate;
+	}
+
+	public ListenableFuture<FacebookProfile> getUserProfile() {
+		return getUserProfile("me");
+	}
+
+	public ListenableFuture<FacebookProfile> getUserProfile(String userId) {
+		return graphApi.fetchObject(userId, FacebookProfile.class, UserOperations.PROFILE_FIELDS);
+	}
+
+	public ListenableFuture<byte[]> getUserProfileImage(String userId, ImageType imageType) {
+		return graphApi.fetchImage(userId, "picture", imageType);
+	}
+
+	public ListenableFuture<List<String>> getUserPermissions() {
+		ListenableFuture<ResponseEntity<JsonNode>> response = asyncRestTemplate.getForEntity(GraphApi.GRAPH_API_URL + "me/permissions", JsonNode.class);
+		return new ListenableFutureAdapter<List<String>, JsonNode>(body(response)) {
+			@Override
+			protected List<String> adapt(JsonNode responseNode) throws ExecutionException {
+				return UserTemplate.deserializePermissionsNodeToList(responseNode);
+			}
+		};
+	}
+
+}
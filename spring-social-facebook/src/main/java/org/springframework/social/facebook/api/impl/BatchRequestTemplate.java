@@ -0,0 +1,374 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.social.facebook.api.BatchRequest;
+import org.springframework.social.facebook.api.BatchResult;
+import org.springframework.social.facebook.api.GraphApi;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.support.URIBuilder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Implementation of {@link BatchRequest} that sends queued operations to the Graph API's batch endpoint.
+ * Each operation's response is checked with the same {@link ResponseErrorHandler} used for unbatched requests,
+ * so that a failed operation's handle throws the same exception as the equivalent unbatched call.
+ * @author Craig Walls
+ */
+class BatchRequestTemplate implements BatchRequest {
+
+	private final RestTemplate restTemplate;
+
+	private final ObjectMapper objectMapper;
+	
+	private final List<BatchOperation<?>> operations = new ArrayList<BatchOperation<?>>();
+
+	public BatchRequestTemplate(RestTemplate restTemplate, ObjectMapper objectMapper) {
+		this.restTemplate = restTemplate;
+		this.objectMapper = objectMapper;
+	}
+	
+	public <T> BatchResult<T> fetchObject(String objectId, Class<T> type, String... fields) {
+		return fetchObject(objectId, type, fieldsParameter(fields));
+	}
+
+	public <T> BatchResult<T> fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		return queue(new ObjectOperation<T>("GET", relativeUrl(objectId, queryParameters), null, type));
+	}
+
+	public <T> BatchResult<PagedList<T>> fetchConnections(String objectId, String connectionName, Class<T> type, String... fields) {
+		return fetchConnections(objectId, connectionName, type, fieldsParameter(fields));
+	}
+
+	public <T> BatchResult<PagedList<T>> fetchConnections(String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		String connectionPath = connectionName != null && connectionName.length() > 0 ? "/" + connectionName : "";
+		return queue(new ConnectionsOperation<T>(relativeUrl(objectId + connectionPath, queryParameters), type));
+	}
+
+	public BatchResult<String> publish(String objectId, String connectionName, MultiValueMap<String, Object> data) {
+		return queue(new PublishOperation(relativeUrl(objectId + "/" + connectionName, null), encodeBody(data)));
+	}
+
+	public BatchResult<Void> delete(String objectId) {
+		return queue(new DeleteOperation(relativeUrl(objectId, null)));
+	}
+
+	public BatchResult<Void> delete(String objectId, String connectionName) {
+		return queue(new DeleteOperation(relativeUrl(objectId + "/" + connectionName, null)));
+	}
+	
+	public int size() {
+		return operations.size();
+	}
+
+	public void execute() {
+		List<BatchOperation<?>> pending = new ArrayList<BatchOperation<?>>(operations);
+		operations.clear();
+		for (int start = 0; start < pending.size(); start += MAX_BATCH_SIZE) {
+			try {
+				executeBatch(pending.subList(start, Math.min(start + MAX_BATCH_SIZE, pending.size())));
+			} catch (RuntimeException e) {
+				// the operations of this batch and of any not yet sent would otherwise never be done
+				for (BatchOperation<?> operation : pending.subList(start, pending.size())) {
+					operation.fail(e);
+				}
+				throw e;
+			}
+		}
+	}
+	
+	// private helpers
+
+	private void executeBatch(List<BatchOperation<?>> batch) {
+		ArrayNode batchNode = objectMapper.createArrayNode();
+		for (BatchOperation<?> operation : batch) {
+			batchNode.add(operation.toJson());
+		}
+		MultiValueMap<String, String> requestData = new LinkedMultiValueMap<String, String>();
+		requestData.set("batch", batchNode.toString());
+		requestData.set("include_headers", "false");
+		JsonNode responseNode = restTemplate.postForObject(GraphApi.GRAPH_API_URL, requestData, JsonNode.class);
+		for (int i = 0; i < batch.size(); i++) {
+			JsonNode operationResponse = responseNode != null ? responseNode.get(i) : null;
+			batch.get(i).complete(operationResponse);
+		}
+	}
+
+	private static boolean isKnownStatus(int statusCode) {
+		for (HttpStatus status : HttpStatus.values()) {
+			if (status.value() == statusCode) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private <O extends BatchOperation<?>> O queue(O operation) {
+		operations.add(operation);
+		return operation;
+	}
+
+	private String relativeUrl(String path, MultiValueMap<String, String> queryParameters) {
+		URIBuilder uriBuilder = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + path);
+		if (queryParameters != null) {
+			uriBuilder.queryParams(queryParameters);
+		}
+		return uriBuilder.build().toString().substring(GraphApi.GRAPH_API_URL.length());
+	}
+	
+	private MultiValueMap<String, String> fieldsParameter(String[] fields) {
+		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
+		if (fields.length > 0) {
+			StringBuilder joinedFields = new StringBuilder(fields[0]);
+			for (int i = 1; i < fields.length; i++) {
+				joinedFields.append(',').append(fields[i]);
+			}
+			queryParameters.set("fields", joinedFields.toString());
+		}
+		return queryParameters;
+	}
+
+	private String encodeBody(MultiValueMap<String, Object> data) {
+		try {
+			StringBuilder body = new StringBuilder();
+			for (Entry<String, List<Object>> entry : data.entrySet()) {
+				for (Object value : entry.getValue()) {
+					if (value != null && !(value instanceof String)) {
+						throw new IllegalArgumentException("Only String values may be published in a batch request; '" + entry.getKey() + "' is a " + value.getClass().getName());
+					}
+					if (body.length() > 0) {
+						body.append('&');
+					}
+					body.append(URLEncoder.encode(entry.getKey(), "UTF-8")).append('=');
+					if (value != null) {
+						body.append(URLEncoder.encode((String) value, "UTF-8"));
+					}
+				}
+			}
+			return body.toString();
+		} catch (UnsupportedEncodingException shouldntHappen) {
+			throw new IllegalStateException(shouldntHappen);
+		}
+	}
+
+	private abstract class BatchOperation<T> implements BatchResult<T> {
+
+		private final String method;
+
+		private final String relativeUrl;
+
+		private final String body;
+		
+		private boolean done;
+		
+		private T result;
+		
+		private RuntimeException failure;
+
+		public BatchOperation(String method, String relativeUrl, String body) {
+			this.method = method;
+			this.relativeUrl = relativeUrl;
+			this.body = body;
+		}
+
+		public boolean isDone() {
+			return done;
+		}
+
+		public T get() {
+			if (!done) {
+				throw new IllegalStateException("The batch request containing this operation has not been executed.");
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return result;
+		}
+
+		ObjectNode toJson() {
+			ObjectNode operationNode = objectMapper.createObjectNode();
+			operationNode.put("method", method);
+			operationNode.put("relative_url", relativeUrl);
+			if (body != null) {
+				operationNode.put("body", body);
+			}
+			return operationNode;
+		}
+		
+		void complete(JsonNode responseNode) {
+			try {
+				if (responseNode == null || responseNode.isNull()) {
+					throw new UncategorizedApiException("facebook", "Facebook did not execute the batched " + method + " of " + relativeUrl, null);
+				}
+				String responseBody = responseNode.path("body").asText();
+				int statusCode = responseNode.path("code").asInt();
+				if (statusCode < 200 || statusCode > 299) {
+					if (!isKnownStatus(statusCode)) {
+						throw new UncategorizedApiException("facebook", "Unexpected status code " + statusCode + " for the batched " + method + " of " + relativeUrl + ": " + responseBody, null);
+					}
+					BatchedResponse response = new BatchedResponse(statusCode, responseBody);
+					ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+					if (errorHandler.hasError(response)) {
+						errorHandler.handleError(response);
+					}
+				}
+				result = extractResult(responseBody);
+			} catch (IOException e) {
+				failure = new UncategorizedApiException("facebook", "Error deserializing batched response from Facebook: " + e.getMessage(), e);
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+			done = true;
+		}
+		
+		void fail(RuntimeException e) {
+			failure = e;
+			done = true;
+		}
+
+		abstract T extractResult(String responseBody) throws IOException;
+
+	}
+	
+	private class ObjectOperation<T> extends BatchOperation<T> {
+		
+		private final Class<T> type;
+
+		public ObjectOperation(String method, String relativeUrl, String body, Class<T> type) {
+			super(method, relativeUrl, body);
+			this.type = type;
+		}
+
+		@Override
+		T extractResult(String responseBody) throws IOException {
+			return objectMapper.reader(type).readValue(responseBody);
+		}
+
+	}
+
+	private class ConnectionsOperation<T> extends BatchOperation<PagedList<T>> {
+
+		private final Class<T> type;
+
+		public ConnectionsOperation(String relativeUrl, Class<T> type) {
+			super("GET", relativeUrl, null);
+			this.type = type;
+		}
+
+		@Override
+		PagedList<T> extractResult(String responseBody) throws IOException {
+			JsonParser parser = objectMapper.getFactory().createParser(responseBody);
+			try {
+				return new PagedListExtractor<T>(objectMapper, type).readPagedList(parser);
+			} finally {
+				parser.close();
+			}
+		}
+
+	}
+
+	private class PublishOperation extends BatchOperation<String> {
+
+		public PublishOperation(String relativeUrl, String body) {
+			super("POST", relativeUrl, body);
+		}
+
+		@Override
+		String extractResult(String responseBody) throws IOException {
+			return objectMapper.readTree(responseBody).path("id").textValue();
+		}
+
+	}
+
+	private class DeleteOperation extends BatchOperation<Void> {
+
+		public DeleteOperation(String relativeUrl) {
+			super("DELETE", relativeUrl, null);
+		}
+
+		@Override
+		Void extractResult(String responseBody) {
+			return null;
+		}
+
+	}
+	
+	/*
+	 * Presents a single operation's portion of a batch response as a ClientHttpResponse so that it can be examined by the error handler.
+	 */
+	private static class BatchedResponse implements ClientHttpResponse {
+
+		private final int statusCode;
+		
+		private final byte[] body;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		public BatchedResponse(int statusCode, String body) throws UnsupportedEncodingException {
+			this.statusCode = statusCode;
+			this.body = body.getBytes("UTF-8");
+			this.headers.setContentType(MediaType.APPLICATION_JSON);
+		}
+
+		public HttpStatus getStatusCode() throws IOException {
+			return HttpStatus.valueOf(statusCode);
+		}
+
+		public int getRawStatusCode() throws IOException {
+			return statusCode;
+		}
+
+		public String getStatusText() throws IOException {
+			return getStatusCode().getReasonPhrase();
+		}
+
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		public InputStream getBody() throws IOException {
+			return new ByteArrayInputStream(body);
+		}
+
+		public void close() {
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * {@link ClientHttpResponse} wrapper that reads the wrapped response's body into memory so that it may be read more than once.
+ * Used by {@link FacebookErrorHandler} for error responses only, which are small and are read more than once while being interpreted 
+ * into exceptions; successful responses are streamed straight from the connection.
+ * @author Craig Walls
+ */
+class BufferedClientHttpResponse implements ClientHttpResponse {
+
+	private final ClientHttpResponse response;
+
+	private byte[] body;
+
+	public BufferedClientHttpResponse(ClientHttpResponse response) {
+		this.response = response;
+	}
+
+	public HttpStatus getStatusCode() throws IOException {
+		return response.getStatusCode();
+	}
+
+	public int getRawStatusCode() throws IOException {
+		return response.getRawStatusCode();
+	}
+
+	public String getStatusText() throws IOException {
+		return response.getStatusText();
+	}
+
+	public HttpHeaders getHeaders() {
+		return response.getHeaders();
+	}
+
+	public synchronized InputStream getBody() throws IOException {
+		if (body == null) {
+			InputStream in = response.getBody();
+			body = in != null ? FileCopyUtils.copyToByteArray(in) : new byte[0];
+		}
+		return new ByteArrayInputStream(body);
+	}
+
+	public void close() {
+		response.close();
+	}
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.Serializable;
+
+/**
+ * A successful Graph API response held by a {@link GraphApiResponseCache}.
+ * @author Craig Walls
+ */
+public class CachedGraphApiResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final byte[] body;
+
+	private final String contentType;
+
+	private final String eTag;
+
+	private final long expiresAt;
+
+	public CachedGraphApiResponse(byte[] body, String contentType, String eTag, long expiresAt) {
+		this.body = body;
+		this.contentType = contentType;
+		this.eTag = eTag;
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * @return the response body
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * @return the response's Content-Type. May be null.
+	 */
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * @return the response's ETag, with which the response may be revalidated once it has expired. May be null.
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	/**
+	 * @return the time, in milliseconds since the epoch, after which the response must be revalidated before being used again.
+	 */
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @param now the current time, in milliseconds since the epoch
+	 * @return true if the response may be used without revalidating it
+	 */
+	public boolean isFresh(long now) {
+		return now < expiresAt;
+	}
+
+	/**
+	 * @param expiresAt the new expiry time
+	 * @return a copy of this response that expires at the given time; used when Facebook confirms that a response has not changed.
+	 */
+	public CachedGraphApiResponse withExpiresAt(long expiresAt) {
+		return new CachedGraphApiResponse(body, contentType, eTag, expiresAt);
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Interceptor that serves Graph API reads from a {@link GraphApiResponseCache}.
+ * Only GET requests to the Graph API that return a JSON response with a 200 status are cached, keyed by the request URI 
+ * (which carries the object ID, connection, fields, and other parameters) and a digest of the request's access token, 
+ * so that a response is only ever served to requests made with the same token.
+ * A cached response is served without contacting Facebook until its time-to-live has passed; after that, if it has an ETag, 
+ * it is revalidated with If-None-Match and, when Facebook answers 304 Not Modified, served again without the body being resent.
+ * @author Craig Walls
+ */
+class CachingGraphApiInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final String GRAPH_API_HOST_URL = "https://graph.facebook.com/";
+
+	private final GraphApiResponseCache cache;
+
+	private final long timeToLive;
+
+	public CachingGraphApiInterceptor(GraphApiResponseCache cache, long timeToLive) {
+		this.cache = cache;
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * @param interceptors a RestTemplate's interceptors
+	 * @return a copy of the interceptors without any caching interceptor, so that setting a new cache replaces the old rather than stacking on it
+	 */
+	static List<ClientHttpRequestInterceptor> removeFrom(List<ClientHttpRequestInterceptor> interceptors) {
+		List<ClientHttpRequestInterceptor> remaining = new ArrayList<ClientHttpRequestInterceptor>(interceptors.size());
+		for (ClientHttpRequestInterceptor interceptor : interceptors) {
+			if (!(interceptor instanceof CachingGraphApiInterceptor)) {
+				remaining.add(interceptor);
+			}
+		}
+		return remaining;
+	}
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		if (request.getMethod() != HttpMethod.GET || !request.getURI().toString().startsWith(GRAPH_API_HOST_URL)) {
+			return execution.execute(request, body);
+		}
+		String key = cacheKey(request);
+		CachedGraphApiResponse cached = cache.get(key);
+		long now = System.currentTimeMillis();
+		if (cached != null) {
+			if (cached.isFresh(now)) {
+				return new CachedClientHttpResponse(cached);
+			}
+			if (cached.getETag() != null) {
+				request.getHeaders().set("If-None-Match", cached.getETag());
+			}
+		}
+		ClientHttpResponse response = execution.execute(request, body);
+		if (cached != null && cached.getETag() != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+			response.close();
+			CachedGraphApiResponse revalidated = cached.withExpiresAt(now + timeToLive);
+			cache.put(key, revalidated);
+			return new CachedClientHttpResponse(revalidated);
+		}
+		if (!isCacheable(response)) {
+			if (cached != null) {
+				cache.remove(key);
+			}
+			return response;
+		}
+		try {
+			InputStream responseBody = response.getBody();
+			byte[] bytes = responseBody != null ? FileCopyUtils.copyToByteArray(responseBody) : new byte[0];
+			MediaType contentType = response.getHeaders().getContentType();
+			CachedGraphApiResponse fetched = new CachedGraphApiResponse(bytes, contentType != null ? contentType.toString() : null, response.getHeaders().getFirst("ETag"), now + timeToLive);
+			cache.put(key, fetched);
+			return new CachedClientHttpResponse(fetched);
+		} finally {
+			response.close();
+		}
+	}
+
+	private boolean isCacheable(ClientHttpResponse response) throws IOException {
+		if (response.getStatusCode() != HttpStatus.OK) {
+			return false;
+		}
+		MediaType contentType = response.getHeaders().getContentType();
+		return contentType != null && (contentType.getSubtype().equals("json") || contentType.getSubtype().equals("javascript"));
+	}
+
+	private String cacheKey(HttpRequest request) {
+		String authorization = request.getHeaders().getFirst("Authorization");
+		String tokenScope = authorization != null ? DigestUtils.md5DigestAsHex(authorization.getBytes()) : "anonymous";
+		return tokenScope + " " + request.getURI();
+	}
+
+	private static class CachedClientHttpResponse implements ClientHttpResponse {
+		
+		private final CachedGraphApiResponse cached;
+
+		private final HttpHeaders headers;
+
+		public CachedClientHttpResponse(CachedGraphApiResponse cached) {
+			this.cached = cached;
+			this.headers = new HttpHeaders();
+			if (cached.getContentType() != null) {
+				headers.setContentType(MediaType.parseMediaType(cached.getContentType()));
+			}
+			if (cached.getETag() != null) {
+				headers.set("ETag", cached.getETag());
+			}
+			headers.setContentLength(cached.getBody().length);
+		}
+
+		public HttpStatus getStatusCode() {
+			return HttpStatus.OK;
+		}
+
+		public int getRawStatusCode() {
+			return HttpStatus.OK.value();
+		}
+
+		public String getStatusText() {
+			return HttpStatus.OK.getReasonPhrase();
+		}
+
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		public InputStream getBody() {
+			return new ByteArrayInputStream(cached.getBody());
+		}
+
+		public void close() {
+		}
+
+	}
+
+}
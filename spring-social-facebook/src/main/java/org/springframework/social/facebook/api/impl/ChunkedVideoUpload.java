@@ -0,0 +1,240 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.social.ServerException;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.social.facebook.api.VideoUploadInterruptedException;
+import org.springframework.social.facebook.api.VideoUploadSession;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Uploads a video with Facebook's chunked upload protocol.
+ * An upload session is started with the video's size, after which each chunk that Facebook asks for is read from the file 
+ * and transferred, until Facebook reports that it has the whole file and the session is finished.
+ * Each chunk is read from a {@link FileChannel} as it is sent, so the file is never loaded into memory in its entirety,
+ * and a chunk whose transfer fails because of an I/O or server error is retried without restarting the upload.
+ * If the retries are exhausted, the session's state is reported in a {@link VideoUploadInterruptedException}, 
+ * so that the upload may later be resumed from the chunk that failed.
+ * @author Craig Walls
+ */
+class ChunkedVideoUpload {
+
+	private final static Log logger = LogFactory.getLog(ChunkedVideoUpload.class);
+
+	static final int MAX_CHUNK_ATTEMPTS = 3;
+
+	private static final long RETRY_DELAY = 500;
+
+	private final RestTemplate restTemplate;
+
+	private final String uploadUrl;
+
+	public ChunkedVideoUpload(RestTemplate restTemplate, String uploadUrl) {
+		this.restTemplate = restTemplate;
+		this.uploadUrl = uploadUrl;
+	}
+
+	/**
+	 * Uploads the given file.
+	 * @param video the video file
+	 * @param title the video title. May be null.
+	 * @param description the video description. May be null.
+	 * @return the ID of the video
+	 * @throws VideoUploadInterruptedException if a chunk could not be transferred once the upload session was started
+	 */
+	public String upload(File video, String title, String description) {
+		return upload(video, null, title, description);
+	}
+
+	/**
+	 * Uploads the given file, resuming an upload session that was interrupted.
+	 * @param video the video file
+	 * @param session the session to resume, or null to start a new one
+	 * @param title the video title. May be null.
+	 * @param description the video description. May be null.
+	 * @return the ID of the video
+	 * @throws VideoUploadInterruptedException if a chunk could not be transferred once the upload session was started
+	 */
+	public String upload(File video, VideoUploadSession session, String title, String description) {
+		try {
+			RandomAccessFile file = new RandomAccessFile(video, "r");
+			try {
+				return upload(file.getChannel(), video.getName(), session, title, description);
+			} finally {
+				file.close();
+			}
+		} catch (IOException e) {
+			throw new ResourceAccessException("I/O error reading video from " + video + ": " + e.getMessage(), e);
+		}
+	}
+
+	private String upload(FileChannel channel, String fileName, VideoUploadSession session, String title, String description) throws IOException {
+		if (session == null) {
+			MultiValueMap<String, Object> startRequest = new LinkedMultiValueMap<String, Object>();
+			startRequest.set("upload_phase", "start");
+			startRequest.set("file_size", String.valueOf(channel.size()));
+			Map<String, Object> started = post(startRequest);
+			session = new VideoUploadSession(String.valueOf(started.get("upload_session_id")), String.valueOf(started.get("video_id")), 
+					offset(started, "start_offset"), offset(started, "end_offset"));
+		}
+		String uploadSessionId = session.getUploadSessionId();
+		long startOffset = session.getStartOffset();
+		long endOffset = session.getEndOffset();
+		while (startOffset < endOffset) {
+			MultiValueMap<String, Object> transferRequest = new LinkedMultiValueMap<String, Object>();
+			transferRequest.set("upload_phase", "transfer");
+			transferRequest.set("upload_session_id", uploadSessionId);
+			transferRequest.set("start_offset", String.valueOf(startOffset));
+			transferRequest.set("video_file_chunk", new FileChannelRegionResource(channel, startOffset, endOffset - startOffset, fileName));
+			Map<String, Object> nextChunk = transferChunk(transferRequest, new VideoUploadSession(uploadSessionId, session.getVideoId(), startOffset, endOffset));
+			startOffset = offset(nextChunk, "start_offset");
+			endOffset = offset(nextChunk, "end_offset");
+		}
+
+		MultiValueMap<String, Object> finishRequest = new LinkedMultiValueMap<String, Object>();
+		finishRequest.set("upload_phase", "finish");
+		finishRequest.set("upload_session_id", uploadSessionId);
+		if (title != null) {
+			finishRequest.set("title", title);
+		}
+		if (description != null) {
+			finishRequest.set("description", description);
+		}
+		transferChunk(finishRequest, new VideoUploadSession(uploadSessionId, session.getVideoId(), endOffset, endOffset));
+		return session.getVideoId();
+	}
+
+	// once a session has been started, a request that still fails after its retries leaves the session to be resumed from where it stopped
+	private Map<String, Object> transferChunk(MultiValueMap<String, Object> transferRequest, VideoUploadSession session) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return post(transferRequest);
+			} catch (ServerException e) {
+				retryOrInterrupt(attempt, session, e);
+			} catch (ResourceAccessException e) {
+				retryOrInterrupt(attempt, session, e);
+			}
+		}
+	}
+
+	private void retryOrInterrupt(int attempt, VideoUploadSession session, RuntimeException e) {
+		if (attempt >= MAX_CHUNK_ATTEMPTS) {
+			throw new VideoUploadInterruptedException(session, e);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Retrying video chunk at offset " + session.getStartOffset() + " after failed attempt " + attempt, e);
+		}
+		try {
+			Thread.sleep(RETRY_DELAY * attempt);
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new VideoUploadInterruptedException(session, e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> post(MultiValueMap<String, Object> request) {
+		return restTemplate.postForObject(uploadUrl, request, Map.class);
+	}
+
+	private long offset(Map<String, Object> response, String name) {
+		Object offset = response.get(name);
+		if (offset == null) {
+			throw new UncategorizedApiException("facebook", "Video upload response is missing " + name, null);
+		}
+		return Long.parseLong(String.valueOf(offset));
+	}
+
+	/*
+	 * Resource for a region of a file channel. Reads with positional reads, so that several regions of the same channel 
+	 * may be read without disturbing each other.
+	 */
+	private static class FileChannelRegionResource extends AbstractResource {
+
+		private final FileChannel channel;
+
+		private final long position;
+
+		private final long length;
+
+		private final String fileName;
+
+		public FileChannelRegionResource(FileChannel channel, long position, long length, String fileName) {
+			this.channel = channel;
+			this.position = position;
+			this.length = length;
+			this.fileName = fileName;
+		}
+
+		public InputStream getInputStream() throws IOException {
+			return new InputStream() {
+				
+				private long offset = 0;
+
+				@Override
+				public int read() throws IOException {
+					byte[] single = new byte[1];
+					return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+				}
+
+				@Override
+				public int read(byte[] bytes, int off, int len) throws IOException {
+					if (offset >= length) {
+						return -1;
+					}
+					ByteBuffer buffer = ByteBuffer.wrap(bytes, off, (int) Math.min(len, length - offset));
+					int read = channel.read(buffer, position + offset);
+					if (read > 0) {
+						offset += read;
+					}
+					return read;
+				}
+
+			};
+		}
+
+		@Override
+		public long contentLength() {
+			return length;
+		}
+
+		@Override
+		public String getFilename() {
+			return fileName;
+		}
+
+		public String getDescription() {
+			return "bytes " + position + "-" + (position + length - 1) + " of " + fileName;
+		}
+
+	}
+
+}
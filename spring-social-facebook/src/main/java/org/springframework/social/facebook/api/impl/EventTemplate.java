@@ -17,9 +17,12 @@ package org.springframework.social.facebook.api.impl;
 
 import static org.springframework.social.facebook.api.impl.PagedListUtils.*;
 
+import java.util.List;
+
 import org.springframework.social.facebook.api.Event;
 import org.springframework.social.facebook.api.EventInvitee;
 import org.springframework.social.facebook.api.EventOperations;
+import org.springframework.social.facebook.api.FieldProjection;
 import org.springframework.social.facebook.api.GraphApi;
 import org.springframework.social.facebook.api.ImageType;
 import org.springframework.social.facebook.api.Invitation;
@@ -38,7 +41,19 @@ class EventTemplate extends AbstractFacebookOperations implements EventOperation
 	}
 
 	public Event getEvent(String eventId) {
-		return graphApi.fetchObject(eventId, Event.class, ALL_FIELDS);
+		return getEvent(eventId, FULL_EVENT);
+	}
+
+	public List<Event> getEvents(List<String> eventIds) {
+		return getEvents(eventIds, FULL_EVENT);
+	}
+
+	public Event getEvent(String eventId, FieldProjection<Event> projection) {
+		return graphApi.fetchObject(eventId, Event.class, projection.getFields());
+	}
+
+	public List<Event> getEvents(List<String> eventIds, FieldProjection<Event> projection) {
+		return graphApi.fetchObjects(eventIds, Event.class, projection.getFields());
 	}
 	
 	public byte[] getEventImage(String eventId) {
@@ -181,7 +196,4 @@ class EventTemplate extends AbstractFacebookOperations implements EventOperation
 		MultiValueMap<String, String> parameters = getPagingParameters(pagingParams);
 		return graphApi.fetchConnections(userId, "events/" + status, Invitation.class, parameters);
 	}
-	
-	private static final String[] ALL_FIELDS = { "id", "cover", "description", "end_time", "is_date_only", "location", "name", 
-			"owner", "parent_group", "privacy", "start_time", "ticket_uri", "timezone", "updated_time", "venue" };
 }
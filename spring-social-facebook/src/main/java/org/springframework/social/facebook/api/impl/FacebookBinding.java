@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import org.springframework.social.facebook.api.AchievementOperations;
+import org.springframework.social.facebook.api.CommentOperations;
+import org.springframework.social.facebook.api.EventOperations;
+import org.springframework.social.facebook.api.Facebook;
+import org.springframework.social.facebook.api.FeedOperations;
+import org.springframework.social.facebook.api.FriendOperations;
+import org.springframework.social.facebook.api.GroupOperations;
+import org.springframework.social.facebook.api.LikeOperations;
+import org.springframework.social.facebook.api.MediaOperations;
+import org.springframework.social.facebook.api.OpenGraphOperations;
+import org.springframework.social.facebook.api.PageOperations;
+import org.springframework.social.facebook.api.TestUserOperations;
+import org.springframework.social.facebook.api.UserOperations;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * Lightweight {@link Facebook} binding obtained from a {@link FacebookEngine}.
+ * Shares the engine's message converters, {@link com.fasterxml.jackson.databind.ObjectMapper}, and request interceptors,
+ * and creates each of its operations templates only when it is first asked for.
+ * @author Craig Walls
+ */
+class FacebookBinding extends GraphApiTemplate implements Facebook {
+
+	private final boolean authorized;
+
+	private final String appId;
+
+	private final FacebookMeterRegistry meterRegistry;
+
+	private volatile AchievementOperations achievementOperations;
+
+	private volatile UserOperations userOperations;
+
+	private volatile LikeOperations likeOperations;
+
+	private volatile FriendOperations friendOperations;
+
+	private volatile FeedOperations feedOperations;
+
+	private volatile GroupOperations groupOperations;
+
+	private volatile CommentOperations commentOperations;
+
+	private volatile EventOperations eventOperations;
+
+	private volatile MediaOperations mediaOperations;
+
+	private volatile PageOperations pageOperations;
+
+	private volatile OpenGraphOperations openGraphOperations;
+
+	private volatile TestUserOperations testUserOperations;
+
+	public FacebookBinding(FacebookEngine engine, String accessToken) {
+		super(engine.createRestTemplate(accessToken), engine.getObjectMapper(), engine.getApplicationNamespace(), engine.getRedirectRestTemplate());
+		this.authorized = accessToken != null;
+		this.appId = engine.getAppId();
+		this.meterRegistry = engine.getMeterRegistry();
+		setPrefetchExecutor(engine.getPrefetchExecutor());
+	}
+
+	public boolean isAuthorized() {
+		return authorized;
+	}
+
+	public RestOperations restOperations() {
+		return getRestTemplate();
+	}
+
+	// operations templates hold no state of their own, so threads racing to create one merely create a spare
+	public AchievementOperations achievementOperations() {
+		AchievementOperations achievementOperations = this.achievementOperations;
+		if (achievementOperations == null) {
+			achievementOperations = instrument(AchievementOperations.class, new AchievementTemplate(this, authorized));
+			this.achievementOperations = achievementOperations;
+		}
+		return achievementOperations;
+	}
+
+	public UserOperations userOperations() {
+		UserOperations userOperations = this.userOperations;
+		if (userOperations == null) {
+			userOperations = instrument(UserOperations.class, new UserTemplate(this, getRestTemplate(), authorized));
+			this.userOperations = userOperations;
+		}
+		return userOperations;
+	}
+
+	public LikeOperations likeOperations() {
+		LikeOperations likeOperations = this.likeOperations;
+		if (likeOperations == null) {
+			likeOperations = instrument(LikeOperations.class, new LikeTemplate(this, authorized));
+			this.likeOperations = likeOperations;
+		}
+		return likeOperations;
+	}
+
+	public FriendOperations friendOperations() {
+		FriendOperations friendOperations = this.friendOperations;
+		if (friendOperations == null) {
+			friendOperations = instrument(FriendOperations.class, new FriendTemplate(this, getRestTemplate(), authorized));
+			this.friendOperations = friendOperations;
+		}
+		return friendOperations;
+	}
+
+	public FeedOperations feedOperations() {
+		FeedOperations feedOperations = this.feedOperations;
+		if (feedOperations == null) {
+			feedOperations = instrument(FeedOperations.class, new FeedTemplate(this, getRestTemplate(), getObjectMapper(), authorized));
+			this.feedOperations = feedOperations;
+		}
+		return feedOperations;
+	}
+
+	public GroupOperations groupOperations() {
+		GroupOperations groupOperations = this.groupOperations;
+		if (groupOperations == null) {
+			groupOperations = instrument(GroupOperations.class, new GroupTemplate(this, authorized));
+			this.groupOperations = groupOperations;
+		}
+		return groupOperations;
+	}
+
+	public CommentOperations commentOperations() {
+		CommentOperations commentOperations = this.commentOperations;
+		if (commentOperations == null) {
+			commentOperations = instrument(CommentOperations.class, new CommentTemplate(this, authorized));
+			this.commentOperations = commentOperations;
+		}
+		return commentOperations;
+	}
+
+	public EventOperations eventOperations() {
+		EventOperations eventOperations = this.eventOperations;
+		if (eventOperations == null) {
+			eventOperations = instrument(EventOperations.class, new EventTemplate(this, authorized));
+			this.eventOperations = eventOperations;
+		}
+		return eventOperations;
+	}
+
+	public MediaOperations mediaOperations() {
+		MediaOperations mediaOperations = this.mediaOperations;
+		if (mediaOperations == null) {
+			mediaOperations = instrument(MediaOperations.class, new MediaTemplate(this, getRestTemplate(), authorized));
+			this.mediaOperations = mediaOperations;
+		}
+		return mediaOperations;
+	}
+
+	public PageOperations pageOperations() {
+		PageOperations pageOperations = this.pageOperations;
+		if (pageOperations == null) {
+			pageOperations = instrument(PageOperations.class, new PageTemplate(this, authorized));
+			this.pageOperations = pageOperations;
+		}
+		return pageOperations;
+	}
+
+	public OpenGraphOperations openGraphOperations() {
+		OpenGraphOperations openGraphOperations = this.openGraphOperations;
+		if (openGraphOperations == null) {
+			openGraphOperations = instrument(OpenGraphOperations.class, new OpenGraphTemplate(this, authorized));
+			this.openGraphOperations = openGraphOperations;
+		}
+		return openGraphOperations;
+	}
+
+	public TestUserOperations testUserOperations() {
+		TestUserOperations testUserOperations = this.testUserOperations;
+		if (testUserOperations == null) {
+			testUserOperations = instrument(TestUserOperations.class, new TestUserTemplate(getRestTemplate(), appId));
+			this.testUserOperations = testUserOperations;
+		}
+		return testUserOperations;
+	}
+
+	// private helpers
+	private <T> T instrument(Class<T> operationsType, T operations) {
+		return meterRegistry != null ? FacebookMetrics.instrument(operationsType, operations, meterRegistry) : operations;
+	}
+
+}
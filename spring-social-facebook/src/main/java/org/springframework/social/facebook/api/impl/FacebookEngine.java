@@ -0,0 +1,269 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.social.facebook.api.Facebook;
+import org.springframework.social.facebook.api.impl.json.FacebookModule;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * <p>Creates lightweight, per-user {@link Facebook} bindings that share a single set of heavyweight components.</p>
+ * <p>
+ * Each {@link FacebookTemplate} builds its own message converters, its own {@link ObjectMapper}, and all of its operations templates up front.
+ * An engine instead builds its message converters, {@link ObjectMapper}, error handler, request interceptors, and the template that follows 
+ * image redirects once, and the bindings returned from {@link #getApi(String)} carry little more than their access token: each shares the engine's components and only creates 
+ * an operations template (such as {@link Facebook#feedOperations()}) when it is first used. This makes it cheap to obtain a binding per user per request.
+ * </p>
+ * <p>
+ * An engine is thread-safe once configured, and is intended to be created once and shared, as by {@link org.springframework.social.facebook.connect.FacebookServiceProvider}.
+ * Its settings should be configured before bindings are obtained from it; in particular, a response cache set with 
+ * {@link #setResponseCache(GraphApiResponseCache, long)} only applies to bindings obtained afterward.
+ * </p>
+ * @author Craig Walls
+ */
+public class FacebookEngine {
+
+	private final String applicationNamespace;
+
+	private final String appId;
+
+	private final ObjectMapper objectMapper;
+
+	private final List<HttpMessageConverter<?>> messageConverters;
+
+	private final FacebookErrorHandler errorHandler;
+
+	private final RateLimitGovernorInterceptor rateLimitInterceptor;
+
+	private final MeteredRequestInterceptor meteredRequestInterceptor;
+
+	private final ResilientRequestInterceptor resilientRequestInterceptor;
+
+	private volatile List<ClientHttpRequestInterceptor> interceptors;
+
+	private volatile ClientHttpRequestFactory requestFactory;
+
+	private volatile RestTemplate redirectRestTemplate;
+
+	private volatile Executor prefetchExecutor;
+
+	/**
+	 * Create a new FacebookEngine that sends requests through the {@link FacebookHttpTransport#getSharedInstance() shared transport}.
+	 * @param applicationNamespace The application's App Namespace as configured with Facebook. May be null.
+	 * @param appId The application's App ID as assigned by Facebook. May be null.
+	 */
+	public FacebookEngine(String applicationNamespace, String appId) {
+		this(applicationNamespace, appId, FacebookHttpTransport.getSharedInstance());
+	}
+
+	/**
+	 * Create a new FacebookEngine that sends requests through the given transport.
+	 * @param applicationNamespace The application's App Namespace as configured with Facebook. May be null.
+	 * @param appId The application's App ID as assigned by Facebook. May be null.
+	 * @param httpTransport the transport whose pooled connections requests will be sent through.
+	 */
+	public FacebookEngine(String applicationNamespace, String appId, FacebookHttpTransport httpTransport) {
+		Assert.notNull(httpTransport, "HTTP transport must not be null");
+		this.applicationNamespace = applicationNamespace;
+		this.appId = appId;
+		this.requestFactory = httpTransport.getRequestFactory();
+		this.redirectRestTemplate = GraphApiTemplate.createRedirectRestTemplate(requestFactory);
+		objectMapper = new ObjectMapper();
+		objectMapper.registerModule(new FacebookModule());
+		messageConverters = Collections.unmodifiableList(FacebookMessageConverters.create(objectMapper));
+		errorHandler = new FacebookErrorHandler();
+		rateLimitInterceptor = new RateLimitGovernorInterceptor(GraphApiRateLimitGovernor.getSharedInstance());
+		rateLimitInterceptor.setAppId(appId);
+		meteredRequestInterceptor = new MeteredRequestInterceptor(null, null);
+		resilientRequestInterceptor = new ResilientRequestInterceptor(new GraphApiRetryPolicy(), GraphApiCircuitBreaker.getSharedInstance());
+		interceptors = Collections.unmodifiableList(Arrays.<ClientHttpRequestInterceptor>asList(rateLimitInterceptor, meteredRequestInterceptor, resilientRequestInterceptor));
+	}
+
+	/**
+	 * Obtains a binding to Facebook's Graph API on behalf of the user (or application) that the given access token was issued to.
+	 * The binding is cheap to create and may be discarded once the current unit of work is done.
+	 * @param accessToken An access token given by Facebook after a successful OAuth 2 authentication (or through Facebook's JS library).
+	 * 			May be null to obtain a binding able to perform only unauthenticated operations.
+	 * @return a binding to Facebook's Graph API
+	 */
+	public Facebook getApi(String accessToken) {
+		return new FacebookBinding(this, accessToken);
+	}
+
+	/**
+	 * Sets the request factory through which the bindings obtained afterward send their requests.
+	 * Overrides the request factory of the transport given at construction.
+	 * @param requestFactory the request factory
+	 */
+	public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
+		Assert.notNull(requestFactory, "Request factory must not be null");
+		this.requestFactory = requestFactory;
+		this.redirectRestTemplate = GraphApiTemplate.createRedirectRestTemplate(requestFactory);
+	}
+
+	/**
+	 * Sets an {@link Executor} with which the connection iterators of bindings obtained afterward prefetch the next page of connections.
+	 * @param prefetchExecutor the executor to prefetch pages with.
+	 * @see FacebookTemplate#setPrefetchExecutor(Executor)
+	 */
+	public void setPrefetchExecutor(Executor prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	/**
+	 * Sets the {@link GraphApiRateLimitGovernor} that delays the requests of this engine's bindings as their usage approaches Facebook's rate limits.
+	 * Defaults to the {@link GraphApiRateLimitGovernor#getSharedInstance() shared governor}.
+	 * @param rateLimitGovernor the rate limit governor
+	 */
+	public void setRateLimitGovernor(GraphApiRateLimitGovernor rateLimitGovernor) {
+		rateLimitInterceptor.setGovernor(rateLimitGovernor);
+	}
+
+	/**
+	 * @return the {@link GraphApiRateLimitGovernor} governing the requests of this engine's bindings.
+	 */
+	public GraphApiRateLimitGovernor getRateLimitGovernor() {
+		return rateLimitInterceptor.getGovernor();
+	}
+
+	/**
+	 * Sets the {@link GraphApiRetryPolicy} that determines how reads that fail with transient errors are retried.
+	 * @param retryPolicy the retry policy
+	 */
+	public void setRetryPolicy(GraphApiRetryPolicy retryPolicy) {
+		resilientRequestInterceptor.setRetryPolicy(retryPolicy);
+	}
+
+	/**
+	 * Sets the {@link GraphApiCircuitBreaker} that sheds the requests of this engine's bindings to failing families of Graph API endpoints.
+	 * Defaults to the {@link GraphApiCircuitBreaker#getSharedInstance() shared circuit breaker}.
+	 * @param circuitBreaker the circuit breaker
+	 */
+	public void setCircuitBreaker(GraphApiCircuitBreaker circuitBreaker) {
+		resilientRequestInterceptor.setCircuitBreaker(circuitBreaker);
+	}
+
+	/**
+	 * @return the {@link GraphApiCircuitBreaker} guarding the requests of this engine's bindings.
+	 */
+	public GraphApiCircuitBreaker getCircuitBreaker() {
+		return resilientRequestInterceptor.getCircuitBreaker();
+	}
+
+	/**
+	 * Sets a {@link FacebookMeterRegistry} to report measurements of the operations and requests of this engine's bindings to.
+	 * @param meterRegistry the meter registry, or null to stop measuring
+	 * @see FacebookTemplate#setMeterRegistry(FacebookMeterRegistry)
+	 */
+	public void setMeterRegistry(FacebookMeterRegistry meterRegistry) {
+		meteredRequestInterceptor.setMeterRegistry(meterRegistry);
+	}
+
+	/**
+	 * @return the {@link FacebookMeterRegistry} that this engine's bindings report measurements to, or null if they are not measured.
+	 */
+	public FacebookMeterRegistry getMeterRegistry() {
+		return meteredRequestInterceptor.getMeterRegistry();
+	}
+
+	/**
+	 * Enables caching of the Graph API reads of bindings obtained afterward. 
+	 * Responses are cached per access token, so bindings for different users never see each other's cached responses.
+	 * Cached responses are served without being delayed by the rate limit governor or measured by the meter registry.
+	 * Setting a response cache replaces any set before.
+	 * @param responseCache the store to hold cached responses in, or null to stop caching
+	 * @param timeToLive how long, in milliseconds, a cached response may be reused before it must be revalidated.
+	 * @see FacebookTemplate#setResponseCache(GraphApiResponseCache, long)
+	 */
+	public synchronized void setResponseCache(GraphApiResponseCache responseCache, long timeToLive) {
+		List<ClientHttpRequestInterceptor> interceptors = CachingGraphApiInterceptor.removeFrom(this.interceptors);
+		if (responseCache != null) {
+			// cached responses are served ahead of the rate limit governor and metrics, so that cache hits are neither delayed nor measured
+			interceptors.add(0, new CachingGraphApiInterceptor(responseCache, timeToLive));
+		}
+		this.interceptors = Collections.unmodifiableList(interceptors);
+	}
+
+	// package-private accessors for bindings
+	String getApplicationNamespace() {
+		return applicationNamespace;
+	}
+
+	String getAppId() {
+		return appId;
+	}
+
+	ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	RestTemplate getRedirectRestTemplate() {
+		return redirectRestTemplate;
+	}
+
+	Executor getPrefetchExecutor() {
+		return prefetchExecutor;
+	}
+
+	RestTemplate createRestTemplate(String accessToken) {
+		RestTemplate restTemplate = new RestTemplate(messageConverters);
+		restTemplate.setErrorHandler(errorHandler);
+		restTemplate.setRequestFactory(requestFactory);
+		List<ClientHttpRequestInterceptor> interceptors = this.interceptors;
+		List<ClientHttpRequestInterceptor> bindingInterceptors = new ArrayList<ClientHttpRequestInterceptor>(interceptors.size() + 1);
+		if (accessToken != null) {
+			bindingInterceptors.add(new AccessTokenInterceptor(accessToken));
+		}
+		bindingInterceptors.addAll(interceptors);
+		restTemplate.setInterceptors(bindingInterceptors);
+		return restTemplate;
+	}
+
+	/*
+	 * Adds a binding's access token to each of its requests, as FacebookTemplate's OAuth 2 interceptor does.
+	 */
+	private static class AccessTokenInterceptor implements ClientHttpRequestInterceptor {
+
+		private final String authorizationHeader;
+
+		public AccessTokenInterceptor(String accessToken) {
+			this.authorizationHeader = "OAuth " + accessToken;
+		}
+
+		public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+			request.getHeaders().set("Authorization", authorizationHeader);
+			return execution.execute(request, body);
+		}
+
+	}
+
+}
@@ -36,6 +36,7 @@ import org.springframework.social.OperationNotPermittedException;
 import org.springframework.social.RateLimitExceededException;
 import org.springframework.social.ResourceNotFoundException;
 import org.springframework.social.RevokedAuthorizationException;
+import org.springframework.social.ServerDownException;
 import org.springframework.social.UncategorizedApiException;
 import org.springframework.social.facebook.api.NotAFriendException;
 import org.springframework.social.facebook.api.ResourceOwnershipException;
@@ -58,14 +59,19 @@ class FacebookErrorHandler extends DefaultResponseErrorHandler {
 
 	@Override
 	public void handleError(ClientHttpResponse response) throws IOException {
-		Map<String, String> errorDetails = extractErrorDetailsFromResponse(response);
+		// Only error responses are buffered, so that the body can be read both here and by the default handling below
+		ClientHttpResponse bufferedResponse = new BufferedClientHttpResponse(response);
+		Map<String, String> errorDetails = extractErrorDetailsFromResponse(bufferedResponse);
 		if (errorDetails == null) {
-			handleUncategorizedError(response, errorDetails);
+			handleUncategorizedError(bufferedResponse, errorDetails);
+		}
+		handleFacebookError(bufferedResponse.getStatusCode(), errorDetails);
+		if (isTransientError(errorDetails)) {
+			throw new ServerDownException(FACEBOOK, errorDetails.get("message"));
 		}
-		handleFacebookError(response.getStatusCode(), errorDetails);
 		
 		// if not otherwise handled, do default handling and wrap with UncategorizedApiException
-		handleUncategorizedError(response, errorDetails);			
+		handleUncategorizedError(bufferedResponse, errorDetails);			
 	}
 
 	/**
@@ -134,6 +140,19 @@ class FacebookErrorHandler extends DefaultResponseErrorHandler {
 		}
 	}
 
+	/*
+	 * Facebook flags errors that are worth retrying with "is_transient", and reports temporary problems on its side with codes 1 (unknown error) 
+	 * and 2 (service temporarily unavailable), whatever the HTTP status.
+	 */
+	private boolean isTransientError(Map<String, String> errorDetails) {
+		Map<?, ?> details = errorDetails;
+		if (Boolean.TRUE.equals(details.get("is_transient"))) {
+			return true;
+		}
+		String code = String.valueOf(details.get("code"));
+		return code.equals("1") || code.equals("2");
+	}
+
 	private void handleInvalidAccessToken(String message) {
 		if (message.contains("Session has expired at unix time")) {
 			throw new ExpiredAuthorizationException("facebook");
@@ -170,9 +189,6 @@ class FacebookErrorHandler extends DefaultResponseErrorHandler {
 	private Map<String, String> extractErrorDetailsFromResponse(ClientHttpResponse response) throws IOException {
 		ObjectMapper mapper = new ObjectMapper(new JsonFactory());
 		String json = readFully(response.getBody());
-		
-		System.out.println(json);
-		
 		if (logger.isDebugEnabled()) {
 			logger.debug("Error from Facebook: " + json);
 		}
@@ -193,10 +209,12 @@ class FacebookErrorHandler extends DefaultResponseErrorHandler {
 	}
 	
 	private String readFully(InputStream in) throws IOException {
-		BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+		// Read to the end of the stream rather than only what is ready, since an unbuffered body may still be arriving
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
 		StringBuilder sb = new StringBuilder();
-		while (reader.ready()) {
-			sb.append(reader.readLine());
+		String line;
+		while ((line = reader.readLine()) != null) {
+			sb.append(line);
 		}
 		return sb.toString();
 	}
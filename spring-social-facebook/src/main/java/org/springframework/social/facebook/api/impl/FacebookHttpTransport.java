@@ -0,0 +1,286 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * <p>Configures the HTTP transport through which {@link FacebookTemplate} sends requests to Facebook.</p>
+ * <p>
+ * When Apache HttpComponents HttpClient is on the classpath, requests are sent through a single pooled connection manager that keeps
+ * connections to Facebook alive between requests, so that each request need not pay for a new TCP connection and TLS handshake.
+ * Otherwise, requests are sent through the JDK's HttpURLConnection, which relies on the JVM's own keep-alive cache.
+ * Either way, the request factory does not follow redirects itself: a redirected response (such as from a picture connection to Facebook's CDN)
+ * is handed back to the caller, which follows it without the access token.
+ * </p>
+ * <p>
+ * A transport's connections are shared by every {@link FacebookTemplate} given its request factory, so creating a FacebookTemplate 
+ * per user does not create a connection pool per user. FacebookTemplate uses the {@link #getSharedInstance() shared transport} 
+ * unless it is given some other request factory.
+ * </p>
+ * <p>
+ * The transport likewise provides the {@link #getAsyncRequestFactory() asynchronous request factory} shared by every {@link AsyncFacebookTemplate}.
+ * When Apache HttpComponents HttpAsyncClient is on the classpath, asynchronous requests are sent through a single non-blocking I/O reactor 
+ * and connection pool, limited by the same settings as the synchronous pool.
+ * Otherwise, they are sent through the JDK's HttpURLConnection, with a thread for each outstanding request.
+ * </p>
+ * @author Craig Walls
+ */
+public class FacebookHttpTransport implements DisposableBean {
+
+	/**
+	 * The default maximum number of pooled connections.
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS = 200;
+
+	/**
+	 * The default maximum number of pooled connections per route. 
+	 * Nearly all requests go to graph.facebook.com, so this is the effective limit on concurrent requests.
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 100;
+
+	/**
+	 * The default connect timeout, in milliseconds.
+	 */
+	public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+
+	/**
+	 * The default read timeout, in milliseconds.
+	 */
+	public static final int DEFAULT_READ_TIMEOUT = 30000;
+
+	private static final boolean HTTP_CLIENT_PRESENT = 
+			ClassUtils.isPresent("org.apache.http.impl.conn.PoolingHttpClientConnectionManager", FacebookHttpTransport.class.getClassLoader());
+
+	private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+	private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+	private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+
+	private int readTimeout = DEFAULT_READ_TIMEOUT;
+
+	private static final boolean HTTP_ASYNC_CLIENT_PRESENT = 
+			ClassUtils.isPresent("org.apache.http.impl.nio.client.CloseableHttpAsyncClient", FacebookHttpTransport.class.getClassLoader());
+
+	private ClientHttpRequestFactory requestFactory;
+
+	private AsyncClientHttpRequestFactory asyncRequestFactory;
+
+	/**
+	 * @return the transport shared by default among all {@link FacebookTemplate} instances.
+	 */
+	public static FacebookHttpTransport getSharedInstance() {
+		return SharedInstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * Creates an interceptor that reports the requests sent through a RestTemplate other than {@link FacebookTemplate}'s 
+	 * (such as the one that {@link org.springframework.social.facebook.connect.FacebookOAuth2Template} obtains access grants with) 
+	 * to a {@link FacebookMeterRegistry}.
+	 * @param meterRegistry the registry to report requests to
+	 * @param operation the operation to tag requests with
+	 * @return an interceptor to add to the RestTemplate's interceptors
+	 */
+	public static ClientHttpRequestInterceptor meteredRequestInterceptor(FacebookMeterRegistry meterRegistry, String operation) {
+		return new MeteredRequestInterceptor(meterRegistry, operation);
+	}
+
+	/**
+	 * Sets the maximum number of pooled connections. Defaults to {@link #DEFAULT_MAX_CONNECTIONS}.
+	 * Only applies when HttpClient is on the classpath.
+	 * @param maxConnections the maximum number of connections
+	 */
+	public void setMaxConnections(int maxConnections) {
+		assertNotStarted();
+		this.maxConnections = maxConnections;
+	}
+
+	/**
+	 * Sets the maximum number of pooled connections to any one host. Defaults to {@link #DEFAULT_MAX_CONNECTIONS_PER_ROUTE}.
+	 * Only applies when HttpClient is on the classpath.
+	 * @param maxConnectionsPerRoute the maximum number of connections per route
+	 */
+	public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+		assertNotStarted();
+		this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+	}
+
+	/**
+	 * Sets the connect timeout. Defaults to {@link #DEFAULT_CONNECT_TIMEOUT}.
+	 * @param connectTimeout the connect timeout, in milliseconds. Zero means no timeout.
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		assertNotStarted();
+		this.connectTimeout = connectTimeout;
+	}
+
+	/**
+	 * Sets the read timeout. Defaults to {@link #DEFAULT_READ_TIMEOUT}.
+	 * @param readTimeout the read timeout, in milliseconds. Zero means no timeout.
+	 */
+	public void setReadTimeout(int readTimeout) {
+		assertNotStarted();
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 * Returns the request factory through which requests are sent, creating it (and its connection pool) on first use.
+	 * Once the request factory has been created, the transport's settings may no longer be changed.
+	 * @return the request factory
+	 */
+	public synchronized ClientHttpRequestFactory getRequestFactory() {
+		if (requestFactory == null) {
+			requestFactory = HTTP_CLIENT_PRESENT ? 
+					PooledRequestFactoryCreator.createRequestFactory(maxConnections, maxConnectionsPerRoute, connectTimeout, readTimeout) : 
+					createSimpleRequestFactory(false);
+		}
+		return requestFactory;
+	}
+
+	/**
+	 * Returns the asynchronous request factory through which {@link AsyncFacebookTemplate} sends requests, creating it 
+	 * (and its I/O reactor and connection pool) on first use.
+	 * Once the request factory has been created, the transport's settings may no longer be changed.
+	 * @return the asynchronous request factory
+	 */
+	public synchronized AsyncClientHttpRequestFactory getAsyncRequestFactory() {
+		if (asyncRequestFactory == null) {
+			asyncRequestFactory = HTTP_ASYNC_CLIENT_PRESENT && HTTP_CLIENT_PRESENT ? 
+					PooledRequestFactoryCreator.createAsyncRequestFactory(getRequestFactory(), maxConnections, maxConnectionsPerRoute, connectTimeout, readTimeout) : 
+					createSimpleRequestFactory(true);
+		}
+		return asyncRequestFactory;
+	}
+
+	/**
+	 * Closes the transport's pooled connections and stops its I/O reactor.
+	 */
+	public synchronized void destroy() throws Exception {
+		if (asyncRequestFactory instanceof DisposableBean) {
+			((DisposableBean) asyncRequestFactory).destroy();
+		}
+		if (requestFactory instanceof DisposableBean) {
+			((DisposableBean) requestFactory).destroy();
+		}
+		requestFactory = null;
+		asyncRequestFactory = null;
+	}
+
+	private synchronized void assertNotStarted() {
+		if (requestFactory != null || asyncRequestFactory != null) {
+			throw new IllegalStateException("The transport's settings may not be changed once its request factory has been created");
+		}
+	}
+
+	private SimpleClientHttpRequestFactory createSimpleRequestFactory(final boolean followRedirects) {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory() {
+			@Override
+			protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+				super.prepareConnection(connection, httpMethod);
+				if (!followRedirects) {
+					connection.setInstanceFollowRedirects(false);
+				}
+			}
+		};
+		requestFactory.setConnectTimeout(connectTimeout);
+		requestFactory.setReadTimeout(readTimeout);
+		requestFactory.setTaskExecutor(new SimpleAsyncTaskExecutor("facebook-"));
+		return requestFactory;
+	}
+
+	private static class SharedInstanceHolder {
+		
+		private static final FacebookHttpTransport INSTANCE = new FacebookHttpTransport();
+		
+	}
+
+	/*
+	 * Kept in its own class so that HttpClient is only loaded when it is known to be on the classpath.
+	 */
+	private static class PooledRequestFactoryCreator {
+
+		public static ClientHttpRequestFactory createRequestFactory(int maxConnections, int maxConnectionsPerRoute, int connectTimeout, int readTimeout) {
+			PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+			connectionManager.setMaxTotal(maxConnections);
+			connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+			RequestConfig requestConfig = RequestConfig.custom()
+					.setConnectTimeout(connectTimeout)
+					.setConnectionRequestTimeout(connectTimeout)
+					.setSocketTimeout(readTimeout)
+					.build();
+			// redirects are left to the caller, so that the access token is not carried along to wherever Facebook redirects to
+			return new HttpComponentsClientHttpRequestFactory(HttpClients.custom()
+					.useSystemProperties()
+					.disableRedirectHandling()
+					.setConnectionManager(connectionManager)
+					.setDefaultRequestConfig(requestConfig)
+					.build());
+		}
+
+		// shares the synchronous client with the synchronous request factory, since HttpComponentsAsyncClientHttpRequestFactory otherwise creates one of its own
+		public static AsyncClientHttpRequestFactory createAsyncRequestFactory(ClientHttpRequestFactory syncRequestFactory, int maxConnections, int maxConnectionsPerRoute, int connectTimeout, int readTimeout) {
+			try {
+				IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+						.setConnectTimeout(connectTimeout)
+						.setSoTimeout(readTimeout)
+						.build();
+				PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+				connectionManager.setMaxTotal(maxConnections);
+				connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+				RequestConfig requestConfig = RequestConfig.custom()
+						.setConnectTimeout(connectTimeout)
+						.setConnectionRequestTimeout(connectTimeout)
+						.setSocketTimeout(readTimeout)
+						.build();
+				CloseableHttpAsyncClient asyncClient = HttpAsyncClients.custom()
+						.useSystemProperties()
+						.setConnectionManager(connectionManager)
+						.setDefaultRequestConfig(requestConfig)
+						.build();
+				CloseableHttpClient syncClient = (CloseableHttpClient) ((HttpComponentsClientHttpRequestFactory) syncRequestFactory).getHttpClient();
+				HttpComponentsAsyncClientHttpRequestFactory requestFactory = new HttpComponentsAsyncClientHttpRequestFactory(syncClient, asyncClient);
+				requestFactory.afterPropertiesSet();
+				return requestFactory;
+			} catch (IOReactorException e) {
+				throw new IllegalStateException("Unable to start the HTTP client's I/O reactor", e);
+			}
+		}
+
+	}
+
+}
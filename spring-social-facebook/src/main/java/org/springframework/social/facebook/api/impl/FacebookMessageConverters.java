@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Builds the message converters that {@link FacebookEngine} bindings and {@link AsyncFacebookTemplate} read and write Graph API requests with,
+ * equivalent to those that {@link FacebookTemplate} inherits from AbstractOAuth2ApiBinding.
+ * @author Craig Walls
+ */
+class FacebookMessageConverters {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private FacebookMessageConverters() {
+	}
+
+	/**
+	 * @param objectMapper the object mapper, with the {@link org.springframework.social.facebook.api.impl.json.FacebookModule} registered, to read and write JSON with
+	 * @return a new, modifiable list of message converters
+	 */
+	public static List<HttpMessageConverter<?>> create(ObjectMapper objectMapper) {
+		List<HttpMessageConverter<?>> messageConverters = new ArrayList<HttpMessageConverter<?>>();
+		messageConverters.add(new StringHttpMessageConverter());
+		FormHttpMessageConverter formConverter = new FormHttpMessageConverter();
+		formConverter.setCharset(UTF8);
+		List<HttpMessageConverter<?>> partConverters = new ArrayList<HttpMessageConverter<?>>();
+		partConverters.add(new ByteArrayHttpMessageConverter());
+		StringHttpMessageConverter stringPartConverter = new StringHttpMessageConverter(UTF8);
+		stringPartConverter.setWriteAcceptCharset(false);
+		partConverters.add(stringPartConverter);
+		partConverters.add(new ResourceHttpMessageConverter());
+		formConverter.setPartConverters(partConverters);
+		messageConverters.add(formConverter);
+		MappingJackson2HttpMessageConverter jsonConverter = new MappingJackson2HttpMessageConverter();
+		jsonConverter.setObjectMapper(objectMapper);
+		messageConverters.add(jsonConverter);
+		ByteArrayHttpMessageConverter byteArrayConverter = new ByteArrayHttpMessageConverter();
+		byteArrayConverter.setSupportedMediaTypes(Arrays.asList(MediaType.IMAGE_JPEG, MediaType.IMAGE_GIF, MediaType.IMAGE_PNG));
+		messageConverters.add(byteArrayConverter);
+		return messageConverters;
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+/**
+ * Receives measurements of the requests made to Facebook and of the client operations that made them, 
+ * so that they may be recorded in whatever metrics system an application uses.
+ * Measurements are tagged by logical operation, named for the operations interface and method that was called 
+ * (for example, "feed.getFeed" or "media.getPhotoImage"), rather than by URL.
+ * Requests made other than through an operations interface, such as through {@link org.springframework.social.facebook.api.GraphApi} directly, 
+ * are tagged "graph" followed by the request method and the family of endpoint requested (for example, "graph GET /feed").
+ * {@link InMemoryFacebookMeterRegistry} keeps measurements in memory.
+ * Implementations must be safe for use by multiple threads, and should be quick, since they are called on the requesting thread.
+ * @author Craig Walls
+ */
+public interface FacebookMeterRegistry {
+
+	/**
+	 * Records a request made to Facebook.
+	 * @param operation the logical operation that made the request
+	 * @param outcome the response's HTTP status code (for example, "200") or, if no response was received, the name of the exception thrown.
+	 * @param latency the time, in nanoseconds, from sending the request to receiving the response's status and headers
+	 * @param processingTime the time, in nanoseconds, spent reading and deserializing the response's body
+	 * @param requestBytes the size of the request body
+	 * @param responseBytes the number of response body bytes read
+	 */
+	void recordRequest(String operation, String outcome, long latency, long processingTime, long requestBytes, long responseBytes);
+
+	/**
+	 * Records a call to a client operation.
+	 * @param operation the logical operation
+	 * @param outcome "success" or, if the operation failed, the name of the exception thrown.
+	 * @param duration the time, in nanoseconds, that the operation took
+	 * @param requests the number of requests that the operation made
+	 * @param pages the number of pages of results that the operation fetched
+	 */
+	void recordOperation(String operation, String outcome, long duration, int requests, int pages);
+
+}
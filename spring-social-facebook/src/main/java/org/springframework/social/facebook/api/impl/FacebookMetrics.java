@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Tracks the logical operation being performed on the current thread, so that the requests it makes may be tagged with it.
+ * Operations are tracked by wrapping operations interfaces in proxies with {@link #instrument(Class, Object, FacebookMeterRegistry)}.
+ * @author Craig Walls
+ */
+class FacebookMetrics {
+
+	private static final ThreadLocal<OperationSample> CURRENT_OPERATION = new ThreadLocal<OperationSample>();
+
+	private FacebookMetrics() {
+	}
+
+	/**
+	 * Wraps an operations implementation in a proxy that measures each call made to it.
+	 * Operations are named for the interface (without its "Operations" suffix) and method, such as "feed.getFeed" for {@link org.springframework.social.facebook.api.FeedOperations#getFeed()}.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T instrument(Class<T> operationsType, T target, FacebookMeterRegistry meterRegistry) {
+		String prefix = operationsType.getSimpleName().replaceFirst("Operations$", "");
+		prefix = Character.toLowerCase(prefix.charAt(0)) + prefix.substring(1);
+		return (T) Proxy.newProxyInstance(operationsType.getClassLoader(), new Class<?>[] { operationsType }, new MeteringInvocationHandler(target, prefix, meterRegistry));
+	}
+
+	/**
+	 * @return the name of the operation being performed on the current thread, or null if none is.
+	 */
+	static String currentOperation() {
+		OperationSample sample = CURRENT_OPERATION.get();
+		return sample != null ? sample.name : null;
+	}
+
+	/**
+	 * Notes that the current operation has sent a request.
+	 */
+	static void requestSent() {
+		OperationSample sample = CURRENT_OPERATION.get();
+		if (sample != null) {
+			sample.requests++;
+		}
+	}
+
+	/**
+	 * Notes that the current operation has fetched a page of results.
+	 */
+	static void pageFetched() {
+		OperationSample sample = CURRENT_OPERATION.get();
+		if (sample != null) {
+			sample.pages++;
+		}
+	}
+
+	private static class OperationSample {
+
+		private final String name;
+
+		private int requests;
+
+		private int pages;
+
+		public OperationSample(String name) {
+			this.name = name;
+		}
+
+	}
+
+	private static class MeteringInvocationHandler implements InvocationHandler {
+
+		private final Object target;
+
+		private final String prefix;
+
+		private final FacebookMeterRegistry meterRegistry;
+
+		public MeteringInvocationHandler(Object target, String prefix, FacebookMeterRegistry meterRegistry) {
+			this.target = target;
+			this.prefix = prefix;
+			this.meterRegistry = meterRegistry;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (method.getDeclaringClass() == Object.class || CURRENT_OPERATION.get() != null) {
+				// not an operation, or called from within another operation that it is measured as part of
+				return invokeTarget(method, args);
+			}
+			OperationSample sample = new OperationSample(prefix + "." + method.getName());
+			CURRENT_OPERATION.set(sample);
+			String outcome = "success";
+			long start = System.nanoTime();
+			try {
+				return invokeTarget(method, args);
+			} catch (Throwable e) {
+				outcome = e.getClass().getName();
+				throw e;
+			} finally {
+				CURRENT_OPERATION.remove();
+				meterRegistry.recordOperation(sample.name, outcome, System.nanoTime() - start, sample.requests, sample.pages);
+			}
+		}
+
+		private Object invokeTarget(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+	}
+
+}
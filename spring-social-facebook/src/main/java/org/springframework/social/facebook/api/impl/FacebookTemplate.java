@@ -15,28 +15,25 @@
  */
 package org.springframework.social.facebook.api.impl;
 
-import static org.springframework.social.facebook.api.impl.PagedListUtils.*;
-
-import java.io.IOException;
-import java.net.URI;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.social.NotAuthorizedException;
-import org.springframework.social.UncategorizedApiException;
 import org.springframework.social.facebook.api.AchievementOperations;
+import org.springframework.social.facebook.api.BatchRequest;
 import org.springframework.social.facebook.api.CommentOperations;
 import org.springframework.social.facebook.api.EventOperations;
 import org.springframework.social.facebook.api.Facebook;
 import org.springframework.social.facebook.api.FeedOperations;
 import org.springframework.social.facebook.api.FriendOperations;
+import org.springframework.social.facebook.api.GraphQuery;
 import org.springframework.social.facebook.api.GroupOperations;
 import org.springframework.social.facebook.api.ImageType;
 import org.springframework.social.facebook.api.LikeOperations;
@@ -44,23 +41,16 @@ import org.springframework.social.facebook.api.MediaOperations;
 import org.springframework.social.facebook.api.OpenGraphOperations;
 import org.springframework.social.facebook.api.PageOperations;
 import org.springframework.social.facebook.api.PagedList;
-import org.springframework.social.facebook.api.PagingParameters;
 import org.springframework.social.facebook.api.TestUserOperations;
 import org.springframework.social.facebook.api.UserOperations;
 import org.springframework.social.facebook.api.impl.json.FacebookModule;
 import org.springframework.social.oauth2.AbstractOAuth2ApiBinding;
 import org.springframework.social.oauth2.OAuth2Version;
-import org.springframework.social.support.ClientHttpRequestFactorySelector;
-import org.springframework.social.support.URIBuilder;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 
 /**
  * <p>This is the central class for interacting with Facebook.</p>
@@ -105,6 +95,14 @@ public class FacebookTemplate extends AbstractOAuth2ApiBinding implements Facebo
 
 	private String applicationNamespace;
 
+	private GraphApiTemplate graphApi;
+
+	private RateLimitGovernorInterceptor rateLimitInterceptor;
+
+	private ResilientRequestInterceptor resilientRequestInterceptor;
+
+	private MeteredRequestInterceptor meteredRequestInterceptor;
+
 	/**
 	 * Create a new instance of FacebookTemplate.
 	 * This constructor creates a new FacebookTemplate able to perform unauthenticated operations against Facebook's Graph API.
@@ -134,13 +132,127 @@ public class FacebookTemplate extends AbstractOAuth2ApiBinding implements Facebo
 		super(accessToken);
 		this.applicationNamespace = applicationNamespace;
 		this.appId = appId;
+		rateLimitInterceptor.setAppId(appId);
 		initialize();
 	}
+
+	/**
+	 * Create a new instance of FacebookTemplate that sends its requests through the given transport.
+	 * @param accessToken An access token given by Facebook after a successful OAuth 2 authentication (or through Facebook's JS library).
+	 * @param applicationNamespace The application's App Namespace as configured with Facebook. May be null.
+	 * @param appId The application's App ID as assigned by Facebook. May be null.
+	 * @param httpTransport the transport whose pooled connections requests will be sent through.
+	 */
+	public FacebookTemplate(String accessToken, String applicationNamespace, String appId, FacebookHttpTransport httpTransport) {
+		this(accessToken, applicationNamespace, appId);
+		setRequestFactory(httpTransport.getRequestFactory());
+	}
 	
+	/**
+	 * Sets the request factory through which requests are sent.
+	 * Redirects away from the Graph API, such as those to the CDN serving an image, are followed through the same request factory, 
+	 * but without the access token or any of the Graph API's request interceptors.
+	 */
 	@Override
 	public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
-		// Wrap the request factory with a BufferingClientHttpRequestFactory so that the error handler can do repeat reads on the response.getBody()
-		super.setRequestFactory(ClientHttpRequestFactorySelector.bufferRequests(requestFactory));
+		super.setRequestFactory(requestFactory);
+		if (graphApi != null) {
+			graphApi.setRequestFactory(requestFactory);
+		}
+	}
+
+	/**
+	 * Sets an {@link Executor} with which iterators returned from {@link #iterateConnections(String, String, Class, MultiValueMap)}
+	 * fetch the next page of connections in the background while the current page is being consumed.
+	 * If not set (the default), each page is fetched on the iterating thread once the previous page has been exhausted.
+	 * @param prefetchExecutor the executor to prefetch pages with.
+	 */
+	public void setPrefetchExecutor(Executor prefetchExecutor) {
+		graphApi.setPrefetchExecutor(prefetchExecutor);
+	}
+
+	/**
+	 * Sets the {@link GraphApiRateLimitGovernor} that delays requests as the usage that Facebook reports for them approaches Facebook's rate limits.
+	 * Defaults to the {@link GraphApiRateLimitGovernor#getSharedInstance() shared governor}, whose budget is shared by every FacebookTemplate in the JVM.
+	 * @param rateLimitGovernor the rate limit governor
+	 */
+	public void setRateLimitGovernor(GraphApiRateLimitGovernor rateLimitGovernor) {
+		rateLimitInterceptor.setGovernor(rateLimitGovernor);
+	}
+
+	/**
+	 * @return the {@link GraphApiRateLimitGovernor} governing this FacebookTemplate's requests, through which current usage levels may be inspected.
+	 */
+	public GraphApiRateLimitGovernor getRateLimitGovernor() {
+		return rateLimitInterceptor.getGovernor();
+	}
+
+	/**
+	 * Sets the {@link GraphApiRetryPolicy} that determines how Graph API reads that fail with transient errors are retried.
+	 * Defaults to a {@link GraphApiRetryPolicy} with its default settings.
+	 * @param retryPolicy the retry policy
+	 */
+	public void setRetryPolicy(GraphApiRetryPolicy retryPolicy) {
+		resilientRequestInterceptor.setRetryPolicy(retryPolicy);
+	}
+
+	/**
+	 * Sets the {@link GraphApiCircuitBreaker} that sheds requests to failing families of Graph API endpoints.
+	 * Defaults to the {@link GraphApiCircuitBreaker#getSharedInstance() shared circuit breaker}, which sees the requests of every FacebookTemplate in the JVM.
+	 * @param circuitBreaker the circuit breaker
+	 */
+	public void setCircuitBreaker(GraphApiCircuitBreaker circuitBreaker) {
+		resilientRequestInterceptor.setCircuitBreaker(circuitBreaker);
+	}
+
+	/**
+	 * @return the {@link GraphApiCircuitBreaker} guarding this FacebookTemplate's requests, through which the state of its circuits may be inspected.
+	 */
+	public GraphApiCircuitBreaker getCircuitBreaker() {
+		return resilientRequestInterceptor.getCircuitBreaker();
+	}
+
+	/**
+	 * Sets a {@link FacebookMeterRegistry} to report measurements of this FacebookTemplate's operations and requests to.
+	 * Once set, each call made through the operations interfaces (such as {@link #feedOperations()}) is measured and tagged by operation,
+	 * as is each request, with its latency, outcome, request and response sizes, and the time spent processing its response.
+	 * Operations are not measured by default.
+	 * @param meterRegistry the meter registry, or null to stop measuring
+	 */
+	public void setMeterRegistry(FacebookMeterRegistry meterRegistry) {
+		meteredRequestInterceptor.setMeterRegistry(meterRegistry);
+		initSubApis();
+		if (meterRegistry != null) {
+			instrumentSubApis(meterRegistry);
+		}
+	}
+
+	/**
+	 * @return the {@link FacebookMeterRegistry} that this FacebookTemplate reports measurements to, or null if it is not measured.
+	 */
+	public FacebookMeterRegistry getMeterRegistry() {
+		return meteredRequestInterceptor.getMeterRegistry();
+	}
+
+	/**
+	 * Enables caching of Graph API reads, such as those made by {@link #fetchObject(String, Class, String...)} and {@link #fetchConnections(String, String, Class, String...)}.
+	 * Successful JSON responses to GET requests are cached per access token, request path, and query parameters (including the requested fields).
+	 * A cached response is reused without contacting Facebook for the given time-to-live. After that, a response that carried an ETag 
+	 * is revalidated with Facebook, which only resends it if it has changed; a response without an ETag is fetched again.
+	 * Cached responses are served without being delayed by the rate limit governor or measured by the meter registry.
+	 * The same cache may be given to several FacebookTemplates.
+	 * Setting a response cache replaces any set before.
+	 * @param responseCache the store to hold cached responses in, or null to stop caching
+	 * @param timeToLive how long, in milliseconds, a cached response may be reused before it must be revalidated. May be 0 to revalidate on every read.
+	 */
+	public void setResponseCache(GraphApiResponseCache responseCache, long timeToLive) {
+		RestTemplate restTemplate = getRestTemplate();
+		List<ClientHttpRequestInterceptor> interceptors = CachingGraphApiInterceptor.removeFrom(restTemplate.getInterceptors());
+		if (responseCache != null) {
+			// cached responses are served ahead of the rate limit governor and metrics, but after the access token has been added (which keys the cache)
+			interceptors.add(interceptors.indexOf(rateLimitInterceptor), new CachingGraphApiInterceptor(responseCache, timeToLive));
+		}
+		restTemplate.setInterceptors(interceptors);
 	}
 
 	public AchievementOperations achievementOperations() {
@@ -201,108 +313,87 @@ public class FacebookTemplate extends AbstractOAuth2ApiBinding implements Facebo
 	
 	// low-level Graph API operations
 	public <T> T fetchObject(String objectId, Class<T> type) {
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId).build();
-		return getRestTemplate().getForObject(uri, type);
+		return graphApi.fetchObject(objectId, type);
 	}
 
 	public <T> T fetchObject(String objectId, Class<T> type, String... fields) {
-		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
-		if(fields.length > 0) {
-			String joinedFields = join(fields);
-			queryParameters.set("fields", joinedFields);
-		}		
-		return fetchObject(objectId, type, queryParameters);
+		return graphApi.fetchObject(objectId, type, fields);
 	}
 
 	public <T> T fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters) {
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId).queryParams(queryParameters).build();
-		return getRestTemplate().getForObject(uri, type);
+		return graphApi.fetchObject(objectId, type, queryParameters);
+	}
+
+	public <T> T fetchObject(String objectId, Class<T> type, GraphQuery query) {
+		return graphApi.fetchObject(objectId, type, query);
+	}
+
+	public <T> List<T> fetchObjects(List<String> objectIds, Class<T> type, String... fields) {
+		return graphApi.fetchObjects(objectIds, type, fields);
 	}
 
 	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, String... fields) {
-		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
-		if(fields.length > 0) {
-			String joinedFields = join(fields);
-			queryParameters.set("fields", joinedFields);
-		}		
-		return fetchConnections(objectId, connectionType, type, queryParameters);
+		return graphApi.fetchConnections(objectId, connectionType, type, fields);
 	}
 
 	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters) {
-		String connectionPath = connectionType != null && connectionType.length() > 0 ? "/" + connectionType : "";
-		URIBuilder uriBuilder = URIBuilder.fromUri(GRAPH_API_URL + objectId + connectionPath).queryParams(queryParameters);
-		JsonNode jsonNode = getRestTemplate().getForObject(uriBuilder.build(), JsonNode.class);
-		return pagify(type, jsonNode);
+		return graphApi.fetchConnections(objectId, connectionType, type, queryParameters);
 	}
 
 	public <T> PagedList<T> fetchPagedConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters) {
-		String connectionPath = connectionType != null && connectionType.length() > 0 ? "/" + connectionType : "";
-		URIBuilder uriBuilder = URIBuilder.fromUri(GRAPH_API_URL + objectId + connectionPath).queryParams(queryParameters);
-		JsonNode jsonNode = getRestTemplate().getForObject(uriBuilder.build(), JsonNode.class);
-		return pagify(type, jsonNode);
+		return graphApi.fetchPagedConnections(objectId, connectionType, type, queryParameters);
 	}
 
 	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters, String... fields) {
-		if(fields.length > 0) {
-			String joinedFields = join(fields);
-			queryParameters.set("fields", joinedFields);
-		}
-		return fetchPagedConnections(objectId, connectionType, type, queryParameters);
+		return graphApi.fetchConnections(objectId, connectionType, type, queryParameters, fields);
 	}
 
-	private <T> PagedList<T> pagify(Class<T> type, JsonNode jsonNode) {
-		List<T> data = deserializeDataList(jsonNode.get("data"), type);
-		if (jsonNode.has("paging")) {
-			JsonNode pagingNode = jsonNode.get("paging");
-			PagingParameters previousPage = getPagedListParameters(pagingNode, "previous");
-			PagingParameters nextPage = getPagedListParameters(pagingNode, "next");
-			return new PagedList<T>(data, previousPage, nextPage);
-		}
-		return new PagedList<T>(data, null, null);
+	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, GraphQuery query) {
+		return graphApi.fetchConnections(objectId, connectionType, type, query);
+	}
+
+	public <T> Iterable<T> iterateConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		return graphApi.iterateConnections(objectId, connectionType, type, queryParameters);
 	}
 
 	public byte[] fetchImage(String objectId, String connectionType, ImageType type) {
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType + "?type=" + type.toString().toLowerCase()).build();
-		ResponseEntity<byte[]> response = getRestTemplate().getForEntity(uri, byte[].class);
-		if(response.getStatusCode() == HttpStatus.FOUND) {
-			throw new UnsupportedOperationException("Attempt to fetch image resulted in a redirect which could not be followed. Add Apache HttpComponents HttpClient to the classpath " +
-					"to be able to follow redirects.");
-		}
-		return response.getBody();
+		return graphApi.fetchImage(objectId, connectionType, type);
+	}
+
+	public void fetchImage(String objectId, String connectionType, ImageType type, OutputStream out) {
+		graphApi.fetchImage(objectId, connectionType, type, out);
+	}
+
+	public void fetchImage(String objectId, String connectionType, ImageType type, WritableByteChannel channel) {
+		graphApi.fetchImage(objectId, connectionType, type, channel);
+	}
+
+	public void fetchImage(String objectId, String connectionType, ImageType type, File file) {
+		graphApi.fetchImage(objectId, connectionType, type, file);
 	}
 	
-	@SuppressWarnings("unchecked")
 	public String publish(String objectId, String connectionType, MultiValueMap<String, Object> data) {
-		MultiValueMap<String, Object> requestData = new LinkedMultiValueMap<String, Object>(data);
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
-		Map<String, Object> response = getRestTemplate().postForObject(uri, requestData, Map.class);
-		return (String) response.get("id");
+		return graphApi.publish(objectId, connectionType, data);
 	}
 	
 	public void post(String objectId, String connectionType, MultiValueMap<String, String> data) {
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
-		getRestTemplate().postForObject(uri, new LinkedMultiValueMap<String, String>(data), String.class);
+		graphApi.post(objectId, connectionType, data);
 	}
 	
 	public void delete(String objectId) {
-		LinkedMultiValueMap<String, String> deleteRequest = new LinkedMultiValueMap<String, String>();
-		deleteRequest.set("method", "delete");
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId).build();
-		getRestTemplate().postForObject(uri, deleteRequest, String.class);
+		graphApi.delete(objectId);
 	}
 	
 	public void delete(String objectId, String connectionType) {
-		LinkedMultiValueMap<String, String> deleteRequest = new LinkedMultiValueMap<String, String>();
-		deleteRequest.set("method", "delete");
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
-		getRestTemplate().postForObject(uri, deleteRequest, String.class);
+		graphApi.delete(objectId, connectionType);
 	}
 	
 	public void delete(String objectId, String connectionType, MultiValueMap<String, String> data) {
-		data.set("method", "delete");
-		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
-		HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<MultiValueMap<String, String>>(data, new HttpHeaders());
-		getRestTemplate().exchange(uri, HttpMethod.POST, entity, String.class);
+		graphApi.delete(objectId, connectionType, data);
+	}
+	
+	public BatchRequest newBatch() {
+		return graphApi.newBatch();
 	}
 	
 	// AbstractOAuth2ApiBinding hooks
@@ -314,6 +405,12 @@ public class FacebookTemplate extends AbstractOAuth2ApiBinding implements Facebo
 	@Override
 	protected void configureRestTemplate(RestTemplate restTemplate) {
 		restTemplate.setErrorHandler(new FacebookErrorHandler());
+		rateLimitInterceptor = new RateLimitGovernorInterceptor(GraphApiRateLimitGovernor.getSharedInstance());
+		addInterceptor(restTemplate, rateLimitInterceptor);
+		meteredRequestInterceptor = new MeteredRequestInterceptor(null, null);
+		addInterceptor(restTemplate, meteredRequestInterceptor);
+		resilientRequestInterceptor = new ResilientRequestInterceptor(new GraphApiRetryPolicy(), GraphApiCircuitBreaker.getSharedInstance());
+		addInterceptor(restTemplate, resilientRequestInterceptor);
 	}
 
 	@Override
@@ -327,11 +424,22 @@ public class FacebookTemplate extends AbstractOAuth2ApiBinding implements Facebo
 	
 	// private helpers
 	private void initialize() {
-		// Wrap the request factory with a BufferingClientHttpRequestFactory so that the error handler can do repeat reads on the response.getBody()
-		super.setRequestFactory(ClientHttpRequestFactorySelector.bufferRequests(getRestTemplate().getRequestFactory()));
+		// Send requests through the shared, pooled transport rather than creating a connection pool per FacebookTemplate.
+		// Responses are not buffered; FacebookErrorHandler buffers error responses itself so that successful responses stream straight to their readers.
+		setRequestFactory(FacebookHttpTransport.getSharedInstance().getRequestFactory());
+		graphApi = new GraphApiTemplate(getRestTemplate(), objectMapper, applicationNamespace, 
+				GraphApiTemplate.createRedirectRestTemplate(FacebookHttpTransport.getSharedInstance().getRequestFactory()));
 		initSubApis();
 	}
 		
+	private void addInterceptor(RestTemplate restTemplate, ClientHttpRequestInterceptor interceptor) {
+		List<ClientHttpRequestInterceptor> interceptors = new ArrayList<ClientHttpRequestInterceptor>(restTemplate.getInterceptors());
+		// retries re-execute requests without passing through later interceptors, so the resilient request interceptor is kept last
+		int resilientRequestInterceptorIndex = interceptors.indexOf(resilientRequestInterceptor);
+		interceptors.add(resilientRequestInterceptorIndex >= 0 ? resilientRequestInterceptorIndex : interceptors.size(), interceptor);
+		restTemplate.setInterceptors(interceptors);
+	}
+
 	private void initSubApis() {
 		achievementOperations = new AchievementTemplate(this, isAuthorized());
 		openGraphOperations = new OpenGraphTemplate(this, isAuthorized());
@@ -347,25 +455,19 @@ public class FacebookTemplate extends AbstractOAuth2ApiBinding implements Facebo
 		testUserOperations = new TestUserTemplate(getRestTemplate(), appId);
 	}
 	
-	@SuppressWarnings("unchecked")
-	private <T> List<T> deserializeDataList(JsonNode jsonNode, final Class<T> elementType) {
-		try {
-			CollectionType listType = TypeFactory.defaultInstance().constructCollectionType(List.class, elementType);
-			return (List<T>) objectMapper.reader(listType).readValue(jsonNode.toString()); // TODO: EXTREMELY HACKY--TEMPORARY UNTIL I FIGURE OUT HOW JACKSON 2 DOES THIS
-		} catch (IOException e) {
-			throw new UncategorizedApiException("facebook", "Error deserializing data from Facebook: " + e.getMessage(), e);
-		}
+	private void instrumentSubApis(FacebookMeterRegistry meterRegistry) {
+		achievementOperations = FacebookMetrics.instrument(AchievementOperations.class, achievementOperations, meterRegistry);
+		openGraphOperations = FacebookMetrics.instrument(OpenGraphOperations.class, openGraphOperations, meterRegistry);
+		userOperations = FacebookMetrics.instrument(UserOperations.class, userOperations, meterRegistry);
+		friendOperations = FacebookMetrics.instrument(FriendOperations.class, friendOperations, meterRegistry);
+		feedOperations = FacebookMetrics.instrument(FeedOperations.class, feedOperations, meterRegistry);
+		commentOperations = FacebookMetrics.instrument(CommentOperations.class, commentOperations, meterRegistry);
+		likeOperations = FacebookMetrics.instrument(LikeOperations.class, likeOperations, meterRegistry);
+		eventOperations = FacebookMetrics.instrument(EventOperations.class, eventOperations, meterRegistry);
+		mediaOperations = FacebookMetrics.instrument(MediaOperations.class, mediaOperations, meterRegistry);
+		groupOperations = FacebookMetrics.instrument(GroupOperations.class, groupOperations, meterRegistry);
+		pageOperations = FacebookMetrics.instrument(PageOperations.class, pageOperations, meterRegistry);
+		testUserOperations = FacebookMetrics.instrument(TestUserOperations.class, testUserOperations, meterRegistry);
 	}
-	
-	private String join(String[] strings) {
-		StringBuilder builder = new StringBuilder();
-		if(strings.length > 0) {
-			builder.append(strings[0]);
-			for (int i = 1; i < strings.length; i++) {
-				builder.append("," + strings[i]);
-			}
-		}
-		return builder.toString();
-	}
-	
+
 }
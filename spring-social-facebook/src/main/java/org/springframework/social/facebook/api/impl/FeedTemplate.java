@@ -19,29 +19,27 @@ import static org.springframework.social.facebook.api.impl.PagedListUtils.*;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
-import org.springframework.social.UncategorizedApiException;
+import org.springframework.http.HttpMethod;
 import org.springframework.social.facebook.api.FacebookLink;
 import org.springframework.social.facebook.api.FeedOperations;
+import org.springframework.social.facebook.api.FieldProjection;
 import org.springframework.social.facebook.api.GraphApi;
 import org.springframework.social.facebook.api.PagedList;
 import org.springframework.social.facebook.api.PagingParameters;
 import org.springframework.social.facebook.api.Post;
-import org.springframework.social.facebook.api.Post.PostType;
 import org.springframework.social.facebook.api.PostData;
 import org.springframework.social.support.URIBuilder;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 class FeedTemplate extends AbstractFacebookOperations implements FeedOperations {
 
@@ -74,8 +72,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 		
 	public PagedList<Post> getFeed(String ownerId, PagingParameters pagedListParameters) {
 		requireAuthorization();
-		JsonNode responseNode = fetchConnectionList(GraphApi.GRAPH_API_URL + ownerId + "/feed", pagedListParameters);
-		return deserializeList(responseNode, null, Post.class);
+		return fetchConnectionList(GraphApi.GRAPH_API_URL + ownerId + "/feed", null, pagedListParameters);
 	}
 
 	public PagedList<Post> getHomeFeed() {
@@ -84,8 +81,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 	
 	public PagedList<Post> getHomeFeed(PagingParameters pagedListParameters) {
 		requireAuthorization();
-		JsonNode responseNode = fetchConnectionList(GraphApi.GRAPH_API_URL + "me/home", pagedListParameters);
-		return deserializeList(responseNode, null, Post.class);
+		return fetchConnectionList(GraphApi.GRAPH_API_URL + "me/home", null, pagedListParameters);
 	}
 
 	public PagedList<Post> getStatuses() {
@@ -102,8 +98,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 	
 	public PagedList<Post> getStatuses(String userId, PagingParameters pagedListParameters) {
 		requireAuthorization();
-		JsonNode responseNode = fetchConnectionList(GraphApi.GRAPH_API_URL + userId + "/statuses", pagedListParameters);
-		return deserializeList(responseNode, "status", Post.class);
+		return fetchConnectionList(GraphApi.GRAPH_API_URL + userId + "/statuses", "status", pagedListParameters);
 	}
 
 	public PagedList<Post> getLinks() {
@@ -120,8 +115,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 	
 	public PagedList<Post> getLinks(String ownerId, PagingParameters pagedListParameters) {
 		requireAuthorization();
-		JsonNode responseNode = fetchConnectionList(GraphApi.GRAPH_API_URL + ownerId + "/links", pagedListParameters);
-		return deserializeList(responseNode, "link", Post.class);
+		return fetchConnectionList(GraphApi.GRAPH_API_URL + ownerId + "/links", "link", pagedListParameters);
 	}
 
 	public PagedList<Post> getPosts() {
@@ -138,14 +132,17 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 	
 	public PagedList<Post> getPosts(String ownerId, PagingParameters pagedListParameters) {
 		requireAuthorization();
-		JsonNode responseNode = fetchConnectionList(GraphApi.GRAPH_API_URL + ownerId + "/posts", pagedListParameters);
-		return deserializeList(responseNode, null, Post.class);
+		return fetchConnectionList(GraphApi.GRAPH_API_URL + ownerId + "/posts", null, pagedListParameters);
 	}
 	
 	public Post getPost(String entryId) {
 		requireAuthorization();
-		ObjectNode responseNode = (ObjectNode) restTemplate.getForObject(GraphApi.GRAPH_API_URL + entryId, JsonNode.class);
-		return deserializePost(null, Post.class, responseNode);
+		return restTemplate.getForObject(GraphApi.GRAPH_API_URL + entryId, Post.class);
+	}
+
+	public Post getPost(String entryId, FieldProjection<Post> projection) {
+		requireAuthorization();
+		return graphApi.fetchObject(entryId, Post.class, projection.getFields());
 	}
 
 	public String updateStatus(String message) {
@@ -204,8 +201,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 			url += "&until={until}";
 			params.put("until", pagedListParameters.getUntil());
 		}
-		JsonNode responseNode = restTemplate.getForObject(url, JsonNode.class, params);
-		return deserializeList(responseNode, null, Post.class);
+		return restTemplate.execute(url, HttpMethod.GET, null, new PostListExtractor(objectMapper, null), params);
 	}
 	
 	public PagedList<Post> searchHomeFeed(String query) {
@@ -217,8 +213,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 		URIBuilder uriBuilder = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + "me/home").queryParam("q", query);
 		uriBuilder = appendPagedListParameters(pagedListParameters, uriBuilder);
 		URI uri = uriBuilder.build();
-		JsonNode responseNode = restTemplate.getForObject(uri, JsonNode.class);
-		return deserializeList(responseNode, null, Post.class);
+		return restTemplate.execute(uri, HttpMethod.GET, null, new PostListExtractor(objectMapper, null));
 	}
 
 	public PagedList<Post> searchUserFeed(String query) {
@@ -238,8 +233,7 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 		URIBuilder uriBuilder = URIBuilder.fromUri(GraphApi.GRAPH_API_URL + userId + "/feed").queryParam("q", query);
 		uriBuilder = appendPagedListParameters(pagedListParameters, uriBuilder);		
 		URI uri = uriBuilder.build();
-		JsonNode responseNode = restTemplate.getForObject(uri, JsonNode.class);
-		return deserializeList(responseNode, null, Post.class);
+		return restTemplate.execute(uri, HttpMethod.GET, null, new PostListExtractor(objectMapper, null));
 	}
 	
 	public PagedList<Post> getCheckins() {
@@ -260,59 +254,13 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 	
 	// private helpers
 	
-	private JsonNode fetchConnectionList(String baseUri, PagingParameters pagedListParameters) {
+	private PagedList<Post> fetchConnectionList(String baseUri, String postType, PagingParameters pagedListParameters) {
 		URIBuilder uriBuilder = URIBuilder.fromUri(baseUri);
 		uriBuilder = appendPagedListParameters(pagedListParameters, uriBuilder);
 		URI uri = uriBuilder.build();
-		JsonNode responseNode = restTemplate.getForObject(uri, JsonNode.class);
-		return responseNode;
-	}
-
-	private <T> PagedList<T> deserializeList(JsonNode jsonNode, String postType, Class<T> type) {
-		JsonNode dataNode = jsonNode.get("data");
-		List<T> posts = new ArrayList<T>();
-		for (Iterator<JsonNode> iterator = dataNode.iterator(); iterator.hasNext();) {
-			posts.add(deserializePost(postType, type, (ObjectNode) iterator.next()));
-		}
-		if (jsonNode.has("paging")) {
-			JsonNode pagingNode = jsonNode.get("paging");
-			PagingParameters previousPage = getPagedListParameters(pagingNode, "previous");
-			PagingParameters nextPage = getPagedListParameters(pagingNode, "next");
-			return new PagedList<T>(posts, previousPage, nextPage);
-		}
-		
-		return new PagedList<T>(posts, null, null);
+		return restTemplate.execute(uri, HttpMethod.GET, null, new PostListExtractor(objectMapper, postType));
 	}
 
-	private <T> T deserializePost(String postType, Class<T> type, ObjectNode node) {
-		try {
-			if (postType == null) {
-				postType = determinePostType(node);
-			}
-			
-			// Must have separate postType field for polymorphic deserialization. If we key off of the "type" field, then it will
-			// be null when trying to deserialize the type property.
-			node.put("postType", postType); // used for polymorphic deserialization
-			node.put("type", postType); // used to set Post's type property
-			return objectMapper.reader(type).readValue(node.toString()); // TODO: EXTREMELY HACKY--TEMPORARY UNTIL I FIGURE OUT HOW JACKSON 2 DOES THIS
-		} catch (IOException shouldntHappen) {
-			throw new UncategorizedApiException("facebook", "Error deserializing " + postType + " post", shouldntHappen);
-		}
-	}
-
-	private String determinePostType(ObjectNode node) {
-		if (node.has("type")) {
-			try {
-				String type = node.get("type").textValue();
-				PostType.valueOf(type.toUpperCase());
-				return type;
-			} catch (IllegalArgumentException e) {
-				return "post";
-			}
-		}
-		return "post";
-	}
-	
 	private URIBuilder appendPagedListParameters(PagingParameters pagedListParameters,
 			URIBuilder uriBuilder) {
 		if (pagedListParameters.getLimit() != null) {
@@ -327,4 +275,48 @@ class FeedTemplate extends AbstractFacebookOperations implements FeedOperations
 		return uriBuilder;
 	}
 
+	/*
+	 * Reads a list of posts. If a post type is given, each post's "type" property is replaced with that type as
+	 * the post is copied through a token buffer on its way to being bound, so that posts from connections such as 
+	 * "statuses" and "links" (which may not carry a type) are typed appropriately. 
+	 */
+	static class PostListExtractor extends PagedListExtractor<Post> {
+		
+		private final String postType;
+
+		public PostListExtractor(ObjectMapper objectMapper, String postType) {
+			super(objectMapper, Post.class);
+			this.postType = postType;
+		}
+		
+		@Override
+		protected Post readElement(JsonParser parser) throws IOException {
+			if (postType == null) {
+				return super.readElement(parser);
+			}
+			TokenBuffer buffer = new TokenBuffer(parser);
+			buffer.writeStartObject();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = parser.getCurrentName();
+				parser.nextToken();
+				if ("type".equals(fieldName)) {
+					parser.skipChildren();
+				} else {
+					buffer.writeFieldName(fieldName);
+					buffer.copyCurrentStructure(parser);
+				}
+			}
+			buffer.writeStringField("type", postType);
+			buffer.writeEndObject();
+			JsonParser bufferParser = buffer.asParser(parser);
+			try {
+				bufferParser.nextToken();
+				return super.readElement(bufferParser);
+			} finally {
+				bufferParser.close();
+			}
+		}
+
+	}
+
 }
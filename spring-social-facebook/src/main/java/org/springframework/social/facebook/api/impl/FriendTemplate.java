@@ -22,6 +22,7 @@ import java.util.Map;
 
 import org.springframework.social.facebook.api.FacebookProfile;
 import org.springframework.social.facebook.api.FamilyMember;
+import org.springframework.social.facebook.api.FieldProjection;
 import org.springframework.social.facebook.api.FriendOperations;
 import org.springframework.social.facebook.api.GraphApi;
 import org.springframework.social.facebook.api.PagedList;
@@ -95,6 +96,14 @@ class FriendTemplate extends AbstractFacebookOperations implements FriendOperati
 		return graphApi.fetchConnections(userId, "friends", FacebookProfile.class, parameters);
 	}
 
+	public PagedList<FacebookProfile> getFriendProfiles(String userId, FieldProjection<FacebookProfile> projection, PagingParameters pagedListParameters) {
+		requireAuthorization();
+		MultiValueMap<String, String> parameters = pagedListParameters != null ? 
+				PagedListUtils.getPagingParameters(pagedListParameters) : new LinkedMultiValueMap<String, String>();
+		parameters.set("fields", projection.toFieldsParameter());
+		return graphApi.fetchConnections(userId, "friends", FacebookProfile.class, parameters);
+	}
+
 	public PagedList<FacebookProfile> getFriendProfiles(String userId, PagingParameters pagedListParameters) {
 		requireAuthorization();
 		MultiValueMap<String, String> parameters = PagedListUtils.getPagingParameters(pagedListParameters);
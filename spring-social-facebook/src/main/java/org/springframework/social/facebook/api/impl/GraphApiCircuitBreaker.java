@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>Sheds load from families of Graph API endpoints that are failing, rather than letting every caller wait on requests that are likely to fail.</p>
+ * <p>
+ * Endpoints are grouped into families by the connection they address (for example, "/feed" for every object's feed), 
+ * "/object" for requests for objects themselves, or by host for hosts other than graph.facebook.com (for example, "graph-video.facebook.com").
+ * The outcomes of the most recent requests in each family are kept. When at least the {@link #setMinimumRequests(int) minimum number of requests} 
+ * have been made and the proportion that failed with transient errors reaches the {@link #setFailureRateThreshold(int) failure rate threshold}, 
+ * the family's circuit opens: requests to it fail immediately with {@link org.springframework.social.ServerDownException} for the 
+ * {@link #setOpenDuration(long) open duration}. After that, a single trial request is let through; if it succeeds the circuit closes, 
+ * and if it fails the circuit opens again.
+ * </p>
+ * <p>
+ * Every {@link FacebookTemplate} uses the {@link #getSharedInstance() shared circuit breaker} unless it is given another, 
+ * so that a failing endpoint is detected from the requests of all FacebookTemplates in a JVM.
+ * </p>
+ * @author Craig Walls
+ */
+public class GraphApiCircuitBreaker {
+
+	/**
+	 * The state of a circuit.
+	 */
+	public static enum State { 
+		/** Requests are let through. */
+		CLOSED, 
+		/** Requests fail immediately. */
+		OPEN, 
+		/** A single trial request is let through to test whether the endpoints have recovered. */
+		HALF_OPEN 
+	}
+
+	/**
+	 * The default number of recent request outcomes that failure rates are calculated from.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 20;
+
+	/**
+	 * The default minimum number of recent requests before a circuit may open.
+	 */
+	public static final int DEFAULT_MINIMUM_REQUESTS = 10;
+
+	/**
+	 * The default percentage of recent requests that must have failed for a circuit to open.
+	 */
+	public static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+
+	/**
+	 * The default time, in milliseconds, that an opened circuit stays open.
+	 */
+	public static final long DEFAULT_OPEN_DURATION = 30000;
+
+	private static final String GRAPH_API_HOST = "graph.facebook.com";
+
+	private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<String, Circuit>();
+
+	private volatile int windowSize = DEFAULT_WINDOW_SIZE;
+
+	private volatile int minimumRequests = DEFAULT_MINIMUM_REQUESTS;
+
+	private volatile int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+	private volatile long openDuration = DEFAULT_OPEN_DURATION;
+
+	/**
+	 * @return the circuit breaker shared by default among all {@link FacebookTemplate} instances.
+	 */
+	public static GraphApiCircuitBreaker getSharedInstance() {
+		return SharedInstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * Sets the number of recent request outcomes that failure rates are calculated from.
+	 * Only applies to circuits created after it is set.
+	 * Defaults to {@link #DEFAULT_WINDOW_SIZE}.
+	 * @param windowSize the window size
+	 */
+	public void setWindowSize(int windowSize) {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("windowSize must be at least 1");
+		}
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Sets the minimum number of recent requests before a circuit may open, so that a few failures among few requests do not open it.
+	 * Defaults to {@link #DEFAULT_MINIMUM_REQUESTS}.
+	 * @param minimumRequests the minimum number of requests
+	 */
+	public void setMinimumRequests(int minimumRequests) {
+		this.minimumRequests = minimumRequests;
+	}
+
+	/**
+	 * Sets the percentage of recent requests that must have failed for a circuit to open.
+	 * Defaults to {@link #DEFAULT_FAILURE_RATE_THRESHOLD}.
+	 * @param failureRateThreshold the failure rate threshold, from 1 to 100.
+	 */
+	public void setFailureRateThreshold(int failureRateThreshold) {
+		if (failureRateThreshold < 1 || failureRateThreshold > 100) {
+			throw new IllegalArgumentException("failureRateThreshold must be between 1 and 100");
+		}
+		this.failureRateThreshold = failureRateThreshold;
+	}
+
+	/**
+	 * Sets how long an opened circuit stays open before a trial request is let through.
+	 * Defaults to {@link #DEFAULT_OPEN_DURATION}.
+	 * @param openDuration the open duration, in milliseconds.
+	 */
+	public void setOpenDuration(long openDuration) {
+		this.openDuration = openDuration;
+	}
+
+	/**
+	 * @param uri a Graph API request URI
+	 * @return the name of the family of endpoints that the URI belongs to.
+	 */
+	public static String endpointFamily(URI uri) {
+		if (!GRAPH_API_HOST.equals(uri.getHost())) {
+			return uri.getHost();
+		}
+		String path = uri.getPath();
+		String[] segments = path != null ? path.replaceAll("^/+|/+$", "").split("/+") : new String[0];
+		int first = segments.length > 0 && segments[0].matches("v\\d+\\.\\d+") ? 1 : 0;
+		return segments.length - first >= 2 ? "/" + segments[segments.length - 1] : "/object";
+	}
+
+	/**
+	 * @param family an endpoint family
+	 * @return the state of the family's circuit.
+	 */
+	public State getState(String family) {
+		Circuit circuit = circuits.get(family);
+		return circuit != null ? circuit.getState(System.currentTimeMillis()) : State.CLOSED;
+	}
+
+	/**
+	 * @return the state of every circuit that has been used, keyed by endpoint family.
+	 */
+	public Map<String, State> getStates() {
+		long now = System.currentTimeMillis();
+		Map<String, State> states = new HashMap<String, State>();
+		for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+			states.put(entry.getKey(), entry.getValue().getState(now));
+		}
+		return Collections.unmodifiableMap(states);
+	}
+
+	/**
+	 * Asks whether a request to a family of endpoints may be made. 
+	 * If this returns true, the request's outcome must be reported with {@link #recordSuccess(String)} or {@link #recordFailure(String)}.
+	 * @param family the endpoint family
+	 * @return true if the request may be made; false if the family's circuit is open.
+	 */
+	public boolean allowRequest(String family) {
+		return circuit(family).allowRequest(System.currentTimeMillis());
+	}
+
+	/**
+	 * Reports that a request to a family of endpoints succeeded, or failed in a way that shows that the endpoints are working 
+	 * (such as with a permission error).
+	 * @param family the endpoint family
+	 */
+	public void recordSuccess(String family) {
+		circuit(family).record(true, System.currentTimeMillis());
+	}
+
+	/**
+	 * Reports that a request to a family of endpoints failed with a transient error.
+	 * @param family the endpoint family
+	 */
+	public void recordFailure(String family) {
+		circuit(family).record(false, System.currentTimeMillis());
+	}
+
+	private Circuit circuit(String family) {
+		Circuit circuit = circuits.get(family);
+		if (circuit == null) {
+			Circuit newCircuit = new Circuit(windowSize);
+			circuit = circuits.putIfAbsent(family, newCircuit);
+			if (circuit == null) {
+				circuit = newCircuit;
+			}
+		}
+		return circuit;
+	}
+
+	private class Circuit {
+
+		private final boolean[] outcomes;
+
+		private int next;
+
+		private int count;
+
+		private int failures;
+
+		private long openedAt = -1;
+
+		private boolean trialInProgress;
+
+		public Circuit(int windowSize) {
+			this.outcomes = new boolean[windowSize];
+		}
+
+		public synchronized State getState(long now) {
+			if (openedAt < 0) {
+				return State.CLOSED;
+			}
+			return now - openedAt < openDuration ? State.OPEN : State.HALF_OPEN;
+		}
+
+		public synchronized boolean allowRequest(long now) {
+			State state = getState(now);
+			if (state == State.CLOSED) {
+				return true;
+			}
+			if (state == State.HALF_OPEN && !trialInProgress) {
+				trialInProgress = true;
+				return true;
+			}
+			return false;
+		}
+
+		public synchronized void record(boolean success, long now) {
+			if (openedAt >= 0) {
+				if (trialInProgress) {
+					trialInProgress = false;
+					if (success) {
+						openedAt = -1;
+						next = count = failures = 0;
+					} else {
+						openedAt = now;
+					}
+				}
+				return;
+			}
+			if (count == outcomes.length) {
+				if (!outcomes[next]) {
+					failures--;
+				}
+			} else {
+				count++;
+			}
+			outcomes[next] = success;
+			if (!success) {
+				failures++;
+			}
+			next = (next + 1) % outcomes.length;
+			if (count >= minimumRequests && failures * 100 >= failureRateThreshold * count) {
+				openedAt = now;
+			}
+		}
+
+	}
+
+	private static class SharedInstanceHolder {
+		private static final GraphApiCircuitBreaker INSTANCE = new GraphApiCircuitBreaker();
+	}
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.social.RateLimitExceededException;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * <p>Slows down and pauses requests to Facebook as the usage that Facebook reports for them approaches Facebook's rate limits.</p>
+ * <p>
+ * Facebook reports how much of a rate limit has been used, as a percentage, in headers on every Graph API response:
+ * X-App-Usage for the application, X-Page-Usage for the page whose access token made the request, and X-Business-Use-Case-Usage
+ * for calls made on behalf of a business. The governor keeps the latest reading for each of these scopes. 
+ * Once a scope's usage passes the {@link #setThrottleThreshold(int) throttle threshold}, requests in that scope are delayed, 
+ * by up to the {@link #setMaxThrottleDelay(long) maximum throttle delay} as usage approaches 100%.
+ * Once usage reaches 100%, requests in that scope are paused until Facebook's estimate of when access will be regained or, 
+ * if Facebook gives no estimate, for the {@link #setPauseDuration(long) pause duration}. 
+ * This keeps requests within budget before Facebook starts rejecting them, rather than after.
+ * A request that would have to wait longer than the {@link #setMaxWait(long) maximum wait} is instead failed right away 
+ * with a {@link RateLimitExceededException}, since Facebook may estimate that access will only be regained after many minutes.
+ * </p>
+ * <p>
+ * Scopes are named "app:" followed by the application ID (or "default" if the application ID is unknown), and "token:" 
+ * followed by a digest of the access token. Page and business use case usage is tracked against the access token that 
+ * the usage was reported to, since that token identifies the page or business being called on behalf of.
+ * See {@link #appScope(String)} and {@link #tokenScope(String)}.
+ * </p>
+ * <p>
+ * Every {@link FacebookTemplate} reports to and is governed by the {@link #getSharedInstance() shared governor} unless it is 
+ * given another, so that the budget is shared by all of the FacebookTemplates in a JVM.
+ * </p>
+ * @author Craig Walls
+ */
+public class GraphApiRateLimitGovernor {
+
+	/**
+	 * The default usage percentage at which requests begin to be delayed.
+	 */
+	public static final int DEFAULT_THROTTLE_THRESHOLD = 75;
+
+	/**
+	 * The default maximum delay, in milliseconds, of a request in a scope whose usage is below 100%.
+	 */
+	public static final long DEFAULT_MAX_THROTTLE_DELAY = 5000;
+
+	/**
+	 * The default time, in milliseconds, that requests in a scope are paused for once its usage reaches 100%, 
+	 * if Facebook gives no estimate of when access will be regained.
+	 */
+	public static final long DEFAULT_PAUSE_DURATION = 60000;
+
+	/**
+	 * The default time, in milliseconds, after which a usage reading is discarded if it has not been refreshed.
+	 */
+	public static final long DEFAULT_READING_EXPIRY = 300000;
+
+	/**
+	 * The default longest time, in milliseconds, that a request will be held back for before it is failed instead.
+	 */
+	public static final long DEFAULT_MAX_WAIT = 60000;
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final Map<String, UsageReading> readings = new ConcurrentHashMap<String, UsageReading>();
+
+	private volatile int throttleThreshold = DEFAULT_THROTTLE_THRESHOLD;
+
+	private volatile long maxThrottleDelay = DEFAULT_MAX_THROTTLE_DELAY;
+
+	private volatile long pauseDuration = DEFAULT_PAUSE_DURATION;
+
+	private volatile long readingExpiry = DEFAULT_READING_EXPIRY;
+
+	private volatile long maxWait = DEFAULT_MAX_WAIT;
+
+	/**
+	 * @return the governor shared by default among all {@link FacebookTemplate} instances.
+	 */
+	public static GraphApiRateLimitGovernor getSharedInstance() {
+		return SharedInstanceHolder.INSTANCE;
+	}
+
+	/**
+	 * @param appId the application ID. May be null if unknown.
+	 * @return the name of the scope that the application's usage is tracked in.
+	 */
+	public static String appScope(String appId) {
+		return "app:" + (appId != null ? appId : "default");
+	}
+
+	/**
+	 * @param accessToken an access token
+	 * @return the name of the scope that the token's page and business use case usage is tracked in.
+	 */
+	public static String tokenScope(String accessToken) {
+		return "token:" + DigestUtils.md5DigestAsHex(accessToken.getBytes());
+	}
+
+	/**
+	 * Sets the usage percentage at which requests begin to be delayed.
+	 * Defaults to {@link #DEFAULT_THROTTLE_THRESHOLD}.
+	 * @param throttleThreshold the throttle threshold, from 0 to 100.
+	 */
+	public void setThrottleThreshold(int throttleThreshold) {
+		if (throttleThreshold < 0 || throttleThreshold > 100) {
+			throw new IllegalArgumentException("throttleThreshold must be between 0 and 100");
+		}
+		this.throttleThreshold = throttleThreshold;
+	}
+
+	/**
+	 * Sets the maximum delay of a request in a scope whose usage is below 100%.
+	 * Defaults to {@link #DEFAULT_MAX_THROTTLE_DELAY}.
+	 * @param maxThrottleDelay the maximum delay, in milliseconds.
+	 */
+	public void setMaxThrottleDelay(long maxThrottleDelay) {
+		this.maxThrottleDelay = maxThrottleDelay;
+	}
+
+	/**
+	 * Sets how long requests in a scope are paused for once its usage reaches 100%, if Facebook gives no estimate of when access will be regained.
+	 * Defaults to {@link #DEFAULT_PAUSE_DURATION}.
+	 * @param pauseDuration the pause duration, in milliseconds.
+	 */
+	public void setPauseDuration(long pauseDuration) {
+		this.pauseDuration = pauseDuration;
+	}
+
+	/**
+	 * Sets how long a usage reading is kept for if it is not refreshed by a later response.
+	 * Facebook measures usage over a rolling window, so an old reading overstates current usage.
+	 * Defaults to {@link #DEFAULT_READING_EXPIRY}.
+	 * @param readingExpiry the reading expiry, in milliseconds.
+	 */
+	public void setReadingExpiry(long readingExpiry) {
+		this.readingExpiry = readingExpiry;
+	}
+
+	/**
+	 * Sets the longest time that a request will be held back for. 
+	 * A request that would have to wait longer, such as one in a scope that Facebook estimates access to will only be regained 
+	 * after several minutes, fails right away with a {@link RateLimitExceededException} instead.
+	 * Defaults to {@link #DEFAULT_MAX_WAIT}.
+	 * @param maxWait the maximum wait, in milliseconds.
+	 */
+	public void setMaxWait(long maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * Records the usage that Facebook reported in a Graph API response's usage headers.
+	 * X-App-Usage and X-Page-Usage values are objects of call count, CPU time, and total time percentages; 
+	 * X-Business-Use-Case-Usage values map business IDs to arrays of such objects, which may also estimate the minutes until access is regained.
+	 * When a response reports several headers for the same scope, they should be given together, so that the highest percentage 
+	 * and longest time to regain access among them are recorded rather than whichever header was recorded last.
+	 * Null and unparseable values are ignored.
+	 * @param scope the scope that the usage applies to
+	 * @param headerValues the headers' values
+	 */
+	public void recordUsage(String scope, String... headerValues) {
+		int[] usage = new int[2];
+		boolean parsed = false;
+		for (String headerValue : headerValues) {
+			parsed |= readHeader(headerValue, usage);
+		}
+		if (parsed) {
+			recordUsage(scope, usage[0], usage[1] * 60000L);
+		}
+	}
+
+	/**
+	 * Records the usage of a scope.
+	 * @param scope the scope that the usage applies to
+	 * @param percentage the percentage of the scope's rate limit that has been used
+	 * @param timeToRegainAccess the time, in milliseconds, until Facebook will accept requests in the scope again, or 0 if not known or not limited.
+	 */
+	public void recordUsage(String scope, int percentage, long timeToRegainAccess) {
+		long now = System.currentTimeMillis();
+		long pausedUntil = 0;
+		if (timeToRegainAccess > 0) {
+			pausedUntil = now + timeToRegainAccess;
+		} else if (percentage >= 100) {
+			pausedUntil = now + pauseDuration;
+		}
+		readings.put(scope, new UsageReading(percentage, now, pausedUntil));
+	}
+
+	/**
+	 * @param scope a scope
+	 * @return the latest usage percentage reported for the scope, or 0 if no usage has been reported recently.
+	 */
+	public int getUsage(String scope) {
+		UsageReading reading = currentReading(scope, System.currentTimeMillis());
+		return reading != null ? reading.percentage : 0;
+	}
+
+	/**
+	 * @return the latest usage percentage reported for each scope that usage has been reported for recently, keyed by scope.
+	 */
+	public Map<String, Integer> getUsageLevels() {
+		long now = System.currentTimeMillis();
+		Map<String, Integer> usageLevels = new HashMap<String, Integer>();
+		for (String scope : readings.keySet()) {
+			UsageReading reading = currentReading(scope, now);
+			if (reading != null) {
+				usageLevels.put(scope, reading.percentage);
+			}
+		}
+		return Collections.unmodifiableMap(usageLevels);
+	}
+
+	/**
+	 * @param scopes the scopes that a request falls in
+	 * @return how long, in milliseconds, the request should be delayed by to stay within the scopes' rate limits.
+	 */
+	public long getDelay(String... scopes) {
+		long now = System.currentTimeMillis();
+		long delay = 0;
+		for (String scope : scopes) {
+			UsageReading reading = currentReading(scope, now);
+			if (reading != null) {
+				delay = Math.max(delay, reading.getDelay(now));
+			}
+		}
+		return delay;
+	}
+
+	/**
+	 * Blocks until a request in the given scopes may be sent.
+	 * @param scopes the scopes that a request falls in
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws RateLimitExceededException if the request would have to wait longer than the {@link #setMaxWait(long) maximum wait}
+	 */
+	public void awaitPermission(String... scopes) throws InterruptedException {
+		long delay = getDelay(scopes);
+		if (delay > maxWait) {
+			throw new RateLimitExceededException("facebook");
+		}
+		if (delay > 0) {
+			Thread.sleep(delay);
+		}
+	}
+
+	private UsageReading currentReading(String scope, long now) {
+		UsageReading reading = readings.get(scope);
+		if (reading == null) {
+			return null;
+		}
+		if (now - reading.recordedAt > readingExpiry && now >= reading.pausedUntil) {
+			readings.remove(scope);
+			return null;
+		}
+		return reading;
+	}
+
+	private boolean readHeader(String headerValue, int[] usage) {
+		if (headerValue == null) {
+			return false;
+		}
+		JsonNode usageNode;
+		try {
+			usageNode = OBJECT_MAPPER.readTree(headerValue);
+		} catch (IOException e) {
+			return false;
+		}
+		if (usageNode == null || !usageNode.isObject()) {
+			return false;
+		}
+		if (usageNode.has("call_count") || usageNode.has("total_time") || usageNode.has("total_cputime")) {
+			readUsage(usageNode, usage);
+		} else {
+			// business use case usage: { "<business id>": [ { ... }, ... ], ... }
+			for (Iterator<JsonNode> businesses = usageNode.elements(); businesses.hasNext();) {
+				for (Iterator<JsonNode> useCases = businesses.next().elements(); useCases.hasNext();) {
+					readUsage(useCases.next(), usage);
+				}
+			}
+		}
+		return true;
+	}
+
+	private void readUsage(JsonNode usageNode, int[] usage) {
+		usage[0] = Math.max(usage[0], usageNode.path("call_count").asInt());
+		usage[0] = Math.max(usage[0], usageNode.path("total_time").asInt());
+		usage[0] = Math.max(usage[0], usageNode.path("total_cputime").asInt());
+		usage[1] = Math.max(usage[1], usageNode.path("estimated_time_to_regain_access").asInt());
+	}
+
+	private class UsageReading {
+
+		private final int percentage;
+
+		private final long recordedAt;
+
+		private final long pausedUntil;
+
+		public UsageReading(int percentage, long recordedAt, long pausedUntil) {
+			this.percentage = percentage;
+			this.recordedAt = recordedAt;
+			this.pausedUntil = pausedUntil;
+		}
+
+		public long getDelay(long now) {
+			if (now < pausedUntil) {
+				return pausedUntil - now;
+			}
+			if (percentage < throttleThreshold || percentage >= 100) {
+				return 0;
+			}
+			return maxThrottleDelay * (percentage - throttleThreshold + 1) / (100 - throttleThreshold + 1);
+		}
+
+	}
+
+	private static class SharedInstanceHolder {
+		private static final GraphApiRateLimitGovernor INSTANCE = new GraphApiRateLimitGovernor();
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+/**
+ * Store for Graph API responses cached by {@link FacebookTemplate} (see {@link FacebookTemplate#setResponseCache(GraphApiResponseCache, long)}).
+ * The template decides what is cached, for how long, and when a stale response is revalidated with Facebook; a store only needs to hold entries, 
+ * and is free to evict them whenever it chooses. 
+ * {@link InMemoryGraphApiResponseCache} keeps entries on the heap; other implementations may keep them off-heap or on a local disk, 
+ * for which {@link CachedGraphApiResponse} is {@link java.io.Serializable}.
+ * Implementations must be safe for use by multiple threads.
+ * @author Craig Walls
+ */
+public interface GraphApiResponseCache {
+
+	/**
+	 * Looks up a cached response.
+	 * @param key the key that the response was cached with. Identifies both the request and the access token it was made with.
+	 * @return the cached response, or null if no response is cached for the key.
+	 */
+	CachedGraphApiResponse get(String key);
+
+	/**
+	 * Caches a response, replacing any response already cached for the key.
+	 * @param key the key to cache the response with
+	 * @param response the response
+	 */
+	void put(String key, CachedGraphApiResponse response);
+
+	/**
+	 * Removes a cached response, if there is one.
+	 * @param key the key that the response was cached with
+	 */
+	void remove(String key);
+
+}
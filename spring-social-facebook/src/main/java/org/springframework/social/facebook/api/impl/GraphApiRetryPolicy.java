@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.util.Random;
+
+/**
+ * Determines how many times, and how far apart, {@link FacebookTemplate} retries Graph API reads that fail with transient errors:
+ * server errors, Facebook's temporary error codes, and I/O errors such as timeouts.
+ * Only GET requests are retried, since retrying a publish or delete that may have succeeded could repeat it.
+ * Errors that retrying cannot fix, such as permission and authorization errors, are never retried.
+ * Retries are spaced with exponential backoff and "full jitter": the delay before retry <i>n</i> is chosen at random between 0 and 
+ * <code>initialBackoff * 2<sup>n-1</sup></code> (but no more than the maximum backoff), so that many clients failing at once 
+ * do not all retry at once.
+ * @author Craig Walls
+ */
+public class GraphApiRetryPolicy {
+
+	/**
+	 * The default maximum number of attempts at a request, including the first.
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/**
+	 * The default upper bound, in milliseconds, of the delay before the first retry.
+	 */
+	public static final long DEFAULT_INITIAL_BACKOFF = 200;
+
+	/**
+	 * The default upper bound, in milliseconds, of the delay before any retry.
+	 */
+	public static final long DEFAULT_MAX_BACKOFF = 5000;
+
+	private final Random random = new Random();
+
+	private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+	private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+	private long maxBackoff = DEFAULT_MAX_BACKOFF;
+
+	/**
+	 * Sets the maximum number of attempts at a request, including the first. 1 disables retries.
+	 * Defaults to {@link #DEFAULT_MAX_ATTEMPTS}.
+	 * @param maxAttempts the maximum number of attempts
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("maxAttempts must be at least 1");
+		}
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * @return the maximum number of attempts at a request, including the first.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Sets the upper bound of the delay before the first retry, which doubles for each further retry.
+	 * Defaults to {@link #DEFAULT_INITIAL_BACKOFF}.
+	 * @param initialBackoff the initial backoff, in milliseconds
+	 */
+	public void setInitialBackoff(long initialBackoff) {
+		this.initialBackoff = initialBackoff;
+	}
+
+	/**
+	 * Sets the upper bound of the delay before any retry.
+	 * Defaults to {@link #DEFAULT_MAX_BACKOFF}.
+	 * @param maxBackoff the maximum backoff, in milliseconds
+	 */
+	public void setMaxBackoff(long maxBackoff) {
+		this.maxBackoff = maxBackoff;
+	}
+
+	/**
+	 * @param retry the number of the retry about to be made, starting at 1
+	 * @return how long, in milliseconds, to wait before making the retry
+	 */
+	public long getBackoff(int retry) {
+		long ceiling = initialBackoff << Math.min(retry - 1, 30);
+		if (ceiling <= 0 || ceiling > maxBackoff) {
+			ceiling = maxBackoff;
+		}
+		if (ceiling <= 0) {
+			return 0;
+		}
+		synchronized (random) {
+			return (long) (random.nextDouble() * (ceiling + 1));
+		}
+	}
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.social.facebook.api.BatchRequest;
+import org.springframework.social.facebook.api.GraphApi;
+import org.springframework.social.facebook.api.GraphQuery;
+import org.springframework.social.facebook.api.ImageType;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.support.URIBuilder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Implementation of the low-level Graph API operations against a given {@link RestTemplate}.
+ * Shared by {@link FacebookTemplate} and by the bindings created by a {@link FacebookEngine}.
+ * @author Craig Walls
+ */
+class GraphApiTemplate implements GraphApi {
+
+	private static final int MAX_IMAGE_REDIRECTS = 5;
+
+	private static final String GRAPH_API_HOST = URI.create(GRAPH_API_URL).getHost();
+
+	private final RestTemplate restTemplate;
+
+	private final ObjectMapper objectMapper;
+
+	private final String applicationNamespace;
+
+	private volatile Executor prefetchExecutor;
+
+	private volatile RestTemplate redirectRestTemplate;
+
+	public GraphApiTemplate(RestTemplate restTemplate, ObjectMapper objectMapper, String applicationNamespace, RestTemplate redirectRestTemplate) {
+		this.restTemplate = restTemplate;
+		this.objectMapper = objectMapper;
+		this.applicationNamespace = applicationNamespace;
+		this.redirectRestTemplate = redirectRestTemplate;
+	}
+
+	/**
+	 * Creates the {@link RestTemplate} through which redirects away from the Graph API (e.g., to the CDN serving an image) are followed.
+	 * Such requests are sent without the access token and bypass the interceptors of the Graph API's {@link RestTemplate}.
+	 * The template holds no per-user state, so it may be shared by any number of GraphApiTemplates.
+	 */
+	static RestTemplate createRedirectRestTemplate(ClientHttpRequestFactory requestFactory) {
+		RestTemplate redirectRestTemplate = new RestTemplate(Collections.<HttpMessageConverter<?>>singletonList(new ByteArrayHttpMessageConverter()));
+		redirectRestTemplate.setRequestFactory(requestFactory);
+		return redirectRestTemplate;
+	}
+
+	/**
+	 * Sets the request factory through which redirects away from the Graph API are followed.
+	 * @see #createRedirectRestTemplate(ClientHttpRequestFactory)
+	 */
+	public void setRequestFactory(ClientHttpRequestFactory requestFactory) {
+		this.redirectRestTemplate = createRedirectRestTemplate(requestFactory);
+	}
+
+	public void setPrefetchExecutor(Executor prefetchExecutor) {
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	public String getApplicationNamespace() {
+		return applicationNamespace;
+	}
+
+	RestTemplate getRestTemplate() {
+		return restTemplate;
+	}
+
+	ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	// low-level Graph API operations
+	public <T> T fetchObject(String objectId, Class<T> type) {
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId).build();
+		return restTemplate.getForObject(uri, type);
+	}
+
+	public <T> T fetchObject(String objectId, Class<T> type, String... fields) {
+		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
+		if(fields.length > 0) {
+			String joinedFields = join(fields);
+			queryParameters.set("fields", joinedFields);
+		}		
+		return fetchObject(objectId, type, queryParameters);
+	}
+
+	public <T> T fetchObject(String objectId, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId).queryParams(queryParameters).build();
+		return restTemplate.getForObject(uri, type);
+	}
+
+	public <T> T fetchObject(String objectId, Class<T> type, GraphQuery query) {
+		return fetchObject(objectId, type, query.toRequestParameters());
+	}
+
+	public <T> List<T> fetchObjects(List<String> objectIds, Class<T> type, String... fields) {
+		List<T> objects = new ArrayList<T>(objectIds.size());
+		for (int start = 0; start < objectIds.size(); start += MAX_IDS_PER_REQUEST) {
+			List<String> ids = objectIds.subList(start, Math.min(start + MAX_IDS_PER_REQUEST, objectIds.size()));
+			MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
+			queryParameters.set("ids", join(ids.toArray(new String[ids.size()])));
+			if(fields.length > 0) {
+				queryParameters.set("fields", join(fields));
+			}
+			URI uri = URIBuilder.fromUri(GRAPH_API_URL).queryParams(queryParameters).build();
+			JsonNode responseNode = restTemplate.getForObject(uri, JsonNode.class);
+			if (responseNode == null) {
+				// an empty response has none of the objects, which are omitted just like any other missing object
+				continue;
+			}
+			for (String id : ids) {
+				JsonNode objectNode = responseNode.get(id);
+				if (objectNode != null && !objectNode.isNull()) {
+					objects.add(deserializeObject(objectNode, type));
+				}
+			}
+		}
+		return objects;
+	}
+
+	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, String... fields) {
+		MultiValueMap<String, String> queryParameters = new LinkedMultiValueMap<String, String>();
+		if(fields.length > 0) {
+			String joinedFields = join(fields);
+			queryParameters.set("fields", joinedFields);
+		}		
+		return fetchConnections(objectId, connectionType, type, queryParameters);
+	}
+
+	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		String connectionPath = connectionType != null && connectionType.length() > 0 ? "/" + connectionType : "";
+		URIBuilder uriBuilder = URIBuilder.fromUri(GRAPH_API_URL + objectId + connectionPath).queryParams(queryParameters);
+		return restTemplate.execute(uriBuilder.build(), HttpMethod.GET, null, new PagedListExtractor<T>(objectMapper, type));
+	}
+
+	public <T> PagedList<T> fetchPagedConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		String connectionPath = connectionType != null && connectionType.length() > 0 ? "/" + connectionType : "";
+		URIBuilder uriBuilder = URIBuilder.fromUri(GRAPH_API_URL + objectId + connectionPath).queryParams(queryParameters);
+		return restTemplate.execute(uriBuilder.build(), HttpMethod.GET, null, new PagedListExtractor<T>(objectMapper, type));
+	}
+
+	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters, String... fields) {
+		if(fields.length > 0) {
+			String joinedFields = join(fields);
+			queryParameters.set("fields", joinedFields);
+		}
+		return fetchPagedConnections(objectId, connectionType, type, queryParameters);
+	}
+
+	public <T> PagedList<T> fetchConnections(String objectId, String connectionType, Class<T> type, GraphQuery query) {
+		return fetchConnections(objectId, connectionType, type, query.toRequestParameters());
+	}
+
+	public <T> Iterable<T> iterateConnections(String objectId, String connectionType, Class<T> type, MultiValueMap<String, String> queryParameters) {
+		return new PagedListIterable<T>(this, objectId, connectionType, type, queryParameters, prefetchExecutor);
+	}
+
+	public byte[] fetchImage(String objectId, String connectionType, ImageType type) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		fetchImage(objectId, connectionType, type, out);
+		return out.toByteArray();
+	}
+
+	public void fetchImage(String objectId, String connectionType, ImageType type, OutputStream out) {
+		fetchImage(objectId, connectionType, type, Channels.newChannel(out));
+	}
+
+	public void fetchImage(String objectId, String connectionType, ImageType type, WritableByteChannel channel) {
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType + "?type=" + type.toString().toLowerCase()).build();
+		MediaTransferExtractor extractor = new MediaTransferExtractor(channel);
+		for (int redirects = 0; uri != null; redirects++) {
+			if (redirects > MAX_IMAGE_REDIRECTS) {
+				throw new UncategorizedApiException("facebook", "Too many redirects while fetching image for " + objectId, null);
+			}
+			// only the Graph API gets to see the access token; redirects elsewhere are followed without it
+			RestTemplate restTemplate = GRAPH_API_HOST.equals(uri.getHost()) ? this.restTemplate : redirectRestTemplate;
+			uri = restTemplate.execute(uri, HttpMethod.GET, null, extractor);
+		}
+	}
+
+	public void fetchImage(String objectId, String connectionType, ImageType type, File file) {
+		try {
+			FileOutputStream out = new FileOutputStream(file);
+			try {
+				fetchImage(objectId, connectionType, type, out.getChannel());
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			throw new ResourceAccessException("I/O error writing image to " + file + ": " + e.getMessage(), e);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	public String publish(String objectId, String connectionType, MultiValueMap<String, Object> data) {
+		MultiValueMap<String, Object> requestData = new LinkedMultiValueMap<String, Object>(data);
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
+		Map<String, Object> response = restTemplate.postForObject(uri, requestData, Map.class);
+		return (String) response.get("id");
+	}
+	
+	public void post(String objectId, String connectionType, MultiValueMap<String, String> data) {
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
+		restTemplate.postForObject(uri, new LinkedMultiValueMap<String, String>(data), String.class);
+	}
+	
+	public void delete(String objectId) {
+		LinkedMultiValueMap<String, String> deleteRequest = new LinkedMultiValueMap<String, String>();
+		deleteRequest.set("method", "delete");
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId).build();
+		restTemplate.postForObject(uri, deleteRequest, String.class);
+	}
+	
+	public void delete(String objectId, String connectionType) {
+		LinkedMultiValueMap<String, String> deleteRequest = new LinkedMultiValueMap<String, String>();
+		deleteRequest.set("method", "delete");
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
+		restTemplate.postForObject(uri, deleteRequest, String.class);
+	}
+	
+	public void delete(String objectId, String connectionType, MultiValueMap<String, String> data) {
+		data.set("method", "delete");
+		URI uri = URIBuilder.fromUri(GRAPH_API_URL + objectId + "/" + connectionType).build();
+		HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<MultiValueMap<String, String>>(data, new HttpHeaders());
+		restTemplate.exchange(uri, HttpMethod.POST, entity, String.class);
+	}
+	
+	public BatchRequest newBatch() {
+		return new BatchRequestTemplate(restTemplate, objectMapper);
+	}
+	
+	// private helpers
+	private <T> T deserializeObject(JsonNode jsonNode, Class<T> type) {
+		try {
+			return objectMapper.reader(type).readValue(jsonNode);
+		} catch (IOException e) {
+			throw new UncategorizedApiException("facebook", "Error deserializing data from Facebook: " + e.getMessage(), e);
+		}
+	}
+	
+	private String join(String[] strings) {
+		StringBuilder builder = new StringBuilder();
+		if(strings.length > 0) {
+			builder.append(strings[0]);
+			for (int i = 1; i < strings.length; i++) {
+				builder.append("," + strings[i]);
+			}
+		}
+		return builder.toString();
+	}
+	
+}
@@ -15,6 +15,8 @@
  */
 package org.springframework.social.facebook.api.impl;
 
+import java.io.OutputStream;
+
 import org.springframework.social.facebook.api.FacebookProfile;
 import org.springframework.social.facebook.api.GraphApi;
 import org.springframework.social.facebook.api.Group;
@@ -46,6 +48,10 @@ class GroupTemplate extends AbstractFacebookOperations implements GroupOperation
 	public byte[] getGroupImage(String groupId, ImageType imageType) {
 		return graphApi.fetchImage(groupId, "picture", imageType);
 	}
+
+	public void getGroupImage(String groupId, ImageType imageType, OutputStream out) {
+		graphApi.fetchImage(groupId, "picture", imageType, out);
+	}
 	
 	public PagedList<GroupMemberReference> getMembers(String groupId) {
 		requireAuthorization();
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link FacebookMeterRegistry} that keeps counts, byte totals, and latency histograms for each operation in memory.
+ * @author Craig Walls
+ */
+public class InMemoryFacebookMeterRegistry implements FacebookMeterRegistry {
+
+	private final ConcurrentMap<String, OperationMeters> meters = new ConcurrentHashMap<String, OperationMeters>();
+
+	public void recordRequest(String operation, String outcome, long latency, long processingTime, long requestBytes, long responseBytes) {
+		meters(operation).recordRequest(outcome, latency, processingTime, requestBytes, responseBytes);
+	}
+
+	public void recordOperation(String operation, String outcome, long duration, int requests, int pages) {
+		meters(operation).recordOperation(outcome, duration, pages);
+	}
+
+	/**
+	 * @return the names of the operations that have been measured
+	 */
+	public Set<String> getOperations() {
+		return Collections.unmodifiableSet(new TreeSet<String>(meters.keySet()));
+	}
+
+	/**
+	 * @param operation an operation name
+	 * @return the meters for the operation, or null if it has not been measured.
+	 */
+	public OperationMeters getMeters(String operation) {
+		return meters.get(operation);
+	}
+
+	/**
+	 * Discards all measurements.
+	 */
+	public void clear() {
+		meters.clear();
+	}
+
+	private OperationMeters meters(String operation) {
+		OperationMeters operationMeters = meters.get(operation);
+		if (operationMeters == null) {
+			OperationMeters newMeters = new OperationMeters();
+			operationMeters = meters.putIfAbsent(operation, newMeters);
+			if (operationMeters == null) {
+				operationMeters = newMeters;
+			}
+		}
+		return operationMeters;
+	}
+
+	/**
+	 * The measurements of a single operation.
+	 */
+	public static class OperationMeters {
+
+		private final Map<String, Long> operationOutcomes = new HashMap<String, Long>();
+
+		private final Map<String, Long> requestOutcomes = new HashMap<String, Long>();
+
+		private final Histogram duration = new Histogram();
+
+		private final Histogram latency = new Histogram();
+
+		private final Histogram processingTime = new Histogram();
+
+		private long requestBytes;
+
+		private long responseBytes;
+
+		private long pages;
+
+		synchronized void recordRequest(String outcome, long latency, long processingTime, long requestBytes, long responseBytes) {
+			increment(requestOutcomes, outcome);
+			this.latency.record(latency);
+			this.processingTime.record(processingTime);
+			this.requestBytes += requestBytes;
+			this.responseBytes += responseBytes;
+		}
+
+		synchronized void recordOperation(String outcome, long duration, int pages) {
+			increment(operationOutcomes, outcome);
+			this.duration.record(duration);
+			this.pages += pages;
+		}
+
+		/**
+		 * @return the number of calls to the operation, keyed by outcome ("success" or the name of the exception thrown)
+		 */
+		public synchronized Map<String, Long> getOperationOutcomes() {
+			return new HashMap<String, Long>(operationOutcomes);
+		}
+
+		/**
+		 * @return the number of requests made by the operation, keyed by outcome (the HTTP status code or the name of the exception thrown)
+		 */
+		public synchronized Map<String, Long> getRequestOutcomes() {
+			return new HashMap<String, Long>(requestOutcomes);
+		}
+
+		/**
+		 * @return the number of requests made by the operation
+		 */
+		public synchronized long getRequestCount() {
+			return latency.getCount();
+		}
+
+		/**
+		 * @return a copy of the histogram of the operation's durations
+		 */
+		public synchronized Histogram getDuration() {
+			return new Histogram(duration);
+		}
+
+		/**
+		 * @return a copy of the histogram of the latencies of the operation's requests
+		 */
+		public synchronized Histogram getLatency() {
+			return new Histogram(latency);
+		}
+
+		/**
+		 * @return a copy of the histogram of the time spent reading and deserializing the operation's responses
+		 */
+		public synchronized Histogram getProcessingTime() {
+			return new Histogram(processingTime);
+		}
+
+		/**
+		 * @return the total size of the operation's request bodies
+		 */
+		public synchronized long getRequestBytes() {
+			return requestBytes;
+		}
+
+		/**
+		 * @return the total size of the operation's response bodies
+		 */
+		public synchronized long getResponseBytes() {
+			return responseBytes;
+		}
+
+		/**
+		 * @return the total number of pages of results fetched by the operation
+		 */
+		public synchronized long getPages() {
+			return pages;
+		}
+
+		private static void increment(Map<String, Long> counts, String key) {
+			Long count = counts.get(key);
+			counts.put(key, count != null ? count + 1 : 1L);
+		}
+
+	}
+
+	/**
+	 * Histogram of times, with buckets whose upper bounds double from 1 microsecond.
+	 */
+	public static class Histogram {
+
+		private static final int BUCKETS = 40;
+
+		private final long[] counts;
+
+		private long count;
+
+		private long total;
+
+		private long max;
+
+		Histogram() {
+			this.counts = new long[BUCKETS];
+		}
+
+		Histogram(Histogram histogram) {
+			this.counts = histogram.counts.clone();
+			this.count = histogram.count;
+			this.total = histogram.total;
+			this.max = histogram.max;
+		}
+
+		void record(long nanos) {
+			long micros = Math.max(nanos / 1000, 1);
+			int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKETS - 1);
+			counts[bucket]++;
+			count++;
+			total += nanos;
+			max = Math.max(max, nanos);
+		}
+
+		/**
+		 * @return the number of times recorded
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the total of the times recorded, in nanoseconds
+		 */
+		public long getTotal() {
+			return total;
+		}
+
+		/**
+		 * @return the longest time recorded, in nanoseconds
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * @return the mean of the times recorded, in nanoseconds, or 0 if none have been recorded
+		 */
+		public long getMean() {
+			return count > 0 ? total / count : 0;
+		}
+
+		/**
+		 * @param percentile the percentile, between 0 and 100
+		 * @return the upper bound, in nanoseconds, of the bucket containing the given percentile of the times recorded (no more than the longest time recorded), 
+		 * 		or 0 if none have been recorded.
+		 */
+		public long getPercentile(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile / 100 * count);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0) {
+					return Math.min((1L << i) * 1000, max);
+				}
+			}
+			return max;
+		}
+
+	}
+
+}
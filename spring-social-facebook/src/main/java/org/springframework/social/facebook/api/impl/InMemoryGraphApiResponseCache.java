@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link GraphApiResponseCache} that keeps responses on the heap, evicting the least recently used response once it holds a maximum number of them.
+ * @author Craig Walls
+ */
+public class InMemoryGraphApiResponseCache implements GraphApiResponseCache {
+
+	private final Map<String, CachedGraphApiResponse> responses;
+
+	/**
+	 * Creates an in-memory cache.
+	 * @param maxEntries the maximum number of responses to hold
+	 */
+	public InMemoryGraphApiResponseCache(final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be at least 1");
+		}
+		this.responses = new LinkedHashMap<String, CachedGraphApiResponse>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedGraphApiResponse> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	public synchronized CachedGraphApiResponse get(String key) {
+		return responses.get(key);
+	}
+
+	public synchronized void put(String key, CachedGraphApiResponse response) {
+		responses.put(key, response);
+	}
+
+	public synchronized void remove(String key) {
+		responses.remove(key);
+	}
+
+	/**
+	 * @return the number of responses currently held
+	 */
+	public synchronized int size() {
+		return responses.size();
+	}
+
+}
@@ -17,6 +17,8 @@ package org.springframework.social.facebook.api.impl;
 
 import static org.springframework.social.facebook.api.impl.PagedListUtils.*;
 
+import java.io.File;
+import java.io.OutputStream;
 import java.util.Map;
 
 import org.springframework.core.io.Resource;
@@ -28,6 +30,7 @@ import org.springframework.social.facebook.api.PagedList;
 import org.springframework.social.facebook.api.PagingParameters;
 import org.springframework.social.facebook.api.Photo;
 import org.springframework.social.facebook.api.Video;
+import org.springframework.social.facebook.api.VideoUploadSession;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
@@ -87,6 +90,11 @@ class MediaTemplate extends AbstractFacebookOperations implements MediaOperation
 		requireAuthorization();
 		return graphApi.fetchImage(albumId, "picture", imageType);
 	}
+
+	public void getAlbumImage(String albumId, ImageType imageType, OutputStream out) {
+		requireAuthorization();
+		graphApi.fetchImage(albumId, "picture", imageType, out);
+	}
 	
 	public PagedList<Photo> getPhotos(String objectId) {
 		return getPhotos(objectId, new PagingParameters(25, 0, null, null));
@@ -108,6 +116,10 @@ class MediaTemplate extends AbstractFacebookOperations implements MediaOperation
 		return graphApi.fetchImage(photoId, "picture", imageType);
 	}
 
+	public void getPhotoImage(String photoId, ImageType imageType, OutputStream out) {
+		graphApi.fetchImage(photoId, "picture", imageType, out);
+	}
+
 	public String postPhoto(Resource photo) {
 		requireAuthorization();
 		MultiValueMap<String, Object> parts = new LinkedMultiValueMap<String, Object>();
@@ -164,6 +176,11 @@ class MediaTemplate extends AbstractFacebookOperations implements MediaOperation
 		requireAuthorization();
 		return graphApi.fetchImage(videoId, "picture", ImageType.SMALL);
 	}
+
+	public void getVideoImage(String videoId, OutputStream out) {
+		requireAuthorization();
+		graphApi.fetchImage(videoId, "picture", ImageType.SMALL, out);
+	}
 	
 	@SuppressWarnings("unchecked")
 	public String postVideo(Resource video) {
@@ -184,4 +201,15 @@ class MediaTemplate extends AbstractFacebookOperations implements MediaOperation
 		Map<String, Object> response = restTemplate.postForObject("https://graph-video.facebook.com/me/videos", parts, Map.class);
 		return (String) response.get("id");
 	}
+	
+	public String postVideoInChunks(File video, String title, String description) {
+		requireAuthorization();
+		return new ChunkedVideoUpload(restTemplate, "https://graph-video.facebook.com/me/videos").upload(video, title, description);
+	}
+
+	public String postVideoInChunks(File video, VideoUploadSession session, String title, String description) {
+		requireAuthorization();
+		return new ChunkedVideoUpload(restTemplate, "https://graph-video.facebook.com/me/videos").upload(video, session, title, description);
+	}
+
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.web.client.ResponseExtractor;
+
+/**
+ * {@link ResponseExtractor} that transfers a media response's body to a {@link WritableByteChannel} as it is read,
+ * so that images and other media never need to be held in memory in their entirety.
+ * When the target is a {@link FileChannel}, the body is transferred with {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}.
+ * If the response is instead a redirect (Facebook's picture connections redirect to a CDN), nothing is transferred 
+ * and the redirect's location is returned so that the caller may follow it.
+ * @author Craig Walls
+ */
+class MediaTransferExtractor implements ResponseExtractor<URI> {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	private final WritableByteChannel channel;
+
+	public MediaTransferExtractor(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	/**
+	 * Transfers the response body to the channel.
+	 * @return the location to follow if the response is a redirect; null if the body was transferred.
+	 */
+	public URI extractData(ClientHttpResponse response) throws IOException {
+		if (response.getStatusCode().series() == HttpStatus.Series.REDIRECTION) {
+			URI location = response.getHeaders().getLocation();
+			if (location == null) {
+				throw new UncategorizedApiException("facebook", "Facebook responded with a redirect, but gave no location to redirect to", null);
+			}
+			return location;
+		}
+		ReadableByteChannel source = Channels.newChannel(response.getBody());
+		try {
+			transfer(source);
+		} finally {
+			source.close();
+		}
+		return null;
+	}
+
+	private void transfer(ReadableByteChannel source) throws IOException {
+		if (channel instanceof FileChannel) {
+			FileChannel fileChannel = (FileChannel) channel;
+			long position = fileChannel.position();
+			long transferred;
+			while ((transferred = fileChannel.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+				position += transferred;
+			}
+			fileChannel.position(position);
+		} else {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			while (source.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				buffer.clear();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Interceptor that reports each request's latency, outcome, sizes, and response processing time to a {@link FacebookMeterRegistry}.
+ * A response is reported when it is closed, once its body has been read and deserialized.
+ * Does nothing until it is given a meter registry.
+ * @author Craig Walls
+ */
+class MeteredRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private final String defaultOperation;
+
+	private volatile FacebookMeterRegistry meterRegistry;
+
+	/**
+	 * Creates a metered request interceptor.
+	 * @param meterRegistry the registry to report requests to. May be null to report nothing until a registry is set.
+	 * @param defaultOperation the operation to tag requests with when they are not made by a measured operation. 
+	 * 			If null, such requests are tagged "graph" followed by their method and endpoint family.
+	 */
+	public MeteredRequestInterceptor(FacebookMeterRegistry meterRegistry, String defaultOperation) {
+		this.meterRegistry = meterRegistry;
+		this.defaultOperation = defaultOperation;
+	}
+
+	public void setMeterRegistry(FacebookMeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	public FacebookMeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		FacebookMeterRegistry meterRegistry = this.meterRegistry;
+		if (meterRegistry == null) {
+			return execution.execute(request, body);
+		}
+		String operation = FacebookMetrics.currentOperation();
+		if (operation == null) {
+			operation = defaultOperation != null ? defaultOperation : "graph " + request.getMethod() + " " + GraphApiCircuitBreaker.endpointFamily(request.getURI());
+		}
+		FacebookMetrics.requestSent();
+		long start = System.nanoTime();
+		try {
+			ClientHttpResponse response = execution.execute(request, body);
+			return new MeteredClientHttpResponse(response, meterRegistry, operation, body.length, start, System.nanoTime());
+		} catch (IOException e) {
+			meterRegistry.recordRequest(operation, e.getClass().getName(), System.nanoTime() - start, 0, body.length, 0);
+			throw e;
+		} catch (RuntimeException e) {
+			meterRegistry.recordRequest(operation, e.getClass().getName(), System.nanoTime() - start, 0, body.length, 0);
+			throw e;
+		}
+	}
+
+	private static class MeteredClientHttpResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse response;
+
+		private final FacebookMeterRegistry meterRegistry;
+
+		private final String operation;
+
+		private final long requestBytes;
+
+		private final long sentAt;
+
+		private final long receivedAt;
+
+		private long responseBytes;
+
+		private InputStream body;
+
+		private boolean closed;
+
+		public MeteredClientHttpResponse(ClientHttpResponse response, FacebookMeterRegistry meterRegistry, String operation, long requestBytes, long sentAt, long receivedAt) {
+			this.response = response;
+			this.meterRegistry = meterRegistry;
+			this.operation = operation;
+			this.requestBytes = requestBytes;
+			this.sentAt = sentAt;
+			this.receivedAt = receivedAt;
+		}
+
+		public HttpStatus getStatusCode() throws IOException {
+			return response.getStatusCode();
+		}
+
+		public int getRawStatusCode() throws IOException {
+			return response.getRawStatusCode();
+		}
+
+		public String getStatusText() throws IOException {
+			return response.getStatusText();
+		}
+
+		public HttpHeaders getHeaders() {
+			return response.getHeaders();
+		}
+
+		public InputStream getBody() throws IOException {
+			if (body == null) {
+				InputStream responseBody = response.getBody();
+				if (responseBody == null) {
+					return null;
+				}
+				body = new FilterInputStream(responseBody) {
+					@Override
+					public int read() throws IOException {
+						int b = super.read();
+						if (b != -1) {
+							responseBytes++;
+						}
+						return b;
+					}
+
+					@Override
+					public int read(byte[] b, int off, int len) throws IOException {
+						int read = super.read(b, off, len);
+						if (read > 0) {
+							responseBytes += read;
+						}
+						return read;
+					}
+
+					@Override
+					public long skip(long n) throws IOException {
+						long skipped = super.skip(n);
+						responseBytes += skipped;
+						return skipped;
+					}
+				};
+			}
+			return body;
+		}
+
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			long closedAt = System.nanoTime();
+			String outcome;
+			try {
+				outcome = String.valueOf(response.getRawStatusCode());
+			} catch (IOException e) {
+				outcome = e.getClass().getName();
+			}
+			response.close();
+			meterRegistry.recordRequest(operation, outcome, receivedAt - sentAt, closedAt - receivedAt, requestBytes, responseBytes);
+		}
+
+	}
+
+}
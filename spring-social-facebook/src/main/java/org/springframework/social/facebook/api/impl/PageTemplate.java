@@ -22,6 +22,7 @@ import java.util.Map;
 import org.springframework.core.io.Resource;
 import org.springframework.social.facebook.api.Account;
 import org.springframework.social.facebook.api.FacebookLink;
+import org.springframework.social.facebook.api.FieldProjection;
 import org.springframework.social.facebook.api.GraphApi;
 import org.springframework.social.facebook.api.Page;
 import org.springframework.social.facebook.api.PageAdministrationException;
@@ -43,6 +44,18 @@ class PageTemplate extends AbstractFacebookOperations implements PageOperations
 		return graphApi.fetchObject(pageId, Page.class);
 	}
 
+	public List<Page> getPages(List<String> pageIds) {
+		return graphApi.fetchObjects(pageIds, Page.class);
+	}
+
+	public Page getPage(String pageId, FieldProjection<Page> projection) {
+		return graphApi.fetchObject(pageId, Page.class, projection.getFields());
+	}
+
+	public List<Page> getPages(List<String> pageIds, FieldProjection<Page> projection) {
+		return graphApi.fetchObjects(pageIds, Page.class, projection.getFields());
+	}
+
 	public boolean isPageAdmin(String pageId) {
 		requireAuthorization();
 		return getAccount(pageId) != null;
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.impl.PagedListUtils.ElementReader;
+import org.springframework.web.client.ResponseExtractor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * {@link ResponseExtractor} that reads a page of connections from a Graph API response in a single streaming pass.
+ * Each element of the response's "data" array is bound directly from the parser as it is encountered
+ * and the "paging" object is picked up along the way, without first reading the response into a tree.
+ * The response is read by {@link PagedListUtils#readPagedList(JsonParser, ElementReader)}, as are connections embedded in objects, 
+ * so that both are bound the same way.
+ * @author Craig Walls
+ * @param <T> the type of the elements in the list
+ */
+class PagedListExtractor<T> implements ResponseExtractor<PagedList<T>> {
+
+	private final JsonFactory jsonFactory;
+
+	private final ObjectReader elementReader;
+
+	public PagedListExtractor(ObjectMapper objectMapper, Class<T> elementType) {
+		this.jsonFactory = objectMapper.getFactory();
+		this.elementReader = objectMapper.reader(elementType);
+	}
+
+	public PagedList<T> extractData(ClientHttpResponse response) throws IOException {
+		JsonParser parser = jsonFactory.createParser(response.getBody());
+		try {
+			return readPagedList(parser);
+		} catch (JsonProcessingException e) {
+			throw new UncategorizedApiException("facebook", "Error deserializing data from Facebook: " + e.getMessage(), e);
+		} finally {
+			parser.close();
+		}
+	}
+
+	/**
+	 * Reads a paged list from the given parser, which must be positioned before the start of the response's JSON object.
+	 * @param parser the parser to read from
+	 * @return the paged list
+	 * @throws IOException if the response could not be read or bound
+	 */
+	PagedList<T> readPagedList(JsonParser parser) throws IOException {
+		parser.nextToken();
+		PagedList<T> pagedList = PagedListUtils.readPagedList(parser, new ElementReader<T>() {
+			public T read(JsonParser parser) throws IOException {
+				return readElement(parser);
+			}
+		});
+		FacebookMetrics.pageFetched();
+		return pagedList;
+	}
+
+	/**
+	 * Binds a single element of the "data" array. 
+	 * Called with the parser positioned at the element's first token; must leave the parser positioned at the element's last token.
+	 * @param parser the parser to read from
+	 * @return the bound element
+	 * @throws IOException if the element could not be read or bound
+	 */
+	protected T readElement(JsonParser parser) throws IOException {
+		return elementReader.readValue(parser);
+	}
+
+}
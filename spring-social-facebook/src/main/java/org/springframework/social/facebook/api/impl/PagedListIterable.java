@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.social.facebook.api.GraphApi;
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.PagingParameters;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * {@link Iterable} over all of an object's connections that fetches pages lazily, following each page's next-page cursor as the
+ * previous page is exhausted. Only the page being consumed (and, when prefetching, the page after it) is held in memory.
+ * If an {@link Executor} is given, the next page is fetched in the background while the caller consumes the current page.
+ * @author Craig Walls
+ * @param <T> the type of the connections
+ */
+class PagedListIterable<T> implements Iterable<T> {
+
+	private final GraphApi graphApi;
+
+	private final String objectId;
+
+	private final String connectionName;
+
+	private final Class<T> type;
+
+	private final MultiValueMap<String, String> queryParameters;
+
+	private final Executor prefetchExecutor;
+
+	public PagedListIterable(GraphApi graphApi, String objectId, String connectionName, Class<T> type, MultiValueMap<String, String> queryParameters, Executor prefetchExecutor) {
+		this.graphApi = graphApi;
+		this.objectId = objectId;
+		this.connectionName = connectionName;
+		this.type = type;
+		this.queryParameters = new LinkedMultiValueMap<String, String>(queryParameters);
+		this.prefetchExecutor = prefetchExecutor;
+	}
+
+	public Iterator<T> iterator() {
+		return new PagedListIterator();
+	}
+
+	private PagedList<T> fetchPage(PagingParameters page) {
+		MultiValueMap<String, String> pageParameters = new LinkedMultiValueMap<String, String>(queryParameters);
+		if (page != null) {
+			pageParameters.putAll(page.toMap());
+		}
+		return graphApi.fetchConnections(objectId, connectionName, type, pageParameters);
+	}
+
+	private class PagedListIterator implements Iterator<T> {
+		
+		private PagedList<T> currentPage;
+		
+		private Iterator<T> currentIterator;
+		
+		private FutureTask<PagedList<T>> nextPage;
+
+		public boolean hasNext() {
+			if (currentPage == null) {
+				advance(fetchPage(null));
+			}
+			while (!currentIterator.hasNext()) {
+				if (nextPage == null) {
+					return false;
+				}
+				advance(awaitNextPage());
+			}
+			return true;
+		}
+
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return currentIterator.next();
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Connections cannot be removed through this iterator");
+		}
+
+		private void advance(PagedList<T> page) {
+			currentPage = page;
+			currentIterator = page.iterator();
+			nextPage = null;
+			final PagingParameters nextPageParameters = page.getNextPage();
+			if (nextPageParameters != null && !page.isEmpty()) {
+				nextPage = new FutureTask<PagedList<T>>(new Callable<PagedList<T>>() {
+					public PagedList<T> call() throws Exception {
+						return fetchPage(nextPageParameters);
+					}
+				});
+				if (prefetchExecutor != null) {
+					prefetchExecutor.execute(nextPage);
+				}
+			}
+		}
+		
+		private PagedList<T> awaitNextPage() {
+			nextPage.run(); // fetches the page on this thread unless the prefetch executor has already started it
+			try {
+				return nextPage.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new UncategorizedApiException("facebook", "Interrupted while waiting for the next page of " + connectionName, e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new UncategorizedApiException("facebook", "Error fetching the next page of " + connectionName, e.getCause());
+			}
+		}
+
+	}
+	
+}
@@ -15,16 +15,62 @@
  */
 package org.springframework.social.facebook.api.impl;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.springframework.social.facebook.api.PagedList;
 import org.springframework.social.facebook.api.PagingParameters;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 
-class PagedListUtils {
+public class PagedListUtils {
+
+	/**
+	 * Reads a paged list from a JSON object of paged data, whether a Graph API connection response or a connection embedded in an object by field expansion.
+	 * Binds the "data" array's elements with the given element reader, the "paging" object into the list's previous and next pages, 
+	 * and the "total_count" of the "summary" (or, in older responses, the "count") into the list's total count.
+	 * @param parser the parser to read from, positioned at the object's START_OBJECT token. Left positioned at its END_OBJECT token.
+	 * @param elementReader binds each non-null element of the "data" array
+	 * @param <T> the type of the elements in the list
+	 * @return the paged list
+	 * @throws IOException if the paged data could not be read or bound
+	 */
+	public static <T> PagedList<T> readPagedList(JsonParser parser, ElementReader<T> elementReader) throws IOException {
+		if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+			throw new JsonMappingException("Expected a JSON object containing paged data", parser.getCurrentLocation());
+		}
+		List<T> data = new ArrayList<T>();
+		JsonNode pagingNode = null;
+		Integer totalCount = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = parser.getCurrentName();
+			JsonToken valueToken = parser.nextToken();
+			if ("data".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+				JsonToken token;
+				while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+					data.add(token == JsonToken.VALUE_NULL ? null : elementReader.read(parser));
+				}
+			} else if ("paging".equals(fieldName)) {
+				pagingNode = parser.readValueAsTree();
+			} else if ("summary".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+				JsonNode totalCountNode = parser.<JsonNode>readValueAsTree().get("total_count");
+				totalCount = totalCountNode != null ? totalCountNode.asInt() : totalCount;
+			} else if ("count".equals(fieldName) && valueToken == JsonToken.VALUE_NUMBER_INT) {
+				totalCount = parser.getIntValue();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		return new PagedList<T>(data, getPagedListParameters(pagingNode, "previous"), getPagedListParameters(pagingNode, "next"), totalCount);
+	}
 
 	public static PagingParameters getPagedListParameters(JsonNode pagingNode, String pageKey) {
 		if (pagingNode == null || pagingNode.get(pageKey) == null) {
@@ -92,4 +138,19 @@ class PagedListUtils {
 		return url.substring(startPos + paramName.length() + 1);
 	}
 
+	/**
+	 * Binds a single element of a paged list's "data" array.
+	 * @param <T> the type of the element
+	 */
+	public interface ElementReader<T> {
+
+		/**
+		 * @param parser the parser to read from, positioned at the element's first token. Must be left positioned at the element's last token.
+		 * @return the bound element
+		 * @throws IOException if the element could not be read or bound
+		 */
+		T read(JsonParser parser) throws IOException;
+
+	}
+
 }
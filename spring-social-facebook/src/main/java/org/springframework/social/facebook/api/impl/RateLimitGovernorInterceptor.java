@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Interceptor that holds back requests until a {@link GraphApiRateLimitGovernor} permits them, and reports the usage headers 
+ * of each response back to the governor.
+ * @author Craig Walls
+ */
+class RateLimitGovernorInterceptor implements ClientHttpRequestInterceptor {
+
+	private volatile GraphApiRateLimitGovernor governor;
+
+	private volatile String appScope = GraphApiRateLimitGovernor.appScope(null);
+
+	public RateLimitGovernorInterceptor(GraphApiRateLimitGovernor governor) {
+		this.governor = governor;
+	}
+
+	public void setGovernor(GraphApiRateLimitGovernor governor) {
+		this.governor = governor;
+	}
+
+	public GraphApiRateLimitGovernor getGovernor() {
+		return governor;
+	}
+
+	public void setAppId(String appId) {
+		this.appScope = GraphApiRateLimitGovernor.appScope(appId);
+	}
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		GraphApiRateLimitGovernor governor = this.governor;
+		String tokenScope = tokenScope(request);
+		try {
+			if (tokenScope != null) {
+				governor.awaitPermission(appScope, tokenScope);
+			} else {
+				governor.awaitPermission(appScope);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for Facebook rate limit budget");
+		}
+		ClientHttpResponse response = execution.execute(request, body);
+		String appUsage = response.getHeaders().getFirst("X-App-Usage");
+		if (appUsage != null) {
+			governor.recordUsage(appScope, appUsage);
+		}
+		if (tokenScope != null) {
+			String pageUsage = response.getHeaders().getFirst("X-Page-Usage");
+			String businessUseCaseUsage = response.getHeaders().getFirst("X-Business-Use-Case-Usage");
+			if (pageUsage != null || businessUseCaseUsage != null) {
+				// both headers describe the token's usage, so they're recorded together rather than one replacing the other
+				governor.recordUsage(tokenScope, pageUsage, businessUseCaseUsage);
+			}
+		}
+		return response;
+	}
+
+	private String tokenScope(HttpRequest request) {
+		String authorization = request.getHeaders().getFirst("Authorization");
+		if (authorization == null) {
+			return null;
+		}
+		return GraphApiRateLimitGovernor.tokenScope(authorization.substring(authorization.indexOf(' ') + 1));
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.ServerDownException;
+import org.springframework.social.ServerException;
+
+/**
+ * Interceptor that retries Graph API reads that fail with transient errors, according to a {@link GraphApiRetryPolicy}, 
+ * and refuses requests to endpoint families whose {@link GraphApiCircuitBreaker circuit} is open.
+ * Error responses are classified by {@link FacebookErrorHandler}: those it interprets as a {@link ServerException} are transient, 
+ * as are I/O errors; all others (including permission and authorization errors) are returned to be handled as usual.
+ * Must be the last interceptor, since a retry re-executes the request without passing through the interceptors that follow.
+ * @author Craig Walls
+ */
+class ResilientRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private final static Log logger = LogFactory.getLog(ResilientRequestInterceptor.class);
+
+	private final FacebookErrorHandler errorHandler = new FacebookErrorHandler();
+
+	private volatile GraphApiRetryPolicy retryPolicy;
+
+	private volatile GraphApiCircuitBreaker circuitBreaker;
+
+	public ResilientRequestInterceptor(GraphApiRetryPolicy retryPolicy, GraphApiCircuitBreaker circuitBreaker) {
+		this.retryPolicy = retryPolicy;
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public void setRetryPolicy(GraphApiRetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	public GraphApiRetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	public void setCircuitBreaker(GraphApiCircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public GraphApiCircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		GraphApiRetryPolicy retryPolicy = this.retryPolicy;
+		GraphApiCircuitBreaker circuitBreaker = this.circuitBreaker;
+		String family = GraphApiCircuitBreaker.endpointFamily(request.getURI());
+		int maxAttempts = request.getMethod() == HttpMethod.GET ? retryPolicy.getMaxAttempts() : 1;
+		for (int attempt = 1; ; attempt++) {
+			if (!circuitBreaker.allowRequest(family)) {
+				throw new ServerDownException("facebook", "Requests to " + family + " are failing; not sending request to " + request.getURI());
+			}
+			ClientHttpResponse bufferedResponse;
+			ServerException transientError;
+			// an outcome must be recorded for every request that the circuit allows, or a half-open circuit would await its trial request forever
+			boolean outcomeRecorded = false;
+			try {
+				ClientHttpResponse response;
+				try {
+					response = execution.execute(request, body);
+				} catch (IOException e) {
+					circuitBreaker.recordFailure(family);
+					outcomeRecorded = true;
+					if (attempt >= maxAttempts) {
+						throw e;
+					}
+					backOff(request, attempt, e);
+					continue;
+				}
+				if (!errorHandler.hasError(response)) {
+					circuitBreaker.recordSuccess(family);
+					outcomeRecorded = true;
+					return response;
+				}
+				bufferedResponse = new BufferedClientHttpResponse(response);
+				transientError = classify(bufferedResponse);
+				if (transientError == null) {
+					circuitBreaker.recordSuccess(family);
+					outcomeRecorded = true;
+					return bufferedResponse;
+				}
+				circuitBreaker.recordFailure(family);
+				outcomeRecorded = true;
+			} finally {
+				if (!outcomeRecorded) {
+					circuitBreaker.recordFailure(family);
+				}
+			}
+			if (attempt >= maxAttempts) {
+				return bufferedResponse;
+			}
+			bufferedResponse.close();
+			backOff(request, attempt, transientError);
+		}
+	}
+
+	private ServerException classify(ClientHttpResponse bufferedResponse) throws IOException {
+		try {
+			errorHandler.handleError(bufferedResponse);
+		} catch (ServerException e) {
+			return e;
+		} catch (RuntimeException e) {
+			// not transient
+		}
+		return null;
+	}
+
+	private void backOff(HttpRequest request, int attempt, Exception cause) throws IOException {
+		long backoff = retryPolicy.getBackoff(attempt);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Retrying " + request.getMethod() + " " + request.getURI() + " in " + backoff + "ms after attempt " + attempt + " failed", cause);
+		}
+		try {
+			Thread.sleep(backoff);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to retry " + request.getURI());
+		}
+	}
+
+}
@@ -15,11 +15,13 @@
  */
 package org.springframework.social.facebook.api.impl;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.social.facebook.api.FacebookProfile;
+import org.springframework.social.facebook.api.FieldProjection;
 import org.springframework.social.facebook.api.GraphApi;
 import org.springframework.social.facebook.api.ImageType;
 import org.springframework.social.facebook.api.PagedList;
@@ -51,6 +53,18 @@ class UserTemplate extends AbstractFacebookOperations implements UserOperations
 	public FacebookProfile getUserProfile(String facebookId) {
 		return graphApi.fetchObject(facebookId, FacebookProfile.class, PROFILE_FIELDS);
 	}
+
+	public List<FacebookProfile> getUserProfiles(List<String> userIds) {
+		return graphApi.fetchObjects(userIds, FacebookProfile.class, PROFILE_FIELDS);
+	}
+
+	public FacebookProfile getUserProfile(String userId, FieldProjection<FacebookProfile> projection) {
+		return graphApi.fetchObject(userId, FacebookProfile.class, projection.getFields());
+	}
+
+	public List<FacebookProfile> getUserProfiles(List<String> userIds, FieldProjection<FacebookProfile> projection) {
+		return graphApi.fetchObjects(userIds, FacebookProfile.class, projection.getFields());
+	}
 	
 	public byte[] getUserProfileImage() {
 		requireAuthorization();
@@ -70,6 +84,10 @@ class UserTemplate extends AbstractFacebookOperations implements UserOperations
 		return graphApi.fetchImage(userId, "picture", imageType);
 	}
 
+	public void getUserProfileImage(String userId, ImageType imageType, OutputStream out) {
+		graphApi.fetchImage(userId, "picture", imageType, out);
+	}
+
 	public List<String> getUserPermissions() {
 		requireAuthorization();
 		JsonNode responseNode = restTemplate.getForObject(GraphApi.GRAPH_API_URL + "me/permissions", JsonNode.class);
@@ -84,7 +102,7 @@ class UserTemplate extends AbstractFacebookOperations implements UserOperations
 		return graphApi.fetchConnections("search", null, Reference.class, queryMap);
 	}
 
-	private List<String> deserializePermissionsNodeToList(JsonNode jsonNode) {
+	static List<String> deserializePermissionsNodeToList(JsonNode jsonNode) {
 		JsonNode dataNode = jsonNode.get("data");			
 		List<String> permissions = new ArrayList<String>();
 		for (Iterator<JsonNode> elementIt = dataNode.elements(); elementIt.hasNext(); ) {
@@ -20,6 +20,7 @@ import java.util.List;
 
 import org.springframework.social.facebook.api.Comment;
 import org.springframework.social.facebook.api.MessageTag;
+import org.springframework.social.facebook.api.PagedList;
 import org.springframework.social.facebook.api.Reference;
 import org.springframework.social.facebook.api.StoryAttachment;
 
@@ -69,4 +70,10 @@ abstract class CommentMixin extends FacebookObjectMixin {
 	@JsonProperty("user_likes")
 	boolean userLikes;
 
+	@JsonProperty("comments")
+	PagedList<Comment> comments;
+
+	@JsonProperty("likes")
+	PagedList<Reference> likes;
+
 }
@@ -57,6 +57,7 @@ import org.springframework.social.facebook.api.impl.json.PhotoMixin.ImageMixin;
 import org.springframework.social.facebook.api.impl.json.VideoMixin.VideoFormatMixin;
 import org.springframework.social.facebook.api.impl.json.WorkEntryMixin.ProjectMixin;
 
+import com.fasterxml.jackson.databind.module.SimpleDeserializers;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 
 /**
@@ -124,6 +125,15 @@ public class FacebookModule extends SimpleModule {
 		context.setMixInAnnotations(CoverPhoto.class, CoverPhotoMixin.class);
 		
 		context.setMixInAnnotations(TestUser.class, TestUserMixin.class);
-		
+
+		// Types that appear many times in every post are bound by hand-written deserializers instead of through their mixins
+		SimpleDeserializers deserializers = new SimpleDeserializers();
+		deserializers.addDeserializer(Reference.class, new ReferenceDeserializer());
+		deserializers.addDeserializer(Action.class, new ActionDeserializer());
+		deserializers.addDeserializer(PostProperty.class, new PostPropertyDeserializer());
+		context.addDeserializers(deserializers);
+
+		// Connections embedded in objects by field expansion (such as a post's comments) are bound into PagedLists
+		context.addDeserializers(new PagedListDeserializer.PagedListDeserializers());
 	}
 }
@@ -24,26 +24,29 @@ import org.springframework.social.facebook.api.MessageTag;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
 public class MessageTagMapDeserializer extends JsonDeserializer<Map<Integer,List<MessageTag>>> {
 
+	private static final JavaType MESSAGE_TAG_MAP_TYPE = TypeFactory.defaultInstance().constructMapType(Map.class, 
+			TypeFactory.defaultInstance().constructType(Integer.class), TypeFactory.defaultInstance().constructCollectionType(List.class, MessageTag.class));
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public Map<Integer,List<MessageTag>> deserialize(JsonParser jp, DeserializationContext ctxt)
 			throws IOException, JsonProcessingException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.registerModule(new FacebookModule());
-		jp.setCodec(mapper);
-		if (jp.hasCurrentToken()) {
-			JsonNode dataNode = jp.readValueAs(JsonNode.class);
-			if (dataNode != null) {
-				return (Map<Integer,List<MessageTag>>) mapper.reader(new TypeReference<Map<Integer,List<MessageTag>>>() {}).readValue(dataNode);
+		// Binds with the deserializer already configured in the current context, rather than with a newly created (and newly introspected) ObjectMapper.
+		if (jp.getCurrentToken() == JsonToken.START_OBJECT) {
+			Map<Integer,List<MessageTag>> messageTags = (Map<Integer,List<MessageTag>>) ctxt.findRootValueDeserializer(MESSAGE_TAG_MAP_TYPE).deserialize(jp, ctxt);
+			if (messageTags != null) {
+				return messageTags;
 			}
+		} else {
+			jp.skipChildren();
 		}
 		
 		return Collections.emptyMap();
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl.json;
+
+import java.io.IOException;
+
+import org.springframework.social.facebook.api.PagedList;
+import org.springframework.social.facebook.api.impl.PagedListUtils;
+import org.springframework.social.facebook.api.impl.PagedListUtils.ElementReader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+/**
+ * Deserializes a connection embedded in an object by field expansion, such as a post's "comments" or "likes", into a {@link PagedList}.
+ * The connection is read by {@link PagedListUtils#readPagedList(JsonParser, ElementReader)}, the same as a connection fetched on its own, 
+ * with the deserializer for the list's element type binding the elements of its "data" array.
+ * @author Craig Walls
+ */
+class PagedListDeserializer extends StdDeserializer<PagedList<Object>> implements ContextualDeserializer {
+
+	private static final long serialVersionUID = 1L;
+
+	private final JavaType elementType;
+
+	private final JsonDeserializer<Object> elementDeserializer;
+
+	public PagedListDeserializer(JavaType elementType, JsonDeserializer<Object> elementDeserializer) {
+		super(PagedList.class);
+		this.elementType = elementType;
+		this.elementDeserializer = elementDeserializer;
+	}
+
+	public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) throws JsonMappingException {
+		if (elementDeserializer != null) {
+			return this;
+		}
+		return new PagedListDeserializer(elementType, ctxt.findContextualValueDeserializer(elementType, property));
+	}
+
+	@Override
+	public PagedList<Object> deserialize(JsonParser jp, final DeserializationContext ctxt) throws IOException, JsonProcessingException {
+		return PagedListUtils.readPagedList(jp, new ElementReader<Object>() {
+			public Object read(JsonParser parser) throws IOException {
+				return elementDeserializer.deserialize(parser, ctxt);
+			}
+		});
+	}
+
+	/**
+	 * Finds a {@link PagedListDeserializer} for properties of type {@link PagedList}, which Jackson would otherwise expect to be JSON arrays.
+	 */
+	static class PagedListDeserializers extends Deserializers.Base {
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public JsonDeserializer<?> findCollectionDeserializer(CollectionType type, DeserializationConfig config, BeanDescription beanDesc,
+				TypeDeserializer elementTypeDeserializer, JsonDeserializer<?> elementDeserializer) throws JsonMappingException {
+			if (!PagedList.class.isAssignableFrom(type.getRawClass())) {
+				return null;
+			}
+			return new PagedListDeserializer(type.getContentType(), (JsonDeserializer<Object>) elementDeserializer);
+		}
+
+	}
+
+}
@@ -21,8 +21,10 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.social.facebook.api.Action;
+import org.springframework.social.facebook.api.Comment;
 import org.springframework.social.facebook.api.MessageTag;
 import org.springframework.social.facebook.api.Page;
+import org.springframework.social.facebook.api.PagedList;
 import org.springframework.social.facebook.api.Post.FriendsPrivacyType;
 import org.springframework.social.facebook.api.Post.PostType;
 import org.springframework.social.facebook.api.Post.Privacy;
@@ -131,6 +133,12 @@ abstract class PostMixin extends FacebookObjectMixin {
 	@JsonDeserialize(using = CountDeserializer.class)
 	Integer sharesCount;
 
+	@JsonProperty("comments")
+	PagedList<Comment> comments;
+
+	@JsonProperty("likes")
+	PagedList<Reference> likes;
+
 	@JsonIgnoreProperties(ignoreUnknown = true)
 	public abstract static class PrivacyMixin {
 		
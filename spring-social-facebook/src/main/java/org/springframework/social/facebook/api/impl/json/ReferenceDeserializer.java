@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl.json;
+
+import org.springframework.social.facebook.api.Reference;
+
+/**
+ * Deserializer for {@link Reference}, reading its properties straight from the parser rather than through {@link ReferenceMixin}.
+ * @author Craig Walls
+ */
+class ReferenceDeserializer extends StringPropertiesDeserializer<Reference> {
+
+	private static final long serialVersionUID = 1L;
+
+	public ReferenceDeserializer() {
+		super(Reference.class, "id", "name");
+	}
+
+	@Override
+	protected Reference createValue(String[] values) {
+		return new Reference(values[0], values[1]);
+	}
+
+}
@@ -16,6 +16,7 @@
 package org.springframework.social.facebook.api.impl.json;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,26 +24,36 @@ import org.springframework.social.facebook.api.Reference;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Deserializes the "data" array of a list of references, such as a post's "to" and "with_tags" properties, straight from the parser.
+ */
 class ReferenceListDeserializer extends JsonDeserializer<List<Reference>> {
-	@SuppressWarnings("unchecked")
+	
+	private static final ReferenceDeserializer REFERENCE_DESERIALIZER = new ReferenceDeserializer();
+
 	@Override
 	public List<Reference> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.registerModule(new FacebookModule());
-		jp.setCodec(mapper);
-		if (jp.hasCurrentToken()) {
-			JsonNode dataNode = (JsonNode) jp.readValueAs(JsonNode.class).get("data");
-			if (dataNode != null) {
-				return (List<Reference>) mapper.reader(new TypeReference<List<Reference>>() {}).readValue(dataNode);
+		if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+			jp.skipChildren();
+			return Collections.emptyList();
+		}
+		List<Reference> references = Collections.emptyList();
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String fieldName = jp.getCurrentName();
+			if (jp.nextToken() == JsonToken.START_ARRAY && "data".equals(fieldName)) {
+				references = new ArrayList<Reference>();
+				JsonToken token;
+				while ((token = jp.nextToken()) != JsonToken.END_ARRAY) {
+					references.add(token == JsonToken.VALUE_NULL ? null : REFERENCE_DESERIALIZER.deserialize(jp, ctxt));
+				}
+			} else {
+				jp.skipChildren();
 			}
 		}
-		
-		return Collections.emptyList();
+		return references;
 	}
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api.impl.json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Base class for hand-written deserializers of simple types whose properties are all strings and which are created through a constructor.
+ * Reads the properties straight from the parser, matching each field name against the known property names 
+ * (which Jackson interns, so that a match is usually an identity comparison), and skips any other fields.
+ * This avoids the reflective introspection and creator-property buffering that binding through a mixin's {@link com.fasterxml.jackson.annotation.JsonCreator} involves,
+ * which matters for types such as {@link org.springframework.social.facebook.api.Reference} that occur many times in every post of a feed.
+ * @author Craig Walls
+ * @param <T> the type deserialized
+ */
+abstract class StringPropertiesDeserializer<T> extends StdDeserializer<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String[] propertyNames;
+
+	protected StringPropertiesDeserializer(Class<T> type, String... propertyNames) {
+		super(type);
+		this.propertyNames = propertyNames;
+	}
+
+	@Override
+	public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+		JsonToken token = jp.getCurrentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = jp.nextToken();
+		} else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+			throw ctxt.mappingException(handledType(), token);
+		}
+		String[] values = new String[propertyNames.length];
+		for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+			int index = indexOf(jp.getCurrentName());
+			JsonToken valueToken = jp.nextToken();
+			if (index < 0 || valueToken == JsonToken.VALUE_NULL) {
+				jp.skipChildren();
+			} else if (valueToken.isScalarValue()) {
+				values[index] = jp.getText();
+			} else {
+				throw ctxt.mappingException(String.class, valueToken);
+			}
+		}
+		return createValue(values);
+	}
+
+	/**
+	 * Creates the deserialized value.
+	 * @param values the values of the properties, in the order that their names were given to the constructor. Missing properties are null.
+	 * @return the value
+	 */
+	protected abstract T createValue(String[] values);
+
+	private int indexOf(String name) {
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (propertyNames[i] == name || propertyNames[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -22,24 +22,32 @@ import org.springframework.social.facebook.api.Tag;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
 class TagListDeserializer extends JsonDeserializer<List<Tag>> {
+
+	private static final JavaType TAG_LIST_TYPE = TypeFactory.defaultInstance().constructCollectionType(List.class, Tag.class);
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public List<Tag> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.registerModule(new FacebookModule());
-		jp.setCodec(mapper);
-		if(jp.hasCurrentToken()) {
-			JsonNode dataNode = (JsonNode) jp.readValueAs(JsonNode.class).get("data");
-			return (List<Tag>) mapper.reader(new TypeReference<List<Tag>>() {}).readValue(dataNode);
+		// Binds the "data" array with the deserializer already configured in the current context, 
+		// rather than with a newly created (and newly introspected) ObjectMapper.
+		List<Tag> tags = null;
+		if (jp.getCurrentToken() == JsonToken.START_OBJECT) {
+			while (jp.nextToken() == JsonToken.FIELD_NAME) {
+				String fieldName = jp.getCurrentName();
+				if (jp.nextToken() == JsonToken.START_ARRAY && "data".equals(fieldName)) {
+					tags = (List<Tag>) ctxt.findRootValueDeserializer(TAG_LIST_TYPE).deserialize(jp, ctxt);
+				} else {
+					jp.skipChildren();
+				}
+			}
 		}
-		
-		return null;
+		return tags;
 	}
 }
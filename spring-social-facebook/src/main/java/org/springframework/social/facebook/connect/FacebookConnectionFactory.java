@@ -17,6 +17,8 @@ package org.springframework.social.facebook.connect;
 
 import org.springframework.social.connect.support.OAuth2ConnectionFactory;
 import org.springframework.social.facebook.api.Facebook;
+import org.springframework.social.facebook.api.impl.FacebookEngine;
+import org.springframework.social.facebook.api.impl.FacebookHttpTransport;
 
 /**
  * Facebook ConnectionFactory implementation.
@@ -45,4 +47,24 @@ public class FacebookConnectionFactory extends OAuth2ConnectionFactory<Facebook>
 		super("facebook", new FacebookServiceProvider(appId, appSecret, appNamespace), new FacebookAdapter());
 	}
 
+	/**
+	 * Creates a FacebookConnectionFactory for the given application ID, secret, and namespace that sends requests through the given transport.
+	 * Every connection created by this factory shares the transport's pooled connections.
+	 * @param appId The application's App ID as assigned by Facebook 
+	 * @param appSecret The application's App Secret as assigned by Facebook
+	 * @param appNamespace The application's App Namespace as configured with Facebook. Enables use of Open Graph operations.
+	 * @param httpTransport the transport to send requests through.
+	 */
+	public FacebookConnectionFactory(String appId, String appSecret, String appNamespace, FacebookHttpTransport httpTransport) {
+		super("facebook", new FacebookServiceProvider(appId, appSecret, appNamespace, httpTransport), new FacebookAdapter());
+	}
+
+	/**
+	 * @return the engine that the API bindings of this factory's connections are obtained from, through which they may be configured.
+	 * @see FacebookServiceProvider#getEngine()
+	 */
+	public FacebookEngine getEngine() {
+		return ((FacebookServiceProvider) getServiceProvider()).getEngine();
+	}
+
 }
@@ -18,11 +18,13 @@ package org.springframework.social.facebook.connect;
 import java.util.Collections;
 
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.FormHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.social.facebook.api.impl.FacebookHttpTransport;
+import org.springframework.social.facebook.api.impl.FacebookMeterRegistry;
 import org.springframework.social.oauth2.AccessGrant;
 import org.springframework.social.oauth2.OAuth2Template;
-import org.springframework.social.support.ClientHttpRequestFactorySelector;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
@@ -39,9 +41,20 @@ public class FacebookOAuth2Template extends OAuth2Template {
 		setUseParametersForClientAuthentication(true);
 	}
 
+	/**
+	 * Sets a {@link FacebookMeterRegistry} to report measurements of access token requests to.
+	 * Requests are tagged with the operation "oauth.accessGrant".
+	 * @param meterRegistry the meter registry, or null to stop measuring
+	 */
+	public void setMeterRegistry(FacebookMeterRegistry meterRegistry) {
+		getRestTemplate().setInterceptors(meterRegistry != null ? 
+				Collections.singletonList(FacebookHttpTransport.meteredRequestInterceptor(meterRegistry, "oauth.accessGrant")) : 
+				Collections.<ClientHttpRequestInterceptor>emptyList());
+	}
+
 	@Override
 	protected RestTemplate createRestTemplate() {
-		RestTemplate restTemplate = new RestTemplate(ClientHttpRequestFactorySelector.getRequestFactory());
+		RestTemplate restTemplate = new RestTemplate(FacebookHttpTransport.getSharedInstance().getRequestFactory());
 		FormHttpMessageConverter messageConverter = new FormHttpMessageConverter() {
 			public boolean canRead(Class<?> clazz, MediaType mediaType) {
 				// always read as x-www-url-formencoded even though Facebook sets contentType to text/plain				
@@ -16,17 +16,20 @@
 package org.springframework.social.facebook.connect;
 
 import org.springframework.social.facebook.api.Facebook;
-import org.springframework.social.facebook.api.impl.FacebookTemplate;
+import org.springframework.social.facebook.api.impl.FacebookEngine;
+import org.springframework.social.facebook.api.impl.FacebookHttpTransport;
 import org.springframework.social.oauth2.AbstractOAuth2ServiceProvider;
 
 /**
  * Facebook ServiceProvider implementation.
+ * API bindings are obtained from a single {@link FacebookEngine}, so that each binding shares the engine's
+ * JSON mapping, message converters, and request interceptors rather than building its own.
  * @author Keith Donald
  * @author Craig Walls
  */
 public class FacebookServiceProvider extends AbstractOAuth2ServiceProvider<Facebook> {
 
-	private String appNamespace;
+	private final FacebookEngine engine;
 
 	/**
 	 * Creates a FacebookServiceProvider for the given application ID, secret, and namespace.
@@ -36,11 +39,39 @@ public class FacebookServiceProvider extends AbstractOAuth2ServiceProvider<Faceb
 	 */
 	public FacebookServiceProvider(String appId, String appSecret, String appNamespace) {
 		super(new FacebookOAuth2Template(appId, appSecret));
-		this.appNamespace = appNamespace;
+		this.engine = new FacebookEngine(appNamespace, appId);
 	}
 
+	/**
+	 * Creates a FacebookServiceProvider for the given application ID, secret, and namespace that sends requests through the given transport.
+	 * The transport's connections are shared by the OAuth operations and by every API binding created by this service provider.
+	 * @param appId The application's App ID as assigned by Facebook 
+	 * @param appSecret The application's App Secret as assigned by Facebook
+	 * @param appNamespace The application's App Namespace as configured with Facebook. Enables use of Open Graph operations.
+	 * @param httpTransport the transport to send requests through.
+	 */
+	public FacebookServiceProvider(String appId, String appSecret, String appNamespace, FacebookHttpTransport httpTransport) {
+		super(new FacebookOAuth2Template(appId, appSecret));
+		this.engine = new FacebookEngine(appNamespace, appId, httpTransport);
+		((FacebookOAuth2Template) getOAuthOperations()).setRequestFactory(httpTransport.getRequestFactory());
+	}
+
+	/**
+	 * @return the engine that this service provider's API bindings are obtained from, through which they may be configured.
+	 */
+	public FacebookEngine getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Obtains a binding from this service provider's {@link FacebookEngine}.
+	 * The binding implements {@link Facebook}, but is not a {@link org.springframework.social.facebook.api.impl.FacebookTemplate}; 
+	 * it is configured (with a meter registry, response cache, and the like) through {@link #getEngine()} rather than by casting it.
+	 * @param accessToken the access token to bind to
+	 * @return a binding to Facebook's Graph API on behalf of the user that the access token was issued to
+	 */
 	public Facebook getApi(String accessToken) {
-		return new FacebookTemplate(accessToken, appNamespace);
+		return engine.getApi(accessToken);
 	}
 	
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.ResourceNotFoundException;
+import org.springframework.social.facebook.api.impl.AsyncFacebookTemplate;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * @author Craig Walls
+ */
+public class AsyncFacebookTemplateTest {
+
+	private AsyncFacebook facebook;
+
+	private MockRestServiceServer mockServer;
+
+	@Before
+	public void setup() {
+		RestTemplate mockTemplate = new RestTemplate();
+		mockServer = MockRestServiceServer.createServer(mockTemplate);
+		facebook = new AsyncFacebookTemplate("someAccessToken", new MockAsyncRequestFactory(mockTemplate));
+	}
+
+	@Test
+	public void getUserProfile() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me?fields=" + join(UserOperations.PROFILE_FIELDS)))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess(jsonResource("full-profile"), MediaType.APPLICATION_JSON));
+		FacebookProfile profile = facebook.userOperations().getUserProfile().get();
+		assertEquals("123456789", profile.getId());
+		assertEquals("Michael", profile.getFirstName());
+		assertEquals("Walls", profile.getLastName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void getUserPermissions() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/permissions"))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess(jsonResource("user-permissions"), MediaType.APPLICATION_JSON));
+		List<String> permissions = facebook.userOperations().getUserPermissions().get();
+		assertFalse(permissions.isEmpty());
+		assertTrue(permissions.contains("status_update"));
+	}
+
+	@Test
+	public void getFeed() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=25"))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess(jsonResource("feed"), MediaType.APPLICATION_JSON));
+		PagedList<Post> feed = facebook.feedOperations().getFeed().get();
+		assertEquals(5, feed.size());
+		assertEquals("100001387295207_160065090716400", feed.get(0).getId());
+		assertNotNull(feed.getNextPage());
+	}
+
+	@Test
+	public void getAlbum() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/10151447271460580"))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess(jsonResource("album"), MediaType.APPLICATION_JSON));
+		Album album = facebook.mediaOperations().getAlbum("10151447271460580").get();
+		assertEquals("10151447271460580", album.getId());
+	}
+
+	@Test
+	public void updateStatus() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed"))
+				.andExpect(method(POST))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andExpect(content().string("message=Hello+Facebook+World"))
+				.andRespond(withSuccess("{\"id\":\"123456_78901234\"}", MediaType.APPLICATION_JSON));
+		assertEquals("123456_78901234", facebook.feedOperations().updateStatus("Hello Facebook World").get());
+		mockServer.verify();
+	}
+
+	@Test
+	public void deletePost() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456_78901234"))
+				.andExpect(method(POST))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andExpect(content().string("method=delete"))
+				.andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+		assertNull(facebook.feedOperations().deletePost("123456_78901234").get());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_error() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/dummyalias"))
+				.andExpect(method(GET))
+				.andRespond(withStatus(HttpStatus.NOT_FOUND).body(jsonResource("error-404-unknown-alias")).contentType(MediaType.APPLICATION_JSON));
+		ListenableFuture<Post> future = facebook.feedOperations().getPost("dummyalias");
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		future.addCallback(new ListenableFutureCallback<Post>() {
+			public void onSuccess(Post result) {
+			}
+			public void onFailure(Throwable t) {
+				failure.set(t);
+			}
+		});
+		try {
+			future.get();
+			fail("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ResourceNotFoundException);
+		}
+		assertTrue(failure.get() instanceof ResourceNotFoundException);
+	}
+
+	private Resource jsonResource(String filename) {
+		return new ClassPathResource(filename + ".json", getClass());
+	}
+
+	private String join(String[] fields) {
+		StringBuilder builder = new StringBuilder(fields[0]);
+		for (int i = 1; i < fields.length; i++) {
+			builder.append("%2C").append(fields[i]);
+		}
+		return builder.toString();
+	}
+
+	/*
+	 * Adapts the mock server's synchronous requests to AsyncClientHttpRequestFactory, completing each request's future as it is executed.
+	 */
+	private static class MockAsyncRequestFactory implements AsyncClientHttpRequestFactory {
+
+		private final RestTemplate mockTemplate;
+
+		public MockAsyncRequestFactory(RestTemplate mockTemplate) {
+			this.mockTemplate = mockTemplate;
+		}
+
+		public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) throws IOException {
+			final ClientHttpRequest request = mockTemplate.getRequestFactory().createRequest(uri, httpMethod);
+			return new AsyncClientHttpRequest() {
+				public ListenableFuture<ClientHttpResponse> executeAsync() throws IOException {
+					ListenableFutureTask<ClientHttpResponse> task = new ListenableFutureTask<ClientHttpResponse>(new Callable<ClientHttpResponse>() {
+						public ClientHttpResponse call() throws Exception {
+							return request.execute();
+						}
+					});
+					task.run();
+					return task;
+				}
+				public OutputStream getBody() throws IOException {
+					return request.getBody();
+				}
+				public HttpHeaders getHeaders() {
+					return request.getHeaders();
+				}
+				public HttpMethod getMethod() {
+					return request.getMethod();
+				}
+				public URI getURI() {
+					return request.getURI();
+				}
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.social.ResourceNotFoundException;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * @author Craig Walls
+ */
+public class BatchRequestTemplateTest extends AbstractFacebookApiTest {
+
+	@Test
+	public void execute() throws Exception {
+		String expectedBatch = "[" +
+				"{\"method\":\"GET\",\"relative_url\":\"140804655931206?fields=id%2Cname%2Ccategory%2Clikes\"}," +
+				"{\"method\":\"GET\",\"relative_url\":\"dummyalias\"}," +
+				"{\"method\":\"GET\",\"relative_url\":\"me/friends?limit=2\"}," +
+				"{\"method\":\"POST\",\"relative_url\":\"me/feed\",\"body\":\"message=Hello+World%21\"}," +
+				"{\"method\":\"DELETE\",\"relative_url\":\"123456789_987654321\"}," +
+				"{\"method\":\"DELETE\",\"relative_url\":\"123456789/likes\"}]";
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andExpect(content().string("batch=" + URLEncoder.encode(expectedBatch, "UTF-8") + "&include_headers=false"))
+			.andRespond(withSuccess(jsonResource("batch-response"), MediaType.APPLICATION_JSON));
+
+		BatchRequest batch = facebook.newBatch();
+		BatchResult<Page> page = batch.fetchObject("140804655931206", Page.class, "id", "name", "category", "likes");
+		BatchResult<FacebookProfile> unknown = batch.fetchObject("dummyalias", FacebookProfile.class);
+		MultiValueMap<String, String> limit = new LinkedMultiValueMap<String, String>();
+		limit.set("limit", "2");
+		BatchResult<PagedList<Reference>> friends = batch.fetchConnections("me", "friends", Reference.class, limit);
+		MultiValueMap<String, Object> post = new LinkedMultiValueMap<String, Object>();
+		post.set("message", "Hello World!");
+		BatchResult<String> postId = batch.publish("me", "feed", post);
+		BatchResult<Void> deletedPost = batch.delete("123456789_987654321");
+		BatchResult<Void> unliked = batch.delete("123456789", "likes");
+		assertEquals(6, batch.size());
+		assertFalse(page.isDone());
+
+		batch.execute();
+		assertEquals(0, batch.size());
+		
+		assertTrue(page.isDone());
+		assertEquals("140804655931206", page.get().getId());
+		assertEquals("SpringSource", page.get().getName());
+		assertEquals("Organization", page.get().getCategory());
+		assertEquals(33, page.get().getLikes());
+
+		try {
+			unknown.get();
+			fail("Expected ResourceNotFoundException");
+		} catch (ResourceNotFoundException e) {
+			assertEquals("(#803) Some of the aliases you requested do not exist: dummyalias", e.getMessage());
+		}
+		
+		assertEquals(2, friends.get().size());
+		assertEquals("111111111", friends.get().get(0).getId());
+		assertEquals("Chloe O'Brian", friends.get().get(1).getName());
+		assertEquals("MjIyMjIyMjIy", friends.get().getNextPage().getAfter());
+		assertNull(friends.get().getPreviousPage());
+		
+		assertEquals("123456789_987654321", postId.get());
+		assertNull(deletedPost.get());
+		
+		try {
+			unliked.get();
+			fail("Expected UncategorizedApiException for an operation that Facebook did not execute");
+		} catch (UncategorizedApiException e) {
+		}
+		mockServer.verify();
+	}
+	
+	@Test
+	public void execute_splitIntoBatchesOfFifty() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess(batchOfTrue(50), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess(batchOfTrue(10), MediaType.APPLICATION_JSON));
+		BatchRequest batch = facebook.newBatch();
+		for (int i = 0; i < 60; i++) {
+			batch.delete("object" + i);
+		}
+		batch.execute();
+		mockServer.verify();
+	}
+	
+	@Test
+	public void execute_batchFails() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andRespond(withStatus(HttpStatus.UNAUTHORIZED).body(jsonResource("error-401-invalid-oauth-access-token")).contentType(MediaType.APPLICATION_JSON));
+		BatchRequest batch = facebook.newBatch();
+		BatchResult<Page> page = batch.fetchObject("140804655931206", Page.class);
+		try {
+			batch.execute();
+			fail("Expected the batch to fail");
+		} catch (RuntimeException e) {
+			try {
+				page.get();
+				fail("Expected the batched operation to fail");
+			} catch (RuntimeException operationFailure) {
+				assertSame(e, operationFailure);
+			}
+		}
+	}
+	
+	@Test
+	public void execute_firstOfSeveralBatchesFails() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andRespond(withStatus(HttpStatus.UNAUTHORIZED).body(jsonResource("error-401-invalid-oauth-access-token")).contentType(MediaType.APPLICATION_JSON));
+		BatchRequest batch = facebook.newBatch();
+		List<BatchResult<Void>> results = new ArrayList<BatchResult<Void>>();
+		for (int i = 0; i < 60; i++) {
+			results.add(batch.delete("object" + i));
+		}
+		try {
+			batch.execute();
+			fail("Expected the batch to fail");
+		} catch (RuntimeException e) {
+			for (BatchResult<Void> result : results) {
+				assertTrue(result.isDone());
+				try {
+					result.get();
+					fail("Expected the batched operation to fail");
+				} catch (RuntimeException operationFailure) {
+					assertSame(e, operationFailure);
+				}
+			}
+		}
+		assertEquals(0, batch.size());
+		mockServer.verify();
+	}
+
+	@Test
+	public void execute_missingOrUnknownStatusCode() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("[{\"body\":\"{\\\"id\\\":\\\"1\\\"}\"},{\"code\":599,\"body\":\"{\\\"message\\\":\\\"Gateway busy\\\"}\"}]", MediaType.APPLICATION_JSON));
+		BatchRequest batch = facebook.newBatch();
+		BatchResult<Page> noCode = batch.fetchObject("1", Page.class);
+		BatchResult<Page> unknownCode = batch.fetchObject("2", Page.class);
+		batch.execute();
+		try {
+			noCode.get();
+			fail("Expected UncategorizedApiException");
+		} catch (UncategorizedApiException e) {
+			assertTrue(e.getMessage().contains("status code 0"));
+		}
+		try {
+			unknownCode.get();
+			fail("Expected UncategorizedApiException");
+		} catch (UncategorizedApiException e) {
+			assertTrue(e.getMessage().contains("status code 599"));
+			assertTrue(e.getMessage().contains("Gateway busy"));
+		}
+		mockServer.verify();
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void get_notExecuted() {
+		facebook.newBatch().fetchObject("140804655931206", Page.class).get();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void publish_nonStringData() {
+		MultiValueMap<String, Object> data = new LinkedMultiValueMap<String, Object>();
+		data.set("source", jsonResource("organization-page"));
+		facebook.newBatch().publish("me", "photos", data);
+	}
+
+	private String batchOfTrue(int size) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			json.append(i > 0 ? "," : "").append("{\"code\":200,\"body\":\"true\"}");
+		}
+		return json.append("]").toString();
+	}
+
+}
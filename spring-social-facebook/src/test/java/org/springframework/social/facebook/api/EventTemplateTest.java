@@ -20,6 +20,7 @@ import static org.springframework.http.HttpMethod.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -139,6 +140,37 @@ public class EventTemplateTest extends AbstractFacebookApiTest {
 		assertSimpleEvent(event, Event.Privacy.OPEN);
 	}
 	
+
+	@Test
+	public void getEvent_withProjection() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/193482154020832?fields=id%2Cname%2Cupdated_time"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess("{\"id\":\"193482154020832\",\"name\":\"Breakdancing Class\",\"updated_time\":\"2011-03-30T20:40:18+0000\"}", MediaType.APPLICATION_JSON));
+		Event event = facebook.eventOperations().getEvent("193482154020832", EventOperations.MINIMAL_EVENT);
+		assertEquals("193482154020832", event.getId());
+		assertEquals("Breakdancing Class", event.getName());
+		assertEquals(toDate("2011-03-30T20:40:18+0000"), event.getUpdatedTime());
+		assertNull(event.getDescription());
+	}
+
+	@Test
+	public void getEvents() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=193482154020832%2C193482154020833&fields=id%2Ccover%2Cdescription%2Cend_time%2Cis_date_only%2Clocation%2Cname"
+				+ "%2Cowner%2Cparent_group%2Cprivacy%2Cstart_time%2Cticket_uri%2Ctimezone%2Cupdated_time%2Cvenue"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(jsonResource("events-by-id"), MediaType.APPLICATION_JSON));
+		List<Event> events = facebook.eventOperations().getEvents(Arrays.asList("193482154020832", "193482154020833"));
+		assertEquals(2, events.size());
+		assertEquals("193482154020832", events.get(0).getId());
+		assertEquals("Breakdancing Class", events.get(0).getName());
+		assertEquals(Event.Privacy.OPEN, events.get(0).getPrivacy());
+		assertEquals("193482154020833", events.get(1).getId());
+		assertEquals("Tap Dancing Class", events.get(1).getName());
+		assertEquals(Event.Privacy.SECRET, events.get(1).getPrivacy());
+	}
+	
 	@Test
 	public void getEvent_withFriendPrivacyLevel() {
 		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/193482154020832?fields=id%2Ccover%2Cdescription%2Cend_time%2Cis_date_only%2Clocation%2Cname"
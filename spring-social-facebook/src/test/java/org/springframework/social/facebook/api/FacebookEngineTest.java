@@ -0,0 +1,134 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.social.NotAuthorizedException;
+import org.springframework.social.facebook.api.impl.FacebookEngine;
+import org.springframework.social.facebook.api.impl.InMemoryGraphApiResponseCache;
+import org.springframework.social.facebook.connect.FacebookConnectionFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+public class FacebookEngineTest extends AbstractFacebookApiTest {
+
+	private FacebookEngine engine;
+
+	private MockRestServiceServer engineMockServer;
+
+	@Before
+	public void setupEngine() {
+		RestTemplate mockTemplate = new RestTemplate();
+		engineMockServer = MockRestServiceServer.createServer(mockTemplate);
+		engine = new FacebookEngine("APP_NAMESPACE", "APP_ID");
+		engine.setRequestFactory(mockTemplate.getRequestFactory());
+	}
+
+	@Test
+	public void getApi_bindingsSendTheirOwnAccessTokens() {
+		engineMockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		engineMockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth otherAccessToken"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		Facebook facebook = engine.getApi(ACCESS_TOKEN);
+		Facebook otherFacebook = engine.getApi("otherAccessToken");
+		assertEquals("Michael Craig Walls", facebook.fetchObject("123456789", FacebookProfile.class, "id", "name").getName());
+		assertEquals("Michael Craig Walls", otherFacebook.fetchObject("123456789", FacebookProfile.class, "id", "name").getName());
+		engineMockServer.verify();
+	}
+
+	@Test
+	public void connectionFactoryExposesItsEngine() {
+		FacebookConnectionFactory connectionFactory = new FacebookConnectionFactory("APP_ID", "APP_SECRET", "APP_NAMESPACE");
+		FacebookEngine engine = connectionFactory.getEngine();
+		assertNotNull(engine);
+		assertSame(engine, connectionFactory.getEngine());
+		assertEquals("APP_NAMESPACE", engine.getApi(ACCESS_TOKEN).getApplicationNamespace());
+	}
+
+	@Test
+	public void getApi_operationsBindWithFacebookModule() {
+		engineMockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed"))
+			.andExpect(method(POST))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andExpect(content().string("message=Hello+Facebook+World"))
+			.andRespond(withSuccess("{\"id\":\"123456_78901234\"}", MediaType.APPLICATION_JSON));
+		Facebook facebook = engine.getApi(ACCESS_TOKEN);
+		assertTrue(facebook.isAuthorized());
+		assertEquals("APP_NAMESPACE", facebook.getApplicationNamespace());
+		assertEquals("123456_78901234", facebook.feedOperations().updateStatus("Hello Facebook World"));
+		engineMockServer.verify();
+	}
+
+	@Test
+	public void getApi_operationsCreatedOnceOnFirstUse() {
+		Facebook facebook = engine.getApi(ACCESS_TOKEN);
+		assertSame(facebook.feedOperations(), facebook.feedOperations());
+		assertSame(facebook.openGraphOperations(), facebook.openGraphOperations());
+		assertNotSame(facebook.feedOperations(), engine.getApi(ACCESS_TOKEN).feedOperations());
+	}
+
+	@Test(expected = NotAuthorizedException.class)
+	public void getApi_withoutAccessToken() {
+		Facebook facebook = engine.getApi(null);
+		assertFalse(facebook.isAuthorized());
+		facebook.userOperations().getUserProfile();
+	}
+
+	@Test
+	public void setResponseCache_cachedPerAccessToken() {
+		InMemoryGraphApiResponseCache cache = new InMemoryGraphApiResponseCache(10);
+		engine.setResponseCache(cache, 60000);
+		engineMockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		engineMockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(header("Authorization", "OAuth otherAccessToken"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		engine.getApi(ACCESS_TOKEN).fetchObject("123456789", FacebookProfile.class, "id", "name");
+		engine.getApi(ACCESS_TOKEN).fetchObject("123456789", FacebookProfile.class, "id", "name");
+		engine.getApi("otherAccessToken").fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(2, cache.size());
+		engineMockServer.verify();
+	}
+
+	@Test
+	public void setResponseCache_replacesPreviousCache() {
+		InMemoryGraphApiResponseCache firstCache = new InMemoryGraphApiResponseCache(10);
+		InMemoryGraphApiResponseCache secondCache = new InMemoryGraphApiResponseCache(10);
+		engine.setResponseCache(firstCache, 60000);
+		engine.setResponseCache(secondCache, 60000);
+		engineMockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		engine.getApi(ACCESS_TOKEN).fetchObject("123456789", FacebookProfile.class, "id", "name");
+		engine.getApi(ACCESS_TOKEN).fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(0, firstCache.size());
+		assertEquals(1, secondCache.size());
+		engineMockServer.verify();
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.social.facebook.api.impl.FacebookHttpTransport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * @author Craig Walls
+ */
+public class FacebookHttpTransportTest {
+
+	@Test
+	public void sharedInstance() {
+		assertSame(FacebookHttpTransport.getSharedInstance(), FacebookHttpTransport.getSharedInstance());
+		assertSame(FacebookHttpTransport.getSharedInstance().getRequestFactory(), FacebookHttpTransport.getSharedInstance().getRequestFactory());
+	}
+
+	@Test
+	public void getRequestFactory_pooledWhenHttpClientPresent() throws Exception {
+		FacebookHttpTransport transport = new FacebookHttpTransport();
+		transport.setMaxConnectionsPerRoute(10);
+		transport.setReadTimeout(1000);
+		try {
+			ClientHttpRequestFactory requestFactory = transport.getRequestFactory();
+			assertTrue(requestFactory instanceof HttpComponentsClientHttpRequestFactory);
+			assertSame(requestFactory, transport.getRequestFactory());
+		} finally {
+			transport.destroy();
+		}
+	}
+
+	@Test
+	public void getAsyncRequestFactory_sharedAndPooled() throws Exception {
+		FacebookHttpTransport transport = new FacebookHttpTransport();
+		transport.setMaxConnections(500);
+		transport.setMaxConnectionsPerRoute(500);
+		try {
+			AsyncClientHttpRequestFactory asyncRequestFactory = transport.getAsyncRequestFactory();
+			assertTrue(asyncRequestFactory instanceof HttpComponentsAsyncClientHttpRequestFactory);
+			assertSame(asyncRequestFactory, transport.getAsyncRequestFactory());
+			CloseableHttpAsyncClient asyncClient = ((HttpComponentsAsyncClientHttpRequestFactory) asyncRequestFactory).getHttpAsyncClient();
+			assertTrue(asyncClient.isRunning());
+			assertSame(((HttpComponentsClientHttpRequestFactory) transport.getRequestFactory()).getHttpClient(), 
+					((HttpComponentsAsyncClientHttpRequestFactory) asyncRequestFactory).getHttpClient());
+			transport.destroy();
+			assertFalse(asyncClient.isRunning());
+			assertNotSame(asyncRequestFactory, transport.getAsyncRequestFactory());
+		} finally {
+			transport.destroy();
+		}
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void settingsFixedOnceAsyncStarted() throws Exception {
+		FacebookHttpTransport transport = new FacebookHttpTransport();
+		try {
+			transport.getAsyncRequestFactory();
+			transport.setMaxConnectionsPerRoute(10);
+		} finally {
+			transport.destroy();
+		}
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void settingsFixedOnceStarted() throws Exception {
+		FacebookHttpTransport transport = new FacebookHttpTransport();
+		try {
+			transport.getRequestFactory();
+			transport.setMaxConnections(10);
+		} finally {
+			transport.destroy();
+		}
+	}
+
+	@Test
+	public void getRequestFactory_doesNotFollowRedirects() throws Exception {
+		final AtomicInteger cdnRequests = new AtomicInteger();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/me/picture", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				exchange.getResponseHeaders().set("Location", "http://localhost:" + exchange.getLocalAddress().getPort() + "/cdn/picture.jpg");
+				exchange.sendResponseHeaders(302, -1);
+				exchange.close();
+			}
+		});
+		server.createContext("/cdn", new HttpHandler() {
+			public void handle(HttpExchange exchange) throws IOException {
+				cdnRequests.incrementAndGet();
+				exchange.sendResponseHeaders(200, -1);
+				exchange.close();
+			}
+		});
+		server.start();
+		FacebookHttpTransport transport = new FacebookHttpTransport();
+		try {
+			URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/me/picture");
+			ClientHttpRequest request = transport.getRequestFactory().createRequest(uri, HttpMethod.GET);
+			request.getHeaders().set("Authorization", "OAuth someAccessToken");
+			ClientHttpResponse response = request.execute();
+			try {
+				assertEquals(HttpStatus.FOUND, response.getStatusCode());
+				assertEquals(URI.create("http://localhost:" + server.getAddress().getPort() + "/cdn/picture.jpg"), response.getHeaders().getLocation());
+			} finally {
+				response.close();
+			}
+			assertEquals(0, cdnRequests.get());
+		} finally {
+			transport.destroy();
+			server.stop(0);
+		}
+	}
+
+}
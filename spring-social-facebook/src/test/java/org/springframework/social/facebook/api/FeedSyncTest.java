@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.MediaType;
+
+public class FeedSyncTest extends AbstractFacebookApiTest {
+
+	private static final long JAN_3 = 1388707200L;
+
+	private static final long JAN_4 = 1388793600L;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void syncFeed_fetchesOnlyNewPosts() {
+		InMemoryFeedCheckpointStore checkpointStore = new InMemoryFeedCheckpointStore();
+		FeedSync feedSync = new FeedSync(facebook.feedOperations(), checkpointStore);
+		feedSync.setPageSize(2);
+
+		// first run reads the whole feed, the second only what was posted since, the third finds nothing new
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=2"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(posts("{\"id\":\"1_A\",\"created_time\":\"2014-01-03T00:00:00+0000\"},{\"id\":\"1_B\",\"created_time\":\"2014-01-02T00:00:00+0000\"}",
+					"https://graph.facebook.com/v2.2/me/feed?limit=2&until=1388620800"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=2&until=1388620800"))
+			.andRespond(withSuccess(posts("{\"id\":\"1_C\",\"created_time\":\"2014-01-01T00:00:00+0000\"}", null), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=2&since=" + JAN_3))
+			.andRespond(withSuccess(posts("{\"id\":\"1_D\",\"created_time\":\"2014-01-04T00:00:00+0000\"},{\"id\":\"1_A\",\"created_time\":\"2014-01-03T00:00:00+0000\"}",
+					"https://graph.facebook.com/v2.2/me/feed?limit=2&until=1388707200"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=2&since=" + JAN_3 + "&until=1388707200"))
+			.andRespond(withSuccess(posts("", null), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=2&since=" + JAN_4))
+			.andRespond(withSuccess(posts("{\"id\":\"1_D\",\"created_time\":\"2014-01-04T00:00:00+0000\"}", null), MediaType.APPLICATION_JSON));
+
+		assertEquals(Arrays.asList("1_A", "1_B", "1_C"), ids(feedSync.syncFeed("me")));
+		FeedCheckpoint checkpoint = checkpointStore.load("feed:me");
+		assertEquals(JAN_3, checkpoint.getSince());
+		assertEquals(Collections.singleton("1_A"), checkpoint.getLastSeenIds());
+
+		// the post already seen at the checkpoint's second is skipped
+		assertEquals(Arrays.asList("1_D"), ids(feedSync.syncFeed("me")));
+		assertEquals(JAN_4, checkpointStore.load("feed:me").getSince());
+
+		assertTrue(feedSync.syncFeed("me").isEmpty());
+		assertEquals(Collections.singleton("1_D"), checkpointStore.load("feed:me").getLastSeenIds());
+		mockServer.verify();
+	}
+
+	@Test
+	public void syncPosts_stopsAtOlderPosts() {
+		InMemoryFeedCheckpointStore checkpointStore = new InMemoryFeedCheckpointStore();
+		checkpointStore.save("posts:12345", new FeedCheckpoint(JAN_3, Collections.singleton("1_A")));
+		FeedSync feedSync = new FeedSync(facebook.feedOperations(), checkpointStore);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/12345/posts?limit=25&since=" + JAN_3))
+			.andRespond(withSuccess(posts("{\"id\":\"1_D\",\"created_time\":\"2014-01-04T00:00:00+0000\"},{\"id\":\"1_E\",\"created_time\":\"2014-01-03T00:00:00+0000\"},"
+					+ "{\"id\":\"1_B\",\"created_time\":\"2014-01-02T00:00:00+0000\"}", "https://graph.facebook.com/v2.2/12345/posts?limit=25&until=1388620800"), MediaType.APPLICATION_JSON));
+		assertEquals(Arrays.asList("1_D", "1_E"), ids(feedSync.syncPosts("12345")));
+		assertEquals(JAN_4, checkpointStore.load("posts:12345").getSince());
+		mockServer.verify();
+	}
+
+	@Test
+	public void syncHomeFeed_checkpointPerUser() {
+		InMemoryFeedCheckpointStore checkpointStore = new InMemoryFeedCheckpointStore();
+		checkpointStore.save("home:12345", new FeedCheckpoint(JAN_4, Collections.singleton("1_D")));
+		FeedSync feedSync = new FeedSync(facebook.feedOperations(), checkpointStore);
+		// another user's checkpoint doesn't keep this user's first run from fetching the whole feed
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/home?limit=25"))
+			.andRespond(withSuccess(posts("{\"id\":\"2_B\",\"created_time\":\"2014-01-03T00:00:00+0000\"},{\"id\":\"2_A\",\"created_time\":\"2014-01-02T00:00:00+0000\"}", null), MediaType.APPLICATION_JSON));
+		assertEquals(Arrays.asList("2_B", "2_A"), ids(feedSync.syncHomeFeed("67890")));
+		assertEquals(JAN_3, checkpointStore.load("home:67890").getSince());
+		assertEquals(JAN_4, checkpointStore.load("home:12345").getSince());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fileCheckpointStore() throws Exception {
+		File directory = new File(temporaryFolder.getRoot(), "checkpoints");
+		FileFeedCheckpointStore checkpointStore = new FileFeedCheckpointStore(directory);
+		assertNull(checkpointStore.load("feed:me"));
+		checkpointStore.save("feed:me", new FeedCheckpoint(JAN_3, new LinkedHashSet<String>(Arrays.asList("1_A", "1_B"))));
+		checkpointStore.save("feed:me", new FeedCheckpoint(JAN_4, Collections.singleton("1_D")));
+		checkpointStore.save("home:12345", new FeedCheckpoint(JAN_3, Collections.<String>emptySet()));
+
+		FileFeedCheckpointStore reopenedStore = new FileFeedCheckpointStore(directory);
+		FeedCheckpoint checkpoint = reopenedStore.load("feed:me");
+		assertEquals(JAN_4, checkpoint.getSince());
+		assertEquals(Collections.singleton("1_D"), checkpoint.getLastSeenIds());
+		assertTrue(reopenedStore.load("home:12345").getLastSeenIds().isEmpty());
+		assertEquals(2, directory.list().length);
+		reopenedStore.remove("feed:me");
+		assertNull(reopenedStore.load("feed:me"));
+	}
+
+	private String posts(String posts, String next) {
+		return "{\"data\":[" + posts + "]" + (next != null ? ",\"paging\":{\"next\":\"" + next + "\"}" : "") + "}";
+	}
+
+	private List<String> ids(List<Post> posts) {
+		List<String> ids = new ArrayList<String>();
+		for (Post post : posts) {
+			ids.add(post.getId());
+		}
+		return ids;
+	}
+
+}
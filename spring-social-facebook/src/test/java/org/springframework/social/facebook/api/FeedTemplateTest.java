@@ -83,6 +83,36 @@ public class FeedTemplateTest extends AbstractFacebookApiTest {
 		assertNull(feed.get(0).getApplication());
 	}
 
+	@Test
+	public void getFeed_pagingBeforeData() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=25"))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess("{\"paging\":{\"next\":\"https://graph.facebook.com/v2.2/me/feed?limit=25&until=1360384019\"}," +
+					"\"summary\":{\"total_count\":2},\"data\":[{\"id\":\"1_1\",\"type\":\"status\",\"message\":\"First\"},{\"id\":\"1_2\",\"message\":\"Second\"}]}", 
+					MediaType.APPLICATION_JSON));
+		PagedList<Post> feed = facebook.feedOperations().getFeed();
+		assertEquals(2, feed.size());
+		assertEquals("1_1", feed.get(0).getId());
+		assertEquals(PostType.STATUS, feed.get(0).getType());
+		assertEquals("First", feed.get(0).getMessage());
+		assertEquals("1_2", feed.get(1).getId());
+		assertEquals(PostType.UNKNOWN, feed.get(1).getType());
+		assertEquals(Long.valueOf(1360384019L), feed.getNextPage().getUntil());
+		assertNull(feed.getPreviousPage());
+		assertEquals(Integer.valueOf(2), feed.getTotalCount());
+	}
+
+	@Test
+	public void getFeed_legacyCount() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=25"))
+				.andExpect(method(GET))
+			.andRespond(withSuccess("{\"data\":[{\"id\":\"1_1\",\"message\":\"First\"}],\"count\":7}", MediaType.APPLICATION_JSON));
+		PagedList<Post> feed = facebook.feedOperations().getFeed();
+		assertEquals(1, feed.size());
+		assertEquals(Integer.valueOf(7), feed.getTotalCount());
+	}
+
 	@Test(expected = NotAuthorizedException.class)
 	public void getFeed_unauthorized() {
 		unauthorizedFacebook.feedOperations().getFeed();
@@ -245,6 +275,19 @@ public class FeedTemplateTest extends AbstractFacebookApiTest {
 		assertEquals("Art Names", feedEntry.getFrom().getName());
 	}
 
+	@Test
+	public void getFeedEntry_withProjection() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/100001387295207_123939024341978?fields=id%2Ccreated_time%2Cupdated_time"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess("{\"id\":\"100001387295207_123939024341978\",\"created_time\":\"2011-03-30T20:40:18+0000\",\"updated_time\":\"2011-03-31T20:40:18+0000\"}", MediaType.APPLICATION_JSON));
+		Post feedEntry = facebook.feedOperations().getPost("100001387295207_123939024341978", FeedOperations.MINIMAL_POST);
+		assertEquals("100001387295207_123939024341978", feedEntry.getId());
+		assertEquals(toDate("2011-03-30T20:40:18+0000"), feedEntry.getCreatedTime());
+		assertEquals(toDate("2011-03-31T20:40:18+0000"), feedEntry.getUpdatedTime());
+		assertNull(feedEntry.getMessage());
+	}
+
 	@Test(expected = NotAuthorizedException.class)
 	public void getFeedEntry_unauthorized() {
 		unauthorizedFacebook.feedOperations().getPost("12345");
@@ -131,6 +131,20 @@ public class FriendTemplateTest extends AbstractFacebookApiTest {
 		assertFriendProfiles(friends);
 	}
 
+
+	@Test
+	public void getFriendProfiles_withProjection() {
+		mockServer.expect(requestTo(GraphApi.GRAPH_API_URL + "me/friends?limit=10&fields=id%2Cname%2Cupdated_time"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess("{\"data\":[{\"id\":\"111111111\",\"name\":\"Roy Clarkson\"},{\"id\":\"222222222\",\"name\":\"Keith Donald\"}]}", MediaType.APPLICATION_JSON));
+		List<FacebookProfile> friends = facebook.friendOperations().getFriendProfiles("me", UserOperations.MINIMAL_PROFILE, new PagingParameters(10, null, null, null));
+		assertEquals(2, friends.size());
+		assertEquals("Roy Clarkson", friends.get(0).getName());
+		assertNull(friends.get(0).getFirstName());
+		assertEquals("222222222", friends.get(1).getId());
+	}
+
 	@Test(expected = NotAuthorizedException.class)
 	public void getFriendProfiles_unauthorized() {
 		unauthorizedFacebook.friendOperations().getFriendProfiles();
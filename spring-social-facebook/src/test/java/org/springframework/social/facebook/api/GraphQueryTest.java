@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+public class GraphQueryTest extends AbstractFacebookApiTest {
+
+	@Test
+	public void toFieldsParameter() {
+		GraphQuery query = GraphQuery.select("id", "message")
+				.expanding(GraphQuery.expand("comments").limit(50).fields("from", "message"))
+				.expanding(GraphQuery.expand("likes").summary(true));
+		assertEquals("id,message,comments.limit(50){from,message},likes.summary(true)", query.toFieldsParameter());
+	}
+
+	@Test
+	public void toFieldsParameter_nestedExpansions() {
+		GraphQuery query = GraphQuery.select("id")
+				.expanding(GraphQuery.expand("comments").fields("message").expanding(GraphQuery.expand("likes").limit(5)));
+		assertEquals("id,comments{message,likes.limit(5)}", query.toFieldsParameter());
+	}
+
+	@Test
+	public void toRequestParameters() {
+		GraphQuery query = GraphQuery.select("id").expanding(GraphQuery.expand("comments").limit(10)).limit(25);
+		assertEquals("id,comments.limit(10)", query.toRequestParameters().getFirst("fields"));
+		assertEquals("25", query.toRequestParameters().getFirst("limit"));
+		assertNull(query.toRequestParameters().getFirst("summary"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void expanding_requiresConnection() {
+		GraphQuery.select("id").expanding(GraphQuery.select("message"));
+	}
+
+	@Test
+	public void fetchConnections_bindsExpandedConnections() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?fields=id%2Cfrom%2Cmessage%2Ccreated_time%2Ccomments.limit%282%29%7Bfrom%2Cmessage%7D%2Clikes.summary%28true%29&limit=25"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(jsonResource("expanded-feed"), MediaType.APPLICATION_JSON));
+		GraphQuery query = GraphQuery.select("id", "from", "message", "created_time")
+				.expanding(GraphQuery.expand("comments").limit(2).fields("from", "message"))
+				.expanding(GraphQuery.expand("likes").summary(true))
+				.limit(25);
+		PagedList<Post> feed = facebook.fetchConnections("me", "feed", Post.class, query);
+		assertEquals(2, feed.size());
+		assertEquals(Long.valueOf(1301241533), feed.getNextPage().getUntil());
+
+		Post post = feed.get(0);
+		assertEquals("Hello world!", post.getMessage());
+		PagedList<Comment> comments = post.getComments();
+		assertEquals(2, comments.size());
+		assertEquals("Howdy!", comments.get(0).getMessage());
+		assertEquals("Roy Clarkson", comments.get(0).getFrom().getName());
+		assertEquals("Keith Donald", comments.get(1).getFrom().getName());
+		assertEquals(Integer.valueOf(2), comments.getNextPage().getLimit());
+		assertEquals("Mg==", comments.getNextPage().getAfter());
+		assertNull(comments.getPreviousPage());
+		assertNull(comments.getTotalCount());
+		PagedList<Reference> likes = post.getLikes();
+		assertEquals(1, likes.size());
+		assertEquals("1533260333", likes.get(0).getId());
+		assertEquals(Integer.valueOf(17), likes.getTotalCount());
+		assertNull(likes.getNextPage());
+
+		Post unlikedPost = feed.get(1);
+		assertNull(unlikedPost.getComments());
+		assertEquals(0, unlikedPost.getLikes().size());
+		assertEquals(Integer.valueOf(0), unlikedPost.getLikes().getTotalCount());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_bindsExpandedConnections() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/100001387295207_123939024341978?fields=id%2Clikes.summary%28true%29"))
+			.andExpect(method(GET))
+			.andRespond(withSuccess("{\"id\":\"100001387295207_123939024341978\",\"likes\":{\"data\":[],\"summary\":{\"total_count\":3}}}", MediaType.APPLICATION_JSON));
+		Post post = facebook.fetchObject("100001387295207_123939024341978", Post.class, GraphQuery.select("id").expanding(GraphQuery.expand("likes").summary(true)));
+		assertEquals(Integer.valueOf(3), post.getLikes().getTotalCount());
+		mockServer.verify();
+	}
+
+}
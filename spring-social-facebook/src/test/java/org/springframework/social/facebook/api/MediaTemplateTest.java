@@ -15,11 +15,15 @@
  */
 package org.springframework.social.facebook.api;
 
+import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 import static org.springframework.http.HttpMethod.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.List;
 
 import org.junit.Test;
@@ -28,6 +32,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.social.MissingAuthorizationException;
 import org.springframework.social.NotAuthorizedException;
+import org.springframework.social.ServerException;
 
 public class MediaTemplateTest extends AbstractFacebookApiTest {
 
@@ -300,6 +305,110 @@ public class MediaTemplateTest extends AbstractFacebookApiTest {
 		unauthorizedFacebook.mediaOperations().postVideo(null, "title", "description");
 	}
 
+	@Test
+	public void postVideoInChunks() throws Exception {
+		File video = createVideoFile("0123456789");
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andExpect(content().string(containsString("file_size")))
+			.andRespond(withSuccess("{\"upload_session_id\":\"777\",\"video_id\":\"12345\",\"start_offset\":\"0\",\"end_offset\":\"6\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andExpect(content().string(containsString("012345")))
+			.andRespond(withSuccess("{\"start_offset\":\"6\",\"end_offset\":\"10\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andExpect(content().string(containsString("6789")))
+			.andRespond(withSuccess("{\"start_offset\":\"10\",\"end_offset\":\"10\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andExpect(content().string(containsString("finish")))
+			.andExpect(content().string(containsString("description")))
+			.andRespond(withSuccess("{\"success\":true}", MediaType.APPLICATION_JSON));
+		String videoId = facebook.mediaOperations().postVideoInChunks(video, "title", "description");
+		assertEquals("12345", videoId);
+		mockServer.verify();
+	}
+
+	@Test
+	public void postVideoInChunks_retriesFailedChunk() throws Exception {
+		File video = createVideoFile("0123456789");
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("{\"upload_session_id\":\"777\",\"video_id\":\"12345\",\"start_offset\":\"0\",\"end_offset\":\"10\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andRespond(withServerError().body("{\"error\":{\"message\":\"An unexpected error has occurred. Please retry your request later.\",\"type\":\"OAuthException\",\"code\":2}}").contentType(MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andExpect(content().string(containsString("0123456789")))
+			.andRespond(withSuccess("{\"start_offset\":\"10\",\"end_offset\":\"10\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andExpect(content().string(containsString("finish")))
+			.andRespond(withSuccess("{\"success\":true}", MediaType.APPLICATION_JSON));
+		String videoId = facebook.mediaOperations().postVideoInChunks(video, null, null);
+		assertEquals("12345", videoId);
+		mockServer.verify();
+	}
+
+	@Test
+	public void postVideoInChunks_interruptedAndResumed() throws Exception {
+		File video = createVideoFile("0123456789");
+		String serverError = "{\"error\":{\"message\":\"An unexpected error has occurred. Please retry your request later.\",\"type\":\"OAuthException\",\"code\":2}}";
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("{\"upload_session_id\":\"777\",\"video_id\":\"12345\",\"start_offset\":\"0\",\"end_offset\":\"6\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(content().string(containsString("012345")))
+			.andRespond(withSuccess("{\"start_offset\":\"6\",\"end_offset\":\"10\"}", MediaType.APPLICATION_JSON));
+		for (int i = 0; i < 3; i++) {
+			mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+				.andExpect(content().string(containsString("6789")))
+				.andRespond(withServerError().body(serverError).contentType(MediaType.APPLICATION_JSON));
+		}
+		// resumed: no new session is started, and the transfer picks up at the chunk that failed
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(content().string(containsString("777")))
+			.andExpect(content().string(containsString("6789")))
+			.andRespond(withSuccess("{\"start_offset\":\"10\",\"end_offset\":\"10\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph-video.facebook.com/me/videos"))
+			.andExpect(content().string(containsString("finish")))
+			.andRespond(withSuccess("{\"success\":true}", MediaType.APPLICATION_JSON));
+		VideoUploadSession session = null;
+		try {
+			facebook.mediaOperations().postVideoInChunks(video, "title", null);
+			fail("Expected VideoUploadInterruptedException");
+		} catch (VideoUploadInterruptedException e) {
+			assertTrue(e.getCause() instanceof ServerException);
+			session = e.getSession();
+		}
+		assertEquals("777", session.getUploadSessionId());
+		assertEquals("12345", session.getVideoId());
+		assertEquals(6, session.getStartOffset());
+		assertEquals(10, session.getEndOffset());
+		assertEquals("12345", facebook.mediaOperations().postVideoInChunks(video, session, "title", null));
+		mockServer.verify();
+	}
+
+	@Test(expected = NotAuthorizedException.class)
+	public void postVideoInChunks_unauthorized() {
+		unauthorizedFacebook.mediaOperations().postVideoInChunks(null, "title", "description");
+	}
+
+	private File createVideoFile(String content) throws IOException {
+		File video = File.createTempFile("video", ".mov");
+		video.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(video);
+		try {
+			out.write(content.getBytes());
+		} finally {
+			out.close();
+		}
+		return video;
+	}
+
 	private Resource getUploadResource(final String filename, String content) {
 		Resource video = new ByteArrayResource(content.getBytes()) {
 			public String getFilename() throws IllegalStateException {
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.social.ResourceNotFoundException;
+import org.springframework.social.facebook.api.impl.InMemoryFacebookMeterRegistry;
+import org.springframework.social.facebook.api.impl.InMemoryFacebookMeterRegistry.Histogram;
+import org.springframework.social.facebook.api.impl.InMemoryFacebookMeterRegistry.OperationMeters;
+
+public class MetricsTest extends AbstractFacebookApiTest {
+
+	private InMemoryFacebookMeterRegistry meterRegistry;
+
+	@Before
+	public void setupMetrics() {
+		meterRegistry = new InMemoryFacebookMeterRegistry();
+		facebook.setMeterRegistry(meterRegistry);
+	}
+
+	@Test
+	public void operationsTaggedByName() throws Exception {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=25"))
+			.andExpect(method(GET))
+			.andRespond(withSuccess(jsonResource("feed"), MediaType.APPLICATION_JSON));
+		List<Post> feed = facebook.feedOperations().getFeed();
+		assertEquals(5, feed.size());
+		OperationMeters meters = meterRegistry.getMeters("feed.getFeed");
+		assertNotNull(meters);
+		assertEquals(Long.valueOf(1), meters.getOperationOutcomes().get("success"));
+		assertEquals(Long.valueOf(1), meters.getRequestOutcomes().get("200"));
+		assertEquals(1, meters.getRequestCount());
+		assertEquals(1, meters.getPages());
+		assertEquals(jsonResource("feed").contentLength(), meters.getResponseBytes());
+		assertEquals(0, meters.getRequestBytes());
+		assertEquals(1, meters.getDuration().getCount());
+		assertEquals(1, meters.getLatency().getCount());
+		assertEquals(1, meters.getProcessingTime().getCount());
+	}
+
+	@Test
+	public void failedOperationTaggedWithException() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/dummyalias/feed?limit=25"))
+			.andRespond(withStatus(HttpStatus.NOT_FOUND).body(jsonResource("error-404-unknown-alias")).contentType(MediaType.APPLICATION_JSON));
+		try {
+			facebook.feedOperations().getFeed("dummyalias");
+			fail("Expected ResourceNotFoundException");
+		} catch (ResourceNotFoundException e) {
+		}
+		OperationMeters meters = meterRegistry.getMeters("feed.getFeed");
+		assertEquals(Long.valueOf(1), meters.getOperationOutcomes().get(ResourceNotFoundException.class.getName()));
+		assertEquals(Long.valueOf(1), meters.getRequestOutcomes().get("404"));
+		assertTrue(meters.getResponseBytes() > 0);
+	}
+
+	@Test
+	public void publishMeasuresRequestBytes() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("{\"id\":\"123_456\"}", MediaType.APPLICATION_JSON));
+		facebook.feedOperations().updateStatus("Hello Facebook!");
+		OperationMeters meters = meterRegistry.getMeters("feed.updateStatus");
+		assertTrue(meters.getRequestBytes() > 0);
+		assertEquals("{\"id\":\"123_456\"}".length(), meters.getResponseBytes());
+		assertEquals(0, meters.getPages());
+	}
+
+	@Test
+	public void graphApiRequestsTaggedByEndpointFamily() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(1, meterRegistry.getMeters("graph GET /object").getRequestCount());
+		assertEquals(0, meterRegistry.getMeters("graph GET /object").getDuration().getCount());
+	}
+
+	@Test
+	public void notMeasuredByDefault() {
+		assertNull(unauthorizedFacebook.getMeterRegistry());
+		assertSame(meterRegistry, facebook.getMeterRegistry());
+		facebook.setMeterRegistry(null);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=25"))
+			.andRespond(withSuccess(jsonResource("feed"), MediaType.APPLICATION_JSON));
+		facebook.feedOperations().getFeed();
+		assertTrue(meterRegistry.getOperations().isEmpty());
+	}
+
+	@Test
+	public void histogramPercentiles() {
+		InMemoryFacebookMeterRegistry registry = new InMemoryFacebookMeterRegistry();
+		for (int i = 1; i <= 100; i++) {
+			registry.recordOperation("test.op", "success", i * 1000000L, 1, 0);
+		}
+		Histogram duration = registry.getMeters("test.op").getDuration();
+		assertEquals(100, duration.getCount());
+		assertEquals(100000000L, duration.getMax());
+		assertEquals(50500000L, duration.getMean());
+		long median = duration.getPercentile(50);
+		assertTrue(median >= 50000000L && median <= 100000000L);
+		assertEquals(100000000L, duration.getPercentile(100));
+	}
+
+}
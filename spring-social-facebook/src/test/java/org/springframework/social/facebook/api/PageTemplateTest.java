@@ -20,6 +20,7 @@ import static org.springframework.http.HttpMethod.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -59,6 +60,37 @@ public class PageTemplateTest extends AbstractFacebookApiTest {
 		assertEquals(19, page.getTalkingAboutCount());
 	}
 
+	@Test
+	public void getPages() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=21278871488%2C140804655931206"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess(jsonResource("pages-by-id"), MediaType.APPLICATION_JSON));
+
+		List<Page> pages = facebook.pageOperations().getPages(Arrays.asList("21278871488", "140804655931206"));
+		assertEquals(2, pages.size());
+		assertEquals("21278871488", pages.get(0).getId());
+		assertEquals("Mountain Dew", pages.get(0).getName());
+		assertEquals(5083988, pages.get(0).getLikes());
+		assertEquals("140804655931206", pages.get(1).getId());
+		assertEquals("SpringSource", pages.get(1).getName());
+		assertEquals("Organization", pages.get(1).getCategory());
+	}
+
+
+	@Test
+	public void getPage_withProjection() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/140804655931206?fields=id%2Cname%2Clink"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess("{\"id\":\"140804655931206\",\"name\":\"Museum of Science and Industry\",\"link\":\"https://www.facebook.com/msichicago\"}", MediaType.APPLICATION_JSON));
+		Page page = facebook.pageOperations().getPage("140804655931206", PageOperations.MINIMAL_PAGE);
+		assertEquals("140804655931206", page.getId());
+		assertEquals("Museum of Science and Industry", page.getName());
+		assertEquals("https://www.facebook.com/msichicago", page.getLink());
+		assertNull(page.getCategory());
+	}
+
 	@Test
 	@SuppressWarnings("deprecation")
 	public void getPage_product() {
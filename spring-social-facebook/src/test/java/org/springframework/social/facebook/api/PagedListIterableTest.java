@@ -0,0 +1,147 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.social.ResourceNotFoundException;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * @author Craig Walls
+ */
+public class PagedListIterableTest extends AbstractFacebookApiTest {
+
+	@Test
+	public void iterateConnections() {
+		expectPages();
+		List<String> names = new ArrayList<String>();
+		for (Reference friend : facebook.iterateConnections("me", "friends", Reference.class, pageSizeOfTwo())) {
+			names.add(friend.getName());
+		}
+		assertEquals(5, names.size());
+		assertEquals("Jack Bauer", names.get(0));
+		assertEquals("Chloe O'Brian", names.get(1));
+		assertEquals("Tony Almeida", names.get(2));
+		assertEquals("Bill Buchanan", names.get(3));
+		assertEquals("Michelle Dessler", names.get(4));
+		mockServer.verify();
+	}
+
+	@Test
+	public void iterateConnections_fetchesLazily() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(page("Jack Bauer", "Chloe O'Brian", "MjIy"), MediaType.APPLICATION_JSON));
+		Iterator<Reference> friends = facebook.iterateConnections("me", "friends", Reference.class, pageSizeOfTwo()).iterator();
+		assertEquals("Jack Bauer", friends.next().getName());
+		assertEquals("Chloe O'Brian", friends.next().getName());
+		mockServer.verify(); // second page not requested until needed
+	}
+
+	@Test
+	public void iterateConnections_withPrefetch() throws Exception {
+		expectPages();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			facebook.setPrefetchExecutor(executor);
+			Iterator<Reference> friends = facebook.iterateConnections("me", "friends", Reference.class, pageSizeOfTwo()).iterator();
+			int count = 0;
+			while (friends.hasNext()) {
+				assertNotNull(friends.next().getId());
+				count++;
+			}
+			assertEquals(5, count);
+			mockServer.verify();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void iterateConnections_emptyPageEndsIteration() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2"))
+			.andRespond(withSuccess("{\"data\":[],\"paging\":{\"next\":\"https://graph.facebook.com/v2.2/me/friends?limit=2&after=MjIy\"}}", MediaType.APPLICATION_JSON));
+		Iterator<Reference> friends = facebook.iterateConnections("me", "friends", Reference.class, pageSizeOfTwo()).iterator();
+		assertFalse(friends.hasNext());
+		try {
+			friends.next();
+			fail("Expected NoSuchElementException");
+		} catch (NoSuchElementException e) {
+		}
+	}
+
+	@Test(expected=ResourceNotFoundException.class)
+	public void iterateConnections_errorOnLaterPage() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2"))
+			.andRespond(withSuccess(page("Jack Bauer", "Chloe O'Brian", "MjIy"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2&after=MjIy"))
+			.andRespond(withStatus(HttpStatus.NOT_FOUND).body(jsonResource("error-404-unknown-alias")).contentType(MediaType.APPLICATION_JSON));
+		for (Reference friend : facebook.iterateConnections("me", "friends", Reference.class, pageSizeOfTwo())) {
+			assertNotNull(friend);
+		}
+	}
+	
+	private void expectPages() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(page("Jack Bauer", "Chloe O'Brian", "MjIy"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2&after=MjIy"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(page("Tony Almeida", "Bill Buchanan", "NDQ0"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/friends?limit=2&after=NDQ0"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(page("Michelle Dessler", null, null), MediaType.APPLICATION_JSON));
+	}
+	
+	private MultiValueMap<String, String> pageSizeOfTwo() {
+		MultiValueMap<String, String> parameters = new LinkedMultiValueMap<String, String>();
+		parameters.set("limit", "2");
+		return parameters;
+	}
+
+	private String page(String firstName, String secondName, String after) {
+		StringBuilder json = new StringBuilder("{\"data\":[");
+		json.append("{\"id\":\"").append(firstName.hashCode()).append("\",\"name\":\"").append(firstName).append("\"}");
+		if (secondName != null) {
+			json.append(",{\"id\":\"").append(secondName.hashCode()).append("\",\"name\":\"").append(secondName).append("\"}");
+		}
+		json.append("]");
+		if (after != null) {
+			json.append(",\"paging\":{\"cursors\":{\"after\":\"").append(after).append("\"},\"next\":\"https://graph.facebook.com/v2.2/me/friends?limit=2&after=").append(after).append("\"}");
+		}
+		return json.append("}").toString();
+	}
+
+}
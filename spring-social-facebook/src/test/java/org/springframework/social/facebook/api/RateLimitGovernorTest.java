@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.social.RateLimitExceededException;
+import org.springframework.social.facebook.api.impl.GraphApiRateLimitGovernor;
+
+public class RateLimitGovernorTest extends AbstractFacebookApiTest {
+
+	@Test
+	public void sharedGovernorByDefault() {
+		assertSame(GraphApiRateLimitGovernor.getSharedInstance(), facebook.getRateLimitGovernor());
+		assertSame(GraphApiRateLimitGovernor.getSharedInstance(), unauthorizedFacebook.getRateLimitGovernor());
+	}
+
+	@Test
+	public void recordsUsageHeaders() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		facebook.setRateLimitGovernor(governor);
+		HttpHeaders usageHeaders = new HttpHeaders();
+		usageHeaders.set("X-App-Usage", "{\"call_count\":28,\"total_time\":25,\"total_cputime\":42}");
+		usageHeaders.set("X-Page-Usage", "{\"call_count\":61,\"total_time\":12,\"total_cputime\":3}");
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON).headers(usageHeaders));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(42, governor.getUsage(GraphApiRateLimitGovernor.appScope("APP_ID")));
+		assertEquals(61, governor.getUsage(GraphApiRateLimitGovernor.tokenScope(ACCESS_TOKEN)));
+		Map<String, Integer> usageLevels = governor.getUsageLevels();
+		assertEquals(2, usageLevels.size());
+		assertEquals(0, governor.getDelay(GraphApiRateLimitGovernor.appScope("APP_ID"), GraphApiRateLimitGovernor.tokenScope(ACCESS_TOKEN)));
+	}
+
+	@Test
+	public void recordsPageAndBusinessUseCaseUsageTogether() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		facebook.setRateLimitGovernor(governor);
+		HttpHeaders usageHeaders = new HttpHeaders();
+		usageHeaders.set("X-Page-Usage", "{\"call_count\":95,\"total_time\":12,\"total_cputime\":3}");
+		usageHeaders.set("X-Business-Use-Case-Usage", "{\"112233\":[{\"type\":\"pages\",\"call_count\":20,\"total_cputime\":10,\"total_time\":7,\"estimated_time_to_regain_access\":2}]}");
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON).headers(usageHeaders));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		String tokenScope = GraphApiRateLimitGovernor.tokenScope(ACCESS_TOKEN);
+		// the page usage's percentage and the business use case usage's pause both survive
+		assertEquals(95, governor.getUsage(tokenScope));
+		long delay = governor.getDelay(tokenScope);
+		assertTrue(delay > 60000 && delay <= 120000);
+	}
+
+	@Test
+	public void recordsBusinessUseCaseUsage() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.recordUsage("token:abc", "{\"112233\":[{\"type\":\"pages\",\"call_count\":12,\"total_cputime\":80,\"total_time\":7,\"estimated_time_to_regain_access\":0}]}");
+		assertEquals(80, governor.getUsage("token:abc"));
+		governor.recordUsage("token:abc", "{\"112233\":[{\"type\":\"pages\",\"call_count\":100,\"total_cputime\":10,\"total_time\":7,\"estimated_time_to_regain_access\":2}]}");
+		long delay = governor.getDelay("token:abc");
+		assertTrue(delay > 60000 && delay <= 120000);
+	}
+
+	@Test
+	public void throttlesAboveThreshold() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.setThrottleThreshold(50);
+		governor.setMaxThrottleDelay(1000);
+		governor.recordUsage("app:APP_ID", 49, 0);
+		assertEquals(0, governor.getDelay("app:APP_ID"));
+		governor.recordUsage("app:APP_ID", 75, 0);
+		long halfwayDelay = governor.getDelay("app:APP_ID");
+		governor.recordUsage("app:APP_ID", 99, 0);
+		long nearLimitDelay = governor.getDelay("app:APP_ID");
+		assertTrue(halfwayDelay > 0);
+		assertTrue(nearLimitDelay > halfwayDelay);
+		assertTrue(nearLimitDelay <= 1000);
+	}
+
+	@Test
+	public void pausesAtLimit() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.setPauseDuration(30000);
+		governor.recordUsage("app:APP_ID", 100, 0);
+		long delay = governor.getDelay("app:APP_ID", "token:abc");
+		assertTrue(delay > 29000 && delay <= 30000);
+		assertEquals(0, governor.getDelay("token:abc"));
+	}
+
+	@Test
+	public void delaysRequestsAboveThreshold() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.setMaxThrottleDelay(200);
+		facebook.setRateLimitGovernor(governor);
+		governor.recordUsage(GraphApiRateLimitGovernor.tokenScope(ACCESS_TOKEN), 99, 0);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		long start = System.currentTimeMillis();
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertTrue(System.currentTimeMillis() - start >= 150);
+	}
+
+	@Test
+	public void failsFastPastMaxWait() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.setMaxWait(1000);
+		facebook.setRateLimitGovernor(governor);
+		governor.recordUsage(GraphApiRateLimitGovernor.tokenScope(ACCESS_TOKEN), "{\"112233\":[{\"type\":\"pages\",\"call_count\":100,\"total_cputime\":10,\"total_time\":7,\"estimated_time_to_regain_access\":30}]}");
+		long start = System.currentTimeMillis();
+		try {
+			facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+			fail("Expected RateLimitExceededException");
+		} catch (RateLimitExceededException e) {
+			assertEquals("facebook", e.getProviderId());
+		}
+		assertTrue(System.currentTimeMillis() - start < 1000);
+		mockServer.verify();
+	}
+
+	@Test
+	public void ignoresUnparseableUsage() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.recordUsage("app:APP_ID", "not json");
+		assertEquals(0, governor.getUsage("app:APP_ID"));
+		assertTrue(governor.getUsageLevels().isEmpty());
+	}
+
+}
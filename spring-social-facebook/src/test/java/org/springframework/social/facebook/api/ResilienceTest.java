@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import java.net.URI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.social.InsufficientPermissionException;
+import org.springframework.social.InternalServerErrorException;
+import org.springframework.social.ServerDownException;
+import org.springframework.social.facebook.api.impl.GraphApiCircuitBreaker;
+import org.springframework.social.facebook.api.impl.GraphApiCircuitBreaker.State;
+import org.springframework.social.facebook.api.impl.GraphApiRetryPolicy;
+import org.springframework.test.web.client.ResponseCreator;
+
+public class ResilienceTest extends AbstractFacebookApiTest {
+
+	private static final String SERVER_ERROR = "{\"error\":{\"message\":\"An unexpected error has occurred. Please retry your request later.\",\"type\":\"OAuthException\",\"code\":2}}";
+
+	private static final String TRANSIENT_ERROR = "{\"error\":{\"message\":\"Service temporarily unavailable\",\"type\":\"OAuthException\",\"is_transient\":true,\"code\":2}}";
+
+	private GraphApiCircuitBreaker circuitBreaker;
+
+	@Before
+	public void setupResilience() {
+		GraphApiRetryPolicy retryPolicy = new GraphApiRetryPolicy();
+		retryPolicy.setInitialBackoff(1);
+		retryPolicy.setMaxBackoff(5);
+		facebook.setRetryPolicy(retryPolicy);
+		circuitBreaker = new GraphApiCircuitBreaker();
+		circuitBreaker.setMinimumRequests(4);
+		facebook.setCircuitBreaker(circuitBreaker);
+	}
+
+	@Test
+	public void sharedCircuitBreakerByDefault() {
+		assertSame(GraphApiCircuitBreaker.getSharedInstance(), unauthorizedFacebook.getCircuitBreaker());
+	}
+
+	@Test
+	public void fetchObject_retriesServerError() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withServerError().body(SERVER_ERROR).contentType(MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		FacebookProfile profile = facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals("Michael Craig Walls", profile.getName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_retriesTransientErrorCode() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withBadRequest().body(TRANSIENT_ERROR).contentType(MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		FacebookProfile profile = facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals("Michael Craig Walls", profile.getName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_givesUpAfterMaxAttempts() {
+		for (int i = 0; i < GraphApiRetryPolicy.DEFAULT_MAX_ATTEMPTS; i++) {
+			mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+				.andRespond(withServerError().body(SERVER_ERROR).contentType(MediaType.APPLICATION_JSON));
+		}
+		try {
+			facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+			fail("Expected InternalServerErrorException");
+		} catch (InternalServerErrorException e) {
+			assertEquals("An unexpected error has occurred. Please retry your request later.", e.getMessage());
+		}
+		mockServer.verify();
+	}
+
+	@Test(expected = InsufficientPermissionException.class)
+	public void fetchObject_permissionErrorNotRetried() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withStatus(HttpStatus.FORBIDDEN).body(jsonResource("error-403-requires-extended-permission")).contentType(MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+	}
+
+	@Test
+	public void publish_notRetried() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed"))
+			.andExpect(method(POST))
+			.andRespond(withServerError().body(SERVER_ERROR).contentType(MediaType.APPLICATION_JSON));
+		try {
+			facebook.feedOperations().updateStatus("Hello");
+			fail("Expected InternalServerErrorException");
+		} catch (InternalServerErrorException e) {
+		}
+		mockServer.verify();
+	}
+
+	@Test
+	public void circuitOpensWhenFailuresSpike() {
+		GraphApiRetryPolicy noRetries = new GraphApiRetryPolicy();
+		noRetries.setMaxAttempts(1);
+		facebook.setRetryPolicy(noRetries);
+		for (int i = 0; i < 4; i++) {
+			mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed?limit=25"))
+				.andRespond(withServerError().body(SERVER_ERROR).contentType(MediaType.APPLICATION_JSON));
+		}
+		for (int i = 0; i < 4; i++) {
+			try {
+				facebook.feedOperations().getFeed();
+				fail("Expected InternalServerErrorException");
+			} catch (InternalServerErrorException e) {
+			}
+		}
+		assertEquals(State.OPEN, circuitBreaker.getState("/feed"));
+		assertEquals(State.CLOSED, circuitBreaker.getState("/object"));
+		try {
+			facebook.feedOperations().getFeed();
+			fail("Expected ServerDownException");
+		} catch (ServerDownException e) {
+		}
+		mockServer.verify();
+	}
+
+	@Test
+	public void circuitClosesAfterSuccessfulTrial() throws Exception {
+		circuitBreaker.setOpenDuration(10);
+		for (int i = 0; i < 4; i++) {
+			circuitBreaker.recordFailure("/object");
+		}
+		assertEquals(State.OPEN, circuitBreaker.getState("/object"));
+		Thread.sleep(20);
+		assertEquals(State.HALF_OPEN, circuitBreaker.getState("/object"));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(State.CLOSED, circuitBreaker.getState("/object"));
+	}
+
+	@Test
+	public void circuitReopensAfterFailedTrial() throws Exception {
+		circuitBreaker.setOpenDuration(10);
+		for (int i = 0; i < 4; i++) {
+			circuitBreaker.recordFailure("/object");
+		}
+		Thread.sleep(20);
+		assertTrue(circuitBreaker.allowRequest("/object"));
+		assertFalse(circuitBreaker.allowRequest("/object"));
+		circuitBreaker.recordFailure("/object");
+		assertEquals(State.OPEN, circuitBreaker.getState("/object"));
+	}
+
+	@Test
+	public void circuitReopensAfterTrialThrowsUnexpectedly() throws Exception {
+		circuitBreaker.setOpenDuration(10);
+		for (int i = 0; i < 4; i++) {
+			circuitBreaker.recordFailure("/object");
+		}
+		Thread.sleep(20);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(new ResponseCreator() {
+				public ClientHttpResponse createResponse(ClientHttpRequest request) {
+					throw new IllegalArgumentException("No matching constant for [599]");
+				}
+			});
+		try {
+			facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals(State.OPEN, circuitBreaker.getState("/object"));
+		Thread.sleep(20);
+		assertTrue(circuitBreaker.allowRequest("/object"));
+	}
+
+	@Test
+	public void endpointFamily() {
+		assertEquals("/feed", GraphApiCircuitBreaker.endpointFamily(URI.create("https://graph.facebook.com/v2.2/me/feed?limit=25")));
+		assertEquals("/object", GraphApiCircuitBreaker.endpointFamily(URI.create("https://graph.facebook.com/v2.2/123456789?fields=id")));
+		assertEquals("/object", GraphApiCircuitBreaker.endpointFamily(URI.create("https://graph.facebook.com/v2.2/?ids=1,2")));
+		assertEquals("graph-video.facebook.com", GraphApiCircuitBreaker.endpointFamily(URI.create("https://graph-video.facebook.com/me/videos")));
+	}
+
+	@Test
+	public void backoffIsBoundedAndJittered() {
+		GraphApiRetryPolicy retryPolicy = new GraphApiRetryPolicy();
+		retryPolicy.setInitialBackoff(100);
+		retryPolicy.setMaxBackoff(300);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(retryPolicy.getBackoff(1) <= 100);
+			assertTrue(retryPolicy.getBackoff(2) <= 200);
+			assertTrue(retryPolicy.getBackoff(10) <= 300);
+		}
+	}
+
+}
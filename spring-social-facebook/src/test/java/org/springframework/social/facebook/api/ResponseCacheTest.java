@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.social.facebook.api;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpMethod.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.social.facebook.api.impl.CachedGraphApiResponse;
+import org.springframework.social.facebook.api.impl.GraphApiRateLimitGovernor;
+import org.springframework.social.facebook.api.impl.InMemoryFacebookMeterRegistry;
+import org.springframework.social.facebook.api.impl.InMemoryGraphApiResponseCache;
+
+public class ResponseCacheTest extends AbstractFacebookApiTest {
+
+	@Test
+	public void fetchObject_servedFromCacheWhileFresh() {
+		facebook.setResponseCache(new InMemoryGraphApiResponseCache(10), 60000);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		FacebookProfile profile = facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		FacebookProfile cachedProfile = facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals("Michael Craig Walls", profile.getName());
+		assertEquals("Michael Craig Walls", cachedProfile.getName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void setResponseCache_replacesPreviousCache() {
+		InMemoryGraphApiResponseCache firstCache = new InMemoryGraphApiResponseCache(10);
+		InMemoryGraphApiResponseCache secondCache = new InMemoryGraphApiResponseCache(10);
+		facebook.setResponseCache(firstCache, 60000);
+		facebook.setResponseCache(secondCache, 60000);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(0, firstCache.size());
+		assertEquals(1, secondCache.size());
+		// without a cache, every read goes to Facebook
+		facebook.setResponseCache(null, 60000);
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_cacheHitIsNeitherDelayedNorMetered() {
+		GraphApiRateLimitGovernor governor = new GraphApiRateLimitGovernor();
+		governor.setMaxThrottleDelay(200);
+		facebook.setRateLimitGovernor(governor);
+		InMemoryFacebookMeterRegistry meterRegistry = new InMemoryFacebookMeterRegistry();
+		facebook.setMeterRegistry(meterRegistry);
+		facebook.setResponseCache(new InMemoryGraphApiResponseCache(10), 60000);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		governor.recordUsage(GraphApiRateLimitGovernor.tokenScope(ACCESS_TOKEN), 99, 0);
+		long start = System.currentTimeMillis();
+		assertEquals("Michael Craig Walls", facebook.fetchObject("123456789", FacebookProfile.class, "id", "name").getName());
+		assertTrue(System.currentTimeMillis() - start < 150);
+		assertEquals(1, meterRegistry.getMeters("graph GET /object").getRequestCount());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_differentFieldsAreCachedSeparately() {
+		facebook.setResponseCache(new InMemoryGraphApiResponseCache(10), 60000);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id"))
+			.andRespond(withSuccess("{\"id\":\"123456789\"}", MediaType.APPLICATION_JSON));
+		assertEquals("Michael Craig Walls", facebook.fetchObject("123456789", FacebookProfile.class, "id", "name").getName());
+		assertNull(facebook.fetchObject("123456789", FacebookProfile.class, "id").getName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_cacheIsNotSharedAcrossAccessTokens() {
+		InMemoryGraphApiResponseCache cache = new InMemoryGraphApiResponseCache(10);
+		facebook.setResponseCache(cache, 60000);
+		appFacebook.setResponseCache(cache, 60000);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		appFacebookMockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(header("Authorization", "OAuth " + APP_ACCESS_TOKEN))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		appFacebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals(2, cache.size());
+		mockServer.verify();
+		appFacebookMockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_revalidatesExpiredResponseWithETag() {
+		facebook.setResponseCache(new InMemoryGraphApiResponseCache(10), 0);
+		HttpHeaders responseHeaders = new HttpHeaders();
+		responseHeaders.set("ETag", "\"abc123\"");
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON).headers(responseHeaders));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andExpect(header("If-None-Match", "\"abc123\""))
+			.andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		FacebookProfile revalidatedProfile = facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals("Michael Craig Walls", revalidatedProfile.getName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void fetchObject_refetchesExpiredResponseWithoutETag() {
+		facebook.setResponseCache(new InMemoryGraphApiResponseCache(10), 0);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess(jsonResource("minimal-profile"), MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname"))
+			.andRespond(withSuccess("{\"id\":\"123456789\",\"name\":\"Craig Walls\"}", MediaType.APPLICATION_JSON));
+		facebook.fetchObject("123456789", FacebookProfile.class, "id", "name");
+		assertEquals("Craig Walls", facebook.fetchObject("123456789", FacebookProfile.class, "id", "name").getName());
+		mockServer.verify();
+	}
+
+	@Test
+	public void publish_notCached() {
+		facebook.setResponseCache(new InMemoryGraphApiResponseCache(10), 60000);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("{\"id\":\"123_456\"}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/feed"))
+			.andExpect(method(POST))
+			.andRespond(withSuccess("{\"id\":\"123_789\"}", MediaType.APPLICATION_JSON));
+		assertEquals("123_456", facebook.feedOperations().updateStatus("Hello"));
+		assertEquals("123_789", facebook.feedOperations().updateStatus("Hello"));
+		mockServer.verify();
+	}
+
+	@Test
+	public void inMemoryCache_evictsLeastRecentlyUsed() {
+		InMemoryGraphApiResponseCache cache = new InMemoryGraphApiResponseCache(2);
+		cache.put("a", new CachedGraphApiResponse(new byte[0], null, null, 0));
+		cache.put("b", new CachedGraphApiResponse(new byte[0], null, null, 0));
+		cache.get("a");
+		cache.put("c", new CachedGraphApiResponse(new byte[0], null, null, 0));
+		assertEquals(2, cache.size());
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+	}
+
+}
@@ -20,13 +20,26 @@ import static org.springframework.http.HttpMethod.*;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
 import org.junit.Test;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.social.NotAuthorizedException;
+import org.springframework.social.UncategorizedApiException;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.RestTemplate;
 
 /**
  * @author Craig Walls
@@ -118,6 +131,84 @@ public class UserTemplateTest extends AbstractFacebookApiTest {
 		assertBasicProfileData(profile, true);
 	}
 
+
+	@Test
+	public void getUserProfile_withProjection() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=id%2Cname%2Cupdated_time"))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess("{\"id\":\"123456789\",\"name\":\"Craig Walls\",\"updated_time\":\"2010-08-22T00:01:59+0000\"}", MediaType.APPLICATION_JSON));
+		FacebookProfile profile = facebook.userOperations().getUserProfile("123456789", UserOperations.MINIMAL_PROFILE);
+		assertEquals("123456789", profile.getId());
+		assertEquals("Craig Walls", profile.getName());
+		assertEquals(toDate("2010-08-22T00:01:59+0000"), profile.getUpdatedTime());
+		assertNull(profile.getEmail());
+	}
+
+	@Test
+	public void getUserProfiles_withExtendedProjection() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=123456789%2C987654321&fields=id%2Cname%2Cupdated_time%2Cemail"))
+				.andExpect(method(GET))
+				.andRespond(withSuccess("{\"123456789\":{\"id\":\"123456789\",\"email\":\"cwalls@vmware.com\"},\"987654321\":{\"id\":\"987654321\"}}", MediaType.APPLICATION_JSON));
+		List<FacebookProfile> profiles = facebook.userOperations().getUserProfiles(Arrays.asList("123456789", "987654321"), UserOperations.MINIMAL_PROFILE.and("email", "name"));
+		assertEquals(2, profiles.size());
+		assertEquals("cwalls@vmware.com", profiles.get(0).getEmail());
+		assertEquals("987654321", profiles.get(1).getId());
+	}
+
+	@Test
+	public void getUserProfiles() {
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=123456789%2C555555555%2C987654321&fields=" + PROFILE_FIELDS))
+				.andExpect(method(GET))
+				.andExpect(header("Authorization", "OAuth someAccessToken"))
+				.andRespond(withSuccess(jsonResource("user-profiles-by-id"), MediaType.APPLICATION_JSON));
+
+		List<FacebookProfile> profiles = facebook.userOperations().getUserProfiles(Arrays.asList("123456789", "555555555", "987654321"));
+		assertEquals(2, profiles.size());
+		assertBasicProfileData(profiles.get(0), true);
+		assertEquals("987654321", profiles.get(1).getId());
+		assertEquals("Roy Clarkson", profiles.get(1).getName());
+	}
+
+	@Test
+	public void getUserProfiles_moreThanFiftyIds() {
+		List<String> userIds = new ArrayList<String>();
+		StringBuilder firstIds = new StringBuilder();
+		for (int i = 0; i < 50; i++) {
+			userIds.add("1" + i);
+			firstIds.append(i > 0 ? "%2C" : "").append("1" + i);
+		}
+		userIds.add("123456789");
+		userIds.add("987654321");
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=" + firstIds + "&fields=" + PROFILE_FIELDS))
+				.andExpect(method(GET))
+				.andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=123456789%2C987654321&fields=" + PROFILE_FIELDS))
+				.andExpect(method(GET))
+				.andRespond(withSuccess(jsonResource("user-profiles-by-id"), MediaType.APPLICATION_JSON));
+
+		List<FacebookProfile> profiles = facebook.userOperations().getUserProfiles(userIds);
+		assertEquals(2, profiles.size());
+		assertEquals("123456789", profiles.get(0).getId());
+		assertEquals("987654321", profiles.get(1).getId());
+		mockServer.verify();
+	}
+
+	@Test
+	public void getUserProfiles_emptyResponse() {
+		HttpHeaders emptyBody = new HttpHeaders();
+		emptyBody.setContentLength(0);
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=123456789%2C987654321&fields=id%2Cname%2Cupdated_time"))
+				.andExpect(method(GET))
+				.andRespond(withSuccess().headers(emptyBody));
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/?ids=555555555&fields=id%2Cname%2Cupdated_time"))
+				.andExpect(method(GET))
+				.andRespond(withSuccess("{\"555555555\":null}", MediaType.APPLICATION_JSON));
+		assertTrue(facebook.userOperations().getUserProfiles(Arrays.asList("123456789", "987654321"), UserOperations.MINIMAL_PROFILE).isEmpty());
+		assertTrue(facebook.userOperations().getUserProfiles(Arrays.asList("555555555"), UserOperations.MINIMAL_PROFILE).isEmpty());
+		mockServer.verify();
+	}
+
 	@Test
 	public void getUserProfile_specificUserByUserId_noMiddleName() {
 		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/123456789?fields=" + PROFILE_FIELDS))
@@ -249,6 +340,57 @@ public class UserTemplateTest extends AbstractFacebookApiTest {
 		unauthorizedFacebook.userOperations().getUserProfileImage(ImageType.NORMAL);
 	}
 
+	@Test
+	public void getUserProfileImage_toOutputStream_followsRedirect() throws Exception {
+		// redirects away from the Graph API bypass the Graph API's RestTemplate, so both requests are mocked at the request factory
+		RestTemplate requestFactoryTemplate = new RestTemplate();
+		MockRestServiceServer requestFactoryServer = MockRestServiceServer.createServer(requestFactoryTemplate);
+		facebook.setRequestFactory(requestFactoryTemplate.getRequestFactory());
+		byte[] image = FileCopyUtils.copyToByteArray(new ClassPathResource("tinyrod.jpg", getClass()).getInputStream());
+		requestFactoryServer.expect(requestTo("https://graph.facebook.com/v2.2/1234567/picture?type=large"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withStatus(HttpStatus.FOUND).location(new URI("https://fbcdn-profile-a.akamaihd.net/1234567_n.jpg")));
+		requestFactoryServer.expect(requestTo("https://fbcdn-profile-a.akamaihd.net/1234567_n.jpg"))
+			.andExpect(method(GET))
+			.andExpect(new RequestMatcher() {
+				public void match(ClientHttpRequest request) {
+					assertFalse(request.getHeaders().containsKey("Authorization"));
+				}
+			})
+			.andRespond(withSuccess(image, MediaType.IMAGE_JPEG));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		facebook.userOperations().getUserProfileImage("1234567", ImageType.LARGE, out);
+		assertArrayEquals(image, out.toByteArray());
+		requestFactoryServer.verify();
+	}
+
+	@Test
+	public void fetchImage_toFile() throws Exception {
+		byte[] image = FileCopyUtils.copyToByteArray(new ClassPathResource("tinyrod.jpg", getClass()).getInputStream());
+		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/1234567/picture?type=normal"))
+			.andExpect(method(GET))
+			.andExpect(header("Authorization", "OAuth someAccessToken"))
+			.andRespond(withSuccess(image, MediaType.IMAGE_JPEG));
+		File file = File.createTempFile("tinyrod", ".jpg");
+		try {
+			facebook.fetchImage("1234567", "picture", ImageType.NORMAL, file);
+			assertArrayEquals(image, FileCopyUtils.copyToByteArray(file));
+		} finally {
+			file.delete();
+		}
+		mockServer.verify();
+	}
+
+	@Test(expected = UncategorizedApiException.class)
+	public void fetchImage_tooManyRedirects() throws Exception {
+		for (int i = 0; i < 7; i++) {
+			mockServer.expect(requestTo("https://graph.facebook.com/v2.2/1234567/picture?type=normal"))
+				.andRespond(withStatus(HttpStatus.FOUND).location(new URI("https://graph.facebook.com/v2.2/1234567/picture?type=normal")));
+		}
+		facebook.fetchImage("1234567", "picture", ImageType.NORMAL, new ByteArrayOutputStream());
+	}
+
 	@Test
 	public void getUserPermissions() {
 		mockServer.expect(requestTo("https://graph.facebook.com/v2.2/me/permissions"))